@@ -0,0 +1,47 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes the results as JSON, by default to
+ * <code>jmh-result.json</code>. Accepts the usual JMH command line options,
+ * e.g. a benchmark name pattern or <code>-rff</code> for another result file.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.resultFormat(ResultFormatType.JSON)
+				.build();
+		new Runner(options).run();
+	}
+
+}
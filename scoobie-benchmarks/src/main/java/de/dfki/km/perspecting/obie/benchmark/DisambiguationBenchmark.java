@@ -0,0 +1,113 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.transducer.EntityDisambiguation;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.AmbiguityResolver;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.AuthorityBasedResolver;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.DegreeBasedResolver;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.FlowBasedResolver;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.Hits2BasedResolver;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.HitsBasedResolver;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.HubBasedResolver;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.PageRankBasedResolver;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.RandomResolver;
+
+/**
+ * Measures {@link EntityDisambiguation} with each {@link AmbiguityResolver}.
+ * The classification based resolver is left out, as it needs types predicted
+ * by a trained entity classifier.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DisambiguationBenchmark {
+
+	@Param( { "random", "degree", "hits", "hits2", "pagerank", "hub",
+			"authority", "flow" })
+	public String resolver;
+
+	private EntityDisambiguation disambiguation;
+
+	@State(Scope.Thread)
+	public static class InstancesRecognized extends PreparedDocument {
+		@Setup(Level.Invocation)
+		public void setUp(SyntheticData data) throws Exception {
+			prepare(data, Stages.DISAMBIGUATION);
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		disambiguation = Stages.createDisambiguation(createResolver(resolver));
+	}
+
+	static AmbiguityResolver createResolver(String name) {
+		if (name.equals("random")) {
+			return new RandomResolver();
+		} else if (name.equals("degree")) {
+			return new DegreeBasedResolver();
+		} else if (name.equals("hits")) {
+			return new HitsBasedResolver();
+		} else if (name.equals("hits2")) {
+			return new Hits2BasedResolver();
+		} else if (name.equals("pagerank")) {
+			return new PageRankBasedResolver();
+		} else if (name.equals("hub")) {
+			return new HubBasedResolver();
+		} else if (name.equals("authority")) {
+			return new AuthorityBasedResolver();
+		} else if (name.equals("flow")) {
+			return new FlowBasedResolver();
+		}
+		throw new IllegalArgumentException("Unknown resolver: " + name);
+	}
+
+	@Benchmark
+	public Document entityDisambiguation(SyntheticData data,
+			InstancesRecognized state) throws Exception {
+		disambiguation.transduce(state.document, data.kb);
+		return state.document;
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.benchmark;
+
+import java.util.List;
+
+import de.dfki.km.perspecting.obie.connection.RemoteCursor;
+
+/**
+ * {@link RemoteCursor} implementation based on a list of rows held in memory.
+ * Column indexes start at 1, as in {@link java.sql.ResultSet}.
+ */
+public class ListCursor implements RemoteCursor {
+
+	private final List<Object[]> rows;
+	private int position = -1;
+
+	public ListCursor(List<Object[]> rows) {
+		this.rows = rows;
+	}
+
+	@Override
+	public void close() throws Exception {
+		position = rows.size();
+	}
+
+	@Override
+	public boolean next() throws Exception {
+		if (position < rows.size()) {
+			position++;
+		}
+		return position < rows.size();
+	}
+
+	@Override
+	public int getInt(int index) throws Exception {
+		return ((Number) rows.get(position)[index - 1]).intValue();
+	}
+
+	@Override
+	public double getDouble(int index) throws Exception {
+		return ((Number) rows.get(position)[index - 1]).doubleValue();
+	}
+
+	@Override
+	public String getString(int index) throws Exception {
+		return (String) rows.get(position)[index - 1];
+	}
+
+}
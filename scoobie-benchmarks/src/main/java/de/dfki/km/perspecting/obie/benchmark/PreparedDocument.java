@@ -0,0 +1,41 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.benchmark;
+
+import de.dfki.km.perspecting.obie.model.Document;
+
+/**
+ * Base of states that hold a document which already passed all stages before
+ * the benchmarked one. Subclasses prepare a fresh document before each
+ * invocation, since the transducers annotate the document in place.
+ */
+public abstract class PreparedDocument {
+
+	public Document document;
+
+	protected void prepare(SyntheticData data, int stage) throws Exception {
+		document = data.stages.prepare(data.text, stage);
+	}
+
+}
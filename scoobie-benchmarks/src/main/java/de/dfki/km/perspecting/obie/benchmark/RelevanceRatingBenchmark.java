@@ -0,0 +1,128 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.benchmark;
+
+import gnu.trove.TObjectIntHashMap;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.transducer.RelevanceRating;
+import de.dfki.km.perspecting.obie.transducer.model.DocumentFrequencyTable;
+import de.dfki.km.perspecting.obie.transducer.model.rating.AuthorityBasedRating;
+import de.dfki.km.perspecting.obie.transducer.model.rating.CapacityBasedRating;
+import de.dfki.km.perspecting.obie.transducer.model.rating.DegreeBasedRating;
+import de.dfki.km.perspecting.obie.transducer.model.rating.HubBasedRating;
+import de.dfki.km.perspecting.obie.transducer.model.rating.InverseDocumentFrequencyBasedRating;
+import de.dfki.km.perspecting.obie.transducer.model.rating.PageRankBasedRating;
+import de.dfki.km.perspecting.obie.transducer.model.rating.PositionBasedRating;
+import de.dfki.km.perspecting.obie.transducer.model.rating.RatingMetric;
+import de.dfki.km.perspecting.obie.transducer.model.rating.TermFrequencyBasedRating;
+
+/**
+ * Measures {@link RelevanceRating} with all rating metrics that need no
+ * external resources. The document frequencies for the
+ * {@link InverseDocumentFrequencyBasedRating} are counted on a generated
+ * corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RelevanceRatingBenchmark {
+
+	private static final int CORPUS_SIZE = 100;
+
+	private File dfFile;
+	private InverseDocumentFrequencyBasedRating idf;
+	private RelevanceRating rating;
+
+	@State(Scope.Thread)
+	public static class Disambiguated extends PreparedDocument {
+		@Setup(Level.Invocation)
+		public void setUp(SyntheticData data) throws Exception {
+			prepare(data, Stages.RELEVANCE_RATING);
+		}
+	}
+
+	@Setup
+	public void setUp(SyntheticData data) throws Exception {
+		SyntheticDocuments corpus = new SyntheticDocuments(data.kb);
+		TObjectIntHashMap<String> documentFrequencies = new TObjectIntHashMap<String>();
+		for (int i = 0; i < CORPUS_SIZE; i++) {
+			Document document = data.stages.prepare(corpus.generate(2000, i),
+					Stages.SENTENCE_SEGMENTATION);
+			Set<String> terms = new HashSet<String>();
+			for (Token token : document.getTokens()) {
+				terms.add(token.toString());
+			}
+			for (String term : terms) {
+				documentFrequencies.adjustOrPutValue(term, 1, 1);
+			}
+		}
+		dfFile = File.createTempFile("scoobie-benchmark", ".df");
+		DocumentFrequencyTable.write(dfFile, documentFrequencies, CORPUS_SIZE);
+		idf = new InverseDocumentFrequencyBasedRating(
+				new DocumentFrequencyTable(dfFile));
+
+		rating = new RelevanceRating(new RatingMetric[] {
+				new CapacityBasedRating(), new DegreeBasedRating(),
+				new HubBasedRating(), new AuthorityBasedRating(),
+				new PageRankBasedRating(), new PositionBasedRating(),
+				new TermFrequencyBasedRating(), idf }, new int[] { 0, 7 });
+	}
+
+	@TearDown
+	public void tearDown() {
+		idf.close();
+		dfFile.delete();
+	}
+
+	@Benchmark
+	public Document relevanceRating(SyntheticData data, Disambiguated state)
+			throws Exception {
+		rating.transduce(state.document, data.kb);
+		return state.document;
+	}
+
+}
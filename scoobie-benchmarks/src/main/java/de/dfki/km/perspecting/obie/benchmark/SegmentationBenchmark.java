@@ -0,0 +1,81 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dfki.km.perspecting.obie.model.Document;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SegmentationBenchmark {
+
+	@State(Scope.Thread)
+	public static class Created extends PreparedDocument {
+		@Setup(Level.Invocation)
+		public void setUp(SyntheticData data) throws Exception {
+			prepare(data, Stages.WORD_SEGMENTATION);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class WordSegmented extends PreparedDocument {
+		@Setup(Level.Invocation)
+		public void setUp(SyntheticData data) throws Exception {
+			prepare(data, Stages.SENTENCE_SEGMENTATION);
+		}
+	}
+
+	@Benchmark
+	public Document wordSegmenter(SyntheticData data, Created state)
+			throws Exception {
+		data.stages.getTransducer(Stages.WORD_SEGMENTATION).transduce(
+				state.document, data.kb);
+		return state.document;
+	}
+
+	@Benchmark
+	public Document sentenceSegmenter(SyntheticData data,
+			WordSegmented state) throws Exception {
+		data.stages.getTransducer(Stages.SENTENCE_SEGMENTATION).transduce(
+				state.document, data.kb);
+		return state.document;
+	}
+
+}
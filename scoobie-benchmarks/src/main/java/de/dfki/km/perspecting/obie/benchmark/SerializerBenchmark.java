@@ -0,0 +1,96 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.benchmark;
+
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dfki.km.perspecting.obie.model.RDFEdge;
+import de.dfki.km.perspecting.obie.postprocessor.RDFSerializer;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+
+/**
+ * Measures serializing the extraction results of a fully processed document
+ * with the {@link RDFSerializer}, in memory as TriG and streamed as N-Quads.
+ * The document carries no fact predictions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SerializerBenchmark {
+
+	@State(Scope.Thread)
+	public static class Rated extends PreparedDocument {
+
+		public RDFSerializer serializer = new RDFSerializer(
+				"http://example.org/document");
+
+		public RDFSerializer nquads = new RDFSerializer(
+				"http://example.org/document", RDFSerializer.Format.NQUADS);
+
+		@Setup
+		public void setUp(SyntheticData data) throws Exception {
+			prepare(data, Stages.RELEVANCE_RATING + 1);
+			document.setPredictionGraph(new DirectedSparseGraph<Integer, RDFEdge>());
+		}
+	}
+
+	@Benchmark
+	public Reader rdfSerializer(SyntheticData data, Rated state)
+			throws Exception {
+		return state.serializer.serialize(state.document, data.kb);
+	}
+
+	@Benchmark
+	public long nquadsWriter(SyntheticData data, Rated state) throws Exception {
+		final long[] bytes = new long[1];
+		state.nquads.write(state.document, data.kb, new OutputStream() {
+			@Override
+			public void write(int b) {
+				bytes[0]++;
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				bytes[0] += len;
+			}
+		});
+		return bytes[0];
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.benchmark;
+
+import java.net.URI;
+
+import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.FilterContext;
+import de.dfki.km.perspecting.obie.transducer.EntityDisambiguation;
+import de.dfki.km.perspecting.obie.transducer.InstanceRecognition;
+import de.dfki.km.perspecting.obie.transducer.RDFLiteralSpotting;
+import de.dfki.km.perspecting.obie.transducer.RelevanceRating;
+import de.dfki.km.perspecting.obie.transducer.SentenceSegmenter;
+import de.dfki.km.perspecting.obie.transducer.SuffixArrayBuilder;
+import de.dfki.km.perspecting.obie.transducer.WordSegmenter;
+import de.dfki.km.perspecting.obie.transducer.model.LiteralHashing;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.AmbiguityResolver;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.DegreeBasedResolver;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.RandomResolver;
+import de.dfki.km.perspecting.obie.transducer.model.rating.CapacityBasedRating;
+import de.dfki.km.perspecting.obie.transducer.model.rating.RatingMetric;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+import de.dfki.km.perspecting.obie.workflow.Transducer;
+
+/**
+ * The benchmarked pipeline stages in their order of execution. POS tagging and
+ * noun phrase chunking need trained models and are left out, so the suffix
+ * array is built over all tokens.
+ */
+public class Stages {
+
+	public static final int WORD_SEGMENTATION = 0;
+	public static final int SENTENCE_SEGMENTATION = 1;
+	public static final int SUFFIX_ARRAY = 2;
+	public static final int LITERAL_SPOTTING = 3;
+	public static final int INSTANCE_RECOGNITION = 4;
+	public static final int DISAMBIGUATION = 5;
+	public static final int RELEVANCE_RATING = 6;
+
+	public static final int MAX_SUFFIX_LENGTH = 100;
+
+	private final KnowledgeBase kb;
+	private final Transducer[] transducers;
+
+	public Stages(KnowledgeBase kb, LiteralHashing hashing) {
+		this.kb = kb;
+
+		SuffixArrayBuilder suffixArrayBuilder = new SuffixArrayBuilder(
+				MAX_SUFFIX_LENGTH, hashing);
+		suffixArrayBuilder.filterNounPhrases(false);
+
+		this.transducers = new Transducer[] {
+				new WordSegmenter(),
+				new SentenceSegmenter(),
+				suffixArrayBuilder,
+				new RDFLiteralSpotting(),
+				new InstanceRecognition(),
+				createDisambiguation(new DegreeBasedResolver()),
+				new RelevanceRating(
+						new RatingMetric[] { new CapacityBasedRating() }) };
+	}
+
+	/**
+	 * {@link EntityDisambiguation} skips the first resolver, so the given one
+	 * is put second.
+	 */
+	public static EntityDisambiguation createDisambiguation(
+			AmbiguityResolver resolver) {
+		return new EntityDisambiguation(new AmbiguityResolver[] {
+				new RandomResolver(), resolver });
+	}
+
+	public Transducer getTransducer(int stage) {
+		return transducers[stage];
+	}
+
+	public Document createDocument(String text) throws Exception {
+		Document document = new Document(text, new URI(
+				"http://example.org/document"), MediaType.TEXT, Language.EN);
+		document.setFilterContext(new FilterContext(kb.getUri(),
+				"http://example.org/document#predicted",
+				"http://example.org/document#recognized", kb, null));
+		return document;
+	}
+
+	/**
+	 * Creates a document and runs all stages before the given one.
+	 */
+	public Document prepare(String text, int stage) throws Exception {
+		Document document = createDocument(text);
+		for (int i = 0; i < stage; i++) {
+			transducers[i].transduce(document, kb);
+		}
+		return document;
+	}
+
+}
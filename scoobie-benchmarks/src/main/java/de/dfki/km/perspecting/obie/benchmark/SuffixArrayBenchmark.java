@@ -0,0 +1,101 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dfki.km.perspecting.obie.connection.RemoteCursor;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.TextPointer;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.transducer.model.LiteralHashing;
+import de.dfki.km.perspecting.obie.transducer.model.SuffixArray;
+
+/**
+ * Measures building a {@link SuffixArray} over all tokens of a document and
+ * comparing it with the sorted literal values of the knowledge base.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SuffixArrayBenchmark {
+
+	@State(Scope.Thread)
+	public static class Tokens {
+
+		public List<Token> tokens;
+		public LiteralHashing hashing = new LiteralHashing(4);
+		public SuffixArray suffixArray;
+		public List<Object[]> values = new ArrayList<Object[]>();
+
+		@Setup
+		public void setUp(SyntheticData data) throws Exception {
+			Document document = data.stages.prepare(data.text,
+					Stages.SUFFIX_ARRAY);
+			tokens = new ArrayList<Token>(document.getTokens());
+			Collections.sort(tokens);
+
+			suffixArray = new SuffixArray(tokens, data.kb, hashing,
+					Stages.MAX_SUFFIX_LENGTH);
+
+			RemoteCursor cursor = data.kb.getDatatypePropertyValues(
+					new int[0], suffixArray);
+			while (cursor.next()) {
+				values.add(new Object[] { cursor.getString(1),
+						cursor.getInt(2), cursor.getInt(3),
+						cursor.getDouble(4), cursor.getString(5) });
+			}
+			cursor.close();
+		}
+	}
+
+	@Benchmark
+	public SuffixArray create(SyntheticData data, Tokens state)
+			throws Exception {
+		return new SuffixArray(state.tokens, data.kb, state.hashing,
+				Stages.MAX_SUFFIX_LENGTH);
+	}
+
+	@Benchmark
+	public List<TextPointer> compare(Tokens state) throws Exception {
+		return state.suffixArray.compare(new ListCursor(state.values));
+	}
+
+}
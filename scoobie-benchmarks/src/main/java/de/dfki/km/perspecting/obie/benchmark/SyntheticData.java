@@ -0,0 +1,67 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.benchmark;
+
+import java.net.URI;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import de.dfki.km.perspecting.obie.transducer.model.LiteralHashing;
+
+/**
+ * Knowledge base and document text shared by all benchmarks of a trial.
+ */
+@State(Scope.Benchmark)
+public class SyntheticData {
+
+	/** Number of characters of the generated document. */
+	@Param( { "1000", "10000", "100000" })
+	public int length;
+
+	/** Number of persons in the knowledge base. */
+	@Param( { "5000" })
+	public int persons;
+
+	public SyntheticKnowledgeBase kb;
+	public Stages stages;
+	public String text;
+
+	@Setup
+	public void setUp() throws Exception {
+		// the transducers log on INFO level for every document
+		Logger.getLogger("").setLevel(Level.WARNING);
+
+		LiteralHashing hashing = new LiteralHashing(4);
+		kb = new SyntheticKnowledgeBase(new URI("http://example.org/kb"),
+				persons, hashing, 42);
+		stages = new Stages(kb, hashing);
+		text = new SyntheticDocuments(kb).generate(length, 4711);
+	}
+
+}
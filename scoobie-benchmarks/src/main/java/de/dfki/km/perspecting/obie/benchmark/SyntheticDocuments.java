@@ -0,0 +1,117 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.benchmark;
+
+import java.util.Random;
+
+/**
+ * Generates English plain text that mentions instances of a
+ * {@link SyntheticKnowledgeBase} together with related instances, mixed with
+ * sentences that mention none.
+ */
+public class SyntheticDocuments {
+
+	private static final String[] FILLER = { "the", "report", "said", "that",
+			"a", "meeting", "was", "held", "about", "new", "plans", "and",
+			"several", "projects", "were", "discussed", "during", "last",
+			"week", "with", "local", "partners", "in", "public" };
+
+	private final SyntheticKnowledgeBase kb;
+	private final int[] persons;
+	private final int[] organisations;
+
+	public SyntheticDocuments(SyntheticKnowledgeBase kb) {
+		this.kb = kb;
+		this.persons = kb.getInstances(SyntheticKnowledgeBase.PERSON);
+		this.organisations = kb
+				.getInstances(SyntheticKnowledgeBase.ORGANISATION);
+	}
+
+	/**
+	 * Generates a text of at least the given number of characters.
+	 * 
+	 * @param length
+	 *            minimal number of characters
+	 * @param seed
+	 *            seed of the random generator
+	 * @return the text
+	 */
+	public String generate(int length, long seed) {
+		Random random = new Random(seed);
+		StringBuilder b = new StringBuilder(length + 200);
+
+		while (b.length() < length) {
+			if (b.length() > 0) {
+				b.append(random.nextInt(8) == 0 ? "\n\n" : " ");
+			}
+			int person = persons[random.nextInt(persons.length)];
+			switch (random.nextInt(4)) {
+			case 0:
+				b.append(kb.getLabel(person));
+				b.append(" lives in ");
+				b.append(first(person, SyntheticKnowledgeBase.LIVES_IN));
+				b.append(" and works for ");
+				b.append(first(person, SyntheticKnowledgeBase.WORKS_FOR));
+				b.append('.');
+				break;
+			case 1:
+				b.append("Yesterday ");
+				b.append(kb.getLabel(person));
+				b.append(" met ");
+				b.append(first(person, SyntheticKnowledgeBase.KNOWS));
+				b.append(" in ");
+				b.append(first(person, SyntheticKnowledgeBase.LIVES_IN));
+				b.append('.');
+				break;
+			case 2:
+				int organisation = organisations[random
+						.nextInt(organisations.length)];
+				b.append("The offices of ");
+				b.append(kb.getLabel(organisation));
+				b.append(" are located in ");
+				b.append(first(organisation,
+						SyntheticKnowledgeBase.LOCATED_IN));
+				b.append('.');
+				break;
+			default:
+				int start = b.length();
+				int words = 6 + random.nextInt(10);
+				for (int i = 0; i < words; i++) {
+					if (i > 0) {
+						b.append(' ');
+					}
+					b.append(FILLER[random.nextInt(FILLER.length)]);
+				}
+				b.setCharAt(start, Character.toUpperCase(b.charAt(start)));
+				b.append('.');
+			}
+		}
+		return b.toString();
+	}
+
+	private String first(int subject, String property) {
+		return kb.getLabel(kb.getObjects(subject, property)[0]);
+	}
+
+}
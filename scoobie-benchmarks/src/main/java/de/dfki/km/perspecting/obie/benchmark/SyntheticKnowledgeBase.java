@@ -0,0 +1,569 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.benchmark;
+
+import gnu.trove.TIntArrayList;
+import gnu.trove.TIntDoubleHashMap;
+import gnu.trove.TIntHashSet;
+import gnu.trove.TIntObjectHashMap;
+import gnu.trove.TObjectIntHashMap;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
+
+import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.connection.RemoteCursor;
+import de.dfki.km.perspecting.obie.corpus.TextCorpus;
+import de.dfki.km.perspecting.obie.model.DoubleMatrix;
+import de.dfki.km.perspecting.obie.transducer.model.LiteralHashing;
+import de.dfki.km.perspecting.obie.transducer.model.SuffixArray;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+import de.dfki.km.perspecting.obie.workflow.Pipeline;
+
+/**
+ * A {@link KnowledgeBase} held in memory and generated from a random seed. It
+ * describes persons, cities and organisations with labels and links between
+ * them. Person labels are drawn from small name pools, so several persons
+ * share a label and need to be disambiguated.
+ * <p>
+ * Only the queries issued by the extraction pipeline up to the relevance
+ * rating are implemented. All preprocessing and statistics methods throw an
+ * {@link UnsupportedOperationException}.
+ */
+public class SyntheticKnowledgeBase implements KnowledgeBase {
+
+	public static final String ONTOLOGY = "http://example.org/ontology#";
+	public static final String INSTANCE = "http://example.org/instance#";
+
+	public static final String PERSON = ONTOLOGY + "Person";
+	public static final String CITY = ONTOLOGY + "City";
+	public static final String ORGANISATION = ONTOLOGY + "Organisation";
+
+	public static final String LIVES_IN = ONTOLOGY + "livesIn";
+	public static final String WORKS_FOR = ONTOLOGY + "worksFor";
+	public static final String LOCATED_IN = ONTOLOGY + "locatedIn";
+	public static final String KNOWS = ONTOLOGY + "knows";
+
+	private static final String[] SYLLABLES = { "ka", "ro", "mi", "len",
+			"dor", "sa", "bel", "tin", "gar", "vo", "ri", "and", "mar", "ul",
+			"fen", "est", "no", "lia", "ber", "tho" };
+
+	private static final String[] ORGANISATION_SUFFIXES = { "Group", "Labs",
+			"Industries", "Institute" };
+
+	private final URI uri;
+	private final LiteralHashing hashing;
+
+	private final List<String> uris = new ArrayList<String>();
+	private final TObjectIntHashMap<String> uriIndex = new TObjectIntHashMap<String>();
+
+	private final List<String> literals = new ArrayList<String>();
+	private final TObjectIntHashMap<String> literalIndex = new TObjectIntHashMap<String>();
+
+	/** literal index -> {subject, predicate} */
+	private final TIntObjectHashMap<List<int[]>> symbols = new TIntObjectHashMap<List<int[]>>();
+	/** subject index -> {predicate, object} */
+	private final TIntObjectHashMap<List<int[]>> outgoing = new TIntObjectHashMap<List<int[]>>();
+	/** object index -> {subject, predicate} */
+	private final TIntObjectHashMap<List<int[]>> incoming = new TIntObjectHashMap<List<int[]>>();
+
+	private final TIntObjectHashMap<TIntArrayList> instancesOfTypes = new TIntObjectHashMap<TIntArrayList>();
+	private final TIntObjectHashMap<String> labels = new TIntObjectHashMap<String>();
+
+	private int[] sortedLiterals;
+
+	private final int type;
+	private final int label;
+
+	/**
+	 * Generates a knowledge base with the given number of persons and one
+	 * city and one organisation per ten persons.
+	 * 
+	 * @param uri
+	 *            URI of the RDF graph
+	 * @param persons
+	 *            number of persons
+	 * @param hashing
+	 *            hashing of literal prefixes, must match the one used by the
+	 *            {@link SuffixArray}
+	 * @param seed
+	 *            seed of the random generator
+	 */
+	public SyntheticKnowledgeBase(URI uri, int persons, LiteralHashing hashing,
+			long seed) {
+		this.uri = uri;
+		this.hashing = hashing;
+
+		uris.add(null);
+		literals.add(null);
+
+		type = index(RDF.TYPE.toString());
+		label = index(RDFS.LABEL.toString());
+
+		Random random = new Random(seed);
+
+		String[] firstNames = names(random, 40);
+		String[] lastNames = names(random, 60);
+
+		int cities = Math.max(1, persons / 10);
+		int organisations = Math.max(1, persons / 10);
+
+		int[] c = new int[cities];
+		for (int i = 0; i < cities; i++) {
+			c[i] = instance(CITY, "city" + i, name(random));
+		}
+
+		int[] o = new int[organisations];
+		for (int i = 0; i < organisations; i++) {
+			o[i] = instance(ORGANISATION, "organisation" + i, name(random)
+					+ " "
+					+ ORGANISATION_SUFFIXES[random
+							.nextInt(ORGANISATION_SUFFIXES.length)]);
+			relate(o[i], LOCATED_IN, c[random.nextInt(cities)]);
+		}
+
+		int[] p = new int[persons];
+		for (int i = 0; i < persons; i++) {
+			p[i] = instance(PERSON, "person" + i,
+					firstNames[random.nextInt(firstNames.length)] + " "
+							+ lastNames[random.nextInt(lastNames.length)]);
+			relate(p[i], LIVES_IN, c[random.nextInt(cities)]);
+			relate(p[i], WORKS_FOR, o[random.nextInt(organisations)]);
+		}
+
+		for (int i = 0; i < persons; i++) {
+			for (int k = 0; k < 2; k++) {
+				relate(p[i], KNOWS, p[random.nextInt(persons)]);
+			}
+		}
+
+		sortLiterals();
+	}
+
+	private static String[] names(Random random, int count) {
+		String[] names = new String[count];
+		for (int i = 0; i < count; i++) {
+			names[i] = name(random);
+		}
+		return names;
+	}
+
+	private static String name(Random random) {
+		StringBuilder b = new StringBuilder();
+		int syllables = 2 + random.nextInt(2);
+		for (int i = 0; i < syllables; i++) {
+			b.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		b.setCharAt(0, Character.toUpperCase(b.charAt(0)));
+		return b.toString();
+	}
+
+	private int index(String uri) {
+		if (uriIndex.containsKey(uri)) {
+			return uriIndex.get(uri);
+		}
+		int index = uris.size();
+		uris.add(uri);
+		uriIndex.put(uri, index);
+		return index;
+	}
+
+	private int literal(String literal) {
+		if (literalIndex.containsKey(literal)) {
+			return literalIndex.get(literal);
+		}
+		int index = literals.size();
+		literals.add(literal);
+		literalIndex.put(literal, index);
+		return index;
+	}
+
+	private int instance(String type, String localName, String label) {
+		int subject = index(INSTANCE + localName);
+		int object = literal(label);
+
+		add(outgoing, subject, new int[] { this.type, index(type) });
+		add(incoming, index(type), new int[] { subject, this.type });
+		add(symbols, object, new int[] { subject, this.label });
+
+		TIntArrayList instances = instancesOfTypes.get(index(type));
+		if (instances == null) {
+			instances = new TIntArrayList();
+			instancesOfTypes.put(index(type), instances);
+		}
+		instances.add(subject);
+		labels.put(subject, label);
+
+		return subject;
+	}
+
+	private void relate(int subject, String predicate, int object) {
+		add(outgoing, subject, new int[] { index(predicate), object });
+		add(incoming, object, new int[] { subject, index(predicate) });
+	}
+
+	private static void add(TIntObjectHashMap<List<int[]>> map, int key,
+			int[] value) {
+		List<int[]> list = map.get(key);
+		if (list == null) {
+			list = new ArrayList<int[]>();
+			map.put(key, list);
+		}
+		list.add(value);
+	}
+
+	private void sortLiterals() {
+		Integer[] order = new Integer[literals.size() - 1];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i + 1;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return literals.get(a).toLowerCase(Locale.US).compareTo(
+						literals.get(b).toLowerCase(Locale.US));
+			}
+		});
+		sortedLiterals = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			sortedLiterals[i] = order[i];
+		}
+	}
+
+	/**
+	 * @return instances of the given RDF type.
+	 */
+	public int[] getInstances(String type) {
+		TIntArrayList instances = instancesOfTypes.get(uriIndex.get(type));
+		return instances == null ? new int[0] : instances.toNativeArray();
+	}
+
+	/**
+	 * @return the label of the given instance.
+	 */
+	public String getLabel(int instance) {
+		return labels.get(instance);
+	}
+
+	/**
+	 * @return objects linked to the subject with the given property.
+	 */
+	public int[] getObjects(int subject, String property) {
+		int predicate = uriIndex.get(property);
+		TIntArrayList objects = new TIntArrayList();
+		List<int[]> relations = outgoing.get(subject);
+		if (relations != null) {
+			for (int[] relation : relations) {
+				if (relation[0] == predicate) {
+					objects.add(relation[1]);
+				}
+			}
+		}
+		return objects.toNativeArray();
+	}
+
+	@Override
+	public RemoteCursor getDatatypePropertyValues(
+			int[] datatypePropertyFilter, SuffixArray suffixArray)
+			throws Exception {
+		TIntHashSet prefixes = new TIntHashSet(suffixArray
+				.getCommonPrefixStrings());
+		TIntHashSet filter = new TIntHashSet(datatypePropertyFilter);
+
+		List<Object[]> rows = new ArrayList<Object[]>();
+		for (int l : sortedLiterals) {
+			String literal = literals.get(l);
+			String lowerCase = literal.toLowerCase(Locale.US);
+			if (!prefixes.contains(hashing.hash(lowerCase))) {
+				continue;
+			}
+			TIntHashSet predicates = new TIntHashSet();
+			for (int[] symbol : symbols.get(l)) {
+				predicates.add(symbol[1]);
+			}
+			for (int predicate : predicates.toArray()) {
+				if (filter.isEmpty() || filter.contains(predicate)) {
+					rows.add(new Object[] { lowerCase, l, predicate, 1.0,
+							literal });
+				}
+			}
+		}
+		return new ListCursor(rows);
+	}
+
+	@Override
+	public RemoteCursor getInstanceCandidates(Map<Integer, Set<Integer>> symbols)
+			throws Exception {
+		List<Object[]> rows = new ArrayList<Object[]>();
+		for (Map.Entry<Integer, Set<Integer>> entry : symbols.entrySet()) {
+			List<int[]> subjects = this.symbols.get(entry.getKey());
+			if (subjects == null) {
+				continue;
+			}
+			for (int[] symbol : subjects) {
+				if (entry.getValue().contains(symbol[1])) {
+					rows.add(new Object[] { symbol[0], symbol[1],
+							entry.getKey(), uris.get(symbol[0]) });
+				}
+			}
+		}
+		return new ListCursor(rows);
+	}
+
+	@Override
+	public int getLiteralIndex(String literal) throws Exception {
+		return literalIndex.containsKey(literal) ? literalIndex.get(literal)
+				: -1;
+	}
+
+	@Override
+	public int getUriIndex(String uri) throws Exception {
+		return uriIndex.containsKey(uri) ? uriIndex.get(uri) : -1;
+	}
+
+	@Override
+	public String getURI(int index) throws Exception {
+		return index > 0 && index < uris.size() ? uris.get(index) : null;
+	}
+
+	@Override
+	public RemoteCursor getURIs(int[] indexes) throws Exception {
+		List<Object[]> rows = new ArrayList<Object[]>();
+		for (int index : indexes) {
+			String uri = getURI(index);
+			if (uri != null) {
+				rows.add(new Object[] { index, uri });
+			}
+		}
+		return new ListCursor(rows);
+	}
+
+	@Override
+	public String getLiteral(int index) throws Exception {
+		return index > 0 && index < literals.size() ? literals.get(index)
+				: null;
+	}
+
+	@Override
+	public RemoteCursor getOutgoingRelations(int[] instances) throws Exception {
+		List<Object[]> rows = new ArrayList<Object[]>();
+		for (int subject : instances) {
+			List<int[]> relations = outgoing.get(subject);
+			if (relations != null) {
+				for (int[] relation : relations) {
+					rows.add(new Object[] { subject, relation[0], relation[1] });
+				}
+			}
+		}
+		return new ListCursor(rows);
+	}
+
+	@Override
+	public RemoteCursor getIncomingRelations(int[] instances) throws Exception {
+		List<Object[]> rows = new ArrayList<Object[]>();
+		for (int object : instances) {
+			List<int[]> relations = incoming.get(object);
+			if (relations != null) {
+				for (int[] relation : relations) {
+					rows.add(new Object[] { relation[0], relation[1], object });
+				}
+			}
+		}
+		Collections.sort(rows, new Comparator<Object[]>() {
+			@Override
+			public int compare(Object[] a, Object[] b) {
+				return ((Integer) a[0]).compareTo((Integer) b[0]);
+			}
+		});
+		return new ListCursor(rows);
+	}
+
+	@Override
+	public RemoteCursor getRDFTypesForInstances(int[] subjects)
+			throws Exception {
+		List<Object[]> rows = new ArrayList<Object[]>();
+		for (int subject : subjects) {
+			List<int[]> relations = outgoing.get(subject);
+			if (relations != null) {
+				for (int[] relation : relations) {
+					if (relation[0] == type) {
+						rows.add(new Object[] { subject, relation[1] });
+					}
+				}
+			}
+		}
+		return new ListCursor(rows);
+	}
+
+	@Override
+	public RemoteCursor dbSort(List<String> list, int maxStringLength)
+			throws Exception {
+		if (list.isEmpty()) {
+			return null;
+		}
+		List<String> sorted = new ArrayList<String>(list.size());
+		for (String s : list) {
+			sorted.add(s.length() > maxStringLength ? s.substring(0,
+					maxStringLength) : s);
+		}
+		Collections.sort(sorted);
+
+		List<Object[]> rows = new ArrayList<Object[]>(sorted.size());
+		for (String s : sorted) {
+			rows.add(new Object[] { s });
+		}
+		return new ListCursor(rows);
+	}
+
+	@Override
+	public URI getUri() {
+		return uri;
+	}
+
+	@Override
+	public int[] getClusters() throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public int getCluster(int[] types) throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public RemoteCursor getRDFTypes() throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public RemoteCursor getInstancesOfTypes(int type, int limit)
+			throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Collection<int[]> getConnectingClusters(int objectProperty,
+			double threshold) throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public int getPropertyType(int property) throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public int[] getDatatypePropertyByClass(int cluster, double threshold)
+			throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void preprocessRdfData(InputStream[] datasets,
+			MediaType rdfMimeType, MediaType fileMimeType,
+			String absoluteBaseURI, LiteralHashing hashing) throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void calculateCardinalities() throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public double getSubjectCardinality(int p) throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void calculateMarkovChain(int[] blackListedProperties,
+			int sampleCount) throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public List<double[]> getMaxMarkovProbability(int subject, int object,
+			int k) throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public double getMarkovProbability(int subject, int predicate, int object)
+			throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public TIntObjectHashMap<TIntObjectHashMap<double[]>> getCoverageAmbiguity()
+			throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void calculateProperNameStatistics(TextCorpus corpus, Pipeline pipe)
+			throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void clusterCorrelatingClasses(int samples, double biasThreshold,
+			double pruningThreshold) throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public DoubleMatrix getTypeCorrelations(int samples) throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void calculateRegexDistributions(String[] regexs) throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public TIntDoubleHashMap getDatatypePropertiesForRegex(String regex)
+			throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public String[] getRegexs() throws Exception {
+		throw new UnsupportedOperationException();
+	}
+
+}
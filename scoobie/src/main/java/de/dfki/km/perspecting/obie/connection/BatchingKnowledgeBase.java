@@ -0,0 +1,197 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package de.dfki.km.perspecting.obie.connection;
+
+import gnu.trove.TIntArrayList;
+import gnu.trove.TIntHashSet;
+import gnu.trove.TIntObjectHashMap;
+
+import de.dfki.km.perspecting.obie.workflow.Metrics;
+
+/**
+ * An {@link InstrumentedKnowledgeBase} that merges the URI lookups of
+ * concurrent threads. While one batch of indexes is queried, the indexes of
+ * all threads that arrive meanwhile are collected into the next batch, which
+ * is queried by one of them as soon as the running query returns. A single
+ * thread never waits for others, so batches only form under load.
+ * 
+ */
+public class BatchingKnowledgeBase extends InstrumentedKnowledgeBase {
+
+	private final Object lock = new Object();
+
+	/** Collects the indexes of the next query. */
+	private Batch pending = new Batch();
+
+	/** Whether a batch is being queried. */
+	private boolean running = false;
+
+	public BatchingKnowledgeBase(KnowledgeBase kb, Metrics metrics) {
+		super(kb, metrics);
+	}
+
+	private static class Batch {
+
+		final TIntHashSet indexes = new TIntHashSet();
+
+		boolean done;
+
+		TIntObjectHashMap<String> uris;
+
+		Exception error;
+	}
+
+	@Override
+	public String getURI(int index) throws Exception {
+		String uri = lookup(new int[] { index }).get(index);
+		if (uri == null) {
+			throw new Exception("URI with index: " + index + " is not indexed");
+		}
+		return uri;
+	}
+
+	@Override
+	public RemoteCursor getURIs(int[] indexes) throws Exception {
+		TIntObjectHashMap<String> uris = lookup(indexes);
+		TIntArrayList found = new TIntArrayList(indexes.length);
+		TIntHashSet seen = new TIntHashSet(indexes.length);
+		for (int index : indexes) {
+			if (uris.containsKey(index) && seen.add(index)) {
+				found.add(index);
+			}
+		}
+		return new UriCursor(found.toNativeArray(), uris);
+	}
+
+	/**
+	 * @return the URIs of a batch that contains at least
+	 *         <code>indexes</code>
+	 */
+	private TIntObjectHashMap<String> lookup(int[] indexes) throws Exception {
+		Batch batch;
+		synchronized (lock) {
+			batch = pending;
+			batch.indexes.addAll(indexes);
+			while (!batch.done) {
+				if (!running && batch == pending) {
+					running = true;
+					pending = new Batch();
+					break;
+				}
+				lock.wait();
+			}
+		}
+
+		if (!batch.done) {
+			query(batch);
+		}
+
+		if (batch.error != null) {
+			throw batch.error;
+		}
+		return batch.uris;
+	}
+
+	private void query(Batch batch) {
+		TIntObjectHashMap<String> uris = new TIntObjectHashMap<String>(
+				batch.indexes.size());
+		Exception error = null;
+		try {
+			RemoteCursor rs = super.getURIs(batch.indexes.toArray());
+			try {
+				while (rs.next()) {
+					uris.put(rs.getInt(1), rs.getString(2));
+				}
+			} finally {
+				rs.close();
+			}
+		} catch (Exception e) {
+			error = e;
+		}
+		synchronized (lock) {
+			batch.uris = uris;
+			batch.error = error;
+			batch.done = true;
+			running = false;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Rows of (index, uri) for the requested indexes. Values are converted
+	 * between the column types like a JDBC result set does.
+	 */
+	private static class UriCursor implements RemoteCursor {
+
+		private final int[] indexes;
+
+		private final TIntObjectHashMap<String> uris;
+
+		private int row = -1;
+
+		UriCursor(int[] indexes, TIntObjectHashMap<String> uris) {
+			this.indexes = indexes;
+			this.uris = uris;
+		}
+
+		@Override
+		public boolean next() {
+			return ++row < indexes.length;
+		}
+
+		@Override
+		public int getInt(int index) {
+			if (index == 1) {
+				return indexes[row];
+			}
+			return Integer.parseInt(getString(index));
+		}
+
+		@Override
+		public String getString(int index) {
+			switch (index) {
+			case 1:
+				return String.valueOf(indexes[row]);
+			case 2:
+				return uris.get(indexes[row]);
+			default:
+				throw new IndexOutOfBoundsException("no column " + index);
+			}
+		}
+
+		@Override
+		public double getDouble(int index) {
+			if (index == 1) {
+				return indexes[row];
+			}
+			return Double.parseDouble(getString(index));
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
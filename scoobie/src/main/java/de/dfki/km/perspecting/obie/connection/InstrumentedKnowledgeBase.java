@@ -0,0 +1,509 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.connection;
+
+import gnu.trove.TIntDoubleHashMap;
+import gnu.trove.TIntObjectHashMap;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.dfki.km.perspecting.obie.corpus.TextCorpus;
+import de.dfki.km.perspecting.obie.model.DoubleMatrix;
+import de.dfki.km.perspecting.obie.transducer.model.LiteralHashing;
+import de.dfki.km.perspecting.obie.transducer.model.SuffixArray;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+import de.dfki.km.perspecting.obie.workflow.Metrics;
+import de.dfki.km.perspecting.obie.workflow.OperationStatistics;
+import de.dfki.km.perspecting.obie.workflow.Pipeline;
+
+/**
+ * A {@link KnowledgeBase} decorator that records latency, error count and
+ * the number of fetched rows of every method of the wrapped knowledge base.
+ * 
+ */
+public class InstrumentedKnowledgeBase implements KnowledgeBase {
+
+	private static final String PREFIX = "KnowledgeBase.";
+
+	private final KnowledgeBase kb;
+
+	private final Metrics metrics;
+
+	public InstrumentedKnowledgeBase(KnowledgeBase kb, Metrics metrics) {
+		this.kb = kb;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @return the wrapped knowledge base
+	 */
+	public KnowledgeBase getKnowledgeBase() {
+		return kb;
+	}
+
+	private void end(String operation, long start) {
+		metrics.getStatistics(PREFIX + operation).record(
+				System.nanoTime() - start, -1);
+	}
+
+	private Exception failed(String operation, Exception e) {
+		metrics.getStatistics(PREFIX + operation).error();
+		return e;
+	}
+
+	private RemoteCursor cursor(String operation, RemoteCursor cursor) {
+		if (cursor == null)
+			return null;
+		return new CountingCursor(cursor, metrics.getStatistics(PREFIX
+				+ operation));
+	}
+
+	/**
+	 * Counts the rows fetched from a cursor.
+	 */
+	private static class CountingCursor implements RemoteCursor {
+
+		private final RemoteCursor cursor;
+		private final OperationStatistics stats;
+		private long rows = 0;
+
+		CountingCursor(RemoteCursor cursor, OperationStatistics stats) {
+			this.cursor = cursor;
+			this.stats = stats;
+		}
+
+		@Override
+		public void close() throws Exception {
+			stats.addRows(rows);
+			rows = 0;
+			cursor.close();
+		}
+
+		@Override
+		public boolean next() throws Exception {
+			boolean next = cursor.next();
+			if (next)
+				rows++;
+			return next;
+		}
+
+		@Override
+		public int getInt(int index) throws Exception {
+			return cursor.getInt(index);
+		}
+
+		@Override
+		public double getDouble(int index) throws Exception {
+			return cursor.getDouble(index);
+		}
+
+		@Override
+		public String getString(int index) throws Exception {
+			return cursor.getString(index);
+		}
+	}
+
+	@Override
+	public RemoteCursor getDatatypePropertyValues(int[] datatypePropertyFilter, SuffixArray suffixArray) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return cursor("getDatatypePropertyValues", kb.getDatatypePropertyValues(datatypePropertyFilter, suffixArray));
+		} catch (Exception e) {
+			throw failed("getDatatypePropertyValues", e);
+		} finally {
+			end("getDatatypePropertyValues", start);
+		}
+	}
+
+	@Override
+	public RemoteCursor getInstanceCandidates(Map<Integer, Set<Integer>> symbols) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return cursor("getInstanceCandidates", kb.getInstanceCandidates(symbols));
+		} catch (Exception e) {
+			throw failed("getInstanceCandidates", e);
+		} finally {
+			end("getInstanceCandidates", start);
+		}
+	}
+
+	@Override
+	public int getLiteralIndex(String literal) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getLiteralIndex(literal);
+		} catch (Exception e) {
+			throw failed("getLiteralIndex", e);
+		} finally {
+			end("getLiteralIndex", start);
+		}
+	}
+
+	@Override
+	public int getUriIndex(String uri) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getUriIndex(uri);
+		} catch (Exception e) {
+			throw failed("getUriIndex", e);
+		} finally {
+			end("getUriIndex", start);
+		}
+	}
+
+	@Override
+	public int[] getClusters() throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getClusters();
+		} catch (Exception e) {
+			throw failed("getClusters", e);
+		} finally {
+			end("getClusters", start);
+		}
+	}
+
+	@Override
+	public String getURI(int index) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getURI(index);
+		} catch (Exception e) {
+			throw failed("getURI", e);
+		} finally {
+			end("getURI", start);
+		}
+	}
+
+	@Override
+	public RemoteCursor getURIs(int[] indexes) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return cursor("getURIs", kb.getURIs(indexes));
+		} catch (Exception e) {
+			throw failed("getURIs", e);
+		} finally {
+			end("getURIs", start);
+		}
+	}
+
+	@Override
+	public String getLiteral(int index) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getLiteral(index);
+		} catch (Exception e) {
+			throw failed("getLiteral", e);
+		} finally {
+			end("getLiteral", start);
+		}
+	}
+
+	@Override
+	public RemoteCursor getOutgoingRelations(int[] instances) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return cursor("getOutgoingRelations", kb.getOutgoingRelations(instances));
+		} catch (Exception e) {
+			throw failed("getOutgoingRelations", e);
+		} finally {
+			end("getOutgoingRelations", start);
+		}
+	}
+
+	@Override
+	public int getCluster(int[] types) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getCluster(types);
+		} catch (Exception e) {
+			throw failed("getCluster", e);
+		} finally {
+			end("getCluster", start);
+		}
+	}
+
+	@Override
+	public RemoteCursor getIncomingRelations(int[] instances) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return cursor("getIncomingRelations", kb.getIncomingRelations(instances));
+		} catch (Exception e) {
+			throw failed("getIncomingRelations", e);
+		} finally {
+			end("getIncomingRelations", start);
+		}
+	}
+
+	@Override
+	public RemoteCursor getRDFTypesForInstances(int[] subjects) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return cursor("getRDFTypesForInstances", kb.getRDFTypesForInstances(subjects));
+		} catch (Exception e) {
+			throw failed("getRDFTypesForInstances", e);
+		} finally {
+			end("getRDFTypesForInstances", start);
+		}
+	}
+
+	@Override
+	public RemoteCursor getRDFTypes() throws Exception {
+		long start = System.nanoTime();
+		try {
+			return cursor("getRDFTypes", kb.getRDFTypes());
+		} catch (Exception e) {
+			throw failed("getRDFTypes", e);
+		} finally {
+			end("getRDFTypes", start);
+		}
+	}
+
+	@Override
+	public RemoteCursor dbSort(List<String> list, int maxStringLength) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return cursor("dbSort", kb.dbSort(list, maxStringLength));
+		} catch (Exception e) {
+			throw failed("dbSort", e);
+		} finally {
+			end("dbSort", start);
+		}
+	}
+
+	@Override
+	public RemoteCursor getInstancesOfTypes(int type, int limit) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return cursor("getInstancesOfTypes", kb.getInstancesOfTypes(type, limit));
+		} catch (Exception e) {
+			throw failed("getInstancesOfTypes", e);
+		} finally {
+			end("getInstancesOfTypes", start);
+		}
+	}
+
+	@Override
+	public Collection<int[]> getConnectingClusters(int objectProperty, double threshold) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getConnectingClusters(objectProperty, threshold);
+		} catch (Exception e) {
+			throw failed("getConnectingClusters", e);
+		} finally {
+			end("getConnectingClusters", start);
+		}
+	}
+
+	@Override
+	public int getPropertyType(int property) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getPropertyType(property);
+		} catch (Exception e) {
+			throw failed("getPropertyType", e);
+		} finally {
+			end("getPropertyType", start);
+		}
+	}
+
+	@Override
+	public int[] getDatatypePropertyByClass(int cluster, double threshold) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getDatatypePropertyByClass(cluster, threshold);
+		} catch (Exception e) {
+			throw failed("getDatatypePropertyByClass", e);
+		} finally {
+			end("getDatatypePropertyByClass", start);
+		}
+	}
+
+	@Override
+	public URI getUri() {
+		return kb.getUri();
+	}
+
+	@Override
+	public void preprocessRdfData(InputStream[] datasets, MediaType rdfMimeType, MediaType fileMimeType, String absoluteBaseURI, LiteralHashing hashing) throws Exception {
+		long start = System.nanoTime();
+		try {
+			kb.preprocessRdfData(datasets, rdfMimeType, fileMimeType, absoluteBaseURI, hashing);
+		} catch (Exception e) {
+			throw failed("preprocessRdfData", e);
+		} finally {
+			end("preprocessRdfData", start);
+		}
+	}
+
+	@Override
+	public void calculateCardinalities() throws Exception {
+		long start = System.nanoTime();
+		try {
+			kb.calculateCardinalities();
+		} catch (Exception e) {
+			throw failed("calculateCardinalities", e);
+		} finally {
+			end("calculateCardinalities", start);
+		}
+	}
+
+	@Override
+	public double getSubjectCardinality(int p) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getSubjectCardinality(p);
+		} catch (Exception e) {
+			throw failed("getSubjectCardinality", e);
+		} finally {
+			end("getSubjectCardinality", start);
+		}
+	}
+
+	@Override
+	public void calculateMarkovChain(int[] blackListedProperties, int sampleCount) throws Exception {
+		long start = System.nanoTime();
+		try {
+			kb.calculateMarkovChain(blackListedProperties, sampleCount);
+		} catch (Exception e) {
+			throw failed("calculateMarkovChain", e);
+		} finally {
+			end("calculateMarkovChain", start);
+		}
+	}
+
+	@Override
+	public List<double[]> getMaxMarkovProbability(int subject, int object, int k) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getMaxMarkovProbability(subject, object, k);
+		} catch (Exception e) {
+			throw failed("getMaxMarkovProbability", e);
+		} finally {
+			end("getMaxMarkovProbability", start);
+		}
+	}
+
+	@Override
+	public double getMarkovProbability(int subject, int predicate, int object) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getMarkovProbability(subject, predicate, object);
+		} catch (Exception e) {
+			throw failed("getMarkovProbability", e);
+		} finally {
+			end("getMarkovProbability", start);
+		}
+	}
+
+	@Override
+	public TIntObjectHashMap<TIntObjectHashMap<double[]>> getCoverageAmbiguity() throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getCoverageAmbiguity();
+		} catch (Exception e) {
+			throw failed("getCoverageAmbiguity", e);
+		} finally {
+			end("getCoverageAmbiguity", start);
+		}
+	}
+
+	@Override
+	public void calculateProperNameStatistics(TextCorpus corpus, Pipeline pipe) throws Exception {
+		long start = System.nanoTime();
+		try {
+			kb.calculateProperNameStatistics(corpus, pipe);
+		} catch (Exception e) {
+			throw failed("calculateProperNameStatistics", e);
+		} finally {
+			end("calculateProperNameStatistics", start);
+		}
+	}
+
+	@Override
+	public void clusterCorrelatingClasses(int samples, double biasThreshold, double pruningThreshold) throws Exception {
+		long start = System.nanoTime();
+		try {
+			kb.clusterCorrelatingClasses(samples, biasThreshold, pruningThreshold);
+		} catch (Exception e) {
+			throw failed("clusterCorrelatingClasses", e);
+		} finally {
+			end("clusterCorrelatingClasses", start);
+		}
+	}
+
+	@Override
+	public DoubleMatrix getTypeCorrelations(int samples) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getTypeCorrelations(samples);
+		} catch (Exception e) {
+			throw failed("getTypeCorrelations", e);
+		} finally {
+			end("getTypeCorrelations", start);
+		}
+	}
+
+	@Override
+	public void calculateRegexDistributions(String[] regexs) throws Exception {
+		long start = System.nanoTime();
+		try {
+			kb.calculateRegexDistributions(regexs);
+		} catch (Exception e) {
+			throw failed("calculateRegexDistributions", e);
+		} finally {
+			end("calculateRegexDistributions", start);
+		}
+	}
+
+	@Override
+	public TIntDoubleHashMap getDatatypePropertiesForRegex(String regex) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getDatatypePropertiesForRegex(regex);
+		} catch (Exception e) {
+			throw failed("getDatatypePropertiesForRegex", e);
+		} finally {
+			end("getDatatypePropertiesForRegex", start);
+		}
+	}
+
+	@Override
+	public String[] getRegexs() throws Exception {
+		long start = System.nanoTime();
+		try {
+			return kb.getRegexs();
+		} catch (Exception e) {
+			throw failed("getRegexs", e);
+		} finally {
+			end("getRegexs", start);
+		}
+	}
+
+}
@@ -106,6 +106,15 @@ public interface KnowledgeBase {
 	 */
 	String getURI(int index) throws Exception;
 
+	/**
+	 * Returns the URIs of many indexes in one query.
+	 * 
+	 * @param indexes
+	 *            indexes of URIs
+	 * @return rows of index and URI, unknown indexes are left out
+	 */
+	RemoteCursor getURIs(int[] indexes) throws Exception;
+
 	/**
 	 * Returns literal value of a passed literal index.
 	 * 
@@ -71,6 +71,11 @@ import de.dfki.km.perspecting.obie.transducer.model.SuffixArray;
 import de.dfki.km.perspecting.obie.vocabulary.MediaType;
 import de.dfki.km.perspecting.obie.workflow.Pipeline;
 
+/**
+ * A {@link KnowledgeBase} in a PostgreSQL database. Lookups may be shared by
+ * threads: those that reuse a cached prepared statement are synchronized,
+ * all others prepare their own statement on the shared connection.
+ */
 public class PostgresKB implements KnowledgeBase {
 
 	private static final Logger log = Logger.getLogger(PostgresKB.class
@@ -286,7 +291,7 @@ public class PostgresKB implements KnowledgeBase {
 	private PreparedStatement stmtGetLiteralIndex = null;
 
 	@Override
-	public int getLiteralIndex(String literal) throws Exception {
+	public synchronized int getLiteralIndex(String literal) throws Exception {
 		int result = -1;
 		final String sql = "SELECT index_literals.index FROM index_literals WHERE (index_literals.literal = ?)";
 
@@ -320,7 +325,7 @@ public class PostgresKB implements KnowledgeBase {
 	PreparedStatement stmtGetURI = null;
 
 	@Override
-	public String getURI(int index) throws Exception {
+	public synchronized String getURI(int index) throws Exception {
 		ResultSet rs = null;
 		String result = null;
 		String sql = "SELECT index_resources.uri FROM index_resources WHERE (index_resources.index = ?)";
@@ -347,10 +352,37 @@ public class PostgresKB implements KnowledgeBase {
 		}
 	}
 
+	@Override
+	public RemoteCursor getURIs(int[] indexes) throws Exception {
+
+		StringBuilder b = new StringBuilder();
+		for (int i : indexes) {
+			b.append(i);
+			b.append(',');
+		}
+
+		String condition = indexes.length == 0 ? "1 = 0"
+				: "index_resources.index IN ("
+						+ b.substring(0, b.length() - 1) + ")";
+		String sql = "SELECT index_resources.index, index_resources.uri FROM index_resources WHERE ("
+				+ condition + ")";
+		try {
+			PreparedStatement pstmt = connection.prepareStatement(sql);
+
+			ResultSet rs = executeQuery(pstmt, sql);
+
+			return new ResultSetCursor(rs);
+		} catch (Exception e) {
+			log.log(Level.SEVERE, "an error occurred in executing SQL query: "
+					+ sql, e);
+			throw e;
+		}
+	}
+
 	private PreparedStatement stmtGetLiteral = null;
 
 	@Override
-	public String getLiteral(int index) throws Exception {
+	public synchronized String getLiteral(int index) throws Exception {
 
 		String result = null;
 		final String sql = "SELECT index_literals.literal FROM index_literals WHERE (index_literals.index = ?)";
@@ -381,7 +413,7 @@ public class PostgresKB implements KnowledgeBase {
 	PreparedStatement stmtGetUriIndex = null;
 
 	@Override
-	public int getUriIndex(String uri) throws Exception {
+	public synchronized int getUriIndex(String uri) throws Exception {
 		ResultSet rs = null;
 		int result = -1;
 
@@ -659,8 +691,6 @@ public class PostgresKB implements KnowledgeBase {
 		}
 	}
 
-	PreparedStatement typePstmt = null;
-
 	@Override
 	public ResultSetCursor getInstancesOfTypes(int type, int count)
 			throws Exception {
@@ -672,11 +702,10 @@ public class PostgresKB implements KnowledgeBase {
 		String sql = "SELECT subject FROM relations WHERE (object = ? AND predicate = "
 				+ typeIndex + ") LIMIT " + count;
 		try {
-			if (typePstmt == null) {
-				typePstmt = connection.prepareStatement(sql);
-			}
-			typePstmt.setInt(1, type);
-			ResultSet rs = executeQuery(typePstmt, sql);
+			// the cursor outlives this call, so the statement is not shared
+			PreparedStatement pstmt = connection.prepareStatement(sql);
+			pstmt.setInt(1, type);
+			ResultSet rs = executeQuery(pstmt, sql);
 
 			return new ResultSetCursor(rs);
 		} catch (Exception e) {
@@ -742,7 +771,7 @@ public class PostgresKB implements KnowledgeBase {
 	private PreparedStatement getDatatypePropertyByClass = null;
 
 	@Override
-	public int[] getDatatypePropertyByClass(int cluster, double t)
+	public synchronized int[] getDatatypePropertyByClass(int cluster, double t)
 			throws Exception {
 
 		TIntHashSet properties = new TIntHashSet();
@@ -774,7 +803,7 @@ public class PostgresKB implements KnowledgeBase {
 	private PreparedStatement getConnectingClusters = null;
 
 	@Override
-	public Collection<int[]> getConnectingClusters(int objectProperty, double t)
+	public synchronized Collection<int[]> getConnectingClusters(int objectProperty, double t)
 			throws Exception {
 
 		ArrayList<int[]> clusters = new ArrayList<int[]>();
@@ -28,11 +28,11 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.net.URI;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.NoSuchElementException;
 
 import de.dfki.km.perspecting.obie.model.DocumentProcedure;
 import de.dfki.km.perspecting.obie.vocabulary.Language;
@@ -81,32 +81,79 @@ public class ConllCorpus extends LabeledTextCorpus {
 		return new TextCorpus(outputFolder, MediaType.DIRECTORY, MediaType.TEXT, Language.EN);
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Returns the documents of the CoNLL file, which are read one at a time.
+	 * Each document ends at the next <code>-DOCSTART-</code> line.
+	 */
 	@Override
-	public List<?> forEach(DocumentProcedure<?> p) throws Exception {
+	public CorpusIterator iterator() throws Exception {
 
-		BufferedReader reader = new BufferedReader(new FileReader(corpus));
-		StringBuffer buffer = new StringBuffer();
+		final BufferedReader reader = new BufferedReader(new FileReader(corpus));
 
-		List list = new ArrayList();
+		return new CorpusIterator() {
 
-		int count = 0;
+			private final StringBuffer buffer = new StringBuffer();
 
-		for (String line = reader.readLine(); line != null; line = reader
-				.readLine()) {
-			if (line.startsWith(DOCSTART_X_O_O)) {
-				count++;
-				if (buffer.length() > 0) {
-					list.add(p.process(new StringReader(buffer.toString()), new URI(this.corpus.toURI()+"#"+ count)));
+			private int count = 0;
+
+			private CorpusEntry next;
+
+			@Override
+			public boolean hasNext() {
+				if (next != null) {
+					return true;
+				}
+				try {
+					for (String line = reader.readLine(); line != null; line = reader
+							.readLine()) {
+						if (line.startsWith(DOCSTART_X_O_O)) {
+							count++;
+							if (buffer.length() > 0) {
+								next = createEntry(buffer.toString(), new URI(
+										corpus.toURI() + "#" + count));
+								buffer.setLength(0);
+								return true;
+							}
+							buffer.setLength(0);
+						} else {
+							buffer.append(line);
+							buffer.append(NEWLINE);
+						}
+					}
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+				return false;
+			}
+
+			@Override
+			public CorpusEntry next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
 				}
-				buffer.setLength(0);
-			} else {
-				buffer.append(line);
-				buffer.append(NEWLINE);
+				CorpusEntry entry = next;
+				next = null;
+				return entry;
 			}
-		}
-		reader.close();
 
-		return list;
+			@Override
+			public void close() throws IOException {
+				reader.close();
+			}
+		};
+	}
+
+	private static CorpusEntry createEntry(final String text, final URI uri) {
+		return new CorpusEntry() {
+			@Override
+			public URI getURI() {
+				return uri;
+			}
+
+			@Override
+			public Reader open() {
+				return new StringReader(text);
+			}
+		};
 	}
 }
@@ -0,0 +1,42 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.corpus;
+
+import java.net.URI;
+
+import de.dfki.km.perspecting.obie.model.DocumentProcedure;
+
+/**
+ * Receives the results of a {@link DocumentProcedure} one by one, as they are
+ * produced by {@link TextCorpus#parallelForEach(DocumentProcedure, int, ResultSink)}.
+ */
+public interface ResultSink<T> {
+
+	/**
+	 * Called on the thread that iterates the corpus, so implementations need
+	 * not be thread-safe.
+	 */
+	void put(URI uri, T result) throws Exception;
+
+}
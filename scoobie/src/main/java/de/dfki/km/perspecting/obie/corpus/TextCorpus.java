@@ -28,6 +28,7 @@ import gnu.trove.TIntDoubleHashMap;
 import gnu.trove.TIntHashSet;
 import gnu.trove.TIntIntHashMap;
 import gnu.trove.TIntIntProcedure;
+import gnu.trove.TObjectIntHashMap;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -46,14 +47,25 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.WhitespaceAnalyzer;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.TermVector;
@@ -67,6 +79,7 @@ import de.dfki.km.perspecting.obie.model.SemanticEntity;
 import de.dfki.km.perspecting.obie.model.Token;
 import de.dfki.km.perspecting.obie.model.TokenSequence;
 import de.dfki.km.perspecting.obie.transducer.RDFLiteralSpotting;
+import de.dfki.km.perspecting.obie.transducer.model.DocumentFrequencyTable;
 import de.dfki.km.perspecting.obie.vocabulary.Language;
 import de.dfki.km.perspecting.obie.vocabulary.MediaType;
 import de.dfki.km.perspecting.obie.workflow.Pipeline;
@@ -92,6 +105,8 @@ public class TextCorpus {
 
 	private static final String SPACE = " ";
 
+	private static final double INDEX_BUFFER_MB = 64;
+
 	protected final Logger log = Logger.getLogger(TextCorpus.class.getName());
 
 	private MediaType corpusFileMediaType;
@@ -118,15 +133,95 @@ public class TextCorpus {
 			throws Exception {
 		@SuppressWarnings("rawtypes")
 		List l = new ArrayList();
-		for (Entry<URI, InputStream> in : getEntries().entrySet()) {
-			InputStreamReader reader = new InputStreamReader(in.getValue());
-			log.info("processing entry: " + in.getKey().toString());
-			l.add(p.process(reader, in.getKey()));
-			reader.close();
+		CorpusIterator entries = iterator();
+		try {
+			while (entries.hasNext()) {
+				CorpusEntry entry = entries.next();
+				Reader reader = entry.open();
+				try {
+					log.info("processing entry: " + entry.getURI());
+					l.add(p.process(reader, entry.getURI()));
+				} finally {
+					reader.close();
+				}
+			}
+		} finally {
+			entries.close();
 		}
 		return l;
 	}
 
+	/**
+	 * Processes all entries in parallel and drops the results.
+	 * 
+	 * @see #parallelForEach(DocumentProcedure, int, ResultSink)
+	 */
+	public <T> void parallelForEach(DocumentProcedure<T> p, int threads)
+			throws Exception {
+		parallelForEach(p, threads, new ResultSink<T>() {
+			@Override
+			public void put(URI uri, T result) {
+			}
+		});
+	}
+
+	/**
+	 * Processes all entries on <code>threads</code> threads. Entries are
+	 * opened by the thread that processes them, and at most twice as many
+	 * entries as threads are in flight, so neither file handles nor results
+	 * pile up. Results are passed to <code>sink</code> on the calling thread
+	 * in the order they are done.
+	 * 
+	 * @throws Exception
+	 *             the first exception thrown by <code>p</code> or
+	 *             <code>sink</code>, remaining entries are not processed
+	 */
+	public <T> void parallelForEach(final DocumentProcedure<T> p, int threads,
+			ResultSink<T> sink) throws Exception {
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CompletionService<T> done = new ExecutorCompletionService<T>(executor);
+		Map<Future<T>, URI> inFlight = new HashMap<Future<T>, URI>();
+		CorpusIterator entries = iterator();
+		try {
+			while (entries.hasNext() || !inFlight.isEmpty()) {
+				if (entries.hasNext() && inFlight.size() < 2 * threads) {
+					final CorpusEntry entry = entries.next();
+					inFlight.put(done.submit(new Callable<T>() {
+						@Override
+						public T call() throws Exception {
+							Reader reader = entry.open();
+							try {
+								log.fine("processing entry: " + entry.getURI());
+								return p.process(reader, entry.getURI());
+							} finally {
+								reader.close();
+							}
+						}
+					}), entry.getURI());
+					continue;
+				}
+				Future<T> result = done.take();
+				sink.put(inFlight.remove(result), get(result));
+			}
+		} finally {
+			executor.shutdownNow();
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+			entries.close();
+		}
+	}
+
+	private static <T> T get(Future<T> result) throws Exception {
+		try {
+			return result.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw (Error) e.getCause();
+		}
+	}
+
 	/**
 	 * Returns a Lucene index on this {@link TextCorpus}.
 	 * 
@@ -140,6 +235,29 @@ public class TextCorpus {
 	 */
 	public IndexSearcher getLuceneIndex(File dir, boolean reindex)
 			throws Exception {
+		return getLuceneIndex(dir, reindex, 1, true);
+	}
+
+	/**
+	 * Returns a Lucene index on this {@link TextCorpus}. Documents are read
+	 * and analyzed on <code>threads</code> threads, which add them to one
+	 * shared {@link IndexWriter}. With more than one thread, the index is
+	 * optimized into a single segment at the end.
+	 * 
+	 * @param dir
+	 *            The directory the index is stored.
+	 * @param reindex
+	 *            If <code>true</code>, an existing index will be re-created.
+	 * @param threads
+	 *            number of indexing threads
+	 * @param termVectors
+	 *            whether term vectors are stored
+	 * @return Access to the Lucene index.
+	 * 
+	 * @throws Exception
+	 */
+	public IndexSearcher getLuceneIndex(File dir, boolean reindex,
+			int threads, final boolean termVectors) throws Exception {
 
 		if (dir.exists()) {
 			if (reindex) {
@@ -157,25 +275,125 @@ public class TextCorpus {
 
 		final IndexWriter indexWriter = new IndexWriter(dir, analyser, true,
 				MaxFieldLength.LIMITED);
-		forEach(new DocumentProcedure<String>() {
-			@Override
-			public String process(Reader doc, URI uri) throws Exception {
-				org.apache.lucene.document.Document document = new org.apache.lucene.document.Document();
-				document.add(new Field("text", doc, TermVector.YES));
-				indexWriter.addDocument(document, analyser);
-				log.fine("indexes: " + document);
-				return uri.toString();
+		try {
+			indexWriter.setRAMBufferSizeMB(INDEX_BUFFER_MB);
+			DocumentProcedure<String> p = new DocumentProcedure<String>() {
+				@Override
+				public String process(Reader doc, URI uri) throws Exception {
+					org.apache.lucene.document.Document document = new org.apache.lucene.document.Document();
+					document.add(new Field("text", doc,
+							termVectors ? TermVector.YES : TermVector.NO));
+					indexWriter.addDocument(document, analyser);
+					log.fine("indexes: " + uri);
+					return null;
+				}
+			};
+			if (threads > 1) {
+				parallelForEach(p, threads);
+			} else {
+				forEach(p);
 			}
-		});
-		log.info("indexed: " + indexWriter.numDocs() + " documents");
+			log.info("indexed: " + indexWriter.numDocs() + " documents");
 
-		indexWriter.commit();
-		indexWriter.close();
+			if (threads > 1) {
+				// concurrent writers flush many small segments
+				indexWriter.optimize();
+			}
+			indexWriter.commit();
+		} finally {
+			indexWriter.close();
+		}
 
 		return new IndexSearcher(dir.getAbsolutePath());
 	}
 	
 	
+	/**
+	 * Returns a memory mapped document frequency table of this
+	 * {@link TextCorpus}. The table is exported from the Lucene index in
+	 * <code>dir</code> and stored next to it.
+	 * 
+	 * @param dir
+	 *            The directory the Lucene index is stored.
+	 * @param reindex
+	 *            If <code>true</code>, existing index and table will be
+	 *            re-created.
+	 * @return The document frequency table.
+	 * 
+	 * @throws Exception
+	 */
+	public DocumentFrequencyTable getDocumentFrequencyTable(File dir,
+			boolean reindex) throws Exception {
+
+		File table = new File(dir.getAbsolutePath() + ".df");
+
+		if (table.exists() && !reindex) {
+			return new DocumentFrequencyTable(table);
+		}
+
+		IndexSearcher searcher = getLuceneIndex(dir, reindex);
+		try {
+			DocumentFrequencyTable.export(searcher.getIndexReader(), "text",
+					table);
+		} finally {
+			searcher.close();
+		}
+		return new DocumentFrequencyTable(table);
+	}
+
+	/**
+	 * Counts the document frequencies of this {@link TextCorpus} directly,
+	 * without building a Lucene index. Documents are analyzed like
+	 * {@link #getLuceneIndex(File, boolean, int, boolean)} does, on
+	 * <code>threads</code> threads, and only the table of terms is kept in
+	 * memory.
+	 * 
+	 * @param table
+	 *            The file the table is stored.
+	 * @param reindex
+	 *            If <code>true</code>, an existing table will be re-created.
+	 * @return The document frequency table.
+	 * 
+	 * @throws Exception
+	 */
+	public DocumentFrequencyTable buildDocumentFrequencyTable(File table,
+			boolean reindex, int threads) throws Exception {
+
+		if (table.exists() && !reindex) {
+			return new DocumentFrequencyTable(table);
+		}
+
+		final WhitespaceAnalyzer analyser = new WhitespaceAnalyzer();
+		final TObjectIntHashMap<String> documentFrequencies = new TObjectIntHashMap<String>();
+		final int[] numDocs = new int[1];
+
+		parallelForEach(new DocumentProcedure<Set<String>>() {
+			@Override
+			public Set<String> process(Reader doc, URI uri) throws Exception {
+				Set<String> terms = new HashSet<String>();
+				TokenStream tokens = analyser.tokenStream("text", doc);
+				org.apache.lucene.analysis.Token token = new org.apache.lucene.analysis.Token();
+				for (int i = 0; i < IndexWriter.DEFAULT_MAX_FIELD_LENGTH
+						&& (token = tokens.next(token)) != null; i++) {
+					terms.add(token.term());
+				}
+				tokens.close();
+				return terms;
+			}
+		}, threads, new ResultSink<Set<String>>() {
+			@Override
+			public void put(URI uri, Set<String> terms) {
+				for (String term : terms) {
+					documentFrequencies.adjustOrPutValue(term, 1, 1);
+				}
+				numDocs[0]++;
+			}
+		});
+
+		DocumentFrequencyTable.write(table, documentFrequencies, numDocs[0]);
+		return new DocumentFrequencyTable(table);
+	}
+
 	@SuppressWarnings("unchecked")
 	public TIntDoubleHashMap getDocumentFrequency(final Pipeline pipe) throws Exception {
 
@@ -301,36 +519,131 @@ public class TextCorpus {
 	}
 
 	/**
-	 * @return list of files in corpus
-	 * @throws IOException 
-	 * @throws ZipException 
+	 * Returns a lazy iterator over the entries of this corpus. No entry is
+	 * opened before it is read.
+	 * 
+	 * @return the entries of a zip file or of a directory
 	 */
-	@SuppressWarnings("unchecked")
-	protected HashMap<URI, InputStream> getEntries() throws Exception {
-
-		HashMap<URI, InputStream> entries = new HashMap<URI, InputStream>();
-		
-		if(corpusFileMediaType == MediaType.ZIP) {
-			ZipFile zippedCorpusDir = new ZipFile(corpus);
-			Enumeration<? extends ZipEntry> zipEntries = zippedCorpusDir.entries();
-			while(zipEntries.hasMoreElements()) {
-				ZipEntry zipEntry = zipEntries.nextElement();
-				if(!zipEntry.isDirectory()) {
-					
-					String uriValue = corpus.toURI().toString()+"/";
-					String entryName = zipEntry.getName();
-					uriValue += URLEncoder.encode(entryName, "utf-8");
-	
-					entries.put(new URI(uriValue), zippedCorpusDir.getInputStream(zipEntry));
+	public CorpusIterator iterator() throws Exception {
+
+		if (corpusFileMediaType == MediaType.ZIP) {
+			final ZipFile zippedCorpusDir = new ZipFile(corpus);
+			final Enumeration<? extends ZipEntry> zipEntries = zippedCorpusDir
+					.entries();
+			final String prefix = corpus.toURI().toString() + "/";
+			return new CorpusIterator() {
+
+				private ZipEntry next = advance();
+
+				private ZipEntry advance() {
+					while (zipEntries.hasMoreElements()) {
+						ZipEntry zipEntry = zipEntries.nextElement();
+						if (!zipEntry.isDirectory()) {
+							return zipEntry;
+						}
+					}
+					return null;
+				}
+
+				@Override
+				public boolean hasNext() {
+					return next != null;
+				}
+
+				@Override
+				public CorpusEntry next() {
+					if (next == null) {
+						throw new NoSuchElementException();
+					}
+					final ZipEntry zipEntry = next;
+					next = advance();
+					final URI uri;
+					try {
+						uri = new URI(prefix
+								+ URLEncoder.encode(zipEntry.getName(),
+										"utf-8"));
+					} catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+					return new CorpusEntry() {
+						@Override
+						public URI getURI() {
+							return uri;
+						}
+
+						@Override
+						public Reader open() throws IOException {
+							return new InputStreamReader(zippedCorpusDir
+									.getInputStream(zipEntry));
+						}
+					};
+				}
+
+				@Override
+				public void close() throws IOException {
+					zippedCorpusDir.close();
+				}
+			};
+		} else if (corpusFileMediaType == MediaType.DIRECTORY) {
+			final String[] names = corpus.list();
+			return new CorpusIterator() {
+
+				private int next = advance(0);
+
+				private int advance(int i) {
+					while (i < names.length
+							&& new File(corpus, names[i]).isDirectory()) {
+						i++;
+					}
+					return i;
+				}
+
+				@Override
+				public boolean hasNext() {
+					return next < names.length;
+				}
+
+				@Override
+				public CorpusEntry next() {
+					if (next == names.length) {
+						throw new NoSuchElementException();
+					}
+					final File f = new File(corpus, names[next]);
+					next = advance(next + 1);
+					return new CorpusEntry() {
+						@Override
+						public URI getURI() {
+							return f.toURI();
+						}
+
+						@Override
+						public Reader open() throws IOException {
+							return new InputStreamReader(new FileInputStream(f));
+						}
+					};
 				}
+
+				@Override
+				public void close() {
+				}
+			};
+		}
+
+		return new CorpusIterator() {
+			@Override
+			public boolean hasNext() {
+				return false;
+			}
+
+			@Override
+			public CorpusEntry next() {
+				throw new NoSuchElementException();
 			}
-		} else if(corpusFileMediaType == MediaType.DIRECTORY) {
-			for(File f : corpus.listFiles()) {
-				entries.put(f.toURI(), new FileInputStream(f));
+
+			@Override
+			public void close() {
 			}
-		}
-		
-		return entries;
+		};
 	}
 
 	public File getCorpus() {
@@ -0,0 +1,120 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package de.dfki.km.perspecting.obie.model;
+
+/**
+ * The results of extraction steps that are stored in a {@link Document}. A
+ * {@link de.dfki.km.perspecting.obie.workflow.Transducer} declares which
+ * artifacts it reads and writes, so steps whose results are not needed or
+ * whose input is empty can be skipped.
+ */
+public enum Artifact {
+
+	/** The language of the document, never empty. */
+	LANGUAGE,
+
+	TOKENS,
+
+	SENTENCES,
+
+	PART_OF_SPEECH,
+
+	NOUN_PHRASES,
+
+	/**
+	 * Token prefixes to look up literals for, or literals to reuse from a
+	 * near-duplicate.
+	 */
+	SUFFIX_ARRAY,
+
+	/** Spotted literal values of datatype properties. */
+	LITERALS,
+
+	REGEX_MATCHES,
+
+	/** Subjects of the spotted literals. */
+	SUBJECTS,
+
+	/** Types of the recognized subjects. */
+	TYPES,
+
+	/** Graph of recognized subjects used to disambiguate them. */
+	GRAPH,
+
+	/** Known relations between the recognized subjects. */
+	FACTS,
+
+	/** Predicted relations and types. */
+	PREDICTIONS,
+
+	/** Relevance scores of the recognized subjects. */
+	RELEVANCE;
+
+	/**
+	 * @return <code>true</code> if <code>document</code> holds nothing of
+	 *         this artifact
+	 */
+	public boolean isEmpty(Document document) {
+		DataSheet data = document.getData();
+		switch (this) {
+		case LANGUAGE:
+			return false;
+		case TOKENS:
+			return data.integerEntries(TokenSequence.TOKEN).isEmpty();
+		case SENTENCES:
+			return data.integerEntries(TokenSequence.SENTENCE).isEmpty();
+		case PART_OF_SPEECH:
+			return data.integerEntries(TokenSequence.POS).isEmpty();
+		case NOUN_PHRASES:
+			return data.integerEntries(TokenSequence.NOUN_PHRASE).isEmpty();
+		case SUFFIX_ARRAY:
+			return (document.getSuffixArray() == null || document
+					.getSuffixArray().isEmpty())
+					&& (document.getWarmStart() == null || !document
+							.getWarmStart().hasSource());
+		case LITERALS:
+			return data.integerEntries(TokenSequence.PROPERTY).isEmpty();
+		case REGEX_MATCHES:
+			return data.integerEntries(TokenSequence.REGEX).isEmpty();
+		case SUBJECTS:
+			return data.integerEntries(TokenSequence.SUBJECT).isEmpty();
+		case TYPES:
+			return data.integerEntries(TokenSequence.TYPE).isEmpty();
+		case GRAPH:
+			return document.getGraph() == null
+					|| document.getGraph().getVertexCount() == 0;
+		case FACTS:
+			return document.getGraph() == null
+					|| document.getGraph().getEdgeCount() == 0;
+		case PREDICTIONS:
+			return document.getPredictionGraph() == null
+					|| document.getPredictionGraph().getEdgeCount() == 0;
+		case RELEVANCE:
+			return document.getRelevanceScores() == null;
+		default:
+			return false;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.model;
+
+import java.text.CharacterIterator;
+
+/**
+ * Iterates over any {@link CharSequence}, so a {@link java.text.BreakIterator}
+ * can segment a {@link MappedText} without copying it into a {@link String}.
+ */
+public final class CharSequenceIterator implements CharacterIterator {
+
+	private final CharSequence text;
+
+	private int index;
+
+	public CharSequenceIterator(CharSequence text) {
+		this.text = text;
+	}
+
+	@Override
+	public char first() {
+		index = 0;
+		return current();
+	}
+
+	@Override
+	public char last() {
+		index = Math.max(0, text.length() - 1);
+		return current();
+	}
+
+	@Override
+	public char current() {
+		return index < text.length() ? text.charAt(index) : DONE;
+	}
+
+	@Override
+	public char next() {
+		if (index < text.length()) {
+			index++;
+		}
+		return current();
+	}
+
+	@Override
+	public char previous() {
+		if (index == 0) {
+			return DONE;
+		}
+		index--;
+		return current();
+	}
+
+	@Override
+	public char setIndex(int position) {
+		if (position < 0 || position > text.length()) {
+			throw new IllegalArgumentException("Invalid index " + position);
+		}
+		index = position;
+		return current();
+	}
+
+	@Override
+	public int getBeginIndex() {
+		return 0;
+	}
+
+	@Override
+	public int getEndIndex() {
+		return text.length();
+	}
+
+	@Override
+	public int getIndex() {
+		return index;
+	}
+
+	@Override
+	public Object clone() {
+		try {
+			return super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new InternalError();
+		}
+	}
+}
@@ -23,6 +23,8 @@
 
 package de.dfki.km.perspecting.obie.model;
 
+import gnu.trove.TObjectIntHashMap;
+
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -47,23 +49,81 @@ public class DataSheet {
 
 	private final List<String> keys = new ArrayList<String>();
 
+	private final TObjectIntHashMap<String> modifications = new TObjectIntHashMap<String>();
 
 	public void createToken(final int start, final int end) {
 		add(TokenSequence.TOKEN, start, end);
 	}
 
-	public <T> void add(String column, String key, T value) {
+	/**
+	 * Adds <code>count</code> tokens with their sentences at once. The key of
+	 * each token is shared by both columns, and each column is marked as
+	 * modified only once.
+	 * 
+	 * @param starts
+	 *            start offsets of the tokens
+	 * @param ends
+	 *            end offsets of the tokens
+	 * @param sentences
+	 *            sentence numbers of the tokens
+	 */
+	public void createTokens(int[] starts, int[] ends, int[] sentences,
+			int count) {
+		Map<String, Integer> tokens = row(TokenSequence.TOKEN);
+		Map<String, Integer> sentenceRow = row(TokenSequence.SENTENCE);
+		for (int i = 0; i < count; i++) {
+			String key = Integer.toString(starts[i]);
+			tokens.put(key, ends[i]);
+			sentenceRow.put(key, sentences[i]);
+		}
+		touch(TokenSequence.TOKEN);
+		touch(TokenSequence.SENTENCE);
+	}
+
+	/**
+	 * Returns the values of a column by key, and creates the column if it
+	 * does not exist yet.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> Map<String, T> row(String column) {
 		if (!matrix.containsKey(column)) {
 			matrix.put(column, new TreeMap<String, T>());
 			keys.add(column);
 		}
+		return (Map<String, T>) matrix.get(column);
+	}
 
-		Map<String, T> row = (Map<String, T>) matrix.get(column);
+	public <T> void add(String column, String key, T value) {
+		Map<String, T> row = row(column);
 		row.put(key, value);
 
 		if (value.getClass().equals(Double.class)) {
 			doubleColumns.add(column);
 		}
+		touch(column);
+	}
+
+	/**
+	 * Marks a column as modified. Must be called after changing a value that
+	 * is stored in this sheet in place, e.g. a list of annotations.
+	 * 
+	 * @param column
+	 *            the modified column
+	 */
+	public void touch(String column) {
+		modifications.adjustOrPutValue(column, 1, 1);
+	}
+
+	/**
+	 * Returns a counter that increases with every modification of a column.
+	 * 
+	 * @param column
+	 *            the column
+	 * @return number of modifications, 0 if the column has never been
+	 *         written
+	 */
+	public int getModificationCount(String column) {
+		return modifications.get(column);
 	}
 
 	public <T> void add(String column, int key, T value) {
@@ -25,8 +25,9 @@ package de.dfki.km.perspecting.obie.model;
 
 import java.io.File;
 import java.net.URI;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -37,12 +38,11 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Map.Entry;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
 
 import de.dfki.km.perspecting.obie.transducer.model.SuffixArray;
+import de.dfki.km.perspecting.obie.transducer.model.WarmStart;
 import de.dfki.km.perspecting.obie.vocabulary.Language;
 import de.dfki.km.perspecting.obie.vocabulary.MediaType;
 import edu.uci.ics.jung.graph.DirectedGraph;
@@ -59,8 +59,10 @@ import gnu.trove.TIntObjectHashMap;
 public class Document implements Iterable<Token> {
 
 	private URI uri;
-	private String plainTextContent;
-	private String content;
+	private CharSequence plainTextContent;
+	private CharSequence content;
+	private String plainTextString;
+	private HtmlText html;
 
 	private MediaType mimeType = MediaType.TEXT;
 	private Language language = Language.UNKNOWN;
@@ -82,15 +84,38 @@ public class Document implements Iterable<Token> {
 		this(FileUtils.readFileToString(file), uri, mimeType, language);
 	}
 
+	/**
+	 * Creates a plain text document backed by a memory mapped file. The text
+	 * is not copied to the heap, see {@link MappedText}.
+	 * 
+	 * @param charset
+	 *            encoding of the file
+	 */
+	public Document(File file, Charset charset, URI uri, Language language)
+			throws Exception {
+		this(MappedText.map(file, charset), uri, language);
+	}
+
+	/**
+	 * Creates a plain text document without copying <code>text</code>.
+	 */
+	public Document(CharSequence text, URI uri, Language language) {
+		this.content = text;
+		this.uri = uri;
+		this.mimeType = MediaType.TEXT;
+		this.language = language;
+		this.plainTextContent = text;
+	}
+
 	private void normalizeContent() throws Exception {
 
 		switch (mimeType) {
 
 		case HTML:
-			plainTextContent = extractPlainTextFromHtml(content);
+			plainTextContent = extractPlainTextFromHtml(content.toString());
 			break;
 		case XHTML:
-			plainTextContent = extractPlainTextFromHtml(content);
+			plainTextContent = extractPlainTextFromHtml(content.toString());
 			break;
 		case TEXT:
 		default:
@@ -100,41 +125,18 @@ public class Document implements Iterable<Token> {
 	}
 
 	/***************************************************************************
-	 * Gets the pure plain text out of a html text. All html tags are replaced
-	 * by spaces. To do so, the head is replaced, all remaining javascript tags
-	 * (including the content) and finally all remaining html tags. Thus,
-	 * absolute positioning is possible.
+	 * Gets the pure plain text out of a html text. All html tags, the head and
+	 * all scripts and styles are replaced by spaces, character references are
+	 * decoded. Positions in the text are mapped back to the html by
+	 * {@link #getContentOffset(int)}.
 	 * 
 	 * @param text
 	 *            content of the html document as text
 	 * @return text where all html was replaced by spaces
 	 */
 	private String extractPlainTextFromHtml(String text) {
-		Collection<Pattern> patterns = new ArrayList<Pattern>(3);
-		// Delete the head, then all remaining javascript items that might exist
-		// in the body, then all remaining html tags.
-		patterns.add(Pattern.compile("<head.*/head>", Pattern.CASE_INSENSITIVE
-				| Pattern.UNICODE_CASE | Pattern.DOTALL));
-		// .*? makes it non greedy -> take the shortes match
-		// DOTALL does also include new lines
-		patterns.add(Pattern.compile("<script.*?/script>",
-				Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE
-						| Pattern.DOTALL));
-		patterns.add(Pattern.compile("<.+?>", Pattern.CASE_INSENSITIVE
-				| Pattern.UNICODE_CASE));
-		StringBuffer s = new StringBuffer(text);
-
-		// Go for all patterns.
-		for (Pattern p : patterns) {
-			Matcher matcher = p.matcher(s);
-
-			// As long as the matcher finds another occurance of the pattern we
-			// replace it by the same number of spaces but keep new lines.
-			while (matcher.find())
-				s.replace(matcher.start(), matcher.end(), matcher.group()
-						.replaceAll(".", " "));
-		}
-		return s.toString();
+		html = new HtmlText(text);
+		return html.getText();
 	}
 
 	/**
@@ -153,16 +155,49 @@ public class Document implements Iterable<Token> {
 	}
 
 	/**
-	 * @return the plainTextContent
+	 * @return the plainTextContent, copied to a {@link String} once if the
+	 *         document is memory mapped
 	 */
 	public final String getPlainTextContent() {
+		if (plainTextString == null) {
+			plainTextString = plainTextContent.toString();
+		}
+		return plainTextString;
+	}
+
+	/**
+	 * @return the plainTextContent without copying it
+	 */
+	public final CharSequence getPlainText() {
 		return plainTextContent;
 	}
-	
+
+	/**
+	 * @return the content, copied to a {@link String} once if the document is
+	 *         memory mapped
+	 */
 	public String getContent() {
+		return content == plainTextContent ? getPlainTextContent() : content
+				.toString();
+	}
+
+	/**
+	 * @return the content without copying it
+	 */
+	public CharSequence getContentSequence() {
 		return content;
 	}
 
+	/**
+	 * @param offset
+	 *            an offset in the plain text content, from <code>0</code> to
+	 *            its length
+	 * @return the offset of the same character in the original content
+	 */
+	public int getContentOffset(int offset) {
+		return html == null ? offset : html.getOffset(offset);
+	}
+
 	/**
 	 * @return the mimeType
 	 */
@@ -201,9 +236,51 @@ public class Document implements Iterable<Token> {
 
 	private SuffixArray suffixArray;
 
+	private WarmStart warmStart;
+
 	private DoubleMatrix ambiguityScores;
 	private DoubleMatrix relevanceScores;
 
+	private TermFrequencies termFrequencies;
+	private int termFrequenciesModCount = -1;
+
+	private final View<SemanticEntity> resolvedSubjects = new View<SemanticEntity>(
+			TokenSequence.SUBJECT);
+	private final View<SemanticEntity> retrievedPropertyValues = new View<SemanticEntity>(
+			TokenSequence.PROPERTY);
+	private final View<SemanticEntity> entityTypes = new View<SemanticEntity>(
+			TokenSequence.TYPE);
+	private final View<String> nounPhrases = new View<String>(
+			TokenSequence.NOUN_PHRASE);
+
+	/**
+	 * A list of {@link TokenSequence} derived from a single column of the
+	 * {@link DataSheet}. It stays valid until the column is modified.
+	 */
+	private class View<T> {
+
+		private final String column;
+		private int modCount = -1;
+		private List<TokenSequence<T>> value;
+
+		View(String column) {
+			this.column = column;
+		}
+
+		boolean isValid() {
+			return modCount == data.getModificationCount(column);
+		}
+
+		List<TokenSequence<T>> get() {
+			return value;
+		}
+
+		void set(List<TokenSequence<T>> value) {
+			this.value = Collections.unmodifiableList(value);
+			this.modCount = data.getModificationCount(column);
+		}
+	}
+
 	public DoubleMatrix getAmbiguityScores() {
 		return ambiguityScores;
 	}
@@ -268,13 +345,22 @@ public class Document implements Iterable<Token> {
 				;
 
 		}
+		data.touch(TokenSequence.SUBJECT);
 
 	}
 
 	/**
 	 * Returns all RDF subjects with matching literal property values in text.
+	 * The returned list is shared until the subject column changes.
 	 */
 	public List<TokenSequence<SemanticEntity>> getResolvedSubjects() {
+		if (!resolvedSubjects.isValid()) {
+			resolvedSubjects.set(createResolvedSubjects());
+		}
+		return resolvedSubjects.get();
+	}
+
+	private List<TokenSequence<SemanticEntity>> createResolvedSubjects() {
 
 		// collection that will be returned as result
 		List<TokenSequence<SemanticEntity>> entities = new ArrayList<TokenSequence<SemanticEntity>>();
@@ -420,7 +506,18 @@ public class Document implements Iterable<Token> {
 		return out;
 	}
 
+	/**
+	 * Returns all literal property values spotted in text. The returned list
+	 * is shared until the property column changes.
+	 */
 	public List<TokenSequence<SemanticEntity>> getRetrievedPropertyValues() {
+		if (!retrievedPropertyValues.isValid()) {
+			retrievedPropertyValues.set(createRetrievedPropertyValues());
+		}
+		return retrievedPropertyValues.get();
+	}
+
+	private List<TokenSequence<SemanticEntity>> createRetrievedPropertyValues() {
 		List<TokenSequence<SemanticEntity>> entities = new ArrayList<TokenSequence<SemanticEntity>>();
 
 		HashMap<String, TokenSequence<SemanticEntity>> map = new HashMap<String, TokenSequence<SemanticEntity>>();
@@ -456,7 +553,18 @@ public class Document implements Iterable<Token> {
 		return entities;
 	}
 
+	/**
+	 * Returns all typed entities in text. The returned list is shared until
+	 * the type column changes.
+	 */
 	public List<TokenSequence<SemanticEntity>> getEntityTypes() {
+		if (!entityTypes.isValid()) {
+			entityTypes.set(createEntityTypes());
+		}
+		return entityTypes.get();
+	}
+
+	private List<TokenSequence<SemanticEntity>> createEntityTypes() {
 		List<TokenSequence<SemanticEntity>> entities = new ArrayList<TokenSequence<SemanticEntity>>();
 
 		HashMap<Integer, TokenSequence<SemanticEntity>> map = new HashMap<Integer, TokenSequence<SemanticEntity>>();
@@ -490,7 +598,18 @@ public class Document implements Iterable<Token> {
 		return entities;
 	}
 
+	/**
+	 * Returns all noun phrases in text. The returned list is shared until the
+	 * noun phrase column changes.
+	 */
 	public List<TokenSequence<String>> getNounPhrases() {
+		if (!nounPhrases.isValid()) {
+			nounPhrases.set(createNounPhrases());
+		}
+		return nounPhrases.get();
+	}
+
+	private List<TokenSequence<String>> createNounPhrases() {
 
 		List<TokenSequence<String>> phrases = new ArrayList<TokenSequence<String>>();
 
@@ -639,11 +758,40 @@ public class Document implements Iterable<Token> {
 		return suffixArray;
 	}
 
+	/**
+	 * @param warmStart
+	 *            the annotations reused from a near-duplicate document
+	 */
+	public void setWarmStart(WarmStart warmStart) {
+		this.warmStart = warmStart;
+	}
+
+	/**
+	 * @return the annotations reused from a near-duplicate document, or
+	 *         <code>null</code> if near-duplicates are not detected
+	 */
+	public WarmStart getWarmStart() {
+		return warmStart;
+	}
+
 	@Override
 	public Iterator<Token> iterator() {
 		return getTokens().iterator();
 	}
 
+	/**
+	 * Returns the term frequency index of this document. The index is built
+	 * on first access and rebuilt only if the tokens change.
+	 */
+	public TermFrequencies getTermFrequencies() {
+		int modCount = data.getModificationCount(TokenSequence.TOKEN);
+		if (termFrequencies == null || termFrequenciesModCount != modCount) {
+			termFrequencies = new TermFrequencies(this);
+			termFrequenciesModCount = modCount;
+		}
+		return termFrequencies;
+	}
+
 	public void setRelevanceScores(DoubleMatrix matrix) {
 		this.relevanceScores = matrix;
 	}
@@ -25,6 +25,7 @@ package de.dfki.km.perspecting.obie.model;
 
 import gnu.trove.TIntHashSet;
 
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.logging.Logger;
@@ -58,6 +59,9 @@ public class FilterContext {
 	private final Set<String> namedGraphs = new HashSet<String>();
 	private final Set<String> contextGraphs = new HashSet<String>();
 
+	private final Set<Artifact> queriedArtifacts = EnumSet
+			.noneOf(Artifact.class);
+
 	private final String query;
 
 	private String rdfGraphUri;
@@ -93,6 +97,21 @@ public class FilterContext {
 					lookupPredicate(node);
 					lookupSubject(node);
 					lookupObject(node);
+
+					queriedArtifacts.add(Artifact.LITERALS);
+					queriedArtifacts.add(Artifact.SUBJECTS);
+					Var p = node.getPredicateVar();
+					if (!p.hasValue()
+							|| p.getValue().stringValue().equals(
+									RDF.TYPE.stringValue())) {
+						queriedArtifacts.add(Artifact.TYPES);
+					}
+				} else if (node.getContextVar().getValue().stringValue()
+						.endsWith("#predicted")) {
+					queriedArtifacts.add(Artifact.PREDICTIONS);
+				} else if (node.getContextVar().getValue().stringValue()
+						.endsWith("#known")) {
+					queriedArtifacts.add(Artifact.FACTS);
 				}
 
 			}
@@ -224,6 +243,13 @@ public class FilterContext {
 
 	}
 
+	/**
+	 * @return the SPARQL query the filters are generated from
+	 */
+	public String getQuery() {
+		return query;
+	}
+
 	/**
 	 * @return the defaultgraphs
 	 */
@@ -283,6 +309,14 @@ public class FilterContext {
 
 	}
 
+	/**
+	 * @return the artifacts the graphs of the query are built from, empty if
+	 *         there is no query
+	 */
+	public Set<Artifact> getQueriedArtifacts() {
+		return queriedArtifacts;
+	}
+
 	/**
 	 * @return the contextGraphs
 	 */
@@ -0,0 +1,377 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plain text of an HTML document, extracted in a single pass over the markup.
+ * Tags and comments as well as the content of <code>head</code>,
+ * <code>script</code> and <code>style</code> elements are overwritten by
+ * blanks, new lines are kept. Character references are decoded, so the text
+ * gets shorter than the markup if it contains any. {@link #getOffset(int)}
+ * maps text offsets back to the markup.
+ */
+public final class HtmlText {
+
+	private static final String[] SKIPPED = { "head", "script", "style" };
+
+	private static final String[] LATIN_1 = { "nbsp", "iexcl", "cent",
+			"pound", "curren", "yen", "brvbar", "sect", "uml", "copy", "ordf",
+			"laquo", "not", "shy", "reg", "macr", "deg", "plusmn", "sup2",
+			"sup3", "acute", "micro", "para", "middot", "cedil", "sup1",
+			"ordm", "raquo", "frac14", "frac12", "frac34", "iquest", "Agrave",
+			"Aacute", "Acirc", "Atilde", "Auml", "Aring", "AElig", "Ccedil",
+			"Egrave", "Eacute", "Ecirc", "Euml", "Igrave", "Iacute", "Icirc",
+			"Iuml", "ETH", "Ntilde", "Ograve", "Oacute", "Ocirc", "Otilde",
+			"Ouml", "times", "Oslash", "Ugrave", "Uacute", "Ucirc", "Uuml",
+			"Yacute", "THORN", "szlig", "agrave", "aacute", "acirc", "atilde",
+			"auml", "aring", "aelig", "ccedil", "egrave", "eacute", "ecirc",
+			"euml", "igrave", "iacute", "icirc", "iuml", "eth", "ntilde",
+			"ograve", "oacute", "ocirc", "otilde", "ouml", "divide", "oslash",
+			"ugrave", "uacute", "ucirc", "uuml", "yacute", "thorn", "yuml" };
+
+	private static final Map<String, Character> ENTITIES = new HashMap<String, Character>();
+
+	static {
+		for (int i = 0; i < LATIN_1.length; i++) {
+			ENTITIES.put(LATIN_1[i], (char) (160 + i));
+		}
+		ENTITIES.put("amp", '&');
+		ENTITIES.put("lt", '<');
+		ENTITIES.put("gt", '>');
+		ENTITIES.put("quot", '"');
+		ENTITIES.put("apos", '\'');
+		ENTITIES.put("ndash", '\u2013');
+		ENTITIES.put("mdash", '\u2014');
+		ENTITIES.put("lsquo", '\u2018');
+		ENTITIES.put("rsquo", '\u2019');
+		ENTITIES.put("sbquo", '\u201a');
+		ENTITIES.put("ldquo", '\u201c');
+		ENTITIES.put("rdquo", '\u201d');
+		ENTITIES.put("bdquo", '\u201e');
+		ENTITIES.put("dagger", '\u2020');
+		ENTITIES.put("bull", '\u2022');
+		ENTITIES.put("hellip", '\u2026');
+		ENTITIES.put("euro", '\u20ac');
+		ENTITIES.put("trade", '\u2122');
+	}
+
+	/** The longest reference decoded, including <code>&amp;</code> and <code>;</code>. */
+	private static final int MAX_REFERENCE_LENGTH = 10;
+
+	/** The markup, overwritten by the text while parsing. */
+	private char[] chars;
+
+	private final int length;
+
+	/** Offsets in the markup, <code>null</code> while they equal the text offsets. */
+	private int[] offsets;
+
+	private int written;
+
+	private final String text;
+
+	/**
+	 * Extracts the text. The markup is copied once into a buffer that is
+	 * overwritten in place.
+	 * 
+	 * @param html
+	 *            content of the html document as text
+	 */
+	public HtmlText(String html) {
+		chars = html.toCharArray();
+		length = chars.length;
+
+		int i = 0;
+		while (i < length) {
+			char c = chars[i];
+			if (c == '<') {
+				i = markup(i);
+			} else if (c == '&') {
+				i = reference(i);
+			} else {
+				write(c, i);
+				i++;
+			}
+		}
+
+		if (offsets != null) {
+			offsets[written] = length;
+		}
+		text = new String(chars, 0, written);
+		chars = null;
+	}
+
+	/**
+	 * @return the plain text
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @param offset
+	 *            offset in the plain text, from <code>0</code> to its length
+	 * @return the offset of the same character in the markup
+	 */
+	public int getOffset(int offset) {
+		return offsets == null ? offset : offsets[offset];
+	}
+
+	private void write(char c, int offset) {
+		if (offsets != null) {
+			offsets[written] = offset;
+		}
+		chars[written++] = c;
+	}
+
+	/**
+	 * Blanks <code>[from, to)</code>.
+	 */
+	private void blank(int from, int to) {
+		for (int i = from; i < to; i++) {
+			char c = chars[i];
+			write(c == '\n' || c == '\r' ? c : ' ', i);
+		}
+	}
+
+	/**
+	 * Blanks a tag, comment or declaration starting at <code>from</code>, or
+	 * writes the <code>&lt;</code> as text if it starts none of them.
+	 * 
+	 * @return the offset after the markup
+	 */
+	private int markup(int from) {
+		int i = from + 1;
+		if (i >= length) {
+			write('<', from);
+			return i;
+		}
+		char c = chars[i];
+		int end;
+		if (c == '!' && startsWith(i + 1, "--")) {
+			end = indexOf("-->", i + 3);
+			end = end < 0 ? length : end + 3;
+		} else if (c == '!' || c == '?') {
+			end = indexOf('>', i);
+			end = end < 0 ? length : end + 1;
+		} else if (isLetter(c) || c == '/' && i + 1 < length
+				&& isLetter(chars[i + 1])) {
+			end = tagEnd(i);
+			if (end < 0) {
+				write('<', from);
+				return from + 1;
+			}
+			if (c != '/' && chars[end - 2] != '/') {
+				String skipped = skipped(i);
+				if (skipped != null) {
+					end = closingTagEnd(skipped, end);
+				}
+			}
+		} else {
+			write('<', from);
+			return from + 1;
+		}
+		blank(from, end);
+		return end;
+	}
+
+	/**
+	 * @return the offset after the <code>&gt;</code> closing a tag, respecting
+	 *         quoted attribute values, or <code>-1</code>
+	 */
+	private int tagEnd(int from) {
+		char quote = 0;
+		for (int i = from; i < length; i++) {
+			char c = chars[i];
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+			} else if (c == '>') {
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the name of the element starting at <code>from</code> if its
+	 *         content is skipped, otherwise <code>null</code>
+	 */
+	private String skipped(int from) {
+		for (String name : SKIPPED) {
+			if (startsWithName(from, name)) {
+				return name;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the offset after the tag closing the element <code>name</code>,
+	 *         or the end of the markup if there is none
+	 */
+	private int closingTagEnd(String name, int from) {
+		for (int i = indexOf("</", from); i >= 0; i = indexOf("</", i + 2)) {
+			if (startsWithName(i + 2, name)) {
+				int end = indexOf('>', i + 2 + name.length());
+				return end < 0 ? length : end + 1;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Decodes a character reference starting at <code>from</code>, or writes
+	 * the <code>&amp;</code> as text if it starts none.
+	 * 
+	 * @return the offset after the reference
+	 */
+	private int reference(int from) {
+		int end = -1;
+		for (int i = from + 1; i < length && i - from < MAX_REFERENCE_LENGTH; i++) {
+			if (chars[i] == ';') {
+				end = i;
+				break;
+			}
+		}
+
+		int codePoint = -1;
+		if (end > from + 2 && chars[from + 1] == '#') {
+			codePoint = parseCodePoint(from + 2, end);
+		} else if (end > from + 1) {
+			Character c = ENTITIES.get(new String(chars, from + 1, end - from
+					- 1));
+			if (c != null) {
+				codePoint = c;
+			}
+		}
+
+		if (codePoint < 0) {
+			write('&', from);
+			return from + 1;
+		}
+
+		if (offsets == null) {
+			offsets = new int[length + 1];
+			for (int i = 0; i < written; i++) {
+				offsets[i] = i;
+			}
+		}
+		if (Character.isSupplementaryCodePoint(codePoint)) {
+			for (char c : Character.toChars(codePoint)) {
+				write(c, from);
+			}
+		} else {
+			write((char) codePoint, from);
+		}
+		return end + 1;
+	}
+
+	/**
+	 * @return the code point of a numeric reference without <code>&amp;#</code>
+	 *         and <code>;</code>, or <code>-1</code> if it is invalid
+	 */
+	private int parseCodePoint(int from, int to) {
+		int radix = 10;
+		if (chars[from] == 'x' || chars[from] == 'X') {
+			radix = 16;
+			from++;
+		}
+		if (from == to) {
+			return -1;
+		}
+		int codePoint = 0;
+		for (int i = from; i < to; i++) {
+			int digit = Character.digit(chars[i], radix);
+			if (digit < 0) {
+				return -1;
+			}
+			codePoint = codePoint * radix + digit;
+		}
+		if (codePoint == 0 || codePoint > Character.MAX_CODE_POINT
+				|| codePoint >= Character.MIN_SURROGATE
+				&& codePoint <= Character.MAX_SURROGATE) {
+			return -1;
+		}
+		return codePoint;
+	}
+
+	private static boolean isLetter(char c) {
+		return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+	}
+
+	/**
+	 * @return <code>true</code> if the tag name at <code>from</code> equals
+	 *         <code>name</code>, ignoring case
+	 */
+	private boolean startsWithName(int from, String name) {
+		int end = from + name.length();
+		if (end > length) {
+			return false;
+		}
+		for (int i = 0; i < name.length(); i++) {
+			if (Character.toLowerCase(chars[from + i]) != name.charAt(i)) {
+				return false;
+			}
+		}
+		return end == length || !isLetter(chars[end])
+				&& !Character.isDigit(chars[end]) && chars[end] != '-';
+	}
+
+	private boolean startsWith(int from, String s) {
+		if (from + s.length() > length) {
+			return false;
+		}
+		for (int i = 0; i < s.length(); i++) {
+			if (chars[from + i] != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int indexOf(String s, int from) {
+		for (int i = from; i + s.length() <= length; i++) {
+			if (startsWith(i, s)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int indexOf(char c, int from) {
+		for (int i = from; i < length; i++) {
+			if (chars[i] == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
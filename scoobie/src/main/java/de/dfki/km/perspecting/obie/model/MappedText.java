@@ -0,0 +1,176 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * The text of a memory mapped file. ISO-8859-1 files, as well as US-ASCII and
+ * UTF-8 files that only contain ASCII characters, are read directly from the
+ * mapped bytes. Other files are decoded once into a direct buffer, so the
+ * text never lives on the heap. Sub sequences share the buffer, only
+ * {@link #toString()} copies characters.
+ */
+public final class MappedText implements CharSequence {
+
+	private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+	private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/** The text as bytes, or <code>null</code> if it is decoded. */
+	private final ByteBuffer bytes;
+
+	/** The decoded text, or <code>null</code> if it is read from bytes. */
+	private final CharBuffer chars;
+
+	private final int offset;
+
+	private final int length;
+
+	private MappedText(ByteBuffer bytes, CharBuffer chars, int offset,
+			int length) {
+		this.bytes = bytes;
+		this.chars = chars;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * Maps a text file.
+	 * 
+	 * @param file
+	 *            a file smaller than 2GB
+	 * @param charset
+	 *            encoding of the file, malformed input is replaced
+	 */
+	public static MappedText map(File file, Charset charset) throws IOException {
+		ByteBuffer bytes;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("file too large to map: " + file);
+			}
+			bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel
+					.size());
+		} finally {
+			raf.close();
+		}
+
+		int length = bytes.limit();
+		if (charset.equals(ISO_8859_1)
+				|| (charset.equals(US_ASCII) || charset.equals(UTF_8))
+				&& isAscii(bytes)) {
+			return new MappedText(bytes, null, 0, length);
+		}
+
+		CharBuffer chars = decode(bytes, charset);
+		return new MappedText(null, chars, 0, chars.limit());
+	}
+
+	private static boolean isAscii(ByteBuffer bytes) {
+		for (int i = bytes.limit() - 1; i >= 0; i--) {
+			if (bytes.get(i) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static CharBuffer decode(ByteBuffer bytes, Charset charset)
+			throws IOException {
+		CharsetDecoder decoder = charset.newDecoder().onMalformedInput(
+				CodingErrorAction.REPLACE).onUnmappableCharacter(
+				CodingErrorAction.REPLACE);
+		long capacity = (long) Math.ceil(bytes.limit()
+				* (double) decoder.maxCharsPerByte()) + 1;
+		if (2 * capacity > Integer.MAX_VALUE) {
+			throw new IOException("text too large to decode: "
+					+ bytes.limit() + " bytes of " + charset);
+		}
+		CharBuffer chars = ByteBuffer.allocateDirect((int) (2 * capacity))
+				.asCharBuffer();
+		ByteBuffer in = bytes.duplicate();
+		CoderResult result = decoder.decode(in, chars, true);
+		if (!result.isUnderflow()) {
+			result.throwException();
+		}
+		result = decoder.flush(chars);
+		if (!result.isUnderflow()) {
+			result.throwException();
+		}
+		chars.flip();
+		return chars;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		if (bytes != null) {
+			return (char) (bytes.get(offset + index) & 0xff);
+		}
+		return chars.get(offset + index);
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public MappedText subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException(start + ", " + end);
+		}
+		return new MappedText(bytes, chars, offset + start, end - start);
+	}
+
+	@Override
+	public String toString() {
+		char[] text = new char[length];
+		if (bytes != null) {
+			for (int i = 0; i < length; i++) {
+				text[i] = (char) (bytes.get(offset + i) & 0xff);
+			}
+		} else {
+			for (int i = 0; i < length; i++) {
+				text[i] = chars.get(offset + i);
+			}
+		}
+		return new String(text);
+	}
+}
@@ -0,0 +1,121 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.model;
+
+import gnu.trove.TObjectIntHashMap;
+
+import java.util.Map.Entry;
+
+/**
+ * Term frequencies of a {@link Document}. The index maps each lowercased token
+ * text to the number of its occurrences and is built in a single pass over the
+ * token column.
+ * 
+ */
+public class TermFrequencies {
+
+	private final TObjectIntHashMap<String> frequencies = new TObjectIntHashMap<String>();
+
+	private final int length;
+
+	/**
+	 * Builds the term frequency index of a tokenized document.
+	 * 
+	 * @param document
+	 *            a document that already passed word segmentation
+	 */
+	public TermFrequencies(Document document) {
+
+		final CharSequence text = document.getPlainText();
+		char[] buffer = new char[32];
+		int tokens = 0;
+
+		for (Entry<String, Integer> token : document.getData().integerEntries(
+				TokenSequence.TOKEN)) {
+			int start = Integer.parseInt(token.getKey());
+			int end = token.getValue();
+
+			if (end - start > buffer.length) {
+				buffer = new char[end - start];
+			}
+			for (int i = start; i < end; i++) {
+				buffer[i - start] = Character.toLowerCase(text.charAt(i));
+			}
+			frequencies.adjustOrPutValue(new String(buffer, 0, end - start), 1,
+					1);
+			tokens++;
+		}
+
+		this.length = tokens;
+	}
+
+	/**
+	 * Normalizes a term the same way document tokens are normalized.
+	 */
+	public static String normalize(String term) {
+		char[] chars = term.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(chars[i]);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * @return number of occurrences of a term in the document
+	 */
+	public int getFrequency(String term) {
+		return frequencies.get(normalize(term));
+	}
+
+	/**
+	 * @return number of occurrences of a token's text in the document
+	 */
+	public int getFrequency(Token token) {
+		return getFrequency(token.toString());
+	}
+
+	/**
+	 * @return relative frequency of a term in the document
+	 */
+	public double getRelativeFrequency(String term) {
+		if (length == 0)
+			return 0.0;
+		return ((double) getFrequency(term)) / length;
+	}
+
+	/**
+	 * @return number of tokens in the document
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return the distinct normalized terms of the document
+	 */
+	public String[] getTerms() {
+		return frequencies.keys(new String[frequencies.size()]);
+	}
+
+}
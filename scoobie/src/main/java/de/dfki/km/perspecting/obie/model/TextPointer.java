@@ -58,7 +58,7 @@ public class TextPointer implements Comparable<TextPointer>, CharSequence {
 	// // log.info("created " + this + " " + data);
 	// }
 
-	public TextPointer(int a, int b, String text, int data, double belief) {
+	public TextPointer(int a, int b, CharSequence text, int data, double belief) {
 		this.a = a;
 		this.b = b;
 		this.text = text;
@@ -67,7 +67,7 @@ public class TextPointer implements Comparable<TextPointer>, CharSequence {
 		// log.info("created " + this + " " + data + " " + belief);
 	}
 
-	public TextPointer(int a, int b, String text, int data,
+	public TextPointer(int a, int b, CharSequence text, int data,
 			int datatypeProperty, double belief, String literal) {
 		
 		this.a = a;
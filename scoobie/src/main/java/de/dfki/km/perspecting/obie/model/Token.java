@@ -123,8 +123,8 @@ public class Token implements Comparable<Token> {
 		return documentData.getData().get(TokenSequence.POS, tokenIndex);
 	}
 
-	public final String getTextSource() {
-		return documentData.getPlainTextContent();
+	public final CharSequence getTextSource() {
+		return documentData.getPlainText();
 	}
 
 	public SemanticEntity addProperty(String position, int literalValue,
@@ -142,6 +142,7 @@ public class Token implements Comparable<Token> {
 					plainProperties);
 		}
 		plainProperties.add(entity);
+		documentData.getData().touch(TokenSequence.PROPERTY);
 		return entity;
 	}
 
@@ -158,6 +159,7 @@ public class Token implements Comparable<Token> {
 					regexProperties);
 		}
 		regexProperties.add(entity);
+		documentData.getData().touch(TokenSequence.REGEX);
 		return entity;
 	}
 
@@ -178,6 +180,7 @@ public class Token implements Comparable<Token> {
 					subjects);
 		}
 		subjects.add(e);
+		documentData.getData().touch(TokenSequence.SUBJECT);
 		return e;
 	}
 
@@ -199,6 +202,7 @@ public class Token implements Comparable<Token> {
 			documentData.getData().add(TokenSequence.TYPE, tokenIndex, types);
 		}
 		types.add(e);
+		documentData.getData().touch(TokenSequence.TYPE);
 		return e;
 	}
 
@@ -296,13 +300,14 @@ public class Token implements Comparable<Token> {
 					.add(TokenSequence.TYPE, tokenIndex, typeList);
 		}
 		typeList.add(e);
+		documentData.getData().touch(TokenSequence.TYPE);
 		return e;
 	}
 
 	@Override
 	public final String toString() {
-		return documentData.getPlainTextContent().substring(
-				tokenIndex, getEnd());
+		return documentData.getPlainText().subSequence(
+				tokenIndex, getEnd()).toString();
 	}
 
 	@Override
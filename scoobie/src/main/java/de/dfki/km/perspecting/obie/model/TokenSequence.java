@@ -126,7 +126,7 @@ public class TokenSequence<T> implements
 
 	@Override
 	public String toString() {
-		return token.first().getTextSource().substring(token.first().getStart(), token.last().getEnd());
+		return token.first().getTextSource().subSequence(token.first().getStart(), token.last().getEnd()).toString();
 	}
 
 	/*
@@ -0,0 +1,270 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.postprocessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the records written by {@link BinarySerializer} without copying them.
+ * A reader walks over the records of a buffer, e.g. a memory mapped file,
+ * with {@link #next()}; the getters refer to the current record. Resources
+ * are returned as indexes of the knowledge base.
+ */
+public class BinaryAnnotationReader {
+
+	private final ByteBuffer buffer;
+
+	/** Absolute position of the current record, after its length. */
+	private int record = -1;
+
+	private int next;
+
+	private int literals;
+
+	private int numLiterals;
+
+	private int[] subjects = new int[16];
+
+	private int numSubjects;
+
+	private int scores;
+
+	private int numScores;
+
+	private int edges;
+
+	private int numEdges;
+
+	/**
+	 * @param buffer
+	 *            records from its position to its limit
+	 */
+	public BinaryAnnotationReader(ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.next = buffer.position();
+	}
+
+	/**
+	 * Maps a file of records into memory.
+	 */
+	public static BinaryAnnotationReader map(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			return new BinaryAnnotationReader(channel.map(
+					FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Moves to the next record.
+	 * 
+	 * @return <code>false</code> if there are no more records
+	 * @throws IOException
+	 *             if the next record is truncated or no record
+	 */
+	public boolean next() throws IOException {
+		if (next >= buffer.limit()) {
+			return false;
+		}
+		if (buffer.limit() - next < 8) {
+			throw new IOException("truncated record at " + next);
+		}
+		int length = buffer.getInt(next);
+		record = next + 4;
+		if (length < 4 || buffer.limit() - record < length) {
+			throw new IOException("truncated record at " + next);
+		}
+		if (buffer.getInt(record) != BinarySerializer.MAGIC) {
+			throw new IOException("no annotation record at " + next);
+		}
+		next = record + length;
+
+		int p = record + 4;
+		numLiterals = buffer.getInt(p);
+		literals = p + 4;
+		p = literals + 16 * numLiterals;
+
+		numSubjects = buffer.getInt(p);
+		if (subjects.length < numSubjects) {
+			subjects = new int[numSubjects];
+		}
+		p += 4;
+		for (int i = 0; i < numSubjects; i++) {
+			subjects[i] = p;
+			p += 28 + 8 * (buffer.getInt(p + 20) + buffer.getInt(p + 24));
+		}
+
+		numScores = buffer.getInt(p);
+		scores = p + 4;
+		p = scores + 8 * numScores;
+
+		numEdges = buffer.getInt(p);
+		edges = p + 4;
+		return true;
+	}
+
+	public int getLiteralCount() {
+		return numLiterals;
+	}
+
+	public int getLiteralStart(int i) {
+		return buffer.getInt(literal(i));
+	}
+
+	public int getLiteralEnd(int i) {
+		return buffer.getInt(literal(i) + 4);
+	}
+
+	public int getLiteralProperty(int i) {
+		return buffer.getInt(literal(i) + 8);
+	}
+
+	public int getLiteralValue(int i) {
+		return buffer.getInt(literal(i) + 12);
+	}
+
+	public int getSubjectCount() {
+		return numSubjects;
+	}
+
+	public int getSubjectStart(int i) {
+		return buffer.getInt(subject(i));
+	}
+
+	public int getSubjectEnd(int i) {
+		return buffer.getInt(subject(i) + 4);
+	}
+
+	public int getSubject(int i) {
+		return buffer.getInt(subject(i) + 8);
+	}
+
+	public int getSubjectProperty(int i) {
+		return buffer.getInt(subject(i) + 12);
+	}
+
+	public int getSubjectLiteralValue(int i) {
+		return buffer.getInt(subject(i) + 16);
+	}
+
+	public int getTypeCount(int i) {
+		return buffer.getInt(subject(i) + 20);
+	}
+
+	public int getType(int i, int j) {
+		return buffer.getInt(type(i, j));
+	}
+
+	public float getTypeProbability(int i, int j) {
+		return buffer.getFloat(type(i, j) + 4);
+	}
+
+	public int getPredictedTypeCount(int i) {
+		return buffer.getInt(subject(i) + 24);
+	}
+
+	public int getPredictedType(int i, int j) {
+		return buffer.getInt(predictedType(i, j));
+	}
+
+	public float getPredictedTypeProbability(int i, int j) {
+		return buffer.getFloat(predictedType(i, j) + 4);
+	}
+
+	public int getScoreCount() {
+		return numScores;
+	}
+
+	public int getScoredSubject(int i) {
+		return buffer.getInt(score(i));
+	}
+
+	public float getScore(int i) {
+		return buffer.getFloat(score(i) + 4);
+	}
+
+	public int getEdgeCount() {
+		return numEdges;
+	}
+
+	public int getEdgeSubject(int i) {
+		return buffer.getInt(edge(i));
+	}
+
+	public int getEdgePredicate(int i) {
+		return buffer.getInt(edge(i) + 4);
+	}
+
+	public int getEdgeObject(int i) {
+		return buffer.getInt(edge(i) + 8);
+	}
+
+	public float getEdgeWeight(int i) {
+		return buffer.getFloat(edge(i) + 12);
+	}
+
+	private int literal(int i) {
+		return literals + 16 * check(i, numLiterals);
+	}
+
+	private int subject(int i) {
+		return subjects[check(i, numSubjects)];
+	}
+
+	private int type(int i, int j) {
+		return subject(i) + 28 + 8 * check(j, getTypeCount(i));
+	}
+
+	private int predictedType(int i, int j) {
+		return subject(i) + 28 + 8
+				* (getTypeCount(i) + check(j, getPredictedTypeCount(i)));
+	}
+
+	private int score(int i) {
+		return scores + 8 * check(i, numScores);
+	}
+
+	private int edge(int i) {
+		return edges + 16 * check(i, numEdges);
+	}
+
+	private int check(int i, int size) {
+		if (record < 0) {
+			throw new IllegalStateException("next() was not called");
+		}
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException(i + " of " + size);
+		}
+		return i;
+	}
+
+}
@@ -0,0 +1,267 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.postprocessor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.DoubleMatrix;
+import de.dfki.km.perspecting.obie.model.RDFEdge;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.TIntDoubleTuple;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
+import edu.uci.ics.jung.graph.DirectedGraph;
+
+/**
+ * Writes the extraction result of a document as one length prefixed binary
+ * record. Resources are written as their indexes in the knowledge base, so no
+ * URI has to be looked up. Records can be appended to a file one after the
+ * other and are read by {@link BinaryAnnotationReader}.
+ * 
+ * <pre>
+ * int length, int magic,
+ * int numLiterals, (int start, int end, int property, int literal)[],
+ * int numSubjects, (int start, int end, int subject, int property,
+ *     int literal, int numTypes, int numPredictedTypes,
+ *     (int type, float probability)[numTypes + numPredictedTypes])[],
+ * int numScores, (int subject, float score)[],
+ * int numEdges, (int subject, int predicate, int object, float weight)[]
+ * </pre>
+ * 
+ * The length counts the bytes following it. All values are big endian.
+ */
+public class BinarySerializer implements StreamingSerializer,
+		SelectiveSerializer {
+
+	static final int MAGIC = 0x53434F31;
+
+	private final int rating;
+
+	/**
+	 * @param rating
+	 *            the column of the relevance scores to write
+	 */
+	public BinarySerializer(int rating) {
+		this.rating = rating;
+	}
+
+	/**
+	 * Returns the record as characters in the range 0 to 255, one per byte.
+	 * Prefer {@link #write(Document, WritableByteChannel)}.
+	 */
+	@Override
+	public Reader serialize(Document document, KnowledgeBase kb)
+			throws Exception {
+		ByteBuffer buffer = toBuffer(document);
+		return new StringReader(new String(buffer.array(), "ISO-8859-1"));
+	}
+
+	/**
+	 * Writes the record to <code>out</code>.
+	 */
+	@Override
+	public void write(Document document, KnowledgeBase kb, OutputStream out)
+			throws IOException {
+		write(document, Channels.newChannel(out));
+		out.flush();
+	}
+
+	/**
+	 * Writes the record to a channel, e.g. a {@link java.nio.channels.FileChannel}
+	 * positioned at its end.
+	 * 
+	 * @return the number of bytes written
+	 */
+	public int write(Document document, WritableByteChannel channel)
+			throws IOException {
+		ByteBuffer buffer = toBuffer(document);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		return buffer.limit();
+	}
+
+	/**
+	 * Puts the record at the position of <code>buffer</code>, which is
+	 * advanced by the length of the record.
+	 * 
+	 * @return the number of bytes written
+	 * @throws BufferOverflowException
+	 *             if the record does not fit, nothing is written then
+	 */
+	public int write(Document document, ByteBuffer buffer) {
+		Record record = new Record(document);
+		if (buffer.remaining() < record.size) {
+			throw new BufferOverflowException();
+		}
+		record.write(buffer);
+		return record.size;
+	}
+
+	private ByteBuffer toBuffer(Document document) {
+		Record record = new Record(document);
+		ByteBuffer buffer = ByteBuffer.allocate(record.size);
+		record.write(buffer);
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Everything a record holds, collected before writing so the size is
+	 * known.
+	 */
+	private class Record {
+
+		private final List<TokenSequence<SemanticEntity>> literals;
+
+		private final List<TokenSequence<SemanticEntity>> subjects;
+
+		private final List<List<TIntDoubleTuple>> types = new ArrayList<List<TIntDoubleTuple>>();
+
+		private final List<List<TIntDoubleTuple>> predictedTypes = new ArrayList<List<TIntDoubleTuple>>();
+
+		private final DoubleMatrix scores;
+
+		private final Integer[] scored;
+
+		private final DirectedGraph<Integer, RDFEdge> edges;
+
+		private final int size;
+
+		Record(Document document) {
+			literals = document.getRetrievedPropertyValues();
+			subjects = document.getResolvedSubjects();
+			scores = document.getRelevanceScores();
+			edges = document.getPredictionGraph();
+
+			int size = 4 + 4 + 4 + 16 * literals.size() + 4;
+			for (TokenSequence<SemanticEntity> subject : subjects) {
+				List<TIntDoubleTuple> t = new ArrayList<TIntDoubleTuple>();
+				List<TIntDoubleTuple> p = new ArrayList<TIntDoubleTuple>();
+				List<SemanticEntity> typeList = document.getData().get(
+						TokenSequence.TYPE, subject.getStart());
+				if (typeList != null) {
+					for (SemanticEntity e : typeList) {
+						if (e.getSubjectIndex() == -1) {
+							p.addAll(e.getTypeIndex());
+						} else if (e.getSubjectIndex() == subject.getValue()
+								.getSubjectIndex()) {
+							t.addAll(e.getTypeIndex());
+						}
+					}
+				}
+				types.add(t);
+				predictedTypes.add(p);
+				size += 28 + 8 * (t.size() + p.size());
+			}
+
+			if (scores != null) {
+				boolean rated = false;
+				for (int col : scores.getColKeys()) {
+					rated |= col == rating;
+				}
+				scored = rated ? scores.getRowKeys() : new Integer[0];
+			} else {
+				scored = new Integer[0];
+			}
+			size += 4 + 8 * scored.length;
+
+			size += 4 + 16 * (edges == null ? 0 : edges.getEdgeCount());
+			this.size = size;
+		}
+
+		void write(ByteBuffer buffer) {
+			buffer.putInt(size - 4);
+			buffer.putInt(MAGIC);
+
+			buffer.putInt(literals.size());
+			for (TokenSequence<SemanticEntity> literal : literals) {
+				buffer.putInt(literal.getStart());
+				buffer.putInt(literal.getEnd());
+				buffer.putInt(literal.getValue().getPropertyIndex());
+				buffer.putInt(literal.getValue().getLiteralValueIndex());
+			}
+
+			buffer.putInt(subjects.size());
+			for (int i = 0; i < subjects.size(); i++) {
+				TokenSequence<SemanticEntity> subject = subjects.get(i);
+				buffer.putInt(subject.getStart());
+				buffer.putInt(subject.getEnd());
+				buffer.putInt(subject.getValue().getSubjectIndex());
+				buffer.putInt(subject.getValue().getPropertyIndex());
+				buffer.putInt(subject.getValue().getLiteralValueIndex());
+				buffer.putInt(types.get(i).size());
+				buffer.putInt(predictedTypes.get(i).size());
+				putTuples(buffer, types.get(i));
+				putTuples(buffer, predictedTypes.get(i));
+			}
+
+			buffer.putInt(scored.length);
+			for (int subject : scored) {
+				buffer.putInt(subject);
+				buffer.putFloat((float) scores.get(rating, subject));
+			}
+
+			if (edges == null) {
+				buffer.putInt(0);
+				return;
+			}
+			buffer.putInt(edges.getEdgeCount());
+			for (RDFEdge edge : edges.getEdges()) {
+				buffer.putInt(edges.getSource(edge));
+				buffer.putInt(edge.getPredicate());
+				buffer.putInt(edges.getDest(edge));
+				buffer.putFloat((float) edge.getWeight());
+			}
+		}
+
+		private void putTuples(ByteBuffer buffer, List<TIntDoubleTuple> tuples) {
+			for (TIntDoubleTuple t : tuples) {
+				buffer.putInt(t.getKey());
+				buffer.putFloat(t.getValue().floatValue());
+			}
+		}
+	}
+
+	@Override
+	public Set<Artifact> getRequiredArtifacts() {
+		return EnumSet.of(Artifact.LITERALS, Artifact.SUBJECTS,
+				Artifact.TYPES, Artifact.PREDICTIONS, Artifact.RELEVANCE);
+	}
+
+}
@@ -28,14 +28,17 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.DoubleMatrix;
 import de.dfki.km.perspecting.obie.model.TIntDoubleTuple;
 
-public class ListSerializer implements Serializer {
+public class ListSerializer implements SelectiveSerializer {
 	
 	private final int rating;
 	
@@ -49,6 +52,9 @@ public class ListSerializer implements Serializer {
 			throws Exception {
 		
 		DoubleMatrix matrix = document.getRelevanceScores();
+		if (matrix == null) {
+			return new StringReader("");
+		}
 		
 		Integer[] keys = matrix.getRowKeys();
 		double[] ratings = matrix.getColumn(rating);
@@ -76,4 +82,9 @@ public class ListSerializer implements Serializer {
 		return new StringReader(b.toString());
 	}
 
+	@Override
+	public Set<Artifact> getRequiredArtifacts() {
+		return EnumSet.of(Artifact.RELEVANCE);
+	}
+
 }
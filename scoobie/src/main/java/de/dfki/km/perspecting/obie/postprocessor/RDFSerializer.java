@@ -23,93 +23,316 @@
 
 package de.dfki.km.perspecting.obie.postprocessor;
 
+import gnu.trove.TIntHashSet;
+import gnu.trove.TIntObjectHashMap;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
-import org.openrdf.model.impl.LiteralImpl;
-import org.openrdf.model.impl.StatementImpl;
-import org.openrdf.model.impl.URIImpl;
 import org.openrdf.model.vocabulary.RDF;
-import org.openrdf.repository.sail.SailRepository;
-import org.openrdf.repository.sail.SailRepositoryConnection;
-import org.openrdf.rio.trig.TriGWriter;
-import org.openrdf.sail.memory.MemoryStore;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.connection.RemoteCursor;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.RDFEdge;
 import de.dfki.km.perspecting.obie.model.SemanticEntity;
 import de.dfki.km.perspecting.obie.model.TokenSequence;
+import edu.uci.ics.jung.graph.DirectedGraph;
+
+/**
+ * Writes the recognized entities, predicted types and facts and the known
+ * facts of a document as named graphs in TriG or N-Quads. Statements are
+ * written as they are produced, without an intermediate triple store. All
+ * URIs are looked up in a single query before writing.
+ */
+public class RDFSerializer implements StreamingSerializer,
+		SelectiveSerializer {
+
+	public enum Format {
+		TRIG, NQUADS
+	}
 
-public class RDFSerializer implements Serializer {
+	private static final String TYPE = "<" + RDF.TYPE + ">";
+
+	private final Format format;
+
+	/** The encoded graph names. */
+	private final String entityGraph;
+	private final String predictionGraph;
+	private final String knownGraph;
 
-	
-	private String namespace;
-	private URIImpl entityGraph;
-	private URIImpl predictionGraph;
-	private URIImpl knownGraph;
-	
 	public RDFSerializer(String namespace) {
-		this.namespace = namespace;
-		this.entityGraph = new URIImpl(this.namespace + "#recognized");
-		this.predictionGraph = new URIImpl(this.namespace + "#predicted");
-		this.knownGraph = new URIImpl(this.namespace + "#known");
+		this(namespace, Format.TRIG);
+	}
+
+	public RDFSerializer(String namespace, Format format) {
+		this.format = format;
+		this.entityGraph = encodeURI(namespace + "#recognized");
+		this.predictionGraph = encodeURI(namespace + "#predicted");
+		this.knownGraph = encodeURI(namespace + "#known");
 	}
-	
-	
+
+	/**
+	 * Returns the whole serialization in memory, prefer
+	 * {@link #write(Document, KnowledgeBase, OutputStream)} for large
+	 * results.
+	 */
 	@Override
 	public Reader serialize(Document document, KnowledgeBase kb) throws Exception {
-		MemoryStore store = new MemoryStore();
-		SailRepository repos = new SailRepository(store);
-		repos.initialize();
-		SailRepositoryConnection conn = repos.getConnection();
-		
-		for(TokenSequence<SemanticEntity> ts : document.getResolvedSubjects()) {
-			
-			String subject = ts.getValue().getSubjectURI();
-			String predicate = kb.getURI(ts.getValue().getPropertyIndex());
-			String object = ts.toString();
-			
-			conn.add(new StatementImpl(new URIImpl(subject), new URIImpl(predicate), new LiteralImpl(object, "en")), entityGraph);
-
-			for(int type : ts.getTokens().get(0).getTypes(1.0).toArray()) {
-				conn.add(new StatementImpl(new URIImpl(subject), RDF.TYPE, new URIImpl(kb.getURI(type))), entityGraph);
+		StringWriter w = new StringWriter();
+		write(document, kb, w);
+		return new StringReader(w.toString());
+	}
+
+	/**
+	 * Writes the serialization in UTF-8 to <code>out</code>, which is
+	 * flushed but not closed.
+	 */
+	@Override
+	public void write(Document document, KnowledgeBase kb, OutputStream out)
+			throws Exception {
+		Writer w = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+		write(document, kb, w);
+		w.flush();
+	}
+
+	private void write(Document document, KnowledgeBase kb, Writer w)
+			throws Exception {
+
+		List<TokenSequence<SemanticEntity>> subjects = document
+				.getResolvedSubjects();
+		DirectedGraph<Integer, RDFEdge> predictions = document
+				.getPredictionGraph();
+		DirectedGraph<Integer, RDFEdge> known = document.getGraph();
+
+		// collect every index first and resolve them at once
+		TIntHashSet indexes = new TIntHashSet();
+		int[][] types = new int[subjects.size()][];
+		int[][] predictedTypes = new int[subjects.size()][];
+		for (int i = 0; i < subjects.size(); i++) {
+			TokenSequence<SemanticEntity> ts = subjects.get(i);
+			indexes.add(ts.getValue().getPropertyIndex());
+			types[i] = ts.getTokens().get(0).getTypes(1.0).toArray();
+			predictedTypes[i] = ts.getTokens().get(0).getPredictedTypes(0)
+					.toArray();
+			indexes.addAll(types[i]);
+			indexes.addAll(predictedTypes[i]);
+		}
+		addIndexes(predictions, indexes);
+		addIndexes(known, indexes);
+		TIntObjectHashMap<String> uris = resolve(kb, indexes.toArray());
+
+		Quads quads = new Quads(w);
+
+		// a subject is mentioned more than once, write its statements once
+		Set<String> written = new HashSet<String>();
+
+		for (int i = 0; i < subjects.size(); i++) {
+			TokenSequence<SemanticEntity> ts = subjects.get(i);
+			String subject = encodeURI(ts.getValue().getSubjectURI());
+			String property = uris.get(ts.getValue().getPropertyIndex());
+			String literal = encodeLiteral(ts.toString(), "en");
+			if (written.add(subject + property + literal)) {
+				quads.write(subject, property, literal, entityGraph);
+			}
+			for (int type : types[i]) {
+				if (written.add(subject + type)) {
+					quads.write(subject, TYPE, uris.get(type), entityGraph);
+				}
+			}
+		}
+
+		written.clear();
+		for (int i = 0; i < subjects.size(); i++) {
+			String subject = encodeURI(subjects.get(i).getValue()
+					.getSubjectURI());
+			for (int type : predictedTypes[i]) {
+				if (written.add(subject + type)) {
+					quads.write(subject, TYPE, uris.get(type), predictionGraph);
+				}
 			}
+		}
+
+		writeGraph(quads, predictions, uris, predictionGraph);
+		writeGraph(quads, known, uris, knownGraph);
+		quads.close();
+	}
 
+	private static void addIndexes(DirectedGraph<Integer, RDFEdge> graph,
+			TIntHashSet indexes) {
+		if (graph == null) {
+			return;
 		}
-		
-		for(TokenSequence<SemanticEntity> ts : document.getResolvedSubjects()) {
-			String subject = ts.getValue().getSubjectURI();
-			for(int type : ts.getTokens().get(0).getPredictedTypes(0).toArray()) {
-				conn.add(new StatementImpl(new URIImpl(subject), RDF.TYPE, new URIImpl(kb.getURI(type))), predictionGraph);
+		for (int v : graph.getVertices()) {
+			indexes.add(v);
+			for (RDFEdge edge : graph.getOutEdges(v)) {
+				indexes.add(edge.getPredicate());
 			}
 		}
-		
-		for(int v : document.getPredictionGraph().getVertices()) {
-			for(RDFEdge edge : document.getPredictionGraph().getOutEdges(v)) {
-				int v1 = document.getPredictionGraph().getDest(edge);
-				
-				conn.add(new StatementImpl(new URIImpl(kb.getURI(v)), new URIImpl(kb.getURI(edge.getPredicate())), new URIImpl(kb.getURI(v1))), predictionGraph);
+	}
+
+	/**
+	 * @return the encoded URIs by index
+	 */
+	private static TIntObjectHashMap<String> resolve(KnowledgeBase kb,
+			int[] indexes) throws Exception {
+		TIntObjectHashMap<String> uris = new TIntObjectHashMap<String>(
+				indexes.length);
+		RemoteCursor rs = kb.getURIs(indexes);
+		try {
+			while (rs.next()) {
+				uris.put(rs.getInt(1), encodeURI(rs.getString(2)));
 			}
+		} finally {
+			rs.close();
 		}
-		
-		
-		for(int v : document.getGraph().getVertices()) {
-			for(RDFEdge edge : document.getGraph().getOutEdges(v)) {
-				int v1 = document.getGraph().getDest(edge);
-				
-				conn.add(new StatementImpl(new URIImpl(kb.getURI(v)), new URIImpl(kb.getURI(edge.getPredicate())), new URIImpl(kb.getURI(v1))), knownGraph);
+		for (int index : indexes) {
+			if (!uris.containsKey(index)) {
+				throw new Exception("URI with index: " + index
+						+ " is not indexed");
 			}
 		}
-		
-		conn.commit();
-		StringWriter w = new StringWriter();
-		conn.export(new TriGWriter(w));
-		conn.close();
-		repos.shutDown();
-		store.shutDown();
-		return new StringReader(w.toString());
+		return uris;
+	}
+
+	private static void writeGraph(Quads quads,
+			DirectedGraph<Integer, RDFEdge> graph,
+			TIntObjectHashMap<String> uris, String graphName)
+			throws IOException {
+		if (graph == null) {
+			return;
+		}
+		for (int v : graph.getVertices()) {
+			for (RDFEdge edge : graph.getOutEdges(v)) {
+				int v1 = graph.getDest(edge);
+				quads.write(uris.get(v), uris.get(edge.getPredicate()), uris
+						.get(v1), graphName);
+			}
+		}
+	}
+
+	/**
+	 * Writes statements in the configured format. TriG statements are
+	 * grouped into a block per graph as long as the graph does not change.
+	 */
+	private class Quads {
+
+		private final Writer w;
+
+		private String graph;
+
+		Quads(Writer w) {
+			this.w = w;
+		}
+
+		void write(String subject, String predicate, String object,
+				String graphName) throws IOException {
+			if (format == Format.NQUADS) {
+				w.write(subject);
+				w.write(' ');
+				w.write(predicate);
+				w.write(' ');
+				w.write(object);
+				w.write(' ');
+				w.write(graphName);
+				w.write(" .\n");
+				return;
+			}
+			if (!graphName.equals(graph)) {
+				close();
+				w.write(graphName);
+				w.write(" {\n");
+				graph = graphName;
+			}
+			w.write('\t');
+			w.write(subject);
+			w.write(' ');
+			w.write(predicate);
+			w.write(' ');
+			w.write(object);
+			w.write(" .\n");
+		}
+
+		void close() throws IOException {
+			if (graph != null) {
+				w.write("}\n");
+				graph = null;
+			}
+		}
+	}
+
+	static String encodeURI(String uri) {
+		StringBuilder b = new StringBuilder(uri.length() + 2);
+		b.append('<');
+		for (int i = 0; i < uri.length(); i++) {
+			char c = uri.charAt(i);
+			if (c <= ' ' || c == '<' || c == '>' || c == '"' || c == '{'
+					|| c == '}' || c == '|' || c == '^' || c == '`'
+					|| c == '\\') {
+				appendUnicode(b, c);
+			} else {
+				b.append(c);
+			}
+		}
+		return b.append('>').toString();
+	}
+
+	static String encodeLiteral(String literal, String language) {
+		StringBuilder b = new StringBuilder(literal.length() + 6);
+		b.append('"');
+		for (int i = 0; i < literal.length(); i++) {
+			char c = literal.charAt(i);
+			switch (c) {
+			case '"':
+				b.append("\\\"");
+				break;
+			case '\\':
+				b.append("\\\\");
+				break;
+			case '\n':
+				b.append("\\n");
+				break;
+			case '\r':
+				b.append("\\r");
+				break;
+			case '\t':
+				b.append("\\t");
+				break;
+			default:
+				if (c < ' ') {
+					appendUnicode(b, c);
+				} else {
+					b.append(c);
+				}
+			}
+		}
+		return b.append("\"@").append(language).toString();
+	}
+
+	private static void appendUnicode(StringBuilder b, char c) {
+		String hex = Integer.toHexString(c).toUpperCase();
+		b.append("\\u");
+		for (int i = hex.length(); i < 4; i++) {
+			b.append('0');
+		}
+		b.append(hex);
+	}
+
+	@Override
+	public Set<Artifact> getRequiredArtifacts() {
+		return EnumSet.of(Artifact.SUBJECTS, Artifact.TYPES,
+				Artifact.PREDICTIONS, Artifact.FACTS);
 	}
 
 }
@@ -23,14 +23,29 @@
 
 package de.dfki.km.perspecting.obie.postprocessor;
 
+import gnu.trove.TIntHashSet;
+import gnu.trove.TIntObjectHashMap;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.connection.RemoteCursor;
+import de.dfki.km.perspecting.obie.model.Artifact;
+import de.dfki.km.perspecting.obie.model.DataSheet;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.SemanticEntity;
-import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
 
 /**
  * 
@@ -40,120 +55,284 @@ import de.dfki.km.perspecting.obie.model.Token;
  * RDFa content is embedded into the existing markup. Please note that the mediatype
  * of the original HTML code is not changed.
  * 
+ * The content is written as it is annotated, in one pass over the annotated
+ * tokens. All property URIs are looked up in a single query before.
+ * 
  * @author adrian
  *
  */
-public class RDFaSerializer implements Serializer {
+public class RDFaSerializer implements StreamingSerializer,
+		SelectiveSerializer {
 
 	private static final int snippetLength = 20;
 
+	/**
+	 * Returns the whole serialization in memory, prefer
+	 * {@link #write(Document, KnowledgeBase, OutputStream)} for large
+	 * documents.
+	 */
 	@Override
 	public Reader serialize(Document document, KnowledgeBase kb)
 			throws Exception {
+		StringWriter w = new StringWriter();
+		write(document, kb, w);
+		return new StringReader(w.toString());
+	}
 
-		switch (document.getMimeType()) {
-
-		case TEXT:
-			return serializeTextPlain(document, kb, document.getContent());
-		case HTML:
-			return serializeTextHtml(document, kb, document.getContent());
+	/**
+	 * Writes the serialization in UTF-8 to <code>out</code>, which is
+	 * flushed but not closed.
+	 */
+	@Override
+	public void write(Document document, KnowledgeBase kb, OutputStream out)
+			throws Exception {
+		Writer w = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+		write(document, kb, w);
+		w.flush();
+	}
 
-		default:
-			return serializeTextPlain(document, kb, document.getContent());
+	/**
+	 * Writes the serialization to <code>w</code>, which is neither flushed
+	 * nor closed.
+	 */
+	public void write(Document document, KnowledgeBase kb, Writer w)
+			throws Exception {
+		if (document.getMimeType() == MediaType.HTML
+				|| document.getMimeType() == MediaType.XHTML) {
+			annotate(document, kb, w, false);
+		} else {
+			writeTextPlain(document, kb, w);
 		}
-
 	}
 
 	/**
-	 * Returns a {@link Reader} containing the document content in RDFa format.
-	 * @param text the original text content.
+	 * Wraps the plain text content into an XHTML+RDFa document.
 	 */
-	private Reader serializeTextPlain(Document document, KnowledgeBase kb,
-			String text) {
-
-		StringBuilder content = new StringBuilder();
-
-		String snippet = document.getPlainTextContent().substring(0,
-				Math.min(snippetLength, document.getPlainTextContent().length()));
-
-		content
-				.append("<?xml version='1.0' encoding='UTF-8'?>\n"
-						+ "<!DOCTYPE html PUBLIC '-//W3C//DTD XHTML+RDFa 1.0//EN' 'http://www.w3.org/MarkUp/DTD/xhtml-rdfa-1.dtd'>\n"
-						+ "<html xmlns=\"http://www.w3.org/1999/xhtml\">\n"
-						+ "<head>\n"
-						+ "  <title>"
-						+ snippet
-						+ "...</title>\n"
-						+ "  <meta http-equiv=\"Content-Type\" content=\"text/html;charset=utf-8\"/>\n"
-						+ "</head>\n");
-
-		content.append("<body>\n");
-		annotate(document, kb, text, content);
-		content.append("\n</body>\n");
-		content.append("</html>\n");
-		return new StringReader(content.toString());
+	private void writeTextPlain(Document document, KnowledgeBase kb, Writer w)
+			throws Exception {
 
+		CharSequence text = document.getPlainText();
+
+		w.write("<?xml version='1.0' encoding='UTF-8'?>\n"
+				+ "<!DOCTYPE html PUBLIC '-//W3C//DTD XHTML+RDFa 1.0//EN' 'http://www.w3.org/MarkUp/DTD/xhtml-rdfa-1.dtd'>\n"
+				+ "<html xmlns=\"http://www.w3.org/1999/xhtml\">\n"
+				+ "<head>\n" + "  <title>");
+		new Copy(w, text, true).to(Math.min(snippetLength, text.length()));
+		w.write("...</title>\n"
+				+ "  <meta http-equiv=\"Content-Type\" content=\"text/html;charset=utf-8\"/>\n"
+				+ "</head>\n");
+
+		w.write("<body>\n");
+		annotate(document, kb, w, true);
+		w.write("\n</body>\n");
+		w.write("</html>\n");
 	}
 
 	/**
-	 * Returns a {@link Reader} containing the document content in RDFa format.
-	 * @param text the original text content.
+	 * Annotates text content with SPAN elements and RDFa content. Token
+	 * offsets are mapped to the original content, so markup and character
+	 * references are copied unchanged. The tokens of an entity share one
+	 * element, unless there is markup between them.
+	 * 
+	 * @param escape
+	 *            whether the content is plain text that has to be escaped
 	 */
-	private Reader serializeTextHtml(Document document, KnowledgeBase kb,
-			String text) {
-		StringBuilder content = new StringBuilder();
-		annotate(document, kb, text, content);
-		return new StringReader(content.toString());
+	private void annotate(Document document, KnowledgeBase kb, Writer w,
+			boolean escape) throws Exception {
+
+		DataSheet data = document.getData();
+		CharSequence text = document.getContentSequence();
+		Copy copy = new Copy(w, text, escape);
 
+		TIntObjectHashMap<String> properties = resolveProperties(document, kb);
+
+		SemanticEntity open = null;
+
+		for (int t : data.getIntegerKeys(TokenSequence.SUBJECT)) {
+
+			int start = document.getContentOffset(t);
+			int end = document.getContentOffset((Integer) data.get(
+					TokenSequence.TOKEN, t));
+
+			List<SemanticEntity> e = data.get(TokenSequence.SUBJECT, t);
+			SemanticEntity entity = e.isEmpty() ? null : e.get(0);
+
+			if (open != null
+					&& !(entity != null && continues(open, entity) && copy
+							.isPlain(start))) {
+				w.write("</span>");
+				open = null;
+			}
+			copy.to(start);
+
+			if (entity != null && open == null) {
+				w.write("<span ");
+				String uri = entity.getSubjectURI();
+				if (uri != null) {
+					w.write("about=\"");
+					w.write(escapeAttribute(uri));
+					w.write("\" ");
+				}
+				w.write("property=\"");
+				w.write(properties.get(entity.getPropertyIndex()));
+				w.write("\">");
+				open = entity;
+			}
+			copy.to(end);
+		}
+
+		if (open != null) {
+			w.write("</span>");
+		}
+		copy.to(text.length());
 	}
 
 	/**
-	 * Annotates text content with SPAN elements and
-	 * RDFa content.
-	 * @param text the original text content.
+	 * @return whether <code>next</code> is the inside of the entity that
+	 *         starts with <code>open</code>
 	 */
-	private void annotate(Document document, KnowledgeBase kb, String text, StringBuilder content) {
-		int positionInText = 0;
+	private static boolean continues(SemanticEntity open, SemanticEntity next) {
+		return "I".equals(next.getPosition())
+				&& open.getPropertyIndex() == next.getPropertyIndex()
+				&& (open.getSubjectURI() == null ? next.getSubjectURI() == null
+						: open.getSubjectURI().equals(next.getSubjectURI()));
+	}
 
-		for (Token t : document) {
+	/**
+	 * @return the escaped URIs of all properties of annotated tokens by index
+	 */
+	private static TIntObjectHashMap<String> resolveProperties(
+			Document document, KnowledgeBase kb) throws Exception {
+		DataSheet data = document.getData();
+		TIntHashSet indexes = new TIntHashSet();
+		for (int t : data.getIntegerKeys(TokenSequence.SUBJECT)) {
+			List<SemanticEntity> e = data.get(TokenSequence.SUBJECT, t);
+			if (!e.isEmpty()) {
+				indexes.add(e.get(0).getPropertyIndex());
+			}
+		}
 
-			int start = t.getStart();
-			int end = t.getEnd();
+		TIntObjectHashMap<String> uris = new TIntObjectHashMap<String>();
+		if (indexes.isEmpty()) {
+			return uris;
+		}
+		RemoteCursor rs = kb.getURIs(indexes.toArray());
+		try {
+			while (rs.next()) {
+				uris.put(rs.getInt(1), escapeAttribute(rs.getString(2)));
+			}
+		} finally {
+			rs.close();
+		}
+		for (int index : indexes.toArray()) {
+			if (!uris.containsKey(index)) {
+				throw new Exception("URI with index: " + index
+						+ " is not indexed");
+			}
+		}
+		return uris;
+	}
 
-			if (positionInText < start) {
-				content.append(text.subSequence(positionInText, start));
+	static String escapeAttribute(String value) {
+		StringBuilder b = null;
+		for (int i = 0; i < value.length(); i++) {
+			String entity = entity(value.charAt(i));
+			if (entity != null && b == null) {
+				b = new StringBuilder(value.length() + 16);
+				b.append(value, 0, i);
 			}
+			if (b != null) {
+				if (entity != null) {
+					b.append(entity);
+				} else {
+					b.append(value.charAt(i));
+				}
+			}
+		}
+		return b == null ? value : b.toString();
+	}
+
+	private static String entity(char c) {
+		switch (c) {
+		case '&':
+			return "&amp;";
+		case '<':
+			return "&lt;";
+		case '>':
+			return "&gt;";
+		case '"':
+			return "&quot;";
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Copies the content to the writer piece by piece through a small
+	 * buffer.
+	 */
+	private static class Copy {
 
-			List<SemanticEntity> e = t.getAnnotations();
+		private final char[] buffer = new char[4096];
 
-			if (e.isEmpty()) {
-				content.append(t);
-			} else {
-				SemanticEntity entity = e.get(0);
+		private final Writer w;
 
-				content.append("<span ");
-				String uri = entity.getSubjectURI();
-				if (uri != null) {
-					content.append("about=\"" + uri + "\"");
+		private final CharSequence text;
+
+		private final boolean escape;
+
+		/** Position of the next character to copy. */
+		private int position;
+
+		Copy(Writer w, CharSequence text, boolean escape) {
+			this.w = w;
+			this.text = text;
+			this.escape = escape;
+		}
+
+		/**
+		 * @return whether the content up to <code>end</code> is free of
+		 *         markup
+		 */
+		boolean isPlain(int end) {
+			if (escape) {
+				return true;
+			}
+			for (int i = position; i < end; i++) {
+				if (text.charAt(i) == '<') {
+					return false;
 				}
-				String property = "";
-				try {
-					property = kb.getURI(entity.getPropertyIndex());
-				} catch (Exception e1) {assert false : "must not occur";}
-				content.append(" property=\"" + property + "\"");
-				content.append(">");
-				content.append(t.toString());
-				content.append("</span>");
 			}
-
-			positionInText = end;
+			return true;
 		}
-		
-		if (positionInText < text.length()) {
-			content.append(text.substring(positionInText));
+
+		/**
+		 * Copies the content up to <code>end</code>.
+		 */
+		void to(int end) throws IOException {
+			int n = 0;
+			for (; position < end; position++) {
+				char c = text.charAt(position);
+				String entity = escape ? entity(c) : null;
+				if (entity != null) {
+					w.write(buffer, 0, n);
+					n = 0;
+					w.write(entity);
+					continue;
+				}
+				buffer[n++] = c;
+				if (n == buffer.length) {
+					w.write(buffer, 0, n);
+					n = 0;
+				}
+			}
+			w.write(buffer, 0, n);
 		}
+	}
 
-		
+	@Override
+	public Set<Artifact> getRequiredArtifacts() {
+		return EnumSet.of(Artifact.LITERALS, Artifact.SUBJECTS);
 	}
 
 }
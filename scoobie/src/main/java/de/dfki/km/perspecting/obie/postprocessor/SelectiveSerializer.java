@@ -0,0 +1,43 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.postprocessor;
+
+import java.util.Set;
+
+import de.dfki.km.perspecting.obie.model.Artifact;
+
+/**
+ * A {@link Serializer} that writes only some artifacts of a document.
+ * Extraction steps that contribute to none of them need not run. Other
+ * serializers are assumed to write all artifacts.
+ */
+public interface SelectiveSerializer extends Serializer {
+
+	/**
+	 * Returns the artifacts of a document this serializer writes.
+	 */
+	Set<Artifact> getRequiredArtifacts();
+
+}
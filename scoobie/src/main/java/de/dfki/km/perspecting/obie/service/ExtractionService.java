@@ -0,0 +1,399 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import de.dfki.km.perspecting.obie.connection.BatchingKnowledgeBase;
+import de.dfki.km.perspecting.obie.connection.HsqlKB;
+import de.dfki.km.perspecting.obie.connection.PostgresKB;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.postprocessor.Serializer;
+import de.dfki.km.perspecting.obie.postprocessor.StreamingSerializer;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+import de.dfki.km.perspecting.obie.workflow.Metrics;
+import de.dfki.km.perspecting.obie.workflow.OperationStatistics;
+import de.dfki.km.perspecting.obie.workflow.Pipeline;
+import de.dfki.km.perspecting.obie.workflow.PipelinePlanner;
+
+/**
+ * An embedded HTTP server that runs documents through one shared
+ * {@link Pipeline}, so knowledge base and models are loaded only once. The
+ * workers use the knowledge base concurrently, so it must be thread-safe, as
+ * {@link PostgresKB} and {@link HsqlKB} are.
+ * 
+ * <pre>
+ * POST /extract?uri=&lt;document uri&gt;&amp;format=&lt;name&gt;&amp;type=text|html&amp;lang=en|de
+ * GET  /metrics
+ * </pre>
+ * 
+ * The body of an extraction request is the document, in the charset of its
+ * content type or UTF-8. The result is streamed back in the requested
+ * format, the first added format is the default. A fixed number of workers
+ * runs the pipeline; at most <code>queueCapacity</code> further requests
+ * wait for a worker, any more are rejected with status 503 right away.
+ * 
+ * Only the steps the requested format and the template depend on are run,
+ * see {@link PipelinePlanner}. Build the pipeline on a
+ * {@link BatchingKnowledgeBase} to merge the URI lookups of concurrent
+ * requests. <code>/metrics</code> lists the statistics of the pipeline's
+ * {@link Metrics}, including the latency of requests.
+ */
+public class ExtractionService {
+
+	private static final String PREFIX = "ExtractionService.";
+
+	private final Logger log = Logger.getLogger(ExtractionService.class
+			.getName());
+
+	private final Pipeline pipeline;
+
+	private final PipelinePlanner planner;
+
+	private final String template;
+
+	private final int workers;
+
+	private final Semaphore admission;
+
+	private final Map<String, Format> formats = new LinkedHashMap<String, Format>();
+
+	private HttpServer server;
+
+	private ExecutorService extraction;
+
+	private ExecutorService connections;
+
+	private long started;
+
+	private static class Format {
+
+		final String contentType;
+
+		final Serializer serializer;
+
+		Format(String contentType, Serializer serializer) {
+			this.contentType = contentType;
+			this.serializer = serializer;
+		}
+	}
+
+	/**
+	 * @param pipeline
+	 *            a configured pipeline shared by all requests
+	 * @param template
+	 *            the query template of the created documents
+	 * @param workers
+	 *            number of documents extracted at once
+	 * @param queueCapacity
+	 *            number of requests that may wait for a worker
+	 */
+	public ExtractionService(Pipeline pipeline, String template, int workers,
+			int queueCapacity) {
+		this.pipeline = pipeline;
+		this.planner = new PipelinePlanner(pipeline);
+		this.template = template;
+		this.workers = workers;
+		this.admission = new Semaphore(workers + queueCapacity);
+	}
+
+	/**
+	 * Adds an output format, selected by <code>format=name</code>.
+	 */
+	public synchronized void addFormat(String name, String contentType,
+			Serializer serializer) {
+		formats.put(name, new Format(contentType, serializer));
+	}
+
+	/**
+	 * Starts the server.
+	 * 
+	 * @param address
+	 *            port 0 picks a free port
+	 * @return the bound address
+	 */
+	public synchronized InetSocketAddress start(InetSocketAddress address)
+			throws IOException {
+		if (formats.isEmpty()) {
+			throw new IllegalStateException("no output format");
+		}
+		server = HttpServer.create(address, 0);
+		extraction = Executors.newFixedThreadPool(workers);
+		connections = Executors.newCachedThreadPool();
+		server.setExecutor(connections);
+		server.createContext("/extract", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					extract(exchange);
+				} finally {
+					exchange.close();
+				}
+			}
+		});
+		server.createContext("/metrics", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					metrics(exchange);
+				} finally {
+					exchange.close();
+				}
+			}
+		});
+		server.start();
+		started = System.nanoTime();
+		log.info("extraction service listening on " + server.getAddress());
+		return server.getAddress();
+	}
+
+	/**
+	 * Stops accepting requests and waits at most <code>delay</code> seconds
+	 * for running requests.
+	 */
+	public synchronized void stop(int delay) {
+		if (server == null) {
+			return;
+		}
+		server.stop(delay);
+		extraction.shutdownNow();
+		connections.shutdownNow();
+		server = null;
+	}
+
+	private void extract(HttpExchange exchange) throws IOException {
+		if (!"POST".equals(exchange.getRequestMethod())) {
+			respond(exchange, 405, "POST a document");
+			return;
+		}
+
+		Map<String, String> parameters = parse(exchange.getRequestURI()
+				.getRawQuery());
+		final Format format;
+		final Language language;
+		final MediaType type;
+		final URI uri;
+		try {
+			format = format(parameters.get("format"));
+			language = language(parameters.get("lang"));
+			type = "html".equals(parameters.get("type")) ? MediaType.HTML
+					: MediaType.TEXT;
+			uri = new URI(parameters.containsKey("uri") ? parameters
+					.get("uri") : "urn:request:" + System.nanoTime());
+		} catch (Exception e) {
+			respond(exchange, 400, e.getMessage());
+			return;
+		}
+
+		if (!admission.tryAcquire()) {
+			statistics("rejected").record(0, -1);
+			exchange.getResponseHeaders().set("Retry-After", "1");
+			respond(exchange, 503, "too many requests");
+			return;
+		}
+
+		OperationStatistics stats = statistics("extract");
+		long start = System.nanoTime();
+		boolean admitted = true;
+		try {
+			final String text = read(exchange);
+			Future<Document> result = extraction
+					.submit(new Callable<Document>() {
+						@Override
+						public Document call() throws Exception {
+							Document document = pipeline.createDocument(text,
+									uri, type, template, language);
+							planner.execute(document, format.serializer);
+							return document;
+						}
+					});
+
+			Document document;
+			try {
+				document = result.get();
+			} catch (ExecutionException e) {
+				throw e.getCause();
+			}
+
+			exchange.getResponseHeaders().set("Content-Type",
+					format.contentType);
+			exchange.sendResponseHeaders(200, 0);
+			OutputStream out = exchange.getResponseBody();
+			write(format.serializer, document, out);
+			out.flush();
+			// the response is written, release before the client sees its
+			// end so that it may send the next request right away
+			admission.release();
+			admitted = false;
+			out.close();
+			stats.record(System.nanoTime() - start, -1);
+		} catch (Throwable e) {
+			stats.error();
+			log.log(Level.SEVERE, e.getMessage(), e);
+			if (exchange.getResponseCode() == -1) {
+				respond(exchange, 500, String.valueOf(e.getMessage()));
+			}
+		} finally {
+			if (admitted) {
+				admission.release();
+			}
+		}
+	}
+
+	private void write(Serializer serializer, Document document,
+			OutputStream out) throws Exception {
+		if (serializer instanceof StreamingSerializer) {
+			((StreamingSerializer) serializer).write(document, pipeline
+					.getKnowledgeBase(), out);
+			return;
+		}
+		Reader reader = serializer.serialize(document, pipeline
+				.getKnowledgeBase());
+		Writer w = new OutputStreamWriter(out, "UTF-8");
+		char[] buffer = new char[4096];
+		for (int n = reader.read(buffer); n >= 0; n = reader.read(buffer)) {
+			w.write(buffer, 0, n);
+		}
+		w.flush();
+	}
+
+	/**
+	 * Lists the statistics of the pipeline, one per line, followed by the
+	 * throughput of requests.
+	 */
+	private void metrics(HttpExchange exchange) throws IOException {
+		StringBuilder b = new StringBuilder();
+		for (OperationStatistics.Snapshot s : pipeline.getMetrics().snapshot()
+				.values()) {
+			b.append(s).append('\n');
+		}
+		double seconds = (System.nanoTime() - started) / 1e9;
+		b.append(String.format("uptime=%1.3fs\tthroughput=%1.3f/s\n",
+				seconds, statistics("extract").getCount() / seconds));
+		respond(exchange, 200, b.toString());
+	}
+
+	private OperationStatistics statistics(String operation) {
+		return pipeline.getMetrics().getStatistics(PREFIX + operation);
+	}
+
+	private synchronized Format format(String name) {
+		if (name == null) {
+			return formats.values().iterator().next();
+		}
+		Format format = formats.get(name);
+		if (format == null) {
+			throw new IllegalArgumentException("unknown format: " + name);
+		}
+		return format;
+	}
+
+	private static Language language(String value) {
+		if (value == null) {
+			return Language.EN;
+		}
+		for (Language language : Language.values()) {
+			if (language.getValue().equals(value)) {
+				return language;
+			}
+		}
+		throw new IllegalArgumentException("unknown language: " + value);
+	}
+
+	private static String read(HttpExchange exchange) throws IOException {
+		String charset = "UTF-8";
+		String contentType = exchange.getRequestHeaders().getFirst(
+				"Content-Type");
+		if (contentType != null) {
+			for (String parameter : contentType.split(";")) {
+				parameter = parameter.trim();
+				if (parameter.toLowerCase().startsWith("charset=")) {
+					charset = parameter.substring("charset=".length());
+				}
+			}
+		}
+		InputStream in = exchange.getRequestBody();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+			bytes.write(buffer, 0, n);
+		}
+		return bytes.toString(charset);
+	}
+
+	private static Map<String, String> parse(String query)
+			throws IOException {
+		Map<String, String> parameters = new HashMap<String, String>();
+		if (query == null) {
+			return parameters;
+		}
+		for (String pair : query.split("&")) {
+			int i = pair.indexOf('=');
+			if (i > 0) {
+				parameters.put(URLDecoder.decode(pair.substring(0, i),
+						"UTF-8"), URLDecoder.decode(pair.substring(i + 1),
+						"UTF-8"));
+			}
+		}
+		return parameters;
+	}
+
+	private static void respond(HttpExchange exchange, int status,
+			String message) throws IOException {
+		byte[] body = message.getBytes("UTF-8");
+		exchange.getResponseHeaders().set("Content-Type",
+				"text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+
+}
@@ -26,124 +26,193 @@ package de.dfki.km.perspecting.obie.transducer;
 import java.io.BufferedReader;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
-import cc.mallet.classify.Classification;
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
 import de.dfki.km.perspecting.obie.corpus.LabeledTextCorpus;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.SemanticEntity;
 import de.dfki.km.perspecting.obie.model.Token;
 import de.dfki.km.perspecting.obie.model.TokenSequence;
 import de.dfki.km.perspecting.obie.transducer.model.EntityClassifier;
+import de.dfki.km.perspecting.obie.transducer.model.MaxentScorer;
+import de.dfki.km.perspecting.obie.transducer.model.ModelRegistry;
 import de.dfki.km.perspecting.obie.workflow.Transducer;
 
 public class EntityClassification extends Transducer {
 
 	private final Logger log = Logger.getLogger(EntityClassification.class
 			.getName());
+	private static final int[] NGRAM_SIZES = new int[] { 1, 2, 3 };
+	private static final String[] POSTAGS = new String[] { "VB", "ADJ",
+			"NNP", "NN", "NNS" };
+
 	private double threshold;
 
 	private EntityClassifier model;
+
+	private MaxentScorer scorer;
 	
 	public EntityClassification(double threshold, EntityClassifier model) {
 		this.threshold = threshold;
 		this.model = model;
 	}
 
+	/**
+	 * Classifies with a compact scorer exported from a trained
+	 * {@link EntityClassifier}.
+	 */
+	public EntityClassification(double threshold, MaxentScorer scorer) {
+		this.threshold = threshold;
+		this.scorer = scorer;
+	}
+
+	/**
+	 * Classifies with the scorer loaded as <code>name</code> into
+	 * <code>models</code>.
+	 */
+	public EntityClassification(double threshold, ModelRegistry models,
+			String name) {
+		this(threshold, models.getScorer(name));
+	}
+
+	@Override
+	public String getFingerprint() throws Exception {
+		long checksum = scorer != null ? scorer.getChecksum()
+				: model != null ? model.getChecksum() : 0;
+		return super.getFingerprint() + "(" + threshold + ", "
+				+ Long.toHexString(checksum) + ")";
+	}
+
 	@Override
 	public void transduce(Document record, KnowledgeBase kb)
 			throws Exception {
 
-		if (model != null) {
+		if (scorer != null) {
 			List<TokenSequence<String>> phrases = record.getNounPhrases();
-			int exampleCount = 0;
+
+			Map<Integer, List<String[]>> featureSentences = new HashMap<Integer, List<String[]>>();
+			int[] features = new int[64];
 			for (TokenSequence<String> phrase : phrases) {
-				HashSet<Integer> textIndexes = new HashSet<Integer>();
-				for (Token t : phrase.getTokens()) {
-					textIndexes.add(t.getStart());
+				List<String> strings = extractFeatures(phrase,
+						featureSentences);
+				int count = MaxentScorer.countFeatures(strings);
+				if (features.length < count) {
+					features = new int[Math.max(count, 2 * features.length)];
 				}
+				int length = scorer.getFeatureIndexes(strings, features);
+				long top2 = scorer.scoreTop2(features, length);
+
+				double val = MaxentScorer.getMargin(top2);
+				// labels that are no type of the knowledge base are -1
+				int type = scorer.getType(MaxentScorer.getLabel(top2));
+				if (val > threshold && type >= 0) {
+					addType(phrase, type, val);
+				}
+			}
+		} else if (model != null) {
+			List<TokenSequence<String>> phrases = record.getNounPhrases();
 
-				Classification cl = classify(exampleCount++, phrase, model);
-
-				int typeIndex = -1;
-				double val = cl.getLabelVector().getValueAtRank(0)
-						- cl.getLabelVector().getValueAtRank(1);
-				if (val > threshold) {
-					typeIndex = Integer.parseInt(cl.getLabeling()
-							.getBestLabel().toString());
-					for (int t = 0; t < phrase.getTokens().size(); t++) {
-						Token token = phrase.getTokens().get(t);
-
-						SemanticEntity e = new SemanticEntity();
-						e.setSubjectIndex(-1);
-						e.setSubjectURI("_:bnode");
-						if (t == 0) {
-							e.setPosition("B");
-						} else {
-							e.setPosition("I");
-						}
-
-						token.addType(e, typeIndex, val);
+			Map<Integer, List<String[]>> featureSentences = new HashMap<Integer, List<String[]>>();
+			List<int[]> examples = new ArrayList<int[]>(phrases.size());
+			for (TokenSequence<String> phrase : phrases) {
+				examples.add(model.getFeatureIndexes(extractFeatures(phrase,
+						featureSentences)));
+			}
 
+			double[][] scores = model.classify(examples);
+
+			for (int p = 0; p < phrases.size(); p++) {
+				TokenSequence<String> phrase = phrases.get(p);
+
+				int best = 0;
+				double first = Double.NEGATIVE_INFINITY;
+				double second = 0;
+				for (int l = 0; l < scores[p].length; l++) {
+					if (scores[p][l] > first) {
+						second = Math.max(second, first);
+						first = scores[p][l];
+						best = l;
+					} else if (scores[p][l] > second) {
+						second = scores[p][l];
 					}
+				}
 
+				double val = first - second;
+				if (val > threshold) {
+					addType(phrase, Integer.parseInt(model.getLabel(best)
+							.toString()), val);
 				}
 			}
 		}
 
 	}
 
+	private void addType(TokenSequence<String> phrase, int typeIndex,
+			double val) {
+		for (int t = 0; t < phrase.getTokens().size(); t++) {
+			Token token = phrase.getTokens().get(t);
+
+			SemanticEntity e = new SemanticEntity();
+			e.setSubjectIndex(-1);
+			e.setSubjectURI("_:bnode");
+			if (t == 0) {
+				e.setPosition("B");
+			} else {
+				e.setPosition("I");
+			}
+
+			token.addType(e, typeIndex, val);
+		}
+	}
+
 	/**
-	 * @param exampleCount
+	 * Extracts the classification features of an entity from its sentence.
+	 * 
 	 * @param entity
+	 * @param featureSentences
+	 *            word features of already visited sentences, by start of
+	 *            sentence
 	 * @return
-	 * @throws Exception
 	 */
-	private Classification classify(int exampleCount, TokenSequence<?> entity,
-			EntityClassifier classifier) throws Exception {
+	private List<String> extractFeatures(TokenSequence<?> entity,
+			Map<Integer, List<String[]>> featureSentences) {
 		Token firstToken = entity.getTokens().get(0);
-		TokenSequence<Integer> sentence = firstToken.getSentence();
+		List<Token> sentence = firstToken.getSentence().getTokens();
 		int tokenCount = entity.getTokens().size();
-		int i = 0;
-		List<Integer> labelIndexes = new ArrayList<Integer>();
-		List<String[]> featureSentence = new ArrayList<String[]>();
-		for (Token t : sentence.getTokens()) {
-			if (t.equals(firstToken)) {
-				for (int j = i; j < i + tokenCount; j++) {
-					labelIndexes.add(j);
-				}
-			}
 
-			String[] feature = new String[3];
-			feature[0] = t.toString();
-			feature[1] = t.getPartOfSpeechTag();
-			feature[2] = t.getNounPhraseTag();
-			featureSentence.add(feature);
-			i++;
+		List<String[]> featureSentence = featureSentences.get(sentence.get(0)
+				.getStart());
+		if (featureSentence == null) {
+			featureSentence = new ArrayList<String[]>(sentence.size());
+			for (Token t : sentence) {
+				String[] feature = new String[3];
+				feature[0] = t.toString();
+				feature[1] = t.getPartOfSpeechTag();
+				feature[2] = t.getNounPhraseTag();
+				featureSentence.add(feature);
+			}
+			featureSentences.put(sentence.get(0).getStart(), featureSentence);
 		}
 
-		List<String> list = LabeledTextCorpus.extractFeatures(labelIndexes,
-				featureSentence, new int[] { 1, 2, 3 }, true, true, true, 1.0,
-				4, new String[] { "VB", "ADJ", "NNP", "NN", "NNS" });
-
-		StringBuilder corpusWriter = new StringBuilder();
-		corpusWriter.append(Integer.toString(exampleCount++));
-		corpusWriter.append(" ");
-		// this is a hack to pass mallet's vocabulary match
-		corpusWriter.append(classifier.getClassifier().getLabelAlphabet()
-				.lookupObject(0).toString());
-		for (String ft : list) {
-			corpusWriter.append(" ");
-			corpusWriter.append(ft);
+		List<Integer> labelIndexes = new ArrayList<Integer>(tokenCount);
+		int i = sentence.indexOf(firstToken);
+		if (i >= 0) {
+			for (int j = i; j < i + tokenCount; j++) {
+				labelIndexes.add(j);
+			}
 		}
-		corpusWriter.append("\n");
 
-		List<Classification> classification = classifier.test(corpusWriter
-				.toString());
-		return classification.get(0);
+		return LabeledTextCorpus.extractFeatures(labelIndexes,
+				featureSentence, NGRAM_SIZES, true, true, true, 1.0, 4,
+				POSTAGS);
 	}
 
 	/**
@@ -185,4 +254,14 @@ public class EntityClassification extends Transducer {
 				foundLines.size(), recall, precision);
 	}
 
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.NOUN_PHRASES);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.PREDICTIONS);
+	}
+
 }
@@ -25,6 +25,7 @@ package de.dfki.km.perspecting.obie.transducer;
 
 import java.io.BufferedReader;
 import java.io.Reader;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
@@ -35,6 +36,7 @@ import java.util.logging.Logger;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
 import de.dfki.km.perspecting.obie.connection.RemoteCursor;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.DoubleMatrix;
 import de.dfki.km.perspecting.obie.model.RDFEdge;
@@ -565,4 +567,27 @@ public class EntityDisambiguation extends Transducer {
 
 	}
 
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.SUBJECTS);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.SUBJECTS, Artifact.GRAPH);
+	}
+
+	@Override
+	public String getFingerprint() throws Exception {
+		StringBuilder b = new StringBuilder(super.getFingerprint());
+		b.append("(");
+		for (int i = 0; i < resolver.length; i++) {
+			if (i > 0) {
+				b.append(", ");
+			}
+			b.append(resolver[i].getClass().getName());
+		}
+		return b.append(")").toString();
+	}
+
 }
@@ -29,7 +29,9 @@ import gnu.trove.TObjectIntHashMap;
 
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import cern.colt.function.IntIntDoubleFunction;
@@ -39,6 +41,7 @@ import cern.colt.matrix.doublealgo.Statistic;
 import cern.colt.matrix.linalg.Algebra;
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
 import de.dfki.km.perspecting.obie.connection.RemoteCursor;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.DoubleMatrix;
 import de.dfki.km.perspecting.obie.model.RDFEdge;
@@ -479,4 +482,14 @@ public class FactRecommender extends Transducer {
 		}
 	}
 
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.SUBJECTS);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.PREDICTIONS);
+	}
+
 }
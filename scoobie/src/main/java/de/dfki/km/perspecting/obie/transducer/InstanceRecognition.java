@@ -29,6 +29,7 @@ import java.io.BufferedReader;
 import java.io.Reader;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -40,10 +41,12 @@ import java.util.logging.Logger;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
 import de.dfki.km.perspecting.obie.connection.RemoteCursor;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.SemanticEntity;
 import de.dfki.km.perspecting.obie.model.Token;
 import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.transducer.model.WarmStart;
 import de.dfki.km.perspecting.obie.workflow.Transducer;
 
 public class InstanceRecognition extends Transducer {
@@ -67,8 +70,15 @@ public class InstanceRecognition extends Transducer {
 
 		final List<TokenSequence<SemanticEntity>> matchingLiterals = new ArrayList<TokenSequence<SemanticEntity>>(
 				document.getRetrievedPropertyValues());
+		final WarmStart warmStart = document.getWarmStart();
 		try {
 			for (TokenSequence<SemanticEntity> matchingLiteral : matchingLiterals) {
+				if (warmStart != null
+						&& warmStart.isReused(matchingLiteral.getTokens()
+								.get(0))) {
+					// resolved in the near-duplicate
+					continue;
+				}
 				int literalValueIndex = matchingLiteral.getValue()
 						.getLiteralValueIndex();
 				literalKeyMap.put(matchingLiteral.getValue().toString(),
@@ -161,6 +171,11 @@ public class InstanceRecognition extends Transducer {
 				addTypeToSubjects(kb, subjects.toArray(), subjectsLiterals);
 
 			}
+
+			if (warmStart != null) {
+				warmStart.copySubjects(document);
+				warmStart.publish(document);
+			}
 		} catch (Exception e) {
 			log.log(Level.WARNING, e.getMessage(), e);
 			throw e;
@@ -304,4 +319,19 @@ public class InstanceRecognition extends Transducer {
 				);
 	}
 
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.LITERALS);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.SUBJECTS, Artifact.TYPES);
+	}
+
+	@Override
+	public String getFingerprint() throws Exception {
+		return super.getFingerprint() + "(" + collabseSymbols + ")";
+	}
+
 }
@@ -25,10 +25,13 @@ package de.dfki.km.perspecting.obie.transducer;
 
 import gnu.trove.TIntHashSet;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
 import de.dfki.km.perspecting.obie.connection.RemoteCursor;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.RDFEdge;
 import de.dfki.km.perspecting.obie.model.SemanticEntity;
@@ -82,4 +85,14 @@ public class KnownFactsRetrieval extends Transducer {
 
 	}
 
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.SUBJECTS, Artifact.GRAPH);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.FACTS);
+	}
+
 }
@@ -23,18 +23,22 @@
 
 package de.dfki.km.perspecting.obie.transducer;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.logging.Logger;
 
-import org.apache.hadoop.conf.Configuration;
-import org.apache.nutch.analysis.lang.LanguageIdentifier;
-
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.transducer.model.LanguageProfiles;
 import de.dfki.km.perspecting.obie.vocabulary.Language;
 import de.dfki.km.perspecting.obie.workflow.Transducer;
 
 /**
- * A language classifier based on a Nutch plugin.
+ * A language classifier based on the n-gram profiles of the Nutch language
+ * identifier plugin. Only a sample from the beginning of the text is scored,
+ * see {@link LanguageProfiles}. An instance can be shared by any number of
+ * pipelines.
  * 
  * 
  * @author adrian
@@ -42,7 +46,7 @@ import de.dfki.km.perspecting.obie.workflow.Transducer;
  */
 public class LanguageIdentification extends Transducer {
 
-	private final LanguageIdentifier li;
+	private final LanguageProfiles profiles;
 	private final Logger log = Logger.getLogger(LanguageIdentification.class
 			.getName());
 	private final Language defaultLanguage;
@@ -51,14 +55,29 @@ public class LanguageIdentification extends Transducer {
 	 * Creates a new language identifier and set a default language.
 	 * 
 	 * @param defaultLanguage
+	 * @throws IllegalStateException
+	 *             if the Nutch profiles are not on the class path
 	 */
 	public LanguageIdentification(Language defaultLanguage) {
-		this.li = new LanguageIdentifier(new Configuration());
+		try {
+			this.profiles = LanguageProfiles.getNutchProfiles();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		this.defaultLanguage = defaultLanguage;
+	}
+
+	/**
+	 * Creates a language identifier with other profiles.
+	 */
+	public LanguageIdentification(LanguageProfiles profiles,
+			Language defaultLanguage) {
+		this.profiles = profiles;
 		this.defaultLanguage = defaultLanguage;
 	}
 
 	public String identifyLanguageFromText(String text) {
-		return li.identify(text);
+		return profiles.identify(text).getValue();
 	}
 
 	/**
@@ -68,14 +87,12 @@ public class LanguageIdentification extends Transducer {
 			throws Exception {
 
 		if (docData.getLanguage() == Language.UNKNOWN) {
-			String language = li.identify(docData.getPlainTextContent());
+			Language language = profiles.identify(docData.getPlainText());
 
-			log.info("identified language as " + language);
+			log.info("identified language as " + language.getValue());
 
-			if (language.equals(Language.DE.getValue())) {
-				docData.setLanguage(Language.DE);
-			} else if (language.equals(Language.EN.getValue())) {
-				docData.setLanguage(Language.EN);
+			if (language == Language.DE || language == Language.EN) {
+				docData.setLanguage(language);
 			} else {
 				log.info("set language to default: " + defaultLanguage);
 				docData.setLanguage(defaultLanguage);
@@ -83,4 +100,15 @@ public class LanguageIdentification extends Transducer {
 		}
 	}
 
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.LANGUAGE);
+	}
+
+	@Override
+	public String getFingerprint() throws Exception {
+		return super.getFingerprint() + "(" + defaultLanguage + ", "
+				+ Long.toHexString(profiles.getChecksum()) + ")";
+	}
+
 }
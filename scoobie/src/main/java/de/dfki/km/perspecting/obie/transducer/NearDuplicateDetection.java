@@ -0,0 +1,105 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.transducer;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.transducer.model.NearDuplicateIndex;
+import de.dfki.km.perspecting.obie.transducer.model.WarmStart;
+import de.dfki.km.perspecting.obie.workflow.Transducer;
+
+/**
+ * Looks up a near-duplicate of the document among the recently extracted
+ * documents, e.g. a slightly edited version of the same news story. It must
+ * run right after the {@link WordSegmenter}, see
+ * {@link de.dfki.km.perspecting.obie.workflow.Pipeline#insert(int, Transducer)}.
+ * The {@link SuffixArrayBuilder} and {@link RDFLiteralSpotting} then only
+ * spot literals in the changed parts of the text, and
+ * {@link InstanceRecognition} only resolves subjects of these literals.
+ * Everything else is copied from the near-duplicate. Disambiguation and the
+ * later steps still run on all literals.
+ */
+public class NearDuplicateDetection extends Transducer {
+
+	private final Logger log = Logger.getLogger(NearDuplicateDetection.class
+			.getName());
+
+	private final NearDuplicateIndex index;
+
+	private final double similarity;
+
+	private final int margin;
+
+	/**
+	 * @param index
+	 *            the recently extracted documents, may be shared with other
+	 *            pipelines
+	 * @param similarity
+	 *            minimal estimated Jaccard similarity of a near-duplicate
+	 * @param margin
+	 *            number of tokens a literal may span at most
+	 */
+	public NearDuplicateDetection(NearDuplicateIndex index, double similarity,
+			int margin) {
+		this.index = index;
+		this.similarity = similarity;
+		this.margin = margin;
+	}
+
+	@Override
+	public void transduce(Document document, KnowledgeBase kb)
+			throws Exception {
+		WarmStart warmStart = index.lookup(document.getTokens(), similarity,
+				margin);
+		document.setWarmStart(warmStart);
+		if (warmStart.hasSource()) {
+			log.info("Found near-duplicate with similarity "
+					+ warmStart.getSimilarity() + ", reusing "
+					+ warmStart.getReusedCount() + " of "
+					+ document.getTokens().size() + " tokens");
+		}
+	}
+
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.TOKENS);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.SUFFIX_ARRAY, Artifact.LITERALS, Artifact.SUBJECTS, Artifact.TYPES);
+	}
+
+	@Override
+	public String getFingerprint() throws Exception {
+		return super.getFingerprint() + "(" + similarity + ", " + margin + ")";
+	}
+
+}
@@ -23,14 +23,25 @@
 
 package de.dfki.km.perspecting.obie.transducer;
 
+import java.io.OutputStream;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
+import opennlp.tools.postag.POSModel;
 import opennlp.tools.postag.POSTagger;
+import opennlp.tools.postag.POSTaggerME;
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.Token;
 import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.transducer.model.ModelRegistry;
+import de.dfki.km.perspecting.obie.workflow.SentenceBatches;
 import de.dfki.km.perspecting.obie.workflow.Transducer;
 
 public class POSTagging extends Transducer {
@@ -39,24 +50,126 @@ public class POSTagging extends Transducer {
 
 	private POSTagger detector;
 
+	private final ThreadLocal<POSTagger> detectors;
+
+	private POSModel model;
+
+	private String fingerprint;
+
+	private ExecutorService executor;
+
+	private int sentencesPerTask;
+
+	/**
+	 * Tags with a single tagger, which must not be used by several threads.
+	 */
 	public POSTagging(POSTagger posTagger) {
 		this.detector = posTagger;
+		this.detectors = null;
+	}
+
+	/**
+	 * Tags with a tagger per thread. All of them share the parameters of
+	 * <code>model</code>.
+	 */
+	public POSTagging(final POSModel model) {
+		this.model = model;
+		this.detectors = new ThreadLocal<POSTagger>() {
+			@Override
+			protected POSTagger initialValue() {
+				return new POSTaggerME(model);
+			}
+		};
+	}
+
+	/**
+	 * Tags batches of <code>sentencesPerTask</code> sentences in parallel on
+	 * <code>executor</code>, with a tagger per thread.
+	 */
+	public POSTagging(POSModel model, ExecutorService executor,
+			int sentencesPerTask) {
+		this(model);
+		if (sentencesPerTask < 1) {
+			throw new IllegalArgumentException("sentences per task "
+					+ sentencesPerTask);
+		}
+		this.executor = executor;
+		this.sentencesPerTask = sentencesPerTask;
+	}
+
+	/**
+	 * Tags with the model loaded as <code>name</code> into
+	 * <code>models</code>, see
+	 * {@link #POSTagging(POSModel, ExecutorService, int)}.
+	 */
+	public POSTagging(ModelRegistry models, String name,
+			ExecutorService executor, int sentencesPerTask) {
+		this(models.getPOSModel(name), executor, sentencesPerTask);
+	}
+
+	private POSTagger getDetector() {
+		return detectors == null ? detector : detectors.get();
 	}
 
 	@Override
 	public void transduce(Document document, KnowledgeBase kb) throws Exception {
 
 		log.info("Performing POS Tagging in " + document.getLanguage());
-		for (TokenSequence<Integer> sentence : document.getSentences()) {
-			List<Token> tokenList = sentence.getTokens();
-			String[] tokens = sentence.toArray();
-			String[] posTags = detector.tag(tokens);
+		final List<TokenSequence<Integer>> sentences = document.getSentences();
+		final String[][] tokens = new String[sentences.size()][];
+		for (int s = 0; s < tokens.length; s++) {
+			tokens[s] = sentences.get(s).toArray();
+		}
 
-			for (int i = 0; i < posTags.length; i++) {
-				tokenList.get(i).setPOS(posTags[i]);
+		final String[][] posTags = new String[tokens.length][];
+		SentenceBatches.process(executor, tokens.length, sentencesPerTask,
+				new SentenceBatches.Batch() {
+					@Override
+					public void process(int from, int to) {
+						POSTagger tagger = getDetector();
+						for (int s = from; s < to; s++) {
+							posTags[s] = tagger.tag(tokens[s]);
+						}
+					}
+				});
+
+		for (int s = 0; s < posTags.length; s++) {
+			List<Token> tokenList = sentences.get(s).getTokens();
+			for (int i = 0; i < posTags[s].length; i++) {
+				tokenList.get(i).setPOS(posTags[s][i]);
 			}
 		}
 
 	}
 
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.LANGUAGE, Artifact.SENTENCES);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.PART_OF_SPEECH);
+	}
+
+	@Override
+	public synchronized String getFingerprint() throws Exception {
+		if (fingerprint == null) {
+			if (model != null) {
+				CRC32 crc = new CRC32();
+				model.serialize(new CheckedOutputStream(new OutputStream() {
+					@Override
+					public void write(int b) {
+					}
+				}, crc));
+				fingerprint = super.getFingerprint() + "("
+						+ Long.toHexString(crc.getValue()) + ")";
+			} else {
+				fingerprint = super.getFingerprint() + "("
+						+ detector.getClass().getName() + ")";
+			}
+		}
+		return fingerprint;
+	}
+
 }
\ No newline at end of file
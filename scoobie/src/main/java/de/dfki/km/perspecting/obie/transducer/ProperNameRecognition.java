@@ -23,13 +23,17 @@
 
 package de.dfki.km.perspecting.obie.transducer;
 
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
-import de.dfki.km.perspecting.obie.model.TokenSequence;
 import de.dfki.km.perspecting.obie.transducer.model.CRFNounPhraseChunkerModel;
+import de.dfki.km.perspecting.obie.transducer.model.ModelRegistry;
 import de.dfki.km.perspecting.obie.workflow.Transducer;
 
 
@@ -39,22 +43,63 @@ public class ProperNameRecognition extends Transducer {
 			.getName());
 	private CRFNounPhraseChunkerModel chunker;
 	
+	private ExecutorService executor;
+
+	private int sentencesPerTask;
+
 	public ProperNameRecognition(CRFNounPhraseChunkerModel chunker) {
 		this.chunker = chunker;
 	}
+
+	/**
+	 * Chunks batches of <code>sentencesPerTask</code> sentences in parallel
+	 * on <code>executor</code>.
+	 */
+	public ProperNameRecognition(CRFNounPhraseChunkerModel chunker,
+			ExecutorService executor, int sentencesPerTask) {
+		if (sentencesPerTask < 1) {
+			throw new IllegalArgumentException("sentences per task "
+					+ sentencesPerTask);
+		}
+		this.chunker = chunker;
+		this.executor = executor;
+		this.sentencesPerTask = sentencesPerTask;
+	}
+
+	/**
+	 * Chunks with the model loaded as <code>name</code> into
+	 * <code>models</code>, see
+	 * {@link #ProperNameRecognition(CRFNounPhraseChunkerModel, ExecutorService, int)}.
+	 */
+	public ProperNameRecognition(ModelRegistry models, String name,
+			ExecutorService executor, int sentencesPerTask) {
+		this(models.getChunker(name), executor, sentencesPerTask);
+	}
 	
 	@Override
 	public void transduce(Document document, KnowledgeBase kb)
 			throws Exception {
 		try {
-			
-			for (TokenSequence<Integer> sentence : document.getSentences()) {
-				chunker.test(sentence);
-			}
-
+			chunker.chunk(document, executor, sentencesPerTask);
 		} catch (Exception e) {
 			log.log(Level.WARNING, e.getMessage(), e);
 		}
 	}
 
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.SENTENCES, Artifact.PART_OF_SPEECH);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.NOUN_PHRASES);
+	}
+
+	@Override
+	public String getFingerprint() throws Exception {
+		return super.getFingerprint() + "("
+				+ Long.toHexString(chunker.getChecksum()) + ")";
+	}
+
 }
@@ -29,13 +29,16 @@ import java.io.BufferedReader;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
 import de.dfki.km.perspecting.obie.connection.RemoteCursor;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.SemanticEntity;
 import de.dfki.km.perspecting.obie.model.TextPointer;
@@ -61,7 +64,7 @@ public class RDFLiteralSpotting extends Transducer {
 		TIntHashSet datatypePropertyFilter = document.getFilterContext()
 				.getDatatypePropertyIndexFilter();
 
-		if (suffixes.getCommonPrefixStrings().length > 0) {
+		if (!suffixes.isEmpty()) {
 
 			log.info("Request Symbols Candidates");
 
@@ -133,6 +136,9 @@ public class RDFLiteralSpotting extends Transducer {
 
 		}
 
+		if (document.getWarmStart() != null) {
+			document.getWarmStart().copyLiterals(document);
+		}
 	}
 
 	/**
@@ -244,4 +250,20 @@ public class RDFLiteralSpotting extends Transducer {
 
 		return cleanedsymbols;
 	}
+
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.SUFFIX_ARRAY);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.LITERALS);
+	}
+
+	@Override
+	public String getFingerprint() throws Exception {
+		return super.getFingerprint() + "(" + filterLongestMatches + ")";
+	}
+
 }
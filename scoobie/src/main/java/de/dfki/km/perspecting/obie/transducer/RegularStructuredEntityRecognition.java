@@ -23,52 +23,170 @@
 
 package de.dfki.km.perspecting.obie.transducer;
 
-import java.util.List;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
 import de.dfki.km.perspecting.obie.workflow.Transducer;
 
+/**
+ * Annotates tokens matched by regular expressions. The patterns are compiled
+ * once. The text is scanned in a single pass by the alternation of all
+ * patterns, which stops at every position where any of them matches. Only
+ * there the single patterns are tried, so each one finds the same matches as
+ * if it had scanned the text on its own. Matches are aligned to tokens by
+ * binary search over the sorted token offsets.
+ */
 public class RegularStructuredEntityRecognition extends Transducer {
 
-	private String[] patterns;
-	
+	private final String[] patterns;
+
+	private final Pattern[] compiled;
+
+	/** The alternation of all patterns without back references. */
+	private final Pattern combined;
+
+	/** Patterns with back references scan the text on their own. */
+	private final boolean[] separate;
+
 	public RegularStructuredEntityRecognition(String[] patterns) {
 		this.patterns = patterns;
+		this.compiled = new Pattern[patterns.length];
+		this.separate = new boolean[patterns.length];
+
+		Pattern backReference = Pattern.compile("(?<!\\\\)\\\\[1-9]");
+		StringBuilder alternation = new StringBuilder();
+		for (int i = 0; i < patterns.length; i++) {
+			compiled[i] = Pattern.compile(patterns[i]);
+			separate[i] = backReference.matcher(patterns[i]).find();
+			if (!separate[i]) {
+				if (alternation.length() > 0) {
+					alternation.append('|');
+				}
+				alternation.append("(?:").append(patterns[i]).append(')');
+			}
+		}
+		this.combined = alternation.length() > 0 ? Pattern.compile(alternation
+				.toString()) : null;
 	}
 
 	@Override
 	public void transduce(final Document document, final KnowledgeBase kb)
 			throws Exception {
-		
-		for(String regex : patterns) {
-			transduce(document, regex);
+
+		if (patterns.length == 0) {
+			return;
 		}
-	}
-	
-	private void transduce(Document document, String regex) {
 
-		Pattern pattern = Pattern.compile(regex);
-		String text = document.getPlainTextContent();
-		Matcher matcher = pattern.matcher(text);
-		while (matcher.find()) {
-			int start = matcher.start();
-			int end = matcher.end();
-			List<Token> token = document.getTokens(start, end);
+		CharSequence text = document.getPlainText();
+
+		// token offsets sorted by start
+		long[] sorted = new long[document.getData().integerEntries(
+				TokenSequence.TOKEN).size()];
+		int n = 0;
+		for (Entry<String, Integer> token : document.getData().integerEntries(
+				TokenSequence.TOKEN)) {
+			sorted[n++] = ((long) Integer.parseInt(token.getKey()) << 32)
+					| token.getValue();
+		}
+		Arrays.sort(sorted);
+		int[] starts = new int[n];
+		int[] ends = new int[n];
+		for (int i = 0; i < n; i++) {
+			starts[i] = (int) (sorted[i] >>> 32);
+			ends[i] = (int) sorted[i];
+		}
 
-			for (int i = 0; i < token.size(); i++) {
+		Matcher[] matchers = new Matcher[patterns.length];
+		for (int i = 0; i < patterns.length; i++) {
+			matchers[i] = compiled[i].matcher(text);
+			if (separate[i]) {
+				while (matchers[i].find()) {
+					annotate(document, starts, ends, matchers[i].start(),
+							matchers[i].end(), patterns[i]);
+				}
+			} else {
+				matchers[i].useTransparentBounds(true);
+				matchers[i].useAnchoringBounds(false);
+			}
+		}
 
-				String position = "I";
+		if (combined == null) {
+			return;
+		}
 
-				if (i == 0) {
-					position = "B";
+		// each pattern continues after the end of its last match
+		int[] next = new int[patterns.length];
+		Matcher matcher = combined.matcher(text);
+		int from = 0;
+		while (from <= text.length() && matcher.find(from)) {
+			int position = matcher.start();
+			int min = Integer.MAX_VALUE;
+			for (int i = 0; i < patterns.length; i++) {
+				if (separate[i]) {
+					continue;
+				}
+				if (next[i] <= position) {
+					Matcher m = matchers[i];
+					m.region(position, text.length());
+					if (m.lookingAt()) {
+						annotate(document, starts, ends, position, m.end(),
+								patterns[i]);
+						// an empty match does not stop the pattern
+						next[i] = Math.max(m.end(), position + 1);
+					}
 				}
-				token.get(i).addRegexMatch(position, regex);
+				min = Math.min(min, Math.max(next[i], position + 1));
 			}
+			from = min;
+		}
+	}
+
+	/**
+	 * Annotates the tokens from the one starting at <code>start</code> to
+	 * the one ending at <code>end</code>. Matches not aligned to tokens are
+	 * ignored.
+	 */
+	private void annotate(Document document, int[] starts, int[] ends,
+			int start, int end, String regex) {
+		int first = Arrays.binarySearch(starts, start);
+		if (first < 0) {
+			return;
 		}
+		int last = first;
+		while (last < ends.length && ends[last] < end) {
+			last++;
+		}
+		if (last == ends.length || ends[last] != end) {
+			return;
+		}
+		for (int i = first; i <= last; i++) {
+			new Token(starts[i], document).addRegexMatch(i == first ? "B"
+					: "I", regex);
+		}
+	}
+
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.TOKENS);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.REGEX_MATCHES);
+	}
+
+	@Override
+	public String getFingerprint() throws Exception {
+		return super.getFingerprint() + Arrays.toString(patterns);
 	}
 
 }
@@ -29,9 +29,12 @@ import gnu.trove.TIntHashSet;
 import java.io.BufferedReader;
 import java.io.Reader;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.DoubleMatrix;
 import de.dfki.km.perspecting.obie.model.SemanticEntity;
@@ -138,6 +141,39 @@ public class RelevanceRating extends Transducer {
 		return outputBuilder.toString();
 	}
 
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.SUBJECTS);
+	}
 
+	/**
+	 * Graph based ratings read the known facts, but entities are rated even
+	 * if there are none.
+	 */
+	@Override
+	public Set<Artifact> getDependencies() {
+		return EnumSet.of(Artifact.SUBJECTS, Artifact.GRAPH, Artifact.FACTS);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.RELEVANCE);
+	}
+
+	@Override
+	public String getFingerprint() throws Exception {
+		// statistics of a metric, e.g. document frequencies, are versioned
+		// like the knowledge base
+		StringBuilder b = new StringBuilder(super.getFingerprint());
+		b.append("(");
+		for (int i = 0; i < ratings.length; i++) {
+			if (i > 0) {
+				b.append(", ");
+			}
+			b.append(ratings[i].getClass().getName());
+		}
+		b.append(", ").append(Arrays.deepToString(fusions));
+		return b.append(")").toString();
+	}
 
 }
@@ -24,11 +24,15 @@
 package de.dfki.km.perspecting.obie.transducer;
 
 import java.text.BreakIterator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
+import de.dfki.km.perspecting.obie.model.CharSequenceIterator;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.Token;
 import de.dfki.km.perspecting.obie.workflow.Transducer;
@@ -41,23 +45,39 @@ public class SentenceSegmenter extends Transducer {
 	@Override
 	public void transduce(Document document, KnowledgeBase kb)
 			throws Exception {
-		final String text = document.getPlainTextContent();
 		Locale l = new Locale(document.getLanguage().getValue());
-		BreakIterator boundary = BreakIterator.getSentenceInstance(l);
-		boundary.setText(text);
+		BreakIterator boundary = TextSegmenter.getIterators(l)[1];
+		boundary.setText(new CharSequenceIterator(document.getPlainText()));
 
-		final List<Token> tokens = document.getTokens();
 		int sid = 0;
-		int cToken = 0;
-		for (int end = boundary.next(); end != BreakIterator.DONE; end = boundary
-				.next()) {
-			while (cToken < tokens.size() && tokens.get(cToken).getEnd() <= end) {
-				tokens.get(cToken).setSentence(sid);
-				cToken++;
+		try {
+			final List<Token> tokens = document.getTokens();
+			int cToken = 0;
+			for (int end = boundary.next(); end != BreakIterator.DONE; end = boundary
+					.next()) {
+				while (cToken < tokens.size()
+						&& tokens.get(cToken).getEnd() <= end) {
+					tokens.get(cToken).setSentence(sid);
+					cToken++;
+				}
+				sid++;
 			}
-			sid++;
+		} finally {
+			// do not keep the text alive in the cached iterator
+			boundary.setText("");
 		}
 
 		log.info("Found " + (sid + 1) + " sentences.");
 	}
+
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.LANGUAGE, Artifact.TOKENS);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.SENTENCES);
+	}
+
 }
@@ -25,14 +25,19 @@ package de.dfki.km.perspecting.obie.transducer;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.Token;
 import de.dfki.km.perspecting.obie.model.TokenSequence;
 import de.dfki.km.perspecting.obie.transducer.model.LiteralHashing;
 import de.dfki.km.perspecting.obie.transducer.model.SuffixArray;
+import de.dfki.km.perspecting.obie.transducer.model.WarmStart;
 import de.dfki.km.perspecting.obie.workflow.Transducer;
 
 public class SuffixArrayBuilder extends Transducer {
@@ -73,6 +78,18 @@ public class SuffixArrayBuilder extends Transducer {
 			}
 		}
 
+		WarmStart warmStart = document.getWarmStart();
+		if (warmStart != null && warmStart.hasSource()) {
+			int size = phrasedTokens.size();
+			for (Iterator<Token> i = phrasedTokens.iterator(); i.hasNext();) {
+				if (warmStart.isReused(i.next())) {
+					i.remove();
+				}
+			}
+			log.info("Reusing literals at " + (size - phrasedTokens.size())
+					+ " of " + size + " tokens");
+		}
+
 		Collections.sort(phrasedTokens);
 
 		long start = System.currentTimeMillis();
@@ -83,4 +100,23 @@ public class SuffixArrayBuilder extends Transducer {
 
 	}
 
+	@Override
+	public Set<Artifact> getInputs() {
+		if (filterNounPhrases) {
+			return EnumSet.of(Artifact.NOUN_PHRASES);
+		}
+		return EnumSet.of(Artifact.TOKENS);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.SUFFIX_ARRAY);
+	}
+
+	@Override
+	public String getFingerprint() throws Exception {
+		return super.getFingerprint() + "(" + maxSuffixLength + ", "
+				+ filterNounPhrases + ", " + hashing.getCharacterLength() + ")";
+	}
+
 }
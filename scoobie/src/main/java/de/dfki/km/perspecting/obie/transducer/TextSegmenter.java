@@ -0,0 +1,137 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.transducer;
+
+import java.text.BreakIterator;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
+import de.dfki.km.perspecting.obie.model.CharSequenceIterator;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.workflow.Transducer;
+
+/**
+ * Splits a text into tokens and sentences in a single pass, replacing a
+ * {@link WordSegmenter} followed by a {@link SentenceSegmenter}. Tokens are
+ * collected in arrays and written to the document at once. Break iterators
+ * are created once per thread and locale.
+ */
+public class TextSegmenter extends Transducer {
+
+	private static final ThreadLocal<Map<Locale, BreakIterator[]>> ITERATORS = new ThreadLocal<Map<Locale, BreakIterator[]>>() {
+		@Override
+		protected Map<Locale, BreakIterator[]> initialValue() {
+			return new HashMap<Locale, BreakIterator[]>();
+		}
+	};
+
+	private final Logger log = Logger.getLogger(TextSegmenter.class
+			.getName());
+
+	/**
+	 * @return the word and sentence iterators of this thread for
+	 *         <code>locale</code>
+	 */
+	static BreakIterator[] getIterators(Locale locale) {
+		BreakIterator[] iterators = ITERATORS.get().get(locale);
+		if (iterators == null) {
+			iterators = new BreakIterator[] {
+					BreakIterator.getWordInstance(locale),
+					BreakIterator.getSentenceInstance(locale) };
+			ITERATORS.get().put(locale, iterators);
+		}
+		return iterators;
+	}
+
+	@Override
+	public void transduce(Document document, KnowledgeBase kb)
+			throws Exception {
+		CharSequence text = document.getPlainText();
+		BreakIterator[] iterators = getIterators(new Locale(document
+				.getLanguage().getValue()));
+		BreakIterator words = iterators[0];
+		BreakIterator sentences = iterators[1];
+		words.setText(new CharSequenceIterator(text));
+		sentences.setText(new CharSequenceIterator(text));
+
+		// a token every five characters is a generous estimate
+		int capacity = Math.max(16, text.length() / 5);
+		int[] starts = new int[capacity];
+		int[] ends = new int[capacity];
+		int[] sentenceNumbers = new int[capacity];
+		int count = 0;
+
+		int sentence = 0;
+		try {
+			int sentenceEnd = sentences.next();
+			int start = words.first();
+			for (int end = words.next(); end != BreakIterator.DONE; start = end, end = words
+					.next()) {
+				if (Character.isWhitespace(text.charAt(start))) {
+					continue;
+				}
+				while (sentenceEnd != BreakIterator.DONE && end > sentenceEnd) {
+					sentenceEnd = sentences.next();
+					sentence++;
+				}
+				if (count == starts.length) {
+					capacity = count * 2;
+					starts = Arrays.copyOf(starts, capacity);
+					ends = Arrays.copyOf(ends, capacity);
+					sentenceNumbers = Arrays.copyOf(sentenceNumbers, capacity);
+				}
+				starts[count] = start;
+				ends[count] = end;
+				sentenceNumbers[count] = sentence;
+				count++;
+			}
+		} finally {
+			// do not keep the text alive in the cached iterators
+			words.setText("");
+			sentences.setText("");
+		}
+
+		document.getData().createTokens(starts, ends, sentenceNumbers, count);
+		log.info("Found " + count + " tokens in " + (sentence + 1)
+				+ " sentences.");
+	}
+
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.LANGUAGE);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.TOKENS, Artifact.SENTENCES);
+	}
+
+}
@@ -25,10 +25,14 @@ package de.dfki.km.perspecting.obie.transducer;
 
 import java.text.BreakIterator;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.Locale;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
+import de.dfki.km.perspecting.obie.model.CharSequenceIterator;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.workflow.Transducer;
 
@@ -39,19 +43,23 @@ public class WordSegmenter extends Transducer {
 
 	public void transduce(Document document, KnowledgeBase kb)
 			throws Exception {
-		String text = document.getPlainTextContent();
+		CharSequence text = document.getPlainText();
 		Locale l = new Locale(document.getLanguage().getValue());
-		BreakIterator boundary = BreakIterator.getWordInstance(l);
-		boundary.setText(text);
-		int start = boundary.first();
+		BreakIterator boundary = TextSegmenter.getIterators(l)[0];
+		boundary.setText(new CharSequenceIterator(text));
 		int count = 0;
-
-		for (int end = boundary.next(); end != BreakIterator.DONE; start = end, end = boundary
-				.next()) {
-			if (!Character.isWhitespace(text.charAt(start))) {
-				document.getData().createToken(start, end);
-				count++;
+		try {
+			int start = boundary.first();
+			for (int end = boundary.next(); end != BreakIterator.DONE; start = end, end = boundary
+					.next()) {
+				if (!Character.isWhitespace(text.charAt(start))) {
+					document.getData().createToken(start, end);
+					count++;
+				}
 			}
+		} finally {
+			// do not keep the text alive in the cached iterator
+			boundary.setText("");
 		}
 		log.info("Found: " + count+ " tokens in text");
 
@@ -71,5 +79,14 @@ public class WordSegmenter extends Transducer {
 		return comps.toArray(new String[comps.size()]);
 	}
 
+	@Override
+	public Set<Artifact> getInputs() {
+		return EnumSet.of(Artifact.LANGUAGE);
+	}
+
+	@Override
+	public Set<Artifact> getOutputs() {
+		return EnumSet.of(Artifact.TOKENS);
+	}
 
 }
@@ -23,16 +23,32 @@
 
 package de.dfki.km.perspecting.obie.transducer.model;
 
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
+import de.dfki.km.perspecting.obie.model.DataSheet;
+import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.Token;
 import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.workflow.SentenceBatches;
 
+/**
+ * Noun phrase chunker backed by a CRF that is loaded once. Each thread gets
+ * its own {@link NounPhraseChunkDecoder}, so one model can serve several
+ * pipelines at the same time.
+ */
 public class CRFNounPhraseChunkerModel {
 
 	private static final String UTF_8 = "UTF-8";
@@ -52,7 +68,27 @@ public class CRFNounPhraseChunkerModel {
 	}
 	
 	public CRFNounPhraseChunkerModel(InputStream input) throws Exception {
-		npc = new NounPhraseChunker(input);
+		read(input);
+	}
+
+	/**
+	 * Reads the CRF and computes the checksum of the bytes read.
+	 */
+	private void read(InputStream input) throws Exception {
+		CRC32 crc = new CRC32();
+		npc = new NounPhraseChunker(new CheckedInputStream(input, crc));
+		checksum = crc.getValue();
+	}
+
+	/**
+	 * @return the CRC-32 checksum of the serialized CRF, which is loaded if
+	 *         this has not happened yet
+	 */
+	public synchronized long getChecksum() throws Exception {
+		if (npc == null) {
+			load();
+		}
+		return checksum;
 	}
 
 	private StringReader getTestInstance(TokenSequence<Integer> posTags)
@@ -70,13 +106,47 @@ public class CRFNounPhraseChunkerModel {
 
 	private NounPhraseChunker npc = null;
 
-	public void test(TokenSequence<Integer> sentence)
+	private long checksum;
+
+	private volatile NounPhraseChunkDecoder prototype = null;
+
+	private final ThreadLocal<NounPhraseChunkDecoder> decoders = new ThreadLocal<NounPhraseChunkDecoder>() {
+		@Override
+		protected NounPhraseChunkDecoder initialValue() {
+			return new NounPhraseChunkDecoder(prototype);
+		}
+	};
+
+	/**
+	 * Loads the CRF if this has not happened yet and decodes a short sentence
+	 * once, so that the first document does not pay for it.
+	 */
+	public synchronized void load() throws Exception {
+		if (prototype == null) {
+			if (npc == null) {
+				log.info("Loading noun phrase chunker from " + path);
+				read(new BufferedInputStream(new FileInputStream(path)));
+				npc.setCrfFile(path);
+			}
+			NounPhraseChunkDecoder d = npc.createDecoder();
+			d.decode("The model", new int[] { 0, 4 }, new int[] { 3, 9 },
+					new String[] { "DT", "NN" }, 0, 2);
+			prototype = d;
+		}
+	}
+
+	/**
+	 * Tags a sentence through the Mallet pipe of the CRF. Calls are
+	 * serialized, {@link #chunk(Document)} is the faster way.
+	 */
+	public synchronized void test(TokenSequence<Integer> sentence)
 			throws Exception {
 
 		StringReader testDataString = getTestInstance(sentence);
 
 		if (npc == null) {
-			npc = new NounPhraseChunker(path);
+			read(new BufferedInputStream(new FileInputStream(path)));
+			npc.setCrfFile(path);
 		}
 
 		List<String> list = npc.test(testDataString);
@@ -88,4 +158,97 @@ public class CRFNounPhraseChunkerModel {
 		}
 	}
 
+	/**
+	 * Tags all sentences of a document with noun phrase chunks. Token offsets,
+	 * POS tags and sentence numbers are read straight from the document's
+	 * columns, so no strings are built along the way.
+	 */
+	public void chunk(Document document) throws Exception {
+		chunk(document, null, 0);
+	}
+
+	/**
+	 * Tags all sentences of a document with noun phrase chunks, decoding
+	 * batches of <code>sentencesPerTask</code> sentences in parallel on
+	 * <code>executor</code>.
+	 */
+	public void chunk(Document document, ExecutorService executor,
+			int sentencesPerTask) throws Exception {
+
+		if (prototype == null) {
+			load();
+		}
+
+		DataSheet data = document.getData();
+		Set<Entry<String, Integer>> tokens = data
+				.integerEntries(TokenSequence.TOKEN);
+
+		// token keys are sorted as strings, not by offset
+		String[] keys = new String[tokens.size()];
+		long[] order = new long[tokens.size()];
+		int n = 0;
+		for (Entry<String, Integer> token : tokens) {
+			keys[n] = token.getKey();
+			order[n] = ((long) Integer.parseInt(token.getKey()) << 32) | n;
+			n++;
+		}
+		Arrays.sort(order);
+
+		final String[] sortedKeys = new String[n];
+		final int[] starts = new int[n];
+		final int[] ends = new int[n];
+		final String[] posTags = new String[n];
+		Integer[] sentences = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			String key = keys[(int) order[i]];
+			sortedKeys[i] = key;
+			starts[i] = (int) (order[i] >>> 32);
+			ends[i] = data.<Integer> get(TokenSequence.TOKEN, key);
+			posTags[i] = data.get(TokenSequence.POS, key);
+			sentences[i] = data.get(TokenSequence.SENTENCE, key);
+		}
+
+		// sentence i spans the tokens from bounds[i] to bounds[i + 1]
+		int[] bounds = new int[n + 1];
+		int count = 0;
+		int start = 0;
+		while (start < n) {
+			int end = start + 1;
+			while (end < n && sentences[start] != null
+					&& sentences[start].equals(sentences[end])) {
+				end++;
+			}
+			if (sentences[start] != null) {
+				bounds[count] = start;
+				bounds[++count] = end;
+			}
+			start = end;
+		}
+		final int[] sentenceBounds = bounds;
+
+		final CharSequence text = document.getPlainText();
+		final int[] labels = new int[n];
+		SentenceBatches.process(executor, count, sentencesPerTask,
+				new SentenceBatches.Batch() {
+					@Override
+					public void process(int from, int to) {
+						NounPhraseChunkDecoder decoder = decoders.get();
+						for (int s = from; s < to; s++) {
+							int offset = sentenceBounds[s];
+							int length = sentenceBounds[s + 1] - offset;
+							System.arraycopy(decoder.decode(text, starts,
+									ends, posTags, offset, length), 0,
+									labels, offset, length);
+						}
+					}
+				});
+
+		for (int s = 0; s < count; s++) {
+			for (int i = bounds[s]; i < bounds[s + 1]; i++) {
+				data.add(TokenSequence.NOUN_PHRASE, sortedKeys[i], prototype
+						.getLabel(labels[i]));
+			}
+		}
+	}
+
 }
@@ -0,0 +1,300 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import gnu.trove.TObjectIntHashMap;
+import gnu.trove.TObjectIntProcedure;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.logging.Logger;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermEnum;
+
+/**
+ * An immutable table of document frequencies stored as sorted string table in
+ * a memory mapped file. The table is exported once from a corpus index and can
+ * be queried from any number of threads without locking.
+ * 
+ * Java cannot unmap a file explicitly, the mapping is released when the
+ * garbage collector reclaims the buffer, even after {@link #close()}. Until
+ * then the file stays locked on Windows, so {@link #write(File,
+ * TObjectIntHashMap, int)} writes a new file and renames it over the old one
+ * instead of overwriting a table that may still be mapped.
+ * 
+ * <pre>
+ * int magic, int numDocs, int size,
+ * int[size] df, int[size + 1] offsets, byte[] terms (UTF-8, sorted bytewise)
+ * </pre>
+ * 
+ */
+public class DocumentFrequencyTable implements Closeable {
+
+	private static final int MAGIC = 0x44465431;
+
+	private static final int HEADER = 12;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final Logger log = Logger
+			.getLogger(DocumentFrequencyTable.class.getName());
+
+	private volatile ByteBuffer table;
+
+	private final int numDocs;
+
+	private final int size;
+
+	private final int offsets;
+
+	private final int terms;
+
+	/**
+	 * Maps a table file into memory.
+	 * 
+	 * @param file
+	 *            a file written by
+	 *            {@link #write(File, TObjectIntHashMap, int)}
+	 * @throws IOException
+	 */
+	public DocumentFrequencyTable(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			this.table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel
+					.size());
+		} finally {
+			raf.close();
+		}
+
+		if (table.getInt(0) != MAGIC) {
+			throw new IOException("not a document frequency table: " + file);
+		}
+		this.numDocs = table.getInt(4);
+		this.size = table.getInt(8);
+		this.offsets = HEADER + 4 * size;
+		this.terms = offsets + 4 * (size + 1);
+		log.info("loaded " + size + " document frequencies of " + numDocs
+				+ " documents from " + file);
+	}
+
+	/**
+	 * @return number of documents in the corpus
+	 */
+	public int getNumDocs() {
+		return numDocs;
+	}
+
+	/**
+	 * @return number of terms in the table
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of documents containing a term.
+	 * 
+	 * @param term
+	 *            term as indexed
+	 * @return document frequency or 0 if the term is unknown
+	 */
+	public int getDocumentFrequency(String term) {
+		ByteBuffer t = table;
+		if (t == null) {
+			throw new IllegalStateException("table is closed");
+		}
+
+		byte[] key = term.getBytes(UTF8);
+
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int c = compare(t, mid, key);
+			if (c < 0) {
+				low = mid + 1;
+			} else if (c > 0) {
+				high = mid - 1;
+			} else {
+				return t.getInt(HEADER + 4 * mid);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the smoothed inverse document frequency
+	 * <code>log(numDocs / (df + 1))</code> of a term.
+	 */
+	public double getInverseDocumentFrequency(String term) {
+		return Math.log(((double) numDocs)
+				/ (getDocumentFrequency(term) + 1.0));
+	}
+
+	private int compare(ByteBuffer t, int index, byte[] key) {
+		int start = terms + t.getInt(offsets + 4 * index);
+		int end = terms + t.getInt(offsets + 4 * (index + 1));
+		int len = Math.min(end - start, key.length);
+		for (int i = 0; i < len; i++) {
+			int c = (t.get(start + i) & 0xff) - (key[i] & 0xff);
+			if (c != 0)
+				return c;
+		}
+		return (end - start) - key.length;
+	}
+
+	/**
+	 * Releases the table. Later lookups fail with an
+	 * {@link IllegalStateException}. The file stays mapped until the buffer is
+	 * garbage collected.
+	 */
+	@Override
+	public void close() {
+		table = null;
+	}
+
+	/**
+	 * Writes a document frequency table.
+	 * 
+	 * @param file
+	 *            target file
+	 * @param documentFrequencies
+	 *            term to document frequency
+	 * @param numDocs
+	 *            number of documents in the corpus
+	 * @throws IOException
+	 */
+	public static void write(File file,
+			TObjectIntHashMap<String> documentFrequencies, int numDocs)
+			throws IOException {
+
+		final byte[][] keys = new byte[documentFrequencies.size()][];
+		final int[] values = new int[keys.length];
+
+		documentFrequencies.forEachEntry(new TObjectIntProcedure<String>() {
+			int i = 0;
+
+			@Override
+			public boolean execute(String term, int df) {
+				keys[i] = term.getBytes(UTF8);
+				values[i] = df;
+				i++;
+				return true;
+			}
+		});
+
+		Integer[] order = new Integer[keys.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				byte[] x = keys[a];
+				byte[] y = keys[b];
+				int len = Math.min(x.length, y.length);
+				for (int i = 0; i < len; i++) {
+					int c = (x[i] & 0xff) - (y[i] & 0xff);
+					if (c != 0)
+						return c;
+				}
+				return x.length - y.length;
+			}
+		});
+
+		File tmp = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(tmp)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(numDocs);
+			out.writeInt(keys.length);
+			for (int i : order) {
+				out.writeInt(values[i]);
+			}
+			int offset = 0;
+			out.writeInt(offset);
+			for (int i : order) {
+				offset += keys[i].length;
+				out.writeInt(offset);
+			}
+			for (int i : order) {
+				out.write(keys[i]);
+			}
+		} finally {
+			out.close();
+		}
+		// File.renameTo does not replace an existing file on Windows
+		if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+			tmp.delete();
+			throw new IOException("Cannot replace " + file);
+		}
+		log.info("wrote " + keys.length + " document frequencies to " + file);
+	}
+
+	/**
+	 * Exports the document frequencies of a field of a Lucene index.
+	 * 
+	 * @param reader
+	 *            the Lucene index
+	 * @param field
+	 *            the indexed field
+	 * @param file
+	 *            target file
+	 * @throws IOException
+	 */
+	public static void export(IndexReader reader, String field, File file)
+			throws IOException {
+
+		TObjectIntHashMap<String> documentFrequencies = new TObjectIntHashMap<String>();
+
+		TermEnum termEnum = reader.terms(new Term(field, ""));
+		try {
+			do {
+				Term term = termEnum.term();
+				if (term == null || !term.field().equals(field))
+					break;
+				documentFrequencies.put(term.text(), termEnum.docFreq());
+			} while (termEnum.next());
+		} finally {
+			termEnum.close();
+		}
+
+		write(file, documentFrequencies, reader.numDocs());
+	}
+
+}
@@ -27,12 +27,15 @@ import java.io.File;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
+import java.util.zip.CRC32;
 
 import cc.mallet.classify.Classification;
 import cc.mallet.classify.MaxEnt;
@@ -50,6 +53,7 @@ import cc.mallet.pipe.TokenSequenceLowercase;
 import cc.mallet.pipe.TokenSequenceRemoveStopwords;
 import cc.mallet.pipe.iterator.CsvIterator;
 import cc.mallet.types.Alphabet;
+import cc.mallet.types.FeatureSelection;
 import cc.mallet.types.InstanceList;
 import cc.mallet.types.LabelAlphabet;
 import cc.mallet.types.RankedFeatureVector;
@@ -64,10 +68,27 @@ public class EntityClassifier {
 	private final static Logger log = Logger.getLogger(EntityClassifier.class
 			.getName());
 
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
 	private MaxEnt classifier;
 
+	private MaxEnt checksummed;
+
+	private long checksum;
+
 	public EntityClassifier(MaxEnt classifier) {
-		this.classifier = classifier;
+		this.classifier = freeze(classifier);
+	}
+
+	/**
+	 * Stops the data {@link Alphabet} of a trained or loaded classifier from
+	 * growing, so testing does not add features to it anymore.
+	 */
+	private static MaxEnt freeze(MaxEnt classifier) {
+		if (classifier != null) {
+			classifier.getAlphabet().stopGrowth();
+		}
+		return classifier;
 	}
 
 	/**
@@ -127,13 +148,152 @@ public class EntityClassifier {
 
 	}
 
+	/**
+	 * Maps feature strings to indexes of the classifier's data
+	 * {@link Alphabet}, as the instance pipe does: features are split at
+	 * whitespace and lowercased. Features unknown to the classifier are
+	 * dropped.
+	 * 
+	 * @param features
+	 *            feature strings of a single example
+	 * @return feature indexes, each occurrence of a feature counts once
+	 */
+	public int[] getFeatureIndexes(List<String> features) {
+		final Alphabet alphabet = classifier.getAlphabet();
+		final int numFeatures = classifier.getDefaultFeatureIndex();
+
+		int[] indexes = new int[features.size()];
+		int size = 0;
+		for (String feature : features) {
+			int start = -1;
+			for (int i = 0; i <= feature.length(); i++) {
+				if (i == feature.length() || isSpace(feature.charAt(i))) {
+					if (start >= 0) {
+						int index = alphabet.lookupIndex(feature.substring(
+								start, i).toLowerCase(), false);
+						if (index >= 0 && index < numFeatures) {
+							if (size == indexes.length) {
+								indexes = Arrays.copyOf(indexes, size * 2 + 1);
+							}
+							indexes[size++] = index;
+						}
+						start = -1;
+					}
+				} else if (start < 0) {
+					start = i;
+				}
+			}
+		}
+		return size == indexes.length ? indexes : Arrays.copyOf(indexes, size);
+	}
+
+	private static boolean isSpace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\013'
+				|| c == '\f' || c == '\r';
+	}
+
+	/**
+	 * Scores an example directly against the {@link MaxEnt} parameters.
+	 * 
+	 * @param features
+	 *            feature indexes from {@link #getFeatureIndexes(List)}
+	 * @param scores
+	 *            buffer of size {@link #getNumLabels()} that receives the
+	 *            probability of each label
+	 * @return <code>scores</code>
+	 */
+	public double[] classify(int[] features, double[] scores) {
+		final double[] parameters = classifier.getParameters();
+		final int numFeatures = classifier.getDefaultFeatureIndex() + 1;
+		final int numLabels = getNumLabels();
+		final FeatureSelection selection = classifier.getFeatureSelection();
+		final FeatureSelection[] perClassSelection = classifier
+				.getPerClassFeatureSelection();
+
+		double max = Double.NEGATIVE_INFINITY;
+		for (int li = 0; li < numLabels; li++) {
+			final int offset = li * numFeatures;
+			final FeatureSelection fs = perClassSelection != null ? perClassSelection[li]
+					: selection;
+			double score = parameters[offset + numFeatures - 1];
+			for (int fi : features) {
+				if (fs == null || fs.contains(fi)) {
+					score += parameters[offset + fi];
+				}
+			}
+			scores[li] = score;
+			if (score > max) {
+				max = score;
+			}
+		}
+
+		double sum = 0;
+		for (int li = 0; li < numLabels; li++) {
+			scores[li] = Math.exp(scores[li] - max);
+			sum += scores[li];
+		}
+		for (int li = 0; li < numLabels; li++) {
+			scores[li] /= sum;
+		}
+		return scores;
+	}
+
+	/**
+	 * Classifies a batch of examples, e.g. all phrases of a document.
+	 * 
+	 * @param examples
+	 *            feature indexes from {@link #getFeatureIndexes(List)}
+	 * @return label probabilities for each example
+	 */
+	public double[][] classify(List<int[]> examples) {
+		final double[][] scores = new double[examples.size()][getNumLabels()];
+		for (int i = 0; i < scores.length; i++) {
+			classify(examples.get(i), scores[i]);
+		}
+		return scores;
+	}
+
+	public int getNumLabels() {
+		return classifier.getLabelAlphabet().size();
+	}
+
+	public Object getLabel(int labelIndex) {
+		return classifier.getLabelAlphabet().lookupObject(labelIndex);
+	}
+
+	/**
+	 * @return the CRC-32 checksum of the labels and parameters of the
+	 *         classifier, which is computed once per trained classifier
+	 */
+	public synchronized long getChecksum() {
+		if (checksummed != classifier) {
+			CRC32 crc = new CRC32();
+			for (int li = 0; li < getNumLabels(); li++) {
+				byte[] label = getLabel(li).toString().getBytes(UTF8);
+				crc.update(label, 0, label.length);
+				crc.update(0);
+			}
+			byte[] bytes = new byte[8];
+			for (double parameter : classifier.getParameters()) {
+				long bits = Double.doubleToLongBits(parameter);
+				for (int i = 0; i < 8; i++) {
+					bytes[i] = (byte) (bits >>> (56 - 8 * i));
+				}
+				crc.update(bytes, 0, 8);
+			}
+			checksum = crc.getValue();
+			checksummed = classifier;
+		}
+		return checksum;
+	}
+
 	public MaxEnt train(Reader trainingCorpus, File commonWords,
 			File prunedWords) throws Exception {
 
 		InstanceList training = createInstanceList(trainingCorpus, commonWords,
 				prunedWords, buildPipe(commonWords, prunedWords));
 
-		this.classifier = new MaxEntTrainer().train(training);
+		this.classifier = freeze(new MaxEntTrainer().train(training));
 		trainingCorpus.close();
 		return this.classifier;
 	}
@@ -165,6 +325,7 @@ public class EntityClassifier {
 			classifier = evaluateWithTestData(training, training, map,
 					proportion);
 		}
+		freeze(classifier);
 
 		return map;
 	}
@@ -0,0 +1,372 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import gnu.trove.TLongIntHashMap;
+import gnu.trove.TLongIntIterator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+
+/**
+ * Identifies the language of a text by the character n-grams of its words.
+ * Every word is padded with <code>'_'</code> and split into n-grams of one to
+ * four characters, which are scored by a naive Bayes model per language.
+ * The n-gram counts of all languages are loaded once into a single primitive
+ * hash table; profiles are never modified afterwards, so any number of
+ * threads can share them.
+ * 
+ * Only a sample from the beginning of a text is scored. Scoring stops as
+ * soon as the best language leads the second best by a confident margin of
+ * log likelihood, which usually happens after a few sentences.
+ */
+public class LanguageProfiles {
+
+	/**
+	 * Location of the n-gram profiles shipped with the Nutch language
+	 * identifier plugin.
+	 */
+	private static final String NUTCH_PROFILES = "org/apache/nutch/analysis/lang/";
+
+	private static final int MAX_NGRAM_LENGTH = 4;
+
+	private static final char SEPARATOR = '_';
+
+	public static final int DEFAULT_MIN_SAMPLE = 64;
+
+	public static final int DEFAULT_MAX_SAMPLE = 4096;
+
+	public static final double DEFAULT_MARGIN = 20;
+
+	private static LanguageProfiles nutchProfiles;
+
+	private final Language[] languages;
+
+	/**
+	 * Maps an n-gram to its row in <code>weights</code>.
+	 */
+	private final TLongIntHashMap rows = new TLongIntHashMap();
+
+	/**
+	 * Log probabilities of the n-grams, one column per language.
+	 */
+	private final float[] weights;
+
+	/**
+	 * Log probabilities of n-grams missing in a profile.
+	 */
+	private final float[] unseen;
+
+	private final long checksum;
+
+	/**
+	 * @param counts
+	 *            n-gram counts per language, see {@link #count(CharSequence)}
+	 *            and {@link #readNutchProfile(InputStream)}
+	 */
+	public LanguageProfiles(Map<Language, TLongIntHashMap> counts) {
+		this.languages = counts.keySet().toArray(new Language[counts.size()]);
+
+		for (TLongIntHashMap profile : counts.values()) {
+			for (long gram : profile.keys()) {
+				if (!rows.containsKey(gram)) {
+					rows.put(gram, rows.size());
+				}
+			}
+		}
+
+		int n = languages.length;
+		this.weights = new float[rows.size() * n];
+		this.unseen = new float[n];
+		for (int l = 0; l < n; l++) {
+			TLongIntHashMap profile = counts.get(languages[l]);
+			long total = 0;
+			for (int count : profile.getValues()) {
+				total += count;
+			}
+			// add one smoothing
+			double norm = Math.log(total + rows.size());
+			unseen[l] = (float) -norm;
+			for (int row = 0; row < rows.size(); row++) {
+				weights[row * n + l] = unseen[l];
+			}
+			for (TLongIntIterator i = profile.iterator(); i.hasNext();) {
+				i.advance();
+				weights[rows.get(i.key()) * n + l] = (float) (Math.log(i
+						.value() + 1) - norm);
+			}
+		}
+
+		CRC32 crc = new CRC32();
+		for (Language language : languages) {
+			crc.update(language.ordinal());
+		}
+		long[] grams = rows.keys();
+		Arrays.sort(grams);
+		for (long gram : grams) {
+			update(crc, gram);
+			int row = rows.get(gram);
+			for (int l = 0; l < n; l++) {
+				update(crc, Float.floatToIntBits(weights[row * n + l]));
+			}
+		}
+		this.checksum = crc.getValue();
+	}
+
+	private static void update(CRC32 crc, long value) {
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			crc.update((int) (value >>> shift));
+		}
+	}
+
+	/**
+	 * @return the CRC-32 checksum of the languages and n-gram weights
+	 */
+	public long getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * @return the profiles of German and English shipped with Nutch, loaded
+	 *         once
+	 * @throws IOException
+	 *             if the profiles are not on the class path
+	 */
+	public static synchronized LanguageProfiles getNutchProfiles()
+			throws IOException {
+		if (nutchProfiles == null) {
+			Map<Language, TLongIntHashMap> counts = new EnumMap<Language, TLongIntHashMap>(
+					Language.class);
+			for (Language language : new Language[] { Language.DE,
+					Language.EN }) {
+				String name = NUTCH_PROFILES + language.getValue() + ".ngp";
+				InputStream in = LanguageProfiles.class.getClassLoader()
+						.getResourceAsStream(name);
+				if (in == null) {
+					throw new IOException("Missing language profile " + name);
+				}
+				counts.put(language, readNutchProfile(in));
+			}
+			nutchProfiles = new LanguageProfiles(counts);
+		}
+		return nutchProfiles;
+	}
+
+	/**
+	 * Reads an n-gram profile of Nutch, i.e. lines of an n-gram and its count
+	 * separated by a space. Lines starting with <code>'#'</code> are
+	 * comments. The stream is closed.
+	 */
+	public static TLongIntHashMap readNutchProfile(InputStream in)
+			throws IOException {
+		TLongIntHashMap profile = new TLongIntHashMap();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in,
+				"UTF-8"));
+		try {
+			for (String line = reader.readLine(); line != null; line = reader
+					.readLine()) {
+				int space = line.indexOf(' ');
+				if (line.startsWith("#") || space < 1
+						|| space > MAX_NGRAM_LENGTH) {
+					continue;
+				}
+				long gram = 0;
+				for (int i = 0; i < space; i++) {
+					gram = gram << 16 | Character.toLowerCase(line.charAt(i));
+				}
+				int count = Integer.parseInt(line.substring(space + 1).trim());
+				profile.adjustOrPutValue(gram, count, count);
+			}
+		} finally {
+			reader.close();
+		}
+		return profile;
+	}
+
+	/**
+	 * Counts the n-grams of a text, e.g. to create a profile from a corpus.
+	 */
+	public static TLongIntHashMap count(CharSequence text) {
+		TLongIntHashMap profile = new TLongIntHashMap();
+		NGrams grams = new NGrams();
+		for (int i = 0; i <= text.length(); i++) {
+			int n = grams.push(i < text.length() ? text.charAt(i) : SEPARATOR);
+			for (int j = 1; j <= n; j++) {
+				if (grams.get(j) != SEPARATOR) {
+					profile.adjustOrPutValue(grams.get(j), 1, 1);
+				}
+			}
+		}
+		return profile;
+	}
+
+	/**
+	 * Identifies the language of a text with the default sample sizes and
+	 * margin.
+	 */
+	public Language identify(CharSequence text) {
+		return identify(text, DEFAULT_MIN_SAMPLE, DEFAULT_MAX_SAMPLE,
+				DEFAULT_MARGIN);
+	}
+
+	/**
+	 * Identifies the language of a text by a sample from its beginning.
+	 * 
+	 * @param minSample
+	 *            number of characters that are scored at least
+	 * @param maxSample
+	 *            number of characters that are scored at most
+	 * @param margin
+	 *            difference of log likelihoods between the best and the second
+	 *            best language after which scoring stops
+	 * @return the most likely language, or {@link Language#UNKNOWN} if the
+	 *         sample holds no known n-gram
+	 */
+	public Language identify(CharSequence text, int minSample, int maxSample,
+			double margin) {
+		int n = languages.length;
+		double[] scores = new double[n];
+		NGrams grams = new NGrams();
+		int known = 0;
+		int end = Math.min(maxSample, text.length());
+
+		for (int i = 0; i <= end; i++) {
+			char c = i < end ? text.charAt(i) : SEPARATOR;
+			int count = grams.push(c);
+			for (int j = 1; j <= count; j++) {
+				long gram = grams.get(j);
+				if (gram == SEPARATOR || !rows.containsKey(gram)) {
+					continue;
+				}
+				int row = rows.get(gram) * n;
+				for (int l = 0; l < n; l++) {
+					scores[l] += weights[row + l];
+				}
+				known++;
+			}
+
+			if (count > 0 && grams.isWordEnd() && i >= minSample
+					&& getMargin(scores) >= margin) {
+				break;
+			}
+		}
+
+		if (known == 0) {
+			return Language.UNKNOWN;
+		}
+		int best = 0;
+		for (int l = 1; l < n; l++) {
+			if (scores[l] > scores[best]) {
+				best = l;
+			}
+		}
+		return languages[best];
+	}
+
+	private static double getMargin(double[] scores) {
+		double best = Double.NEGATIVE_INFINITY;
+		double second = Double.NEGATIVE_INFINITY;
+		for (double score : scores) {
+			if (score > best) {
+				second = best;
+				best = score;
+			} else if (score > second) {
+				second = score;
+			}
+		}
+		return best - second;
+	}
+
+	/**
+	 * A window over the last characters of a text in which every word is
+	 * padded with {@link LanguageProfiles#SEPARATOR}. Characters are
+	 * lowercased, anything but letters separates words.
+	 */
+	private static class NGrams {
+
+		/**
+		 * The last characters, 16 bits each, the latest in the lowest bits.
+		 */
+		private long window;
+
+		private int length;
+
+		private boolean inWord;
+
+		private boolean wordEnd;
+
+		/**
+		 * @return the number of new n-grams ending with <code>c</code>
+		 */
+		int push(char c) {
+			wordEnd = false;
+			if (Character.isLetter(c)) {
+				if (!inWord) {
+					window = SEPARATOR;
+					length = 1;
+					inWord = true;
+				}
+				add(Character.toLowerCase(c));
+				return length;
+			}
+			if (!inWord) {
+				return 0;
+			}
+			inWord = false;
+			wordEnd = true;
+			add(SEPARATOR);
+			return length;
+		}
+
+		private void add(char c) {
+			window = window << 16 | c;
+			length = Math.min(length + 1, MAX_NGRAM_LENGTH);
+		}
+
+		/**
+		 * @return the n-gram of <code>n</code> characters ending with the last
+		 *         character
+		 */
+		long get(int n) {
+			return n == MAX_NGRAM_LENGTH ? window : window
+					& ((1L << (16 * n)) - 1);
+		}
+
+		/**
+		 * @return <code>true</code> if the last character ended a word
+		 */
+		boolean isWordEnd() {
+			return wordEnd;
+		}
+	}
+}
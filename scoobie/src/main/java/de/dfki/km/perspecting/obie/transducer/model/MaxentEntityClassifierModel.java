@@ -172,6 +172,33 @@ public class MaxentEntityClassifierModel {
 		w.close();
 	}
 	
+	/**
+	 * Returns the compact {@link MaxentScorer} of this model. It is exported
+	 * next to the serialized classifier on first use and mapped into memory
+	 * afterwards, without loading the classifier.
+	 * 
+	 * @param kb
+	 * @param groundTruth
+	 *            corpus to train the classifier if none exists
+	 * @return the scorer or <code>null</code> if there is no classifier
+	 * @throws Exception
+	 */
+	public MaxentScorer getScorer(KnowledgeBase kb,
+			LabeledTextCorpus groundTruth) throws Exception {
+		File scorer = new File(modelPath + ".scorer");
+		if (!scorer.exists()) {
+			if (classifier == null) {
+				load(kb, groundTruth);
+			}
+			if (classifier == null) {
+				return null;
+			}
+			log.info("Exporting " + language.getValue() + " MaxEnt scorer");
+			MaxentScorer.write(scorer, classifier.getClassifier());
+		}
+		return new MaxentScorer(scorer);
+	}
+
 	public EntityClassifier getClassifier() {
 		return classifier;
 	}
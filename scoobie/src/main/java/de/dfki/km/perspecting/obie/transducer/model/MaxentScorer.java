@@ -0,0 +1,457 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import cc.mallet.classify.MaxEnt;
+import cc.mallet.types.Alphabet;
+import cc.mallet.types.FeatureSelection;
+
+/**
+ * A compact runtime copy of a trained {@link MaxEnt} entity classifier, stored
+ * in a memory mapped file. Features are found through an open addressing hash
+ * table, weights are kept as floats per feature and label. Labels are mapped
+ * to the type indexes of the knowledge base. Any number of threads can share
+ * one scorer without locking, and scoring does not allocate.
+ * 
+ * <pre>
+ * int magic, int numLabels, int numFeatures, int capacity,
+ * int[numLabels] types, int[capacity] slots, int[numFeatures] hashes,
+ * int[numFeatures + 1] offsets, float[(numFeatures + 1) * numLabels] weights,
+ * char[] features
+ * </pre>
+ * 
+ * The last row of weights holds the default feature.
+ */
+public class MaxentScorer implements Closeable {
+
+	private static final int MAGIC = 0x4D455831;
+
+	private static final int HEADER = 16;
+
+	private static final Logger log = Logger.getLogger(MaxentScorer.class
+			.getName());
+
+	private volatile ByteBuffer model;
+
+	private final int numLabels;
+
+	private final int numFeatures;
+
+	private final int mask;
+
+	private final int slots;
+
+	private final int hashes;
+
+	private final int offsets;
+
+	private final int weights;
+
+	private final int features;
+
+	private long checksum;
+
+	private boolean checksummed;
+
+	/**
+	 * Maps a scorer file into memory.
+	 * 
+	 * @param file
+	 *            a file written by {@link #write(File, MaxEnt)}
+	 * @throws IOException
+	 */
+	public MaxentScorer(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			this.model = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel
+					.size());
+		} finally {
+			raf.close();
+		}
+
+		if (model.getInt(0) != MAGIC) {
+			throw new IOException("not a MaxEnt scorer: " + file);
+		}
+		this.numLabels = model.getInt(4);
+		this.numFeatures = model.getInt(8);
+		int capacity = model.getInt(12);
+		this.mask = capacity - 1;
+		this.slots = HEADER + 4 * numLabels;
+		this.hashes = slots + 4 * capacity;
+		this.offsets = hashes + 4 * numFeatures;
+		this.weights = offsets + 4 * (numFeatures + 1);
+		this.features = weights + 4 * (numFeatures + 1) * numLabels;
+
+		log.info("loaded MaxEnt scorer with " + numFeatures
+				+ " features and " + numLabels + " labels from " + file);
+	}
+
+	public int getNumLabels() {
+		return numLabels;
+	}
+
+	public int getNumFeatures() {
+		return numFeatures;
+	}
+
+	/**
+	 * @return the CRC-32 checksum of the scorer file, which is computed on the
+	 *         first call so that loading does not read the whole file
+	 * @throws IllegalStateException
+	 *             if the scorer was closed before the first call
+	 */
+	public synchronized long getChecksum() {
+		if (!checksummed) {
+			CRC32 crc = new CRC32();
+			ByteBuffer all = buffer().duplicate();
+			all.clear();
+			byte[] chunk = new byte[8192];
+			while (all.hasRemaining()) {
+				int n = Math.min(chunk.length, all.remaining());
+				all.get(chunk, 0, n);
+				crc.update(chunk, 0, n);
+			}
+			checksum = crc.getValue();
+			checksummed = true;
+		}
+		return checksum;
+	}
+
+	/**
+	 * @return the type index of a label or -1 if the label is no type index
+	 */
+	public int getType(int label) {
+		return buffer().getInt(HEADER + 4 * label);
+	}
+
+	private ByteBuffer buffer() {
+		ByteBuffer m = model;
+		if (m == null) {
+			throw new IllegalStateException("scorer is closed");
+		}
+		return m;
+	}
+
+	/**
+	 * Looks up a feature. Characters are lowercased one by one, as the
+	 * features of the classifier's alphabet are lowercase.
+	 * 
+	 * @return feature index or -1 if the feature is unknown
+	 */
+	public int getFeatureIndex(CharSequence feature, int start, int end) {
+		ByteBuffer m = buffer();
+
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + Character.toLowerCase(feature.charAt(i));
+		}
+
+		for (int slot = mix(hash) & mask;; slot = (slot + 1) & mask) {
+			int index = m.getInt(slots + 4 * slot);
+			if (index < 0) {
+				return -1;
+			}
+			if (m.getInt(hashes + 4 * index) == hash
+					&& equals(m, index, feature, start, end)) {
+				return index;
+			}
+		}
+	}
+
+	public int getFeatureIndex(CharSequence feature) {
+		return getFeatureIndex(feature, 0, feature.length());
+	}
+
+	private boolean equals(ByteBuffer m, int index, CharSequence feature,
+			int start, int end) {
+		int from = m.getInt(offsets + 4 * index);
+		int to = m.getInt(offsets + 4 * (index + 1));
+		if (to - from != end - start) {
+			return false;
+		}
+		for (int i = 0; i < to - from; i++) {
+			if (m.getChar(features + 2 * (from + i)) != Character
+					.toLowerCase(feature.charAt(start + i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Maps feature strings to feature indexes, as the instance pipe of the
+	 * classifier does: features are split at whitespace, unknown features are
+	 * dropped.
+	 * 
+	 * @param features
+	 *            feature strings of a single example
+	 * @param indexes
+	 *            buffer for the feature indexes, at least
+	 *            {@link #countFeatures(List)} long
+	 * @return number of indexes written
+	 * @throws IllegalArgumentException
+	 *             if the known features do not fit into <code>indexes</code>
+	 */
+	public int getFeatureIndexes(List<String> features, int[] indexes) {
+		int size = 0;
+		for (int f = 0; f < features.size(); f++) {
+			String feature = features.get(f);
+			int start = -1;
+			for (int i = 0; i <= feature.length(); i++) {
+				if (i == feature.length() || isSpace(feature.charAt(i))) {
+					if (start >= 0) {
+						int index = getFeatureIndex(feature, start, i);
+						if (index >= 0) {
+							if (size == indexes.length) {
+								throw new IllegalArgumentException(
+										"Feature buffer of length "
+												+ indexes.length
+												+ " is too small");
+							}
+							indexes[size++] = index;
+						}
+						start = -1;
+					}
+				} else if (start < 0) {
+					start = i;
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return number of features in the feature strings of an example, known
+	 *         or not
+	 */
+	public static int countFeatures(List<String> features) {
+		int count = 0;
+		for (int f = 0; f < features.size(); f++) {
+			String feature = features.get(f);
+			for (int i = 0; i < feature.length(); i++) {
+				if (!isSpace(feature.charAt(i))
+						&& (i == 0 || isSpace(feature.charAt(i - 1)))) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	private static boolean isSpace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\013'
+				|| c == '\f' || c == '\r';
+	}
+
+	/**
+	 * Scores an example and returns the best label together with the margin
+	 * between the probabilities of the best and the second best label. Use
+	 * {@link #getLabel(long)} and {@link #getMargin(long)} to unpack the
+	 * result.
+	 * 
+	 * @param features
+	 *            feature indexes, each occurrence counts once
+	 * @param length
+	 *            number of feature indexes to use
+	 */
+	public long scoreTop2(int[] features, int length) {
+		ByteBuffer m = buffer();
+
+		int best = -1;
+		double first = Double.NEGATIVE_INFINITY;
+		double second = Double.NEGATIVE_INFINITY;
+		// running sum of exp(score - first)
+		double sum = 0;
+
+		for (int l = 0; l < numLabels; l++) {
+			double score = m.getFloat(weights + 4
+					* (numFeatures * numLabels + l));
+			for (int i = 0; i < length; i++) {
+				score += m.getFloat(weights + 4
+						* (features[i] * numLabels + l));
+			}
+
+			if (score > first) {
+				sum = sum * Math.exp(first - score) + 1;
+				second = first;
+				first = score;
+				best = l;
+			} else {
+				sum += Math.exp(score - first);
+				if (score > second) {
+					second = score;
+				}
+			}
+		}
+
+		double margin = (1 - Math.exp(second - first)) / sum;
+		return ((long) best << 32)
+				| (Float.floatToIntBits((float) margin) & 0xffffffffL);
+	}
+
+	public long scoreTop2(int[] features) {
+		return scoreTop2(features, features.length);
+	}
+
+	/**
+	 * @return the best label of a {@link #scoreTop2(int[], int)} result
+	 */
+	public static int getLabel(long top2) {
+		return (int) (top2 >>> 32);
+	}
+
+	/**
+	 * @return the probability margin between the best and the second best
+	 *         label of a {@link #scoreTop2(int[], int)} result
+	 */
+	public static float getMargin(long top2) {
+		return Float.intBitsToFloat((int) top2);
+	}
+
+	/**
+	 * Releases the scorer. Later calls fail with an
+	 * {@link IllegalStateException}.
+	 */
+	@Override
+	public void close() {
+		model = null;
+	}
+
+	private static int mix(int hash) {
+		hash ^= (hash >>> 20) ^ (hash >>> 12);
+		return hash ^ (hash >>> 7) ^ (hash >>> 4);
+	}
+
+	/**
+	 * Exports a trained classifier. Labels must be type indexes of the
+	 * knowledge base, other labels are mapped to -1. Features removed by a
+	 * feature selection get zero weights.
+	 * 
+	 * @param file
+	 *            target file
+	 * @param classifier
+	 *            trained classifier
+	 * @throws IOException
+	 */
+	public static void write(File file, MaxEnt classifier) throws IOException {
+		final Alphabet alphabet = classifier.getAlphabet();
+		final int numFeatures = classifier.getDefaultFeatureIndex();
+		final int numLabels = classifier.getLabelAlphabet().size();
+		final double[] parameters = classifier.getParameters();
+		final FeatureSelection selection = classifier.getFeatureSelection();
+		final FeatureSelection[] perClassSelection = classifier
+				.getPerClassFeatureSelection();
+
+		int capacity = 1;
+		while (capacity < numFeatures * 2) {
+			capacity <<= 1;
+		}
+
+		final String[] keys = new String[numFeatures];
+		final int[] hashes = new int[numFeatures];
+		final int[] slots = new int[capacity];
+		for (int i = 0; i < capacity; i++) {
+			slots[i] = -1;
+		}
+		for (int f = 0; f < numFeatures; f++) {
+			keys[f] = alphabet.lookupObject(f).toString();
+			for (int i = 0; i < keys[f].length(); i++) {
+				hashes[f] = 31 * hashes[f]
+						+ Character.toLowerCase(keys[f].charAt(i));
+			}
+			int slot = mix(hashes[f]) & (capacity - 1);
+			while (slots[slot] >= 0) {
+				slot = (slot + 1) & (capacity - 1);
+			}
+			slots[slot] = f;
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(numLabels);
+			out.writeInt(numFeatures);
+			out.writeInt(capacity);
+			for (int l = 0; l < numLabels; l++) {
+				int type;
+				try {
+					type = Integer.parseInt(classifier.getLabelAlphabet()
+							.lookupObject(l).toString());
+				} catch (NumberFormatException e) {
+					type = -1;
+				}
+				out.writeInt(type);
+			}
+			for (int slot : slots) {
+				out.writeInt(slot);
+			}
+			for (int hash : hashes) {
+				out.writeInt(hash);
+			}
+			int offset = 0;
+			out.writeInt(offset);
+			for (String key : keys) {
+				offset += key.length();
+				out.writeInt(offset);
+			}
+			for (int f = 0; f <= numFeatures; f++) {
+				for (int l = 0; l < numLabels; l++) {
+					FeatureSelection fs = perClassSelection != null ? perClassSelection[l]
+							: selection;
+					if (f < numFeatures && fs != null && !fs.contains(f)) {
+						out.writeFloat(0f);
+					} else {
+						out.writeFloat((float) parameters[l
+								* (numFeatures + 1) + f]);
+					}
+				}
+			}
+			for (String key : keys) {
+				for (int i = 0; i < key.length(); i++) {
+					out.writeChar(Character.toLowerCase(key.charAt(i)));
+				}
+			}
+		} finally {
+			out.close();
+		}
+		log.info("wrote MaxEnt scorer with " + numFeatures + " features and "
+				+ numLabels + " labels to " + file);
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+    Copyright (c) 2011,
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Logger;
+
+import opennlp.tools.postag.POSModel;
+import opennlp.tools.postag.POSTaggerME;
+import cc.mallet.classify.MaxEnt;
+import de.dfki.km.perspecting.obie.transducer.EntityClassification;
+import de.dfki.km.perspecting.obie.transducer.POSTagging;
+import de.dfki.km.perspecting.obie.transducer.ProperNameRecognition;
+
+/**
+ * Loads the models of the pipeline once, at startup, and keeps them by name.
+ * Only immutable parameters are kept here: a {@link POSModel} is shared by
+ * one {@link POSTaggerME} per thread, a {@link CRFNounPhraseChunkerModel}
+ * hands out a decoder per thread, and {@link EntityClassifier} as well as
+ * {@link MaxentScorer} score without any state of their own. So one registry
+ * can feed any number of pipelines running in parallel, see the constructors
+ * of {@link POSTagging}, {@link ProperNameRecognition} and
+ * {@link EntityClassification} that take a registry.
+ *
+ * Every model is warmed up right after loading by tagging, chunking or
+ * classifying a tiny example.
+ */
+public class ModelRegistry implements Closeable {
+
+	private static final String[] WARM_UP_TOKENS = { "The", "model", "is",
+			"ready", "." };
+
+	private final Logger log = Logger.getLogger(ModelRegistry.class
+			.getName());
+
+	private final ConcurrentMap<String, POSModel> posModels = new ConcurrentHashMap<String, POSModel>();
+
+	private final ConcurrentMap<String, CRFNounPhraseChunkerModel> chunkers = new ConcurrentHashMap<String, CRFNounPhraseChunkerModel>();
+
+	private final ConcurrentMap<String, EntityClassifier> classifiers = new ConcurrentHashMap<String, EntityClassifier>();
+
+	private final ConcurrentMap<String, MaxentScorer> scorers = new ConcurrentHashMap<String, MaxentScorer>();
+
+	/**
+	 * Replaced scorers, which pipelines may still use until this is closed.
+	 */
+	private final Queue<MaxentScorer> retired = new ConcurrentLinkedQueue<MaxentScorer>();
+
+	/**
+	 * Loads an OpenNLP POS model. The stream is closed.
+	 */
+	public POSModel loadPOSModel(String name, InputStream input)
+			throws IOException {
+		long start = System.currentTimeMillis();
+		POSModel model;
+		try {
+			model = new POSModel(input);
+		} finally {
+			input.close();
+		}
+		new POSTaggerME(model).tag(WARM_UP_TOKENS);
+		posModels.put(name, model);
+		log.info("Loaded POS model " + name + " in "
+				+ (System.currentTimeMillis() - start) + "ms");
+		return model;
+	}
+
+	/**
+	 * Loads a serialized noun phrase chunking CRF. The stream is closed.
+	 */
+	public CRFNounPhraseChunkerModel loadChunker(String name,
+			InputStream input) throws Exception {
+		long start = System.currentTimeMillis();
+		CRFNounPhraseChunkerModel model = new CRFNounPhraseChunkerModel(input);
+		model.load();
+		chunkers.put(name, model);
+		log.info("Loaded noun phrase chunker " + name + " in "
+				+ (System.currentTimeMillis() - start) + "ms");
+		return model;
+	}
+
+	/**
+	 * Loads a serialized noun phrase chunking CRF from a file.
+	 */
+	public CRFNounPhraseChunkerModel loadChunker(String name, String path)
+			throws Exception {
+		return loadChunker(name, new FileInputStream(path));
+	}
+
+	/**
+	 * Loads a serialized {@link MaxEnt} entity classifier. Its alphabet is
+	 * frozen, so lookups never modify it.
+	 */
+	public EntityClassifier loadClassifier(String name, File file)
+			throws Exception {
+		long start = System.currentTimeMillis();
+		ObjectInputStream in = new ObjectInputStream(new FileInputStream(file));
+		EntityClassifier classifier;
+		try {
+			classifier = new EntityClassifier((MaxEnt) in.readObject());
+		} finally {
+			in.close();
+		}
+		classifier.classify(classifier.getFeatureIndexes(Collections
+				.<String> emptyList()), new double[classifier.getNumLabels()]);
+		classifiers.put(name, classifier);
+		log.info("Loaded entity classifier " + name + " in "
+				+ (System.currentTimeMillis() - start) + "ms");
+		return classifier;
+	}
+
+	/**
+	 * Maps a scorer file written by {@link MaxentScorer#write(File, MaxEnt)}.
+	 * A scorer loaded before under the same name is replaced, but it stays
+	 * open for the pipelines that still use it until this registry is closed.
+	 */
+	public MaxentScorer loadScorer(String name, File file) throws IOException {
+		MaxentScorer scorer = new MaxentScorer(file);
+		scorer.scoreTop2(new int[0]);
+		MaxentScorer old = scorers.put(name, scorer);
+		if (old != null) {
+			retired.add(old);
+		}
+		return scorer;
+	}
+
+	public POSModel getPOSModel(String name) {
+		return get(posModels, name);
+	}
+
+	public CRFNounPhraseChunkerModel getChunker(String name) {
+		return get(chunkers, name);
+	}
+
+	public EntityClassifier getClassifier(String name) {
+		return get(classifiers, name);
+	}
+
+	public MaxentScorer getScorer(String name) {
+		return get(scorers, name);
+	}
+
+	private static <T> T get(ConcurrentMap<String, T> models, String name) {
+		T model = models.get(name);
+		if (model == null) {
+			throw new IllegalArgumentException("No model loaded as " + name);
+		}
+		return model;
+	}
+
+	/**
+	 * Unmaps all scorers, including replaced ones. No pipeline may use them
+	 * any more.
+	 */
+	@Override
+	public void close() {
+		for (MaxentScorer scorer : scorers.values()) {
+			scorer.close();
+		}
+		scorers.clear();
+		for (MaxentScorer scorer; (scorer = retired.poll()) != null;) {
+			scorer.close();
+		}
+	}
+}
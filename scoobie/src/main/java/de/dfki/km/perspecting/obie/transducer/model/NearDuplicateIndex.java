@@ -0,0 +1,277 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.Token;
+
+/**
+ * Finds recently extracted documents that are near-duplicates of a new one.
+ * Documents are compared by MinHash signatures over shingles of
+ * <code>shingleSize</code> consecutive tokens; the fraction of equal
+ * signature values estimates the Jaccard similarity of the shingle sets.
+ * Signatures are split into <code>bands</code> bands of <code>rows</code>
+ * values, and only documents sharing at least one band are compared, i.e.
+ * locality sensitive hashing.
+ * 
+ * The index keeps a {@link Snapshot} of the spotted literals and resolved
+ * subjects of the last <code>capacity</code> documents. It can be shared by
+ * any number of pipelines.
+ */
+public class NearDuplicateIndex {
+
+	private final int shingleSize;
+
+	private final int bands;
+
+	private final int rows;
+
+	private final int capacity;
+
+	private final int[] seeds;
+
+	private final Map<Long, List<Snapshot>> buckets = new HashMap<Long, List<Snapshot>>();
+
+	private final LinkedList<Snapshot> snapshots = new LinkedList<Snapshot>();
+
+	/**
+	 * @param shingleSize
+	 *            number of tokens per shingle
+	 * @param bands
+	 *            number of bands, more bands find less similar documents
+	 * @param rows
+	 *            number of signature values per band
+	 * @param capacity
+	 *            number of documents kept
+	 */
+	public NearDuplicateIndex(int shingleSize, int bands, int rows,
+			int capacity) {
+		this.shingleSize = shingleSize;
+		this.bands = bands;
+		this.rows = rows;
+		this.capacity = capacity;
+		this.seeds = new int[bands * rows];
+		Random random = new Random(0x5C00B1EL);
+		for (int i = 0; i < seeds.length; i++) {
+			seeds[i] = random.nextInt();
+		}
+	}
+
+	/**
+	 * Looks up the most similar document of the index.
+	 * 
+	 * @param tokens
+	 *            the tokens of a new document in text order
+	 * @param similarity
+	 *            minimal estimated Jaccard similarity of a near-duplicate
+	 * @param margin
+	 *            number of tokens after a token that must be unchanged before
+	 *            literals starting at the token are reused
+	 * @return the warm start of the document, without a near-duplicate if
+	 *         none was found
+	 */
+	public WarmStart lookup(List<Token> tokens, double similarity, int margin) {
+		int[] hashes = new int[tokens.size()];
+		int[] starts = new int[tokens.size()];
+		for (int i = 0; i < hashes.length; i++) {
+			Token token = tokens.get(i);
+			hashes[i] = token.toString().hashCode();
+			starts[i] = token.getStart();
+		}
+		int[] signature = sign(shingles(hashes));
+		return new WarmStart(this, signature, starts, hashes, find(signature,
+				similarity), margin);
+	}
+
+	/**
+	 * @return the hashes of all shingles, a single one if there are less
+	 *         tokens than a shingle holds
+	 */
+	int[] shingles(int[] tokenHashes) {
+		int size = Math.min(shingleSize, tokenHashes.length);
+		int[] shingles = new int[tokenHashes.length - size + 1];
+		for (int i = 0; i < shingles.length; i++) {
+			int hash = 17;
+			for (int j = i; j < i + size; j++) {
+				hash = 31 * hash + tokenHashes[j];
+			}
+			shingles[i] = hash;
+		}
+		return shingles;
+	}
+
+	private int[] sign(int[] shingles) {
+		int[] signature = new int[seeds.length];
+		for (int i = 0; i < signature.length; i++) {
+			int min = Integer.MAX_VALUE;
+			for (int shingle : shingles) {
+				int h = mix(shingle ^ seeds[i]);
+				if (h < min) {
+					min = h;
+				}
+			}
+			signature[i] = min;
+		}
+		return signature;
+	}
+
+	/**
+	 * Finalizer of MurmurHash3.
+	 */
+	private static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	private long getBucket(int[] signature, int band) {
+		int hash = band;
+		for (int i = band * rows; i < (band + 1) * rows; i++) {
+			hash = 31 * hash + signature[i];
+		}
+		return ((long) band << 32) | (hash & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @return the estimated Jaccard similarity of two signatures
+	 */
+	static double getSimilarity(int[] a, int[] b) {
+		int equal = 0;
+		for (int i = 0; i < a.length; i++) {
+			if (a[i] == b[i]) {
+				equal++;
+			}
+		}
+		return (double) equal / a.length;
+	}
+
+	private synchronized Snapshot find(int[] signature, double similarity) {
+		Map<Snapshot, Boolean> candidates = new IdentityHashMap<Snapshot, Boolean>();
+		Snapshot best = null;
+		double max = similarity;
+		for (int band = 0; band < bands; band++) {
+			List<Snapshot> bucket = buckets.get(getBucket(signature, band));
+			if (bucket == null) {
+				continue;
+			}
+			for (Snapshot candidate : bucket) {
+				if (candidates.put(candidate, Boolean.TRUE) == null) {
+					double s = getSimilarity(signature, candidate.signature);
+					if (s >= max) {
+						best = candidate;
+						max = s;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	synchronized void add(Snapshot snapshot) {
+		snapshots.addLast(snapshot);
+		for (int band = 0; band < bands; band++) {
+			long key = getBucket(snapshot.signature, band);
+			List<Snapshot> bucket = buckets.get(key);
+			if (bucket == null) {
+				bucket = new ArrayList<Snapshot>(2);
+				buckets.put(key, bucket);
+			}
+			bucket.add(snapshot);
+		}
+
+		while (snapshots.size() > capacity) {
+			Snapshot oldest = snapshots.removeFirst();
+			for (int band = 0; band < bands; band++) {
+				long key = getBucket(oldest.signature, band);
+				List<Snapshot> bucket = buckets.get(key);
+				bucket.remove(oldest);
+				if (bucket.isEmpty()) {
+					buckets.remove(key);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of documents kept
+	 */
+	public synchronized int size() {
+		return snapshots.size();
+	}
+
+	/**
+	 * The tokens and annotations of an extracted document, which are never
+	 * modified once the snapshot was taken.
+	 */
+	static class Snapshot {
+
+		final int[] signature;
+
+		final int[] tokenHashes;
+
+		final List<Span> spans;
+
+		Snapshot(int[] signature, int[] tokenHashes, List<Span> spans) {
+			this.signature = signature;
+			this.tokenHashes = tokenHashes;
+			this.spans = spans;
+		}
+	}
+
+	/**
+	 * A spotted literal with the annotations of its tokens in the columns
+	 * {@link de.dfki.km.perspecting.obie.model.TokenSequence#PROPERTY},
+	 * {@link de.dfki.km.perspecting.obie.model.TokenSequence#SUBJECT} and
+	 * {@link de.dfki.km.perspecting.obie.model.TokenSequence#TYPE}.
+	 */
+	static class Span {
+
+		final int start;
+
+		final int length;
+
+		final List<List<SemanticEntity>> properties = new ArrayList<List<SemanticEntity>>();
+
+		final List<List<SemanticEntity>> subjects = new ArrayList<List<SemanticEntity>>();
+
+		final List<List<SemanticEntity>> types = new ArrayList<List<SemanticEntity>>();
+
+		Span(int start, int length) {
+			this.start = start;
+			this.length = length;
+		}
+	}
+}
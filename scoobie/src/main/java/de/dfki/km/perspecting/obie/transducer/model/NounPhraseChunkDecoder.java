@@ -0,0 +1,493 @@
+/*
+    Copyright (c) 2011,
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cc.mallet.fst.CRF;
+import cc.mallet.types.Alphabet;
+import cc.mallet.types.SparseVector;
+
+/**
+ * Viterbi decoder for noun phrase chunking CRFs trained by
+ * {@link NounPhraseChunker}. The features of the chunker's instance pipe
+ * (token text, POS tag and both of them in a window around the token) are
+ * looked up in frozen copies of the CRF's input alphabet directly from the
+ * document text and the POS tags, so decoding creates no strings.
+ *
+ * Weights are stored per feature. A decoder keeps its lattice and label
+ * buffers between calls and must not be shared between threads. Further
+ * decoders for other threads are copied from a loaded one, they share the
+ * feature tables and weights.
+ */
+public class NounPhraseChunkDecoder {
+
+	private static final String UTF_8 = "UTF-8";
+
+	private static final String WORD = "W=";
+
+	private static final String TAG = "T=";
+
+	private static final String WINDOW = "WINDOW=";
+
+	private final int windowSize;
+
+	private final FeatureTable words;
+
+	private final FeatureTable tags;
+
+	private final FeatureTable windowWords;
+
+	private final FeatureTable windowTags;
+
+	/** Offsets into {@link #groups} and {@link #weights} per feature. */
+	private final int[] offsets;
+
+	private final int[] groups;
+
+	private final double[] weights;
+
+	private final double[] defaultWeights;
+
+	private final int numStates;
+
+	private final double[] initialWeights;
+
+	private final double[] finalWeights;
+
+	private final int[][] destinations;
+
+	private final int[][] transitionLabels;
+
+	private final int[][][] transitionGroups;
+
+	private final String[] labels;
+
+	private final double[] groupScores;
+
+	private final int[] features;
+
+	private int[] wordFeatures = new int[0];
+
+	private int[] tagFeatures = new int[0];
+
+	private int[] windowWordFeatures = new int[0];
+
+	private int[] windowTagFeatures = new int[0];
+
+	private double[] delta = new double[0];
+
+	private int[] backStates = new int[0];
+
+	private int[] backTransitions = new int[0];
+
+	private int[] output = new int[0];
+
+	/**
+	 * @param crf
+	 *            a trained chunker
+	 * @param windowSize
+	 *            the window size the chunker was trained with
+	 */
+	public NounPhraseChunkDecoder(CRF crf, int windowSize) {
+		this.windowSize = windowSize;
+		this.words = new FeatureTable();
+		this.tags = new FeatureTable();
+		this.windowWords = new FeatureTable();
+		this.windowTags = new FeatureTable();
+
+		Alphabet alphabet = crf.getInputAlphabet();
+		for (int f = 0; f < alphabet.size(); f++) {
+			String feature = alphabet.lookupObject(f).toString();
+			if (feature.startsWith(WINDOW + WORD)) {
+				putWord(windowWords, feature, WINDOW.length() + WORD.length(), f);
+			} else if (feature.startsWith(WINDOW + TAG)) {
+				windowTags.put(feature.substring(WINDOW.length()
+						+ TAG.length()), f);
+			} else if (feature.startsWith(WORD)) {
+				putWord(words, feature, WORD.length(), f);
+			} else if (feature.startsWith(TAG)) {
+				tags.put(feature.substring(TAG.length()), f);
+			}
+		}
+
+		SparseVector[] parameters = crf.getWeights();
+		this.defaultWeights = crf.getDefaultWeights().clone();
+		this.groupScores = new double[parameters.length];
+
+		int numFeatures = alphabet.size();
+		this.offsets = new int[numFeatures + 1];
+		for (SparseVector vector : parameters) {
+			for (int l = 0; l < vector.numLocations(); l++) {
+				int f = vector.indexAtLocation(l);
+				if (f < numFeatures && vector.valueAtLocation(l) != 0) {
+					offsets[f + 1]++;
+				}
+			}
+		}
+		for (int f = 0; f < numFeatures; f++) {
+			offsets[f + 1] += offsets[f];
+		}
+		this.groups = new int[offsets[numFeatures]];
+		this.weights = new double[offsets[numFeatures]];
+		int[] next = Arrays.copyOf(offsets, numFeatures);
+		for (int g = 0; g < parameters.length; g++) {
+			SparseVector vector = parameters[g];
+			for (int l = 0; l < vector.numLocations(); l++) {
+				int f = vector.indexAtLocation(l);
+				double value = vector.valueAtLocation(l);
+				if (f < numFeatures && value != 0) {
+					groups[next[f]] = g;
+					weights[next[f]++] = value;
+				}
+			}
+		}
+
+		this.numStates = crf.numStates();
+		this.initialWeights = new double[numStates];
+		this.finalWeights = new double[numStates];
+		this.destinations = new int[numStates][];
+		this.transitionLabels = new int[numStates][];
+		this.transitionGroups = new int[numStates][][];
+
+		List<String> labelNames = new ArrayList<String>();
+		for (int s = 0; s < numStates; s++) {
+			CRF.State state = (CRF.State) crf.getState(s);
+			initialWeights[s] = state.getInitialWeight();
+			finalWeights[s] = state.getFinalWeight();
+
+			int n = state.numDestinations();
+			destinations[s] = new int[n];
+			transitionLabels[s] = new int[n];
+			transitionGroups[s] = new int[n][];
+			for (int d = 0; d < n; d++) {
+				destinations[s][d] = state.getDestinationState(d).getIndex();
+
+				String label = state.getLabelName(d);
+				int index = labelNames.indexOf(label);
+				if (index < 0) {
+					index = labelNames.size();
+					labelNames.add(label);
+				}
+				transitionLabels[s][d] = index;
+
+				String[] names = state.getWeightNames(d);
+				transitionGroups[s][d] = new int[names.length];
+				for (int w = 0; w < names.length; w++) {
+					transitionGroups[s][d][w] = crf.getWeightsIndex(names[w]);
+				}
+			}
+		}
+		this.labels = labelNames.toArray(new String[labelNames.size()]);
+
+		// own text and tag plus both of them for each window position
+		this.features = new int[2 + 4 * windowSize];
+	}
+
+	/**
+	 * Creates a decoder with its own buffers that shares the read only
+	 * feature tables and weights of <code>decoder</code>.
+	 */
+	public NounPhraseChunkDecoder(NounPhraseChunkDecoder decoder) {
+		this.windowSize = decoder.windowSize;
+		this.words = decoder.words;
+		this.tags = decoder.tags;
+		this.windowWords = decoder.windowWords;
+		this.windowTags = decoder.windowTags;
+		this.offsets = decoder.offsets;
+		this.groups = decoder.groups;
+		this.weights = decoder.weights;
+		this.defaultWeights = decoder.defaultWeights;
+		this.numStates = decoder.numStates;
+		this.initialWeights = decoder.initialWeights;
+		this.finalWeights = decoder.finalWeights;
+		this.destinations = decoder.destinations;
+		this.transitionLabels = decoder.transitionLabels;
+		this.transitionGroups = decoder.transitionGroups;
+		this.labels = decoder.labels;
+		this.groupScores = new double[decoder.groupScores.length];
+		this.features = new int[decoder.features.length];
+	}
+
+	/**
+	 * The chunker's pipe URL encodes token texts before they become features.
+	 * Only features that are the encoding of some text can ever match, these
+	 * are stored under the decoded text.
+	 */
+	private static void putWord(FeatureTable table, String feature,
+			int start, int index) {
+		try {
+			String encoded = feature.substring(start);
+			String text = URLDecoder.decode(encoded, UTF_8);
+			if (URLEncoder.encode(text, UTF_8).equals(encoded)) {
+				table.put(text, index);
+			}
+		} catch (IllegalArgumentException e) {
+			// not an encoded text
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public int getNumLabels() {
+		return labels.length;
+	}
+
+	/**
+	 * @return the chunk tag of a label, e.g. <code>B-NP</code>
+	 */
+	public String getLabel(int label) {
+		return labels[label];
+	}
+
+	/**
+	 * Finds the most likely chunk labels for a sentence.
+	 *
+	 * @param text
+	 *            the text the tokens point into
+	 * @param starts
+	 *            token start offsets
+	 * @param ends
+	 *            token end offsets
+	 * @param posTags
+	 *            POS tags of the tokens, may contain <code>null</code>
+	 * @param offset
+	 *            index of the sentence's first token in the arrays
+	 * @param length
+	 *            number of tokens in the sentence
+	 * @return a buffer holding the label of the i-th token at index i. The
+	 *         buffer is reused by the next call.
+	 */
+	public int[] decode(CharSequence text, int[] starts, int[] ends,
+			String[] posTags, int offset, int length) {
+		ensureCapacity(length);
+
+		for (int i = 0; i < length; i++) {
+			int start = starts[offset + i];
+			int end = ends[offset + i];
+			String tag = posTags[offset + i];
+			wordFeatures[i] = words.get(text, start, end);
+			windowWordFeatures[i] = windowWords.get(text, start, end);
+			tagFeatures[i] = tag == null ? -1 : tags.get(tag, 0, tag
+					.length());
+			windowTagFeatures[i] = tag == null ? -1 : windowTags.get(tag, 0,
+					tag.length());
+		}
+
+		for (int s = 0; s < numStates; s++) {
+			delta[s] = initialWeights[s];
+		}
+
+		for (int t = 0; t < length; t++) {
+			score(t, length);
+
+			int from = t * numStates;
+			int to = from + numStates;
+			Arrays.fill(delta, to, to + numStates, Double.NEGATIVE_INFINITY);
+			for (int s = 0; s < numStates; s++) {
+				double previous = delta[from + s];
+				if (previous == Double.NEGATIVE_INFINITY) {
+					continue;
+				}
+				for (int d = 0; d < destinations[s].length; d++) {
+					double weight = previous;
+					for (int g : transitionGroups[s][d]) {
+						weight += groupScores[g];
+					}
+					int destination = to + destinations[s][d];
+					if (weight > delta[destination]) {
+						delta[destination] = weight;
+						backStates[destination] = s;
+						backTransitions[destination] = d;
+					}
+				}
+			}
+		}
+
+		// Mallet's MaxLatticeDefault searches back from every end state that
+		// can be reached, final weights only rule out end states.
+		int best = -1;
+		double bestWeight = Double.NEGATIVE_INFINITY;
+		int last = length * numStates;
+		for (int s = 0; s < numStates; s++) {
+			double weight = delta[last + s];
+			if (weight > bestWeight
+					&& finalWeights[s] > Double.NEGATIVE_INFINITY) {
+				bestWeight = weight;
+				best = s;
+			}
+		}
+		if (best < 0) {
+			throw new IllegalStateException(
+					"No chunk sequence has a finite weight.");
+		}
+
+		for (int t = length - 1; t >= 0; t--) {
+			int node = (t + 1) * numStates + best;
+			int previous = backStates[node];
+			output[t] = transitionLabels[previous][backTransitions[node]];
+			best = previous;
+		}
+
+		return output;
+	}
+
+	/**
+	 * Sums the weights of all features of a token per weight group. Features
+	 * seen at several window positions count once.
+	 */
+	private void score(int t, int length) {
+		int size = 0;
+		size = add(wordFeatures[t], size);
+		size = add(tagFeatures[t], size);
+		// the pipe's windows end before t + windowSize
+		for (int j = Math.max(0, t - windowSize); j < Math.min(length, t
+				+ windowSize); j++) {
+			if (j != t) {
+				size = add(windowTagFeatures[j], size);
+				size = add(windowWordFeatures[j], size);
+			}
+		}
+
+		System.arraycopy(defaultWeights, 0, groupScores, 0,
+				defaultWeights.length);
+		for (int i = 0; i < size; i++) {
+			int f = features[i];
+			for (int w = offsets[f]; w < offsets[f + 1]; w++) {
+				groupScores[groups[w]] += weights[w];
+			}
+		}
+	}
+
+	private int add(int feature, int size) {
+		if (feature < 0) {
+			return size;
+		}
+		for (int i = 0; i < size; i++) {
+			if (features[i] == feature) {
+				return size;
+			}
+		}
+		features[size] = feature;
+		return size + 1;
+	}
+
+	private void ensureCapacity(int length) {
+		if (output.length < length) {
+			int capacity = Math.max(length, 2 * output.length);
+			wordFeatures = new int[capacity];
+			tagFeatures = new int[capacity];
+			windowWordFeatures = new int[capacity];
+			windowTagFeatures = new int[capacity];
+			delta = new double[(capacity + 1) * numStates];
+			backStates = new int[(capacity + 1) * numStates];
+			backTransitions = new int[(capacity + 1) * numStates];
+			output = new int[capacity];
+		}
+	}
+
+	/**
+	 * Open addressing table from feature texts to feature indexes that is
+	 * probed with character ranges.
+	 */
+	private static final class FeatureTable {
+
+		private String[] keys = new String[16];
+
+		private int[] values = new int[16];
+
+		private int size;
+
+		void put(String key, int value) {
+			if (2 * (size + 1) > keys.length) {
+				String[] oldKeys = keys;
+				int[] oldValues = values;
+				keys = new String[2 * oldKeys.length];
+				values = new int[2 * oldKeys.length];
+				size = 0;
+				for (int i = 0; i < oldKeys.length; i++) {
+					if (oldKeys[i] != null) {
+						put(oldKeys[i], oldValues[i]);
+					}
+				}
+			}
+
+			int mask = keys.length - 1;
+			for (int slot = mix(key.hashCode()) & mask;; slot = (slot + 1)
+					& mask) {
+				if (keys[slot] == null) {
+					keys[slot] = key;
+					values[slot] = value;
+					size++;
+					return;
+				}
+				if (keys[slot].equals(key)) {
+					values[slot] = value;
+					return;
+				}
+			}
+		}
+
+		/**
+		 * @return the feature index or -1
+		 */
+		int get(CharSequence text, int start, int end) {
+			int hash = 0;
+			for (int i = start; i < end; i++) {
+				hash = 31 * hash + text.charAt(i);
+			}
+
+			int mask = keys.length - 1;
+			for (int slot = mix(hash) & mask;; slot = (slot + 1) & mask) {
+				String key = keys[slot];
+				if (key == null) {
+					return -1;
+				}
+				if (key.length() == end - start && matches(key, text, start)) {
+					return values[slot];
+				}
+			}
+		}
+
+		private static boolean matches(String key, CharSequence text,
+				int start) {
+			for (int i = 0; i < key.length(); i++) {
+				if (key.charAt(i) != text.charAt(start + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static int mix(int hash) {
+			hash ^= (hash >>> 20) ^ (hash >>> 12);
+			return hash ^ (hash >>> 7) ^ (hash >>> 4);
+		}
+	}
+}
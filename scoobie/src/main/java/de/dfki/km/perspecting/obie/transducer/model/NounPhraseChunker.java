@@ -247,6 +247,16 @@ public class NounPhraseChunker {
 		return testCrf(getData(reader));
 	}
 
+	/***************************************************************************
+	 * Creates a decoder that labels tokens of a document without running them
+	 * through the pipe. Decoders share nothing but the loaded CRF.
+	 *
+	 * @return decoder for the loaded CRF
+	 */
+	public NounPhraseChunkDecoder createDecoder() {
+		return new NounPhraseChunkDecoder(crf, windowSize);
+	}
+
 	/***************************************************************************
 	 * Trains the crf using the initialized pipe and instance lists.
 	 */
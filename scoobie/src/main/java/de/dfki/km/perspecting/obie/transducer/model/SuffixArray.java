@@ -56,7 +56,7 @@ import de.dfki.km.perspecting.obie.model.Token;
 public class SuffixArray {
 
 	private final Logger log = Logger.getLogger(SuffixArray.class.getName());
-	private final String text;
+	private final CharSequence text;
 
 	private List<String> index = new ArrayList<String>();
 	private List<String> index2 = new ArrayList<String>();
@@ -75,6 +75,7 @@ public class SuffixArray {
 			throws Exception {
 		this.hashing = hashing;
 		this.ontology = ontology;
+		this.maxLength = maxLength;
 		prefix_collator.setStrength(Collator.PRIMARY);
 		if (!tokens.isEmpty())
 			this.text = tokens.iterator().next().getTextSource();
@@ -99,16 +100,34 @@ public class SuffixArray {
 		return commonPrefixStrings.toArray();
 	}
 
+	/**
+	 * @return the number of suffixes
+	 */
+	public int size() {
+		return index.size();
+	}
+
+	/**
+	 * @return <code>true</code> if no suffix starts with a letter or digit,
+	 *         so no literal can match. Unlike
+	 *         {@link #getCommonPrefixStrings()} this does not copy the
+	 *         prefixes.
+	 */
+	public boolean isEmpty() {
+		return commonPrefixStrings.isEmpty();
+	}
+
 	protected void create(List<Token> tokens) throws Exception {
 
 		log.info("Creating sorted token list of size " + tokens.size());
 		for (Token t : tokens) {
 			String prefix;
 			if (t.getStart() + hashing.getCharacterLength() < t.getTextSource().length()) {
-				prefix = t.getTextSource().substring(t.getStart(),
-						t.getStart() + hashing.getCharacterLength());
+				prefix = t.getTextSource().subSequence(t.getStart(),
+						t.getStart() + hashing.getCharacterLength()).toString();
 			} else {
-				prefix = t.getTextSource().substring(t.getStart());
+				prefix = t.getTextSource().subSequence(t.getStart(),
+						t.getTextSource().length()).toString();
 			}
 
 			if (Character.isLetterOrDigit(prefix.charAt(0))) {
@@ -439,7 +458,7 @@ public class SuffixArray {
 		 */
 		@Override
 		public CharSequence subSequence(int start, int end) {
-			return text.substring(this.start + start, this.start + end);
+			return text.subSequence(this.start + start, this.start + end);
 		}
 	}
 
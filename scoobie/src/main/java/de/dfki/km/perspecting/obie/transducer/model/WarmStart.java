@@ -0,0 +1,319 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import gnu.trove.TIntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.dfki.km.perspecting.obie.model.DataSheet;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.TIntDoubleTuple;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.transducer.model.NearDuplicateIndex.Snapshot;
+import de.dfki.km.perspecting.obie.transducer.model.NearDuplicateIndex.Span;
+
+/**
+ * Reuses the literals and subjects of a near-duplicate document. Tokens of
+ * the document are aligned to equal tokens of the near-duplicate, anchored
+ * at equal shingles. A token is reused if it and the <code>margin</code>
+ * tokens after it are aligned to consecutive tokens of the near-duplicate,
+ * and all literals of the near-duplicate starting at it are aligned token
+ * by token. Literals are only spotted at the other tokens, and only their
+ * subjects are resolved; the annotations of literals starting at reused
+ * tokens are copied.
+ * 
+ * Once its subjects are resolved, a document is published to the
+ * {@link NearDuplicateIndex} itself.
+ */
+public class WarmStart {
+
+	private final NearDuplicateIndex index;
+
+	private final int[] signature;
+
+	private final int[] starts;
+
+	private final int[] tokenHashes;
+
+	private final Snapshot source;
+
+	/**
+	 * Maps the tokens to aligned tokens of the near-duplicate, or -1.
+	 */
+	private final int[] alignment;
+
+	/**
+	 * Maps the tokens of the near-duplicate to aligned tokens, or -1.
+	 */
+	private final int[] aligned;
+
+	private final boolean[] reused;
+
+	private int reusedCount;
+
+	WarmStart(NearDuplicateIndex index, int[] signature, int[] starts,
+			int[] tokenHashes, Snapshot source, int margin) {
+		this.index = index;
+		this.signature = signature;
+		this.starts = starts;
+		this.tokenHashes = tokenHashes;
+		this.source = source;
+		this.reused = new boolean[starts.length];
+
+		if (source == null) {
+			this.alignment = new int[0];
+			this.aligned = new int[0];
+			return;
+		}
+		this.alignment = align(source.tokenHashes);
+		this.aligned = new int[source.tokenHashes.length];
+		Arrays.fill(aligned, -1);
+		for (int i = 0; i < alignment.length; i++) {
+			if (alignment[i] < 0) {
+				continue;
+			}
+			aligned[alignment[i]] = i;
+			reused[i] = true;
+			for (int j = 1; j <= margin && reused[i]; j++) {
+				if (i + j < alignment.length) {
+					reused[i] = alignment[i + j] == alignment[i] + j;
+				} else {
+					reused[i] = alignment[i] + j >= source.tokenHashes.length;
+				}
+			}
+			if (reused[i]) {
+				reusedCount++;
+			}
+		}
+		// a literal reaching past the margin may end at an edited token, so
+		// its first token is spotted again instead of copying a stale literal
+		for (Span span : source.spans) {
+			int i = aligned[span.start];
+			if (i >= 0 && reused[i] && !isAligned(i, span)) {
+				reused[i] = false;
+				reusedCount--;
+			}
+		}
+	}
+
+	/**
+	 * Aligns runs of equal tokens that start with a shingle occurring once in
+	 * the near-duplicate.
+	 * 
+	 * @return the aligned token of the near-duplicate for each token, or -1
+	 */
+	private int[] align(int[] sourceHashes) {
+		TIntIntHashMap anchors = new TIntIntHashMap();
+		int[] sourceShingles = index.shingles(sourceHashes);
+		for (int i = 0; i < sourceShingles.length; i++) {
+			int shingle = sourceShingles[i];
+			anchors.put(shingle, anchors.containsKey(shingle) ? -1 : i);
+		}
+
+		int[] shingles = index.shingles(tokenHashes);
+		int[] alignment = new int[tokenHashes.length];
+		Arrays.fill(alignment, -1);
+		for (int i = 0; i < tokenHashes.length;) {
+			int j = -1;
+			if (i < shingles.length && anchors.containsKey(shingles[i])) {
+				j = anchors.get(shingles[i]);
+			}
+			int from = i;
+			while (j >= 0 && i < tokenHashes.length && j < sourceHashes.length
+					&& tokenHashes[i] == sourceHashes[j]) {
+				alignment[i++] = j++;
+			}
+			if (i == from) {
+				i++;
+			}
+		}
+		return alignment;
+	}
+
+	/**
+	 * @return <code>true</code> if a near-duplicate was found
+	 */
+	public boolean hasSource() {
+		return source != null;
+	}
+
+	/**
+	 * @return the estimated Jaccard similarity to the near-duplicate
+	 */
+	public double getSimilarity() {
+		return source == null ? 0 : NearDuplicateIndex.getSimilarity(
+				signature, source.signature);
+	}
+
+	/**
+	 * @return the number of reused tokens
+	 */
+	public int getReusedCount() {
+		return reusedCount;
+	}
+
+	/**
+	 * @return <code>true</code> if literals starting at <code>token</code>
+	 *         are copied from the near-duplicate
+	 */
+	public boolean isReused(Token token) {
+		int i = Arrays.binarySearch(starts, token.getStart());
+		return i >= 0 && reused[i];
+	}
+
+	/**
+	 * Copies the literals starting at reused tokens to the
+	 * {@link TokenSequence#PROPERTY} column.
+	 */
+	public void copyLiterals(Document document) {
+		for (Span span : getReusedSpans()) {
+			copy(document, TokenSequence.PROPERTY, span, span.properties);
+		}
+	}
+
+	/**
+	 * Copies the subjects and types of literals starting at reused tokens to
+	 * the {@link TokenSequence#SUBJECT} and {@link TokenSequence#TYPE}
+	 * columns.
+	 */
+	public void copySubjects(Document document) {
+		for (Span span : getReusedSpans()) {
+			copy(document, TokenSequence.SUBJECT, span, span.subjects);
+			copy(document, TokenSequence.TYPE, span, span.types);
+		}
+	}
+
+	private List<Span> getReusedSpans() {
+		List<Span> spans = new ArrayList<Span>();
+		if (source != null) {
+			for (Span span : source.spans) {
+				int i = aligned[span.start];
+				if (i >= 0 && reused[i] && isAligned(i, span)) {
+					spans.add(span);
+				}
+			}
+		}
+		return spans;
+	}
+
+	private boolean isAligned(int first, Span span) {
+		for (int k = 1; k < span.length; k++) {
+			if (first + k >= alignment.length
+					|| alignment[first + k] != span.start + k) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void copy(Document document, String column, Span span,
+			List<List<SemanticEntity>> entities) {
+		DataSheet data = document.getData();
+		int first = aligned[span.start];
+		for (int k = 0; k < span.length; k++) {
+			if (entities.get(k).isEmpty()) {
+				continue;
+			}
+			List<SemanticEntity> values = data.get(column, starts[first + k]);
+			if (values == null) {
+				values = new ArrayList<SemanticEntity>();
+				data.add(column, starts[first + k], values);
+			}
+			for (SemanticEntity e : entities.get(k)) {
+				values.add(copy(e));
+			}
+		}
+		data.touch(column);
+	}
+
+	/**
+	 * Takes a snapshot of the literals, subjects and types of the document
+	 * and adds it to the index.
+	 */
+	public void publish(Document document) {
+		if (starts.length == 0) {
+			return;
+		}
+		List<Span> spans = new ArrayList<Span>();
+		DataSheet data = document.getData();
+		for (TokenSequence<SemanticEntity> literal : document
+				.getRetrievedPropertyValues()) {
+			int first = Arrays.binarySearch(starts, literal.getStart());
+			if (first < 0) {
+				continue;
+			}
+			SemanticEntity value = literal.getValue();
+			Span span = new Span(first, literal.getTokens().size());
+			for (Token token : literal.getTokens()) {
+				span.properties.add(select(data, TokenSequence.PROPERTY, token
+						.getStart(), value));
+				span.subjects.add(select(data, TokenSequence.SUBJECT, token
+						.getStart(), value));
+				span.types.add(select(data, TokenSequence.TYPE, token
+						.getStart(), value));
+			}
+			spans.add(span);
+		}
+		index.add(new Snapshot(signature, tokenHashes, spans));
+	}
+
+	/**
+	 * @return copies of the annotations of a token that belong to the
+	 *         literal <code>value</code>
+	 */
+	private List<SemanticEntity> select(DataSheet data, String column,
+			int token, SemanticEntity value) {
+		List<SemanticEntity> selected = new ArrayList<SemanticEntity>();
+		List<SemanticEntity> values = data.get(column, token);
+		if (values != null) {
+			for (SemanticEntity e : values) {
+				if (e.getLiteralValueIndex() == value.getLiteralValueIndex()
+						&& e.getPropertyIndex() == value.getPropertyIndex()) {
+					selected.add(copy(e));
+				}
+			}
+		}
+		return selected;
+	}
+
+	private static SemanticEntity copy(SemanticEntity e) {
+		SemanticEntity copy = new SemanticEntity();
+		copy.setLiteralValueIndex(e.getLiteralValueIndex());
+		copy.setPropertyIndex(e.getPropertyIndex());
+		copy.setPosition(e.getPosition());
+		copy.setSubjectIndex(e.getSubjectIndex());
+		copy.setSubjectURI(e.getSubjectURI());
+		copy.setRegex(e.getRegex());
+		for (TIntDoubleTuple type : e.getTypeIndex()) {
+			copy.addTypeIndex(type.getKey(), type.getValue());
+		}
+		return copy;
+	}
+}
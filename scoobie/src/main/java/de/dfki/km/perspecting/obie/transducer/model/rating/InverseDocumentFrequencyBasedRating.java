@@ -23,29 +23,29 @@
 
 package de.dfki.km.perspecting.obie.transducer.model.rating;
 
-import gnu.trove.TDoubleFunction;
 import gnu.trove.TIntDoubleHashMap;
-import gnu.trove.TObjectDoubleHashMap;
 
+import java.io.Closeable;
 import java.io.File;
-import java.io.IOException;
 import java.util.List;
 
-import org.apache.lucene.index.Term;
-import org.apache.lucene.search.IndexSearcher;
-
 import de.dfki.km.perspecting.obie.corpus.TextCorpus;
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.SemanticEntity;
 import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.transducer.model.DocumentFrequencyTable;
 
-public class InverseDocumentFrequencyBasedRating implements RatingMetric {
+public class InverseDocumentFrequencyBasedRating implements RatingMetric, Closeable {
 
-	private IndexSearcher tfIdfIndex;
+	private final DocumentFrequencyTable dfTable;
 
 	public InverseDocumentFrequencyBasedRating(TextCorpus corpus, File directory)
 			throws Exception {
-		this.tfIdfIndex = corpus.getLuceneIndex(directory, false);
+		this(corpus.getDocumentFrequencyTable(directory, false));
+	}
+
+	public InverseDocumentFrequencyBasedRating(DocumentFrequencyTable dfTable) {
+		this.dfTable = dfTable;
 	}
 
 	@Override
@@ -53,45 +53,18 @@ public class InverseDocumentFrequencyBasedRating implements RatingMetric {
 			List<TokenSequence<SemanticEntity>> entities) {
 
 		TIntDoubleHashMap m = new TIntDoubleHashMap();
-		TObjectDoubleHashMap<String> histogram = new TObjectDoubleHashMap<String>();
-
-		try {
-			Term[] l_terms = new Term[entities.size()];
-
-			for (int i = 0; i < entities.size(); i++) {
-				l_terms[i] = new Term("text", entities.get(i).toString());
-			}
-
-			int[] df = tfIdfIndex.docFreqs(l_terms);
-
-			for (int i = 0; i < entities.size(); i++) {
-				histogram.put(entities.get(i).toString(), ((double) df[i] + 1)
-						/ tfIdfIndex.getIndexReader().numDocs());
-			}
-
-			histogram.transformValues(new TDoubleFunction() {
-				@Override
-				public double execute(double value) {
-					return Math.log(1.0 / value);
-				}
-			});
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
 
 		for (TokenSequence<SemanticEntity> ts : entities) {
-			String word = ts.toString();
-			double idfScore = histogram.get(word);
-			m.put(ts.getValue().getSubjectIndex(), idfScore);
+			m.put(ts.getValue().getSubjectIndex(), dfTable
+					.getInverseDocumentFrequency(ts.toString()));
 		}
 
 		return m;
 	}
 
 	@Override
-	protected void finalize() throws Throwable {
-		this.tfIdfIndex.close();
-		super.finalize();
+	public void close() {
+		dfTable.close();
 	}
 
 }
@@ -39,7 +39,7 @@ public class PositionBasedRating implements RatingMetric {
 		
 		TIntDoubleHashMap m = new TIntDoubleHashMap();
 
-		double docLength = document.getPlainTextContent().length();
+		double docLength = document.getPlainText().length();
 
 		for (TokenSequence<SemanticEntity> ts : entities) {
 
@@ -23,15 +23,13 @@
 
 package de.dfki.km.perspecting.obie.transducer.model.rating;
 
-import gnu.trove.TDoubleFunction;
 import gnu.trove.TIntDoubleHashMap;
-import gnu.trove.TObjectDoubleHashMap;
 
 import java.util.List;
 
 import de.dfki.km.perspecting.obie.model.Document;
 import de.dfki.km.perspecting.obie.model.SemanticEntity;
-import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.model.TermFrequencies;
 import de.dfki.km.perspecting.obie.model.TokenSequence;
 
 public class TermFrequencyBasedRating implements RatingMetric {
@@ -39,29 +37,15 @@ public class TermFrequencyBasedRating implements RatingMetric {
 	@Override
 	public TIntDoubleHashMap getRating(Document document, List<TokenSequence<SemanticEntity>> entities) {
 		TIntDoubleHashMap m = new TIntDoubleHashMap();
-		
-		for (TokenSequence<SemanticEntity> ts : entities) {
-			TObjectDoubleHashMap<String> histogram = new TObjectDoubleHashMap<String>();
-			for (Token t : ts.getTokens()) {
-				histogram.put(t.toString(), 0.0);
-			}
-
-			for (Token t : document) {
-				histogram.increment(t.toString());
-			}
 
-			final double docCard = document.getTokens().size();
-			histogram.transformValues(new TDoubleFunction() {
-				@Override
-				public double execute(double value) {
-					return value / docCard;
-				}
-			});
+		TermFrequencies tf = document.getTermFrequencies();
 
-			m.put(ts.getValue().getSubjectIndex(), histogram.getValues()[0]);
-			
+		for (TokenSequence<SemanticEntity> ts : entities) {
+			// rate the entity by the frequency of its head token
+			m.put(ts.getValue().getSubjectIndex(), tf.getRelativeFrequency(ts
+					.getTokens().get(0).toString()));
 		}
-		
+
 		return m;
 	}
 	
@@ -0,0 +1,353 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.dfki.km.perspecting.obie.model.DataSheet;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.DoubleMatrix;
+import de.dfki.km.perspecting.obie.model.RDFEdge;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.TIntDoubleTuple;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import edu.uci.ics.jung.graph.DirectedGraph;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+
+/**
+ * Encodes the annotations of an extracted document: its language, all
+ * columns of its {@link DataSheet}, the known and predicted graphs, the
+ * ambiguity and relevance scores and the literal subject pairs. Structures
+ * that transducers derive on demand, like the suffix array, are left out.
+ * 
+ * <pre>
+ * int version, utf language,
+ * int numColumns, (utf column, int numEntries, (int key, value)[])[],
+ * graph known, graph predicted, matrix ambiguity, matrix relevance, pairs
+ * </pre>
+ * 
+ * Values are tagged as int, string, double or list of entities. Optional
+ * structures start with a boolean. Strings other than the language and the
+ * column names are written as int length and UTF-8 bytes, since they may be
+ * longer than {@link DataOutputStream#writeUTF(String)} allows.
+ */
+final class AnnotationCodec {
+
+	/**
+	 * Part of the cache key, so entries of an older format are not read.
+	 */
+	static final int VERSION = 2;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final byte INTEGER = 0;
+	private static final byte STRING = 1;
+	private static final byte DOUBLE = 2;
+	private static final byte ENTITIES = 3;
+
+	private AnnotationCodec() {
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if a column holds values that cannot be encoded
+	 */
+	static byte[] encode(Document document) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		out.writeInt(VERSION);
+		out.writeUTF(document.getLanguage().name());
+
+		DataSheet data = document.getData();
+		String[] columns = data.getColumns();
+		out.writeInt(columns.length);
+		for (String column : columns) {
+			Set<Integer> keys = data.getIntegerKeys(column);
+			out.writeUTF(column);
+			out.writeInt(keys.size());
+			for (int key : keys) {
+				out.writeInt(key);
+				writeValue(out, column, data.get(column, key));
+			}
+		}
+
+		writeGraph(out, document.getGraph());
+		writeGraph(out, document.getPredictionGraph());
+		writeMatrix(out, document.getAmbiguityScores());
+		writeMatrix(out, document.getRelevanceScores());
+
+		Set<Set<Integer>> pairs = document.getLiteralSubjectPairs();
+		out.writeBoolean(pairs != null);
+		if (pairs != null) {
+			out.writeInt(pairs.size());
+			for (Set<Integer> pair : pairs) {
+				out.writeInt(pair.size());
+				for (int i : pair) {
+					out.writeInt(i);
+				}
+			}
+		}
+
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Adds encoded annotations to a document without annotations.
+	 */
+	static void decode(byte[] encoded, Document document) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				encoded));
+
+		if (in.readInt() != VERSION) {
+			throw new IOException("unknown annotation version");
+		}
+		document.setLanguage(Language.valueOf(in.readUTF()));
+
+		DataSheet data = document.getData();
+		for (int columns = in.readInt(); columns > 0; columns--) {
+			String column = in.readUTF();
+			for (int entries = in.readInt(); entries > 0; entries--) {
+				data.add(column, in.readInt(), readValue(in));
+			}
+		}
+
+		document.setGraph(readGraph(in));
+		document.setPredictionGraph(readGraph(in));
+		document.setAmbiguityScores(readMatrix(in));
+		document.setRelevanceScores(readMatrix(in));
+
+		if (in.readBoolean()) {
+			Set<Set<Integer>> pairs = new HashSet<Set<Integer>>();
+			for (int n = in.readInt(); n > 0; n--) {
+				Set<Integer> pair = new HashSet<Integer>();
+				for (int m = in.readInt(); m > 0; m--) {
+					pair.add(in.readInt());
+				}
+				pairs.add(pair);
+			}
+			document.setLiteralsSubjectPairs(pairs);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void writeValue(DataOutputStream out, String column,
+			Object value) throws IOException {
+		if (value instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) value);
+		} else if (value instanceof String) {
+			out.writeByte(STRING);
+			writeText(out, (String) value);
+		} else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof List<?>) {
+			List<SemanticEntity> entities = (List<SemanticEntity>) value;
+			out.writeByte(ENTITIES);
+			out.writeInt(entities.size());
+			for (SemanticEntity e : entities) {
+				writeEntity(out, e);
+			}
+		} else {
+			throw new IllegalArgumentException("cannot encode " + value
+					+ " in column " + column);
+		}
+	}
+
+	private static Object readValue(DataInputStream in) throws IOException {
+		byte tag = in.readByte();
+		switch (tag) {
+		case INTEGER:
+			return in.readInt();
+		case STRING:
+			return readText(in);
+		case DOUBLE:
+			return in.readDouble();
+		case ENTITIES:
+			int n = in.readInt();
+			List<SemanticEntity> entities = new ArrayList<SemanticEntity>(n);
+			for (int i = 0; i < n; i++) {
+				entities.add(readEntity(in));
+			}
+			return entities;
+		default:
+			throw new IOException("unknown value tag " + tag);
+		}
+	}
+
+	private static void writeEntity(DataOutputStream out, SemanticEntity e)
+			throws IOException {
+		out.writeInt(e.getPropertyIndex());
+		out.writeInt(e.getLiteralValueIndex());
+		out.writeInt(e.getSubjectIndex());
+		writeString(out, e.getSubjectURI());
+		writeString(out, e.getRegex());
+		writeString(out, e.getPosition());
+		List<TIntDoubleTuple> types = e.getTypeIndex();
+		out.writeInt(types.size());
+		for (TIntDoubleTuple t : types) {
+			out.writeInt(t.getKey());
+			out.writeDouble(t.getValue());
+		}
+	}
+
+	private static SemanticEntity readEntity(DataInputStream in)
+			throws IOException {
+		SemanticEntity e = new SemanticEntity();
+		e.setPropertyIndex(in.readInt());
+		e.setLiteralValueIndex(in.readInt());
+		e.setSubjectIndex(in.readInt());
+		e.setSubjectURI(readString(in));
+		e.setRegex(readString(in));
+		e.setPosition(readString(in));
+		for (int n = in.readInt(); n > 0; n--) {
+			e.addTypeIndex(in.readInt(), in.readDouble());
+		}
+		return e;
+	}
+
+	private static void writeString(DataOutputStream out, String s)
+			throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			writeText(out, s);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? readText(in) : null;
+	}
+
+	private static void writeText(DataOutputStream out, String s)
+			throws IOException {
+		byte[] bytes = s.getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readText(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	private static void writeGraph(DataOutputStream out,
+			DirectedGraph<Integer, RDFEdge> graph) throws IOException {
+		out.writeBoolean(graph != null);
+		if (graph == null) {
+			return;
+		}
+		out.writeInt(graph.getVertexCount());
+		for (int v : graph.getVertices()) {
+			out.writeInt(v);
+		}
+		out.writeInt(graph.getEdgeCount());
+		for (RDFEdge edge : graph.getEdges()) {
+			out.writeInt(graph.getSource(edge));
+			out.writeInt(edge.getPredicate());
+			out.writeInt(graph.getDest(edge));
+			out.writeDouble(edge.getWeight());
+		}
+	}
+
+	private static DirectedGraph<Integer, RDFEdge> readGraph(
+			DataInputStream in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		DirectedGraph<Integer, RDFEdge> graph = new DirectedSparseGraph<Integer, RDFEdge>();
+		for (int n = in.readInt(); n > 0; n--) {
+			graph.addVertex(in.readInt());
+		}
+		for (int n = in.readInt(); n > 0; n--) {
+			int source = in.readInt();
+			int predicate = in.readInt();
+			int dest = in.readInt();
+			graph.addEdge(new RDFEdge(predicate, in.readDouble()), source,
+					dest);
+		}
+		return graph;
+	}
+
+	/**
+	 * Matrices are written densely, absent cells are read as 0 anyway.
+	 */
+	private static void writeMatrix(DataOutputStream out, DoubleMatrix matrix)
+			throws IOException {
+		out.writeBoolean(matrix != null);
+		if (matrix == null) {
+			return;
+		}
+		Integer[] cols = matrix.getColKeys();
+		Integer[] rows = matrix.getRowKeys();
+		out.writeInt(cols.length);
+		out.writeInt(rows.length);
+		for (int col : cols) {
+			out.writeInt(col);
+		}
+		for (int row : rows) {
+			out.writeInt(row);
+		}
+		for (int col : cols) {
+			for (int row : rows) {
+				out.writeDouble(matrix.get(col, row));
+			}
+		}
+	}
+
+	private static DoubleMatrix readMatrix(DataInputStream in)
+			throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		int[] cols = new int[in.readInt()];
+		int[] rows = new int[in.readInt()];
+		for (int i = 0; i < cols.length; i++) {
+			cols[i] = in.readInt();
+		}
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = in.readInt();
+		}
+		DoubleMatrix matrix = new DoubleMatrix();
+		for (int col : cols) {
+			for (int row : rows) {
+				matrix.add(col, row, in.readDouble());
+			}
+		}
+		return matrix;
+	}
+
+}
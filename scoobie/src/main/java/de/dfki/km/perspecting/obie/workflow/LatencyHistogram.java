@@ -0,0 +1,130 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent histogram of latencies in nanoseconds. Values are counted in
+ * log-linear buckets (16 sub-buckets per power of two), so percentiles have a
+ * relative error below 7%, independent of the value range.
+ * 
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(SUB_BUCKETS
+			* (64 - SUB_BUCKET_BITS));
+
+	private final AtomicLong count = new AtomicLong();
+
+	private final AtomicLong sum = new AtomicLong();
+
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a value.
+	 * 
+	 * @param nanos
+	 *            a non-negative latency
+	 */
+	public void record(long nanos) {
+		if (nanos < 0)
+			nanos = 0;
+		buckets.incrementAndGet(index(nanos));
+		count.incrementAndGet();
+		sum.addAndGet(nanos);
+
+		long m = max.get();
+		while (nanos > m && !max.compareAndSet(m, nanos)) {
+			m = max.get();
+		}
+	}
+
+	static int index(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+		return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+	}
+
+	static long upperBound(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+		int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+		int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+		return (((long) SUB_BUCKETS + sub) << shift) + (1L << shift) - 1;
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long c = count.get();
+		return c == 0 ? 0.0 : ((double) sum.get()) / c;
+	}
+
+	/**
+	 * Returns an upper bound of the value below which a given fraction of
+	 * all recorded values fall.
+	 * 
+	 * @param fraction
+	 *            a value between 0 and 1, e.g. 0.99
+	 */
+	public long getPercentile(double fraction) {
+		long total = count.get();
+		if (total == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(fraction * total));
+		long seen = 0;
+		for (int i = 0; i < buckets.length(); i++) {
+			seen += buckets.get(i);
+			if (seen >= rank) {
+				return Math.min(upperBound(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	public void reset() {
+		for (int i = 0; i < buckets.length(); i++) {
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A registry of {@link OperationStatistics} shared by a {@link Pipeline} and
+ * its instrumented knowledge base. Statistics can be read as snapshot or
+ * published as JMX MBeans.
+ * 
+ */
+public class Metrics {
+
+	public static final String JMX_DOMAIN = "de.dfki.km.perspecting.obie";
+
+	private static final Logger log = Logger.getLogger(Metrics.class
+			.getName());
+
+	private static final ThreadMXBean threads = ManagementFactory
+			.getThreadMXBean();
+
+	private static final boolean allocationSupported = isAllocationSupported();
+
+	private final ConcurrentMap<String, OperationStatistics> statistics = new ConcurrentHashMap<String, OperationStatistics>();
+
+	private volatile String jmxType;
+
+	/**
+	 * Returns the statistics of an operation, creating them on first use.
+	 */
+	public OperationStatistics getStatistics(String operation) {
+		OperationStatistics s = statistics.get(operation);
+		if (s == null) {
+			OperationStatistics created = new OperationStatistics(operation);
+			s = statistics.putIfAbsent(operation, created);
+			if (s == null) {
+				s = created;
+				if (jmxType != null) {
+					register(jmxType, s);
+				}
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * @return immutable copies of all statistics ordered by operation
+	 */
+	public Map<String, OperationStatistics.Snapshot> snapshot() {
+		TreeMap<String, OperationStatistics.Snapshot> m = new TreeMap<String, OperationStatistics.Snapshot>();
+		for (OperationStatistics s : statistics.values()) {
+			m.put(s.getName(), s.snapshot());
+		}
+		return Collections.unmodifiableMap(m);
+	}
+
+	public void reset() {
+		for (OperationStatistics s : statistics.values()) {
+			s.reset();
+		}
+	}
+
+	/**
+	 * Publishes all current and future statistics in the platform MBean
+	 * server as <code>de.dfki.km.perspecting.obie:type=&lt;type&gt;,name=&lt;operation&gt;</code>.
+	 * 
+	 * @param type
+	 *            distinguishes several registries in one JVM
+	 */
+	public synchronized void registerMBeans(String type) {
+		if (jmxType != null) {
+			unregisterMBeans();
+		}
+		jmxType = type;
+		for (OperationStatistics s : statistics.values()) {
+			register(type, s);
+		}
+	}
+
+	public synchronized void unregisterMBeans() {
+		if (jmxType == null)
+			return;
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (OperationStatistics s : statistics.values()) {
+			try {
+				ObjectName name = objectName(jmxType, s);
+				if (server.isRegistered(name)) {
+					server.unregisterMBean(name);
+				}
+			} catch (Exception e) {
+				log.log(Level.WARNING, e.getMessage(), e);
+			}
+		}
+		jmxType = null;
+	}
+
+	private void register(String type, OperationStatistics s) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = objectName(type, s);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(s, name);
+			}
+		} catch (Exception e) {
+			log.log(Level.WARNING, e.getMessage(), e);
+		}
+	}
+
+	private ObjectName objectName(String type, OperationStatistics s)
+			throws Exception {
+		return new ObjectName(JMX_DOMAIN + ":type=" + ObjectName.quote(type)
+				+ ",name=" + ObjectName.quote(s.getName()));
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread so far or
+	 * -1 if the JVM does not support allocation accounting.
+	 */
+	public static long getAllocatedBytes() {
+		if (!allocationSupported)
+			return -1;
+		return ((com.sun.management.ThreadMXBean) threads)
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static boolean isAllocationSupported() {
+		try {
+			if (threads instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) threads;
+				if (t.isThreadAllocatedMemorySupported()) {
+					t.setThreadAllocatedMemoryEnabled(true);
+					return true;
+				}
+			}
+		} catch (Throwable e) {
+			log.fine("thread allocation accounting not available: " + e);
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,209 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency, allocation and error statistics of a single operation, e.g. a
+ * pipeline stage or a knowledge base query.
+ * 
+ */
+public class OperationStatistics implements OperationStatisticsMBean {
+
+	private static final double NANOS_PER_MILLI = 1000000.0;
+
+	private final String name;
+
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	private final AtomicLong errors = new AtomicLong();
+
+	private final AtomicLong allocatedBytes = new AtomicLong();
+
+	private final AtomicLong rows = new AtomicLong();
+
+	public OperationStatistics(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Records one execution.
+	 * 
+	 * @param nanos
+	 *            latency of the execution
+	 * @param allocated
+	 *            bytes allocated by the executing thread, negative if unknown
+	 */
+	public void record(long nanos, long allocated) {
+		latency.record(nanos);
+		if (allocated > 0) {
+			allocatedBytes.addAndGet(allocated);
+		}
+	}
+
+	public void error() {
+		errors.incrementAndGet();
+	}
+
+	public void addRows(long count) {
+		rows.addAndGet(count);
+	}
+
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	@Override
+	public long getCount() {
+		return latency.getCount();
+	}
+
+	@Override
+	public long getErrorCount() {
+		return errors.get();
+	}
+
+	@Override
+	public double getMeanMillis() {
+		return latency.getMean() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getMedianMillis() {
+		return latency.getPercentile(0.5) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getPercentile99Millis() {
+		return latency.getPercentile(0.99) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getMaxMillis() {
+		return latency.getMax() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public long getAllocatedBytes() {
+		return allocatedBytes.get();
+	}
+
+	@Override
+	public long getRows() {
+		return rows.get();
+	}
+
+	@Override
+	public void reset() {
+		latency.reset();
+		errors.set(0);
+		allocatedBytes.set(0);
+		rows.set(0);
+	}
+
+	/**
+	 * @return an immutable copy of the current values
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(this);
+	}
+
+	/**
+	 * Immutable copy of {@link OperationStatistics}.
+	 */
+	public static class Snapshot {
+
+		private final String name;
+		private final long count;
+		private final long errors;
+		private final double meanMillis;
+		private final double medianMillis;
+		private final double percentile99Millis;
+		private final double maxMillis;
+		private final long allocatedBytes;
+		private final long rows;
+
+		private Snapshot(OperationStatistics s) {
+			this.name = s.getName();
+			this.count = s.getCount();
+			this.errors = s.getErrorCount();
+			this.meanMillis = s.getMeanMillis();
+			this.medianMillis = s.getMedianMillis();
+			this.percentile99Millis = s.getPercentile99Millis();
+			this.maxMillis = s.getMaxMillis();
+			this.allocatedBytes = s.getAllocatedBytes();
+			this.rows = s.getRows();
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getErrorCount() {
+			return errors;
+		}
+
+		public double getMeanMillis() {
+			return meanMillis;
+		}
+
+		public double getMedianMillis() {
+			return medianMillis;
+		}
+
+		public double getPercentile99Millis() {
+			return percentile99Millis;
+		}
+
+		public double getMaxMillis() {
+			return maxMillis;
+		}
+
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		public long getRows() {
+			return rows;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(
+					"%s\tcount=%d\terrors=%d\tmean=%1.3fms\tp50=%1.3fms\tp99=%1.3fms\tmax=%1.3fms\tallocated=%d\trows=%d",
+					name, count, errors, meanMillis, medianMillis,
+					percentile99Millis, maxMillis, allocatedBytes, rows);
+		}
+	}
+
+}
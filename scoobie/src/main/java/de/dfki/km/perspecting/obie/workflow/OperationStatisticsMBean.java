@@ -19,24 +19,32 @@
 
     You should have received a copy of the GNU General Public License
     along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
- */
-
-package org.apache.hadoop.conf;
+*/
 
-import de.dfki.km.perspecting.obie.transducer.LanguageIdentification;
+package de.dfki.km.perspecting.obie.workflow;
 
 /**
+ * JMX view on {@link OperationStatistics}.
  * 
- * This is a mock and a hack. It is the only class needed from the apache hadoop library.
- * It is used by {@link LanguageIdentification}.
- * 
- * @author adrian
- *
  */
-public class Configuration {
+public interface OperationStatisticsMBean {
+
+	long getCount();
+
+	long getErrorCount();
+
+	double getMeanMillis();
+
+	double getMedianMillis();
+
+	double getPercentile99Millis();
+
+	double getMaxMillis();
+
+	long getAllocatedBytes();
+
+	long getRows();
 
-	public int getInt(String name, int defaultValue) {
-		return defaultValue;
-	}
+	void reset();
 
 }
@@ -31,6 +31,7 @@ import java.net.InetAddress;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.UnknownHostException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -52,8 +53,21 @@ public class Pipeline {
 
 	private String domain = "http://";
 
+	private Metrics metrics;
+
 	public Pipeline(KnowledgeBase kb) {
+		this(kb, new Metrics());
+	}
+
+	/**
+	 * Creates a pipeline that records per stage statistics in
+	 * <code>metrics</code>. Pass the same {@link Metrics} to an
+	 * {@link de.dfki.km.perspecting.obie.connection.InstrumentedKnowledgeBase}
+	 * to collect query statistics as well.
+	 */
+	public Pipeline(KnowledgeBase kb, Metrics metrics) {
 		this.kb = kb;
+		this.metrics = metrics;
 		try {
 			this.domain += InetAddress.getLocalHost().getHostName();
 		} catch (UnknownHostException e) {
@@ -117,6 +131,15 @@ public class Pipeline {
 		pipeline.add(factExtractor);
 	}
 
+	/**
+	 * Inserts a transducer before <code>step</code>, e.g. one that works on
+	 * the tokens right after the word tokenizer. The following steps move one
+	 * step back.
+	 */
+	public void insert(int step, Transducer transducer) {
+		pipeline.add(step, transducer);
+	}
+
 	public Transducer getTranducer(int step) {
 		return pipeline.get(step);
 	}
@@ -125,6 +148,14 @@ public class Pipeline {
 		return kb;
 	}
 
+	public Metrics getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(Metrics metrics) {
+		this.metrics = metrics;
+	}
+
 	public Document createDocument(File file, URI uri, MediaType mimetype, String template, Language language) throws Exception {
 		Document document = new Document(file, uri, mimetype, language);
 		String baseURI = getBaseIEresultUri(document);
@@ -133,6 +164,29 @@ public class Pipeline {
 		return document;
 	}
 	
+	/**
+	 * Creates a plain text document that memory maps <code>file</code>
+	 * instead of reading it into a {@link String}.
+	 */
+	public Document createDocument(File file, Charset charset, URI uri, String template, Language language) throws Exception {
+		Document document = new Document(file, charset, uri, language);
+		String baseURI = getBaseIEresultUri(document);
+		document.setFilterContext(new FilterContext(kb.getUri(), baseURI + "predicted", baseURI + "recognized",  kb, template));
+		
+		return document;
+	}
+
+	/**
+	 * Creates a plain text document that does not copy <code>text</code>.
+	 */
+	public Document createDocument(CharSequence text, URI uri, String template, Language language) throws Exception {
+		Document document = new Document(text, uri, language);
+		String baseURI = getBaseIEresultUri(document);
+		document.setFilterContext(new FilterContext(kb.getUri(), baseURI + "predicted", baseURI + "recognized",  kb, template));
+		
+		return document;
+	}
+
 	public Document createDocument(String text, URI uri, MediaType mimetype, String template, Language language) throws Exception {
 		Document document = new Document(text, uri, mimetype, language);
 		String baseURI = getBaseIEresultUri(document);
@@ -169,17 +223,25 @@ public class Pipeline {
 	 */
 	private void proceedStep(Transducer tranducer, KnowledgeBase kb,
 			Document doc) {
-		long start = System.currentTimeMillis();
+		OperationStatistics stats = metrics.getStatistics(tranducer
+				.getClass().getSimpleName());
+		long allocated = Metrics.getAllocatedBytes();
+		long start = System.nanoTime();
 		try {
 			log.info("Start "
 					+ tranducer.getClass().getSimpleName() + "...");
 			tranducer.transduce(doc, kb);
 		} catch (Throwable e) {
+			stats.error();
 			log.log(Level.SEVERE, e.getMessage(), e);
 		} finally {
+			long nanos = System.nanoTime() - start;
+			stats.record(nanos, allocated < 0 ? -1 : Metrics
+					.getAllocatedBytes()
+					- allocated);
 			log.info("Finished "
 					+ tranducer.getClass().getSimpleName() + ". It took "
-					+ (System.currentTimeMillis() - start) + " ms");
+					+ (nanos / 1000000) + " ms");
 		}
 	}
 
@@ -0,0 +1,151 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import de.dfki.km.perspecting.obie.model.Artifact;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.postprocessor.SelectiveSerializer;
+import de.dfki.km.perspecting.obie.postprocessor.Serializer;
+
+/**
+ * Runs only the steps of a {@link Pipeline} a result depends on. Walking
+ * backwards from the last step, a step is planned if it writes an artifact
+ * that is requested or a dependency of a step planned after it, see
+ * {@link Transducer#getDependencies()}. While a document is processed, a
+ * planned step is still skipped if one of its inputs turned out empty, e.g.
+ * without spotted literals no subjects, facts or relevance scores are looked
+ * up.
+ * 
+ * Skipped steps are counted as <code>&lt;Transducer&gt;.skipped</code> in
+ * the metrics of the pipeline.
+ */
+public class PipelinePlanner {
+
+	private final Logger log = Logger.getLogger(PipelinePlanner.class
+			.getName());
+
+	private final Pipeline pipeline;
+
+	public PipelinePlanner(Pipeline pipeline) {
+		this.pipeline = pipeline;
+	}
+
+	/**
+	 * @return for every step whether it contributes to
+	 *         <code>requested</code>
+	 */
+	public boolean[] plan(Set<Artifact> requested) {
+		int size = 0;
+		while (pipeline.hasNext(size)) {
+			size++;
+		}
+
+		boolean[] plan = new boolean[size];
+		Set<Artifact> needed = EnumSet.noneOf(Artifact.class);
+		needed.addAll(requested);
+		for (int step = size - 1; step >= 0; step--) {
+			Transducer transducer = pipeline.getTranducer(step);
+			if (!Collections.disjoint(transducer.getOutputs(), needed)) {
+				plan[step] = true;
+				needed.addAll(transducer.getDependencies());
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * @return the artifacts <code>serializer</code> writes and the query
+	 *         template of <code>document</code> selects from, all artifacts
+	 *         unless <code>serializer</code> is a {@link SelectiveSerializer}
+	 */
+	public static Set<Artifact> getRequestedArtifacts(Document document,
+			Serializer serializer) {
+		if (!(serializer instanceof SelectiveSerializer)) {
+			return EnumSet.allOf(Artifact.class);
+		}
+		Set<Artifact> requested = EnumSet.noneOf(Artifact.class);
+		requested.addAll(((SelectiveSerializer) serializer)
+				.getRequiredArtifacts());
+		if (document.getFilterContext() != null) {
+			requested.addAll(document.getFilterContext()
+					.getQueriedArtifacts());
+		}
+		return requested;
+	}
+
+	/**
+	 * Runs the steps needed to serialize <code>document</code> with
+	 * <code>serializer</code>.
+	 */
+	public void execute(Document document, Serializer serializer)
+			throws Exception {
+		execute(document, getRequestedArtifacts(document, serializer));
+	}
+
+	/**
+	 * Runs the steps needed for <code>requested</code>.
+	 */
+	public void execute(Document document, Set<Artifact> requested)
+			throws Exception {
+		boolean[] plan = plan(requested);
+		for (int step = 0; pipeline.hasNext(step);) {
+			Transducer transducer = pipeline.getTranducer(step);
+			if (!plan[step]) {
+				skip(transducer, "not needed");
+				step++;
+				continue;
+			}
+			Artifact missing = getMissingInput(transducer, document);
+			if (missing != null) {
+				skip(transducer, "no " + missing);
+				step++;
+				continue;
+			}
+			step = pipeline.execute(step, document);
+		}
+	}
+
+	private static Artifact getMissingInput(Transducer transducer,
+			Document document) {
+		for (Artifact input : transducer.getInputs()) {
+			if (input.isEmpty(document)) {
+				return input;
+			}
+		}
+		return null;
+	}
+
+	private void skip(Transducer transducer, String reason) {
+		String name = transducer.getClass().getSimpleName();
+		pipeline.getMetrics().getStatistics(name + ".skipped").record(0, -1);
+		log.info("Skipped " + name + ", " + reason);
+	}
+
+}
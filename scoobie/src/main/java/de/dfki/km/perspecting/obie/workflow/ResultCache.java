@@ -0,0 +1,432 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.FilterContext;
+
+/**
+ * Caches the annotations of extracted documents, so a text that was already
+ * extracted by the same pipeline is not extracted again. Entries are keyed by
+ * a SHA-256 hash over the version of the annotation format, a fingerprint of
+ * the pipeline, i.e. the fingerprints of its transducers (see
+ * {@link Transducer#getFingerprint()}), the URI of its knowledge base, a
+ * version string of the knowledge base, the template, language and media
+ * type of the document, and over the plain text of the document. The plain text is hashed as it is, since the cached
+ * annotations refer to its offsets.
+ * 
+ * Entries are appended to memory mapped segment files of a fixed size in a
+ * directory, which survive a restart. If the segments take more than
+ * <code>maxBytes</code>, the oldest segment is dropped. A hit in an older
+ * segment copies the entry to the newest one, so entries in use are never
+ * dropped and the cache behaves about like an LRU cache. The most recently
+ * used entries may also be kept on the heap.
+ * 
+ * <pre>
+ * segment: (int magic, int length, byte[32] key, byte[length] annotations)*, int 0
+ * </pre>
+ */
+public class ResultCache implements Closeable {
+
+	private static final int MAGIC = 0x53434331;
+
+	private static final int KEY_LENGTH = 32;
+
+	private static final int HEADER_LENGTH = 8 + KEY_LENGTH;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final Logger log = Logger.getLogger(ResultCache.class.getName());
+
+	private final File directory;
+
+	private final long maxBytes;
+
+	private final int segmentBytes;
+
+	private final String version;
+
+	private final List<Segment> segments = new ArrayList<Segment>();
+
+	private final Map<Key, Location> index = new HashMap<Key, Location>();
+
+	private final Map<Key, byte[]> hot;
+
+	private int nextSegment;
+
+	/**
+	 * @param directory
+	 *            holds the segment files, existing segments are loaded
+	 * @param maxBytes
+	 *            size of all segments after which the oldest segment is
+	 *            dropped
+	 * @param segmentBytes
+	 *            size of a segment, larger annotations are not cached
+	 * @param hotEntries
+	 *            number of entries also kept on the heap, may be 0
+	 * @param version
+	 *            version of the knowledge base, change it after the knowledge
+	 *            base was modified
+	 */
+	public ResultCache(File directory, long maxBytes, int segmentBytes,
+			final int hotEntries, String version) throws IOException {
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		this.segmentBytes = segmentBytes;
+		this.version = version;
+		this.hot = new LinkedHashMap<Key, byte[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, byte[]> eldest) {
+				return size() > hotEntries;
+			}
+		};
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create cache directory "
+					+ directory);
+		}
+		load();
+	}
+
+	/**
+	 * Adds the cached annotations to <code>document</code>, or runs all steps
+	 * of <code>pipeline</code> on it and caches the annotations. Documents
+	 * that failed in any step are not cached.
+	 * 
+	 * @return <code>true</code> if the annotations were cached
+	 */
+	public boolean execute(Pipeline pipeline, Document document)
+			throws Exception {
+		long start = System.nanoTime();
+		byte[] key = getKey(pipeline, document);
+		byte[] annotations = get(key);
+		if (annotations != null) {
+			AnnotationCodec.decode(annotations, document);
+			pipeline.getMetrics().getStatistics("ResultCache.hit").record(
+					System.nanoTime() - start, -1);
+			return true;
+		}
+
+		long errors = getErrorCount(pipeline);
+		for (int step = 0; pipeline.hasNext(step);) {
+			step = pipeline.execute(step, document);
+		}
+
+		if (errors == getErrorCount(pipeline)) {
+			try {
+				put(key, AnnotationCodec.encode(document));
+			} catch (IllegalArgumentException e) {
+				log.warning("Cannot cache " + document.getUri() + ": "
+						+ e.getMessage());
+			}
+		}
+		pipeline.getMetrics().getStatistics("ResultCache.miss").record(
+				System.nanoTime() - start, -1);
+		return false;
+	}
+
+	private long getErrorCount(Pipeline pipeline) {
+		long errors = 0;
+		for (int step = 0; pipeline.hasNext(step); step++) {
+			errors += pipeline.getMetrics().getStatistics(
+					pipeline.getTranducer(step).getClass().getSimpleName())
+					.getErrorCount();
+		}
+		return errors;
+	}
+
+	/**
+	 * @return the hash over the pipeline fingerprint and the plain text of
+	 *         <code>document</code>
+	 */
+	byte[] getKey(Pipeline pipeline, Document document) throws Exception {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		StringBuilder fingerprint = new StringBuilder();
+		fingerprint.append(AnnotationCodec.VERSION).append('\n');
+		for (int step = 0; pipeline.hasNext(step); step++) {
+			fingerprint.append(pipeline.getTranducer(step).getFingerprint());
+			fingerprint.append('\n');
+		}
+		fingerprint.append(pipeline.getKnowledgeBase().getUri()).append('\n');
+		fingerprint.append(version).append('\n');
+		FilterContext context = document.getFilterContext();
+		fingerprint.append(context == null ? document.getTemplate() : context
+				.getQuery());
+		fingerprint.append('\n');
+		fingerprint.append(document.getLanguage()).append('\n');
+		fingerprint.append(document.getMimeType());
+		fingerprint.append('\0');
+		digest.update(fingerprint.toString().getBytes(UTF8));
+
+		CharSequence text = document.getPlainText();
+		CharBuffer chars = CharBuffer.allocate(Math.min(8192, text.length()));
+		for (int i = 0; i < text.length();) {
+			chars.clear();
+			int end = Math.min(text.length(), i + chars.capacity());
+			for (; i < end; i++) {
+				chars.put(text.charAt(i));
+			}
+			chars.flip();
+			ByteBuffer bytes = UTF8.encode(chars);
+			digest.update(bytes.array(), bytes.arrayOffset(), bytes.limit());
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * @return the cached annotations or <code>null</code>
+	 */
+	synchronized byte[] get(byte[] k) throws IOException {
+		Key key = new Key(k);
+		byte[] annotations = hot.get(key);
+		if (annotations != null) {
+			return annotations;
+		}
+
+		Location location = index.get(key);
+		if (location == null) {
+			return null;
+		}
+		annotations = new byte[location.length];
+		ByteBuffer buffer = location.segment.buffer.duplicate();
+		buffer.position(location.offset + HEADER_LENGTH);
+		buffer.get(annotations);
+
+		if (location.segment != getActiveSegment()) {
+			append(key, annotations);
+		}
+		hot.put(key, annotations);
+		return annotations;
+	}
+
+	synchronized void put(byte[] k, byte[] annotations) throws IOException {
+		if (HEADER_LENGTH + annotations.length + 4 > segmentBytes) {
+			log.fine("Not caching " + annotations.length + " bytes");
+			return;
+		}
+		Key key = new Key(k);
+		append(key, annotations);
+		hot.put(key, annotations);
+	}
+
+	/**
+	 * @return the number of cached documents
+	 */
+	public synchronized int size() {
+		return index.size();
+	}
+
+	private void append(Key key, byte[] annotations) throws IOException {
+		Segment segment = getActiveSegment();
+		int length = HEADER_LENGTH + annotations.length;
+		if (segment == null
+				|| segment.position + length + 4 > segmentBytes) {
+			segment = addSegment();
+		}
+
+		ByteBuffer buffer = segment.buffer;
+		int offset = segment.position;
+		buffer.position(offset);
+		buffer.putInt(MAGIC);
+		buffer.putInt(annotations.length);
+		buffer.put(key.bytes);
+		buffer.put(annotations);
+		segment.position = buffer.position();
+
+		index.put(key, new Location(segment, offset, annotations.length));
+	}
+
+	private Segment getActiveSegment() {
+		return segments.isEmpty() ? null : segments.get(segments.size() - 1);
+	}
+
+	private Segment addSegment() throws IOException {
+		Segment segment = new Segment(new File(directory, String.format(
+				"%08d.seg", nextSegment++)), segmentBytes);
+		segments.add(segment);
+
+		while (segments.size() > 1
+				&& (long) segments.size() * segmentBytes > maxBytes) {
+			Segment oldest = segments.remove(0);
+			for (Iterator<Location> i = index.values().iterator(); i
+					.hasNext();) {
+				if (i.next().segment == oldest) {
+					i.remove();
+				}
+			}
+			oldest.delete();
+		}
+		return segment;
+	}
+
+	/**
+	 * Rebuilds the index from the segments in the directory. Entries in later
+	 * segments replace entries in earlier ones.
+	 */
+	private void load() throws IOException {
+		File[] files = directory.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File file) {
+				return file.isFile() && file.getName().matches("\\d{8}\\.seg");
+			}
+		});
+		Arrays.sort(files);
+
+		for (File file : files) {
+			Segment segment = new Segment(file, segmentBytes);
+			ByteBuffer buffer = segment.buffer;
+			while (buffer.remaining() >= HEADER_LENGTH
+					&& buffer.getInt(buffer.position()) == MAGIC) {
+				int offset = buffer.position();
+				buffer.getInt();
+				int length = buffer.getInt();
+				if (length < 0 || length > buffer.remaining() - KEY_LENGTH) {
+					log.warning("Truncated entry in " + file + " at "
+							+ offset);
+					break;
+				}
+				byte[] key = new byte[KEY_LENGTH];
+				buffer.get(key);
+				buffer.position(buffer.position() + length);
+				index.put(new Key(key), new Location(segment, offset, length));
+			}
+			segment.position = buffer.position();
+			segments.add(segment);
+			nextSegment = Integer.parseInt(file.getName().substring(0, 8)) + 1;
+		}
+		log.info("Loaded " + index.size() + " cached documents from "
+				+ segments.size() + " segments in " + directory);
+	}
+
+	/**
+	 * Writes all segments to disk.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		for (Segment segment : segments) {
+			segment.close();
+		}
+		segments.clear();
+		index.clear();
+		hot.clear();
+	}
+
+	private static class Segment {
+
+		private final File file;
+
+		private final FileChannel channel;
+
+		private final MappedByteBuffer buffer;
+
+		private int position;
+
+		Segment(File file, int size) throws IOException {
+			this.file = file;
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			this.channel = raf.getChannel();
+			this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math
+					.max(size, channel.size()));
+		}
+
+		void close() throws IOException {
+			buffer.force();
+			channel.close();
+		}
+
+		void delete() throws IOException {
+			channel.close();
+			if (!file.delete()) {
+				file.deleteOnExit();
+			}
+		}
+	}
+
+	private static class Location {
+
+		private final Segment segment;
+
+		private final int offset;
+
+		private final int length;
+
+		Location(Segment segment, int offset, int length) {
+			this.segment = segment;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	private static class Key {
+
+		private final byte[] bytes;
+
+		private final int hash;
+
+		Key(byte[] bytes) {
+			this.bytes = bytes;
+			this.hash = Arrays.hashCode(bytes);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && Arrays.equals(bytes, ((Key) obj).bytes);
+		}
+	}
+}
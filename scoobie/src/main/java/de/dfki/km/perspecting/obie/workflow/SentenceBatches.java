@@ -0,0 +1,166 @@
+/*
+    Copyright (c) 2011,
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Splits the sentences of a document into batches that are processed in
+ * parallel. Batches must only write to their own slots of result arrays; the
+ * calling thread copies the results into the document once all batches are
+ * done, so the document itself is never written concurrently.
+ * 
+ * The calling thread processes batches itself and only waits for batches
+ * another thread has already started. So it never blocks on tasks that are
+ * still queued, and callers may run on the same executor the batches are
+ * submitted to.
+ */
+public final class SentenceBatches {
+
+	/**
+	 * Work on a range of sentences.
+	 */
+	public interface Batch {
+
+		/**
+		 * @param from
+		 *            index of the first sentence
+		 * @param to
+		 *            index after the last sentence
+		 */
+		void process(int from, int to) throws Exception;
+	}
+
+	private SentenceBatches() {
+	}
+
+	/**
+	 * Processes sentences <code>0</code> to <code>size</code> in batches of
+	 * <code>batchSize</code> sentences. The first batch runs on the calling
+	 * thread, which then takes over any batch no other thread has started.
+	 * Returns after all batches are done.
+	 * 
+	 * @param executor
+	 *            runs the batches, everything runs on the calling thread if
+	 *            <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if <code>batchSize</code> is less than 1 and an executor is
+	 *             given
+	 * @throws Exception
+	 *             the first exception thrown by a batch
+	 */
+	public static void process(ExecutorService executor, int size,
+			int batchSize, Batch batch) throws Exception {
+
+		if (executor != null && batchSize < 1) {
+			throw new IllegalArgumentException("batch size " + batchSize);
+		}
+
+		if (executor == null || size <= batchSize) {
+			batch.process(0, size);
+			return;
+		}
+
+		Worker worker = new Worker(size, batchSize, batch);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		try {
+			for (int i = 1; i < worker.count; i++) {
+				futures.add(executor.submit(worker));
+			}
+			worker.process(0);
+			worker.run();
+
+			// every batch is taken, the others are running on other threads
+			worker.done.await();
+		} finally {
+			for (Future<?> future : futures) {
+				future.cancel(false);
+			}
+		}
+
+		Throwable error = worker.error.get();
+		if (error instanceof Exception) {
+			throw (Exception) error;
+		} else if (error != null) {
+			throw (Error) error;
+		}
+	}
+
+	/**
+	 * Takes batches until none is left.
+	 */
+	private static class Worker implements Runnable {
+
+		final int size;
+
+		final int batchSize;
+
+		final Batch batch;
+
+		final int count;
+
+		/** The calling thread takes the first batch. */
+		final AtomicInteger next = new AtomicInteger(1);
+
+		final CountDownLatch done;
+
+		final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+		Worker(int size, int batchSize, Batch batch) {
+			this.size = size;
+			this.batchSize = batchSize;
+			this.batch = batch;
+			this.count = (size + batchSize - 1) / batchSize;
+			this.done = new CountDownLatch(count);
+		}
+
+		@Override
+		public void run() {
+			for (int b = next.getAndIncrement(); b < count; b = next
+					.getAndIncrement()) {
+				process(b);
+			}
+		}
+
+		void process(int b) {
+			try {
+				// skip the remaining batches after an error
+				if (error.get() == null) {
+					batch.process(b * batchSize, Math.min(size, (b + 1)
+							* batchSize));
+				}
+			} catch (Throwable e) {
+				error.compareAndSet(null, e);
+			} finally {
+				done.countDown();
+			}
+		}
+	}
+}
@@ -24,8 +24,11 @@
 package de.dfki.km.perspecting.obie.workflow;
 
 import java.io.Reader;
+import java.util.EnumSet;
+import java.util.Set;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
 import de.dfki.km.perspecting.obie.model.Document;
 
 /**
@@ -70,5 +73,43 @@ public abstract class Transducer {
 		return "";
 	}
 
+	/**
+	 * Returns the artifacts this transducer needs. It is skipped if one of
+	 * them is empty. By default it needs nothing and is never skipped.
+	 */
+	public Set<Artifact> getInputs() {
+		return EnumSet.noneOf(Artifact.class);
+	}
+
+	/**
+	 * Returns the artifacts this transducer reads, including those it also
+	 * works without. The steps writing them are planned before it, but only
+	 * an empty input of {@link #getInputs()} skips it. By default these are
+	 * its inputs.
+	 */
+	public Set<Artifact> getDependencies() {
+		return getInputs();
+	}
+
+	/**
+	 * Returns the artifacts this transducer writes. It is skipped if none of
+	 * them is needed. By default it may write anything and is never skipped.
+	 */
+	public Set<Artifact> getOutputs() {
+		return EnumSet.allOf(Artifact.class);
+	}
+
+	/**
+	 * Returns a text that changes whenever the configuration of this
+	 * transducer, e.g. a parameter or a model, may change its results. It is
+	 * part of the key of the {@link ResultCache} and computed per document,
+	 * so it should be cheap. By default it is the class name.
+	 * 
+	 * @throws Exception
+	 *             if a lazily loaded model cannot be loaded
+	 */
+	public String getFingerprint() throws Exception {
+		return getClass().getName();
+	}
 
 }
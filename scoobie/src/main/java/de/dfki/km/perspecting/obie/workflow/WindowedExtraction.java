@@ -0,0 +1,240 @@
+/*
+    Copyright (c) 2011,
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import gnu.trove.TIntArrayList;
+
+import java.net.URI;
+import java.text.BreakIterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.logging.Logger;
+
+import de.dfki.km.perspecting.obie.model.CharSequenceIterator;
+import de.dfki.km.perspecting.obie.model.DataSheet;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+
+/**
+ * Runs a {@link Pipeline} over texts that are too large to be extracted as a
+ * single {@link Document}. The first <code>localSteps</code> steps, i.e.
+ * tokenization, tagging, chunking, literal spotting and subject resolution,
+ * only need the context of a few sentences. They run on windows of whole
+ * sentences, one after the other. Consecutive windows overlap by a number of
+ * sentences, so every sentence is seen with some context on both sides. Each
+ * window owns the sentences between its overlaps; spotted literals and
+ * resolved subjects starting in these sentences are reported to a
+ * {@link Listener} as soon as the window is done.
+ * 
+ * The tokens of all resolved subjects, with all their annotations, are
+ * collected in one document on the whole text. The remaining steps, like
+ * disambiguation and relevance rating, run on this document, which only
+ * holds the candidates instead of every token. Ratings based on the tokens
+ * of the text only see the candidates. The text itself is not copied, so a
+ * {@link de.dfki.km.perspecting.obie.model.MappedText} keeps the memory
+ * bounded by the window length and the number of candidates.
+ */
+public class WindowedExtraction {
+
+	/**
+	 * Receives the results of each window. Offsets refer to the whole text.
+	 */
+	public interface Listener {
+
+		void literal(int start, int end, SemanticEntity literal);
+
+		void subject(int start, int end, SemanticEntity subject);
+	}
+
+	private final Logger log = Logger.getLogger(WindowedExtraction.class
+			.getName());
+
+	private final Pipeline pipeline;
+
+	private final int localSteps;
+
+	private final int windowLength;
+
+	private final int overlap;
+
+	/**
+	 * @param localSteps
+	 *            number of pipeline steps that run on windows
+	 * @param windowLength
+	 *            number of characters after which a window is closed at the
+	 *            next sentence boundary
+	 * @param overlap
+	 *            number of sentences shared by consecutive windows, a window
+	 *            holds at least <code>overlap + 1</code> sentences
+	 */
+	public WindowedExtraction(Pipeline pipeline, int localSteps,
+			int windowLength, int overlap) {
+		if (windowLength <= 0) {
+			throw new IllegalArgumentException("Invalid window length "
+					+ windowLength);
+		}
+		if (overlap < 0) {
+			throw new IllegalArgumentException("Invalid overlap " + overlap);
+		}
+		this.pipeline = pipeline;
+		this.localSteps = localSteps;
+		this.windowLength = windowLength;
+		this.overlap = overlap;
+	}
+
+	/**
+	 * Extracts a plain text window by window and runs the remaining steps on
+	 * the collected candidates.
+	 * 
+	 * @param listener
+	 *            receives the results of every window, may be
+	 *            <code>null</code>
+	 * @return the document holding the candidates after all steps
+	 */
+	public Document extract(CharSequence text, URI uri, String template,
+			Language language, Listener listener) throws Exception {
+
+		Document global = pipeline.createDocument(text, uri, template,
+				language);
+
+		BreakIterator boundary = BreakIterator.getSentenceInstance(new Locale(
+				language.getValue()));
+		boundary.setText(new CharSequenceIterator(text));
+
+		// ends of the sentences in the current window, which starts with
+		// sentence number firstSentence
+		TIntArrayList ends = new TIntArrayList();
+		int windowStart = 0;
+		int ownedStart = 0;
+		int firstSentence = 0;
+		int windows = 0;
+
+		boundary.first();
+		for (int end = boundary.next(); end != BreakIterator.DONE;) {
+			ends.add(end);
+			end = boundary.next();
+			boolean last = end == BreakIterator.DONE;
+
+			// the window owns its sentences up to the trailing overlap
+			int owned = last ? ends.size() - 1 : ends.size() - 1 - overlap;
+			if (!last
+					&& (owned < 0 || ends.get(owned) <= ownedStart || ends
+							.get(ends.size() - 1)
+							- windowStart < windowLength)) {
+				continue;
+			}
+			int ownedEnd = ends.get(owned);
+
+			Document window = pipeline.createDocument(text.subSequence(
+					windowStart, ends.get(ends.size() - 1)), uri, template,
+					language);
+			for (int step = 0; step < localSteps && pipeline.hasNext(step); step = pipeline
+					.execute(step, window)) {
+			}
+			language = window.getLanguage();
+
+			collect(window, global, windowStart, ownedStart, ownedEnd,
+					firstSentence, listener);
+			windows++;
+
+			// the next window starts with the overlap before ownedEnd
+			int first = owned - overlap + 1;
+			if (first > 0) {
+				windowStart = ends.get(first - 1);
+				ends.remove(0, first);
+				firstSentence += first;
+			}
+			ownedStart = ownedEnd;
+		}
+
+		global.setLanguage(language);
+		log.info("Extracted " + windows + " windows, found "
+				+ global.getResolvedSubjects().size() + " candidates");
+
+		for (int step = localSteps; pipeline.hasNext(step); step = pipeline
+				.execute(step, global)) {
+		}
+		return global;
+	}
+
+	/**
+	 * Reports the results starting in <code>[ownedStart, ownedEnd)</code> and
+	 * copies the tokens of resolved subjects to the global document.
+	 */
+	private void collect(Document window, Document global, int windowStart,
+			int ownedStart, int ownedEnd, int firstSentence, Listener listener) {
+
+		if (listener != null) {
+			for (TokenSequence<SemanticEntity> literal : window
+					.getRetrievedPropertyValues()) {
+				int start = windowStart + literal.getStart();
+				if (start >= ownedStart && start < ownedEnd) {
+					listener.literal(start, windowStart + literal.getEnd(),
+							literal.getValue());
+				}
+			}
+		}
+
+		DataSheet from = window.getData();
+		DataSheet to = global.getData();
+		String[] columns = from.getColumns();
+
+		for (TokenSequence<SemanticEntity> subject : window
+				.getResolvedSubjects()) {
+			int start = windowStart + subject.getStart();
+			if (start < ownedStart || start >= ownedEnd) {
+				continue;
+			}
+			if (listener != null) {
+				listener.subject(start, windowStart + subject.getEnd(), subject
+						.getValue());
+			}
+
+			for (Token token : subject.getTokens()) {
+				String key = Integer.toString(token.getStart());
+				int globalStart = windowStart + token.getStart();
+				if (to.get(TokenSequence.TOKEN, globalStart) != null) {
+					// copied from an earlier window or subject
+					continue;
+				}
+				for (String column : columns) {
+					Object value = from.get(column, key);
+					if (value == null) {
+						continue;
+					}
+					if (column.equals(TokenSequence.TOKEN)) {
+						value = windowStart + (Integer) value;
+					} else if (column.equals(TokenSequence.SENTENCE)) {
+						value = firstSentence + (Integer) value;
+					}
+					to.add(column, globalStart, value);
+				}
+			}
+		}
+	}
+}
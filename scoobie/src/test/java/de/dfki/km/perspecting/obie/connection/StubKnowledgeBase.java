@@ -0,0 +1,275 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.connection;
+
+import gnu.trove.TIntDoubleHashMap;
+import gnu.trove.TIntObjectHashMap;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.dfki.km.perspecting.obie.corpus.TextCorpus;
+import de.dfki.km.perspecting.obie.model.DoubleMatrix;
+import de.dfki.km.perspecting.obie.transducer.model.LiteralHashing;
+import de.dfki.km.perspecting.obie.transducer.model.SuffixArray;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+import de.dfki.km.perspecting.obie.workflow.Pipeline;
+
+/**
+ * A {@link KnowledgeBase} for tests. It is called <code>http://dbpedia.org</code>
+ * and answers batched URI lookups by {@link #getURI(int)}, which knows no
+ * URI unless it is overridden, and sorts suffixes in memory. All other
+ * methods throw an {@link UnsupportedOperationException} unless they are
+ * overridden.
+ */
+public class StubKnowledgeBase implements KnowledgeBase {
+
+	private final AtomicInteger uriQueries = new AtomicInteger();
+
+	/**
+	 * @return the number of {@link #getURIs(int[])} calls
+	 */
+	public int getURIQueries() {
+		return uriQueries.get();
+	}
+
+	@Override
+	public URI getUri() {
+		return URI.create("http://dbpedia.org");
+	}
+
+	/**
+	 * @return <code>null</code>
+	 */
+	@Override
+	public String getURI(int index) throws Exception {
+		return null;
+	}
+
+	/**
+	 * Returns the index and URI of every index {@link #getURI(int)} knows.
+	 */
+	@Override
+	public RemoteCursor getURIs(int[] indexes) throws Exception {
+		uriQueries.incrementAndGet();
+		List<Object[]> rows = new ArrayList<Object[]>();
+		for (int index : indexes) {
+			String uri = getURI(index);
+			if (uri != null) {
+				rows.add(new Object[] { index, uri });
+			}
+		}
+		return new ListCursor(rows);
+	}
+
+	@Override
+	public RemoteCursor getDatatypePropertyValues(
+			int[] datatypePropertyFilter, SuffixArray suffixArray)
+			throws Exception {
+		throw new UnsupportedOperationException("getDatatypePropertyValues");
+	}
+
+	@Override
+	public RemoteCursor getInstanceCandidates(Map<Integer, Set<Integer>> symbols)
+			throws Exception {
+		throw new UnsupportedOperationException("getInstanceCandidates");
+	}
+
+	@Override
+	public int getLiteralIndex(String literal) throws Exception {
+		throw new UnsupportedOperationException("getLiteralIndex");
+	}
+
+	@Override
+	public int getUriIndex(String uri) throws Exception {
+		throw new UnsupportedOperationException("getUriIndex");
+	}
+
+	@Override
+	public int[] getClusters() throws Exception {
+		throw new UnsupportedOperationException("getClusters");
+	}
+
+	@Override
+	public String getLiteral(int index) throws Exception {
+		throw new UnsupportedOperationException("getLiteral");
+	}
+
+	@Override
+	public RemoteCursor getOutgoingRelations(int[] instances) throws Exception {
+		throw new UnsupportedOperationException("getOutgoingRelations");
+	}
+
+	@Override
+	public int getCluster(int[] types) throws Exception {
+		throw new UnsupportedOperationException("getCluster");
+	}
+
+	@Override
+	public RemoteCursor getIncomingRelations(int[] instances) throws Exception {
+		throw new UnsupportedOperationException("getIncomingRelations");
+	}
+
+	@Override
+	public RemoteCursor getRDFTypesForInstances(int[] subjects)
+			throws Exception {
+		throw new UnsupportedOperationException("getRDFTypesForInstances");
+	}
+
+	@Override
+	public RemoteCursor getRDFTypes() throws Exception {
+		throw new UnsupportedOperationException("getRDFTypes");
+	}
+
+	/**
+	 * Sorts the suffixes in memory, as a database would.
+	 */
+	@Override
+	public RemoteCursor dbSort(List<String> list, int maxStringLength)
+			throws Exception {
+		if (list.isEmpty()) {
+			return null;
+		}
+		List<String> sorted = new ArrayList<String>(list.size());
+		for (String s : list) {
+			sorted.add(s.length() > maxStringLength ? s.substring(0,
+					maxStringLength) : s);
+		}
+		Collections.sort(sorted);
+
+		List<Object[]> rows = new ArrayList<Object[]>(sorted.size());
+		for (String s : sorted) {
+			rows.add(new Object[] { s });
+		}
+		return new ListCursor(rows);
+	}
+
+	@Override
+	public RemoteCursor getInstancesOfTypes(int type, int limit)
+			throws Exception {
+		throw new UnsupportedOperationException("getInstancesOfTypes");
+	}
+
+	@Override
+	public Collection<int[]> getConnectingClusters(int objectProperty,
+			double threshold) throws Exception {
+		throw new UnsupportedOperationException("getConnectingClusters");
+	}
+
+	@Override
+	public int getPropertyType(int property) throws Exception {
+		throw new UnsupportedOperationException("getPropertyType");
+	}
+
+	@Override
+	public int[] getDatatypePropertyByClass(int cluster, double threshold)
+			throws Exception {
+		throw new UnsupportedOperationException("getDatatypePropertyByClass");
+	}
+
+	@Override
+	public void preprocessRdfData(InputStream[] datasets,
+			MediaType rdfMimeType, MediaType fileMimeType,
+			String absoluteBaseURI, LiteralHashing hashing) throws Exception {
+		throw new UnsupportedOperationException("preprocessRdfData");
+	}
+
+	@Override
+	public void calculateCardinalities() throws Exception {
+		throw new UnsupportedOperationException("calculateCardinalities");
+	}
+
+	@Override
+	public double getSubjectCardinality(int p) throws Exception {
+		throw new UnsupportedOperationException("getSubjectCardinality");
+	}
+
+	@Override
+	public void calculateMarkovChain(int[] blackListedProperties,
+			int sampleCount) throws Exception {
+		throw new UnsupportedOperationException("calculateMarkovChain");
+	}
+
+	@Override
+	public List<double[]> getMaxMarkovProbability(int subject, int object,
+			int k) throws Exception {
+		throw new UnsupportedOperationException("getMaxMarkovProbability");
+	}
+
+	@Override
+	public double getMarkovProbability(int subject, int predicate, int object)
+			throws Exception {
+		throw new UnsupportedOperationException("getMarkovProbability");
+	}
+
+	@Override
+	public TIntObjectHashMap<TIntObjectHashMap<double[]>> getCoverageAmbiguity()
+			throws Exception {
+		throw new UnsupportedOperationException("getCoverageAmbiguity");
+	}
+
+	@Override
+	public void calculateProperNameStatistics(TextCorpus corpus, Pipeline pipe)
+			throws Exception {
+		throw new UnsupportedOperationException(
+				"calculateProperNameStatistics");
+	}
+
+	@Override
+	public void clusterCorrelatingClasses(int samples, double biasThreshold,
+			double pruningThreshold) throws Exception {
+		throw new UnsupportedOperationException("clusterCorrelatingClasses");
+	}
+
+	@Override
+	public DoubleMatrix getTypeCorrelations(int samples) throws Exception {
+		throw new UnsupportedOperationException("getTypeCorrelations");
+	}
+
+	@Override
+	public void calculateRegexDistributions(String[] regexs) throws Exception {
+		throw new UnsupportedOperationException("calculateRegexDistributions");
+	}
+
+	@Override
+	public TIntDoubleHashMap getDatatypePropertiesForRegex(String regex)
+			throws Exception {
+		throw new UnsupportedOperationException(
+				"getDatatypePropertiesForRegex");
+	}
+
+	@Override
+	public String[] getRegexs() throws Exception {
+		throw new UnsupportedOperationException("getRegexs");
+	}
+
+}
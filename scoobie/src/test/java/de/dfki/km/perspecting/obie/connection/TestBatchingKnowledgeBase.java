@@ -0,0 +1,113 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.workflow.Metrics;
+
+public class TestBatchingKnowledgeBase {
+
+	/**
+	 * Answers slow batched URI lookups of positive indexes.
+	 */
+	private static StubKnowledgeBase createKnowledgeBase() {
+		return new StubKnowledgeBase() {
+			@Override
+			public String getURI(int index) {
+				return index > 0 ? "http://scoobie.org/" + index : null;
+			}
+
+			@Override
+			public RemoteCursor getURIs(int[] indexes) throws Exception {
+				Thread.sleep(50);
+				return super.getURIs(indexes);
+			}
+		};
+	}
+
+	@Test
+	public void testBatching() throws Exception {
+		StubKnowledgeBase stub = createKnowledgeBase();
+		final KnowledgeBase kb = new BatchingKnowledgeBase(stub, new Metrics());
+
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		List<Future<String>> results = new ArrayList<Future<String>>();
+		for (int i = 1; i <= 64; i++) {
+			final int index = i;
+			results.add(executor.submit(new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					return kb.getURI(index);
+				}
+			}));
+		}
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals("http://scoobie.org/" + (i + 1), results.get(i)
+					.get());
+		}
+		executor.shutdown();
+
+		assertTrue(stub.getURIQueries() + " queries",
+				stub.getURIQueries() < 64);
+	}
+
+	@Test
+	public void testGetURIs() throws Exception {
+		StubKnowledgeBase stub = createKnowledgeBase();
+		KnowledgeBase kb = new BatchingKnowledgeBase(stub, new Metrics());
+
+		RemoteCursor rs = kb.getURIs(new int[] { 3, -1, 2, 3 });
+		assertTrue(rs.next());
+		assertEquals(3, rs.getInt(1));
+		assertEquals("http://scoobie.org/3", rs.getString(2));
+		assertEquals("3", rs.getString(1));
+		assertEquals(3.0, rs.getDouble(1), 0);
+		assertTrue(rs.next());
+		assertEquals(2, rs.getInt(1));
+		assertFalse(rs.next());
+		rs.close();
+		assertEquals(1, stub.getURIQueries());
+
+		try {
+			kb.getURI(-1);
+			fail();
+		} catch (Exception e) {
+			assertEquals("URI with index: -1 is not indexed", e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,144 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.connection;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.vocabulary.RDF;
+
+/**
+ * Runs the lookups of one {@link HsqlKB} from many threads, as the workers of
+ * an extraction service do.
+ */
+public class TestConcurrentHsqlKB {
+
+	private static final int SIZE = 50;
+
+	private Connection connection;
+
+	private KnowledgeBase kb;
+
+	@Before
+	public void setUp() throws Exception {
+		Class.forName("org.hsqldb.jdbcDriver");
+		connection = DriverManager.getConnection(
+				"jdbc:hsqldb:mem:concurrency", "sa", "");
+
+		Statement s = connection.createStatement();
+		s.executeUpdate("CREATE TABLE index_literals (index int PRIMARY KEY, "
+				+ "literal varchar(256) NOT NULL, prefix int NOT NULL)");
+		s.executeUpdate("CREATE TABLE index_resources (index int PRIMARY KEY, "
+				+ "uri varchar(256) NOT NULL)");
+		s.executeUpdate("CREATE TABLE relations (subject int NOT NULL, "
+				+ "predicate int NOT NULL, object int NOT NULL)");
+		s.close();
+
+		PreparedStatement literals = connection
+				.prepareStatement("INSERT INTO index_literals VALUES (?, ?, 0)");
+		PreparedStatement resources = connection
+				.prepareStatement("INSERT INTO index_resources VALUES (?, ?)");
+		PreparedStatement relations = connection
+				.prepareStatement("INSERT INTO relations VALUES (?, 0, ?)");
+		resources.setInt(1, 0);
+		resources.setString(2, RDF.TYPE.toString());
+		resources.executeUpdate();
+		for (int i = 1; i <= SIZE; i++) {
+			literals.setInt(1, i);
+			literals.setString(2, "literal" + i);
+			literals.executeUpdate();
+			resources.setInt(1, i);
+			resources.setString(2, "http://scoobie.org/resource/" + i);
+			resources.executeUpdate();
+			relations.setInt(1, -i);
+			relations.setInt(2, i);
+			relations.executeUpdate();
+		}
+		literals.close();
+		resources.close();
+		relations.close();
+
+		kb = new HsqlKB(connection, "concurrency", new URI(
+				"http://scoobie.org/db/"));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		Statement shutdown = connection.createStatement();
+		shutdown.execute("SHUTDOWN");
+		shutdown.close();
+		connection.close();
+	}
+
+	@Test
+	public void testConcurrentLookups() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Void>> results = new ArrayList<Future<Void>>();
+		for (int t = 0; t < 8; t++) {
+			final int offset = t;
+			results.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					for (int n = 0; n < 20 * SIZE; n++) {
+						int i = (n + offset * 7) % SIZE + 1;
+						String uri = "http://scoobie.org/resource/" + i;
+						assertEquals(uri, kb.getURI(i));
+						assertEquals(i, kb.getUriIndex(uri));
+						assertEquals("literal" + i, kb.getLiteral(i));
+						assertEquals(i, kb.getLiteralIndex("literal" + i));
+
+						RemoteCursor rs = kb.getInstancesOfTypes(i, 10);
+						try {
+							assertEquals(true, rs.next());
+							assertEquals(-i, rs.getInt(1));
+						} finally {
+							rs.close();
+						}
+					}
+					return null;
+				}
+			}));
+		}
+		for (Future<Void> result : results) {
+			result.get();
+		}
+		executor.shutdown();
+	}
+
+}
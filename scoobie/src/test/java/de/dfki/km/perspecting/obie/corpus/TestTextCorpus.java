@@ -0,0 +1,230 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.corpus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.Reader;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.search.IndexSearcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.model.DocumentProcedure;
+import de.dfki.km.perspecting.obie.transducer.model.DocumentFrequencyTable;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+
+public class TestTextCorpus {
+
+	private static final int SIZE = 100;
+
+	private File dir;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = File.createTempFile("corpus", "");
+		dir.delete();
+		dir.mkdirs();
+		for (int i = 0; i < SIZE; i++) {
+			FileWriter writer = new FileWriter(new File(dir, i + ".txt"));
+			writer.write("document " + i);
+			writer.close();
+		}
+		new File(dir, "sub").mkdir();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(dir);
+	}
+
+	/**
+	 * Reads the single line of a document, and records how many documents
+	 * are processed at once.
+	 */
+	private static class Procedure implements DocumentProcedure<String> {
+
+		final AtomicInteger running = new AtomicInteger();
+
+		final AtomicInteger maxRunning = new AtomicInteger();
+
+		@Override
+		public String process(Reader doc, URI uri) throws Exception {
+			int n = running.incrementAndGet();
+			synchronized (maxRunning) {
+				maxRunning.set(Math.max(n, maxRunning.get()));
+			}
+			try {
+				Thread.sleep(1);
+				return new BufferedReader(doc).readLine();
+			} finally {
+				running.decrementAndGet();
+			}
+		}
+	}
+
+	@Test
+	public void testDirectory() throws Exception {
+		TextCorpus corpus = new TextCorpus(dir, MediaType.DIRECTORY,
+				MediaType.TEXT, Language.EN);
+
+		CorpusIterator entries = corpus.iterator();
+		int count = 0;
+		while (entries.hasNext()) {
+			CorpusEntry entry = entries.next();
+			assertTrue(entry.getURI().toString().endsWith(".txt"));
+			count++;
+		}
+		entries.close();
+		assertEquals(SIZE, count);
+
+		assertEquals(SIZE, corpus.forEach(new Procedure()).size());
+	}
+
+	@Test
+	public void testParallelForEach() throws Exception {
+		TextCorpus corpus = new TextCorpus(dir, MediaType.DIRECTORY,
+				MediaType.TEXT, Language.EN);
+
+		final Set<String> results = new HashSet<String>();
+		Procedure p = new Procedure();
+		corpus.parallelForEach(p, 4, new ResultSink<String>() {
+			@Override
+			public void put(URI uri, String result) {
+				assertTrue(uri.toString().endsWith(
+						result.substring("document ".length()) + ".txt"));
+				results.add(result);
+			}
+		});
+		assertEquals(SIZE, results.size());
+		assertTrue(p.maxRunning.get() <= 4);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParallelForEachFails() throws Exception {
+		TextCorpus corpus = new TextCorpus(dir, MediaType.DIRECTORY,
+				MediaType.TEXT, Language.EN);
+		corpus.parallelForEach(new DocumentProcedure<String>() {
+			@Override
+			public String process(Reader doc, URI uri) {
+				throw new IllegalArgumentException(uri.toString());
+			}
+		}, 2);
+	}
+
+	@Test
+	public void testZip() throws Exception {
+		File zip = new File(dir, "corpus.zip");
+		ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip));
+		out.putNextEntry(new ZipEntry("folder/"));
+		for (int i = 0; i < SIZE; i++) {
+			out.putNextEntry(new ZipEntry("folder/" + i + ".txt"));
+			out.write(("document " + i).getBytes("UTF-8"));
+		}
+		out.close();
+
+		TextCorpus corpus = new TextCorpus(zip, MediaType.ZIP,
+				MediaType.TEXT, Language.EN);
+		final Set<String> results = new HashSet<String>();
+		corpus.parallelForEach(new Procedure(), 3, new ResultSink<String>() {
+			@Override
+			public void put(URI uri, String result) {
+				results.add(result);
+			}
+		});
+		assertEquals(SIZE, results.size());
+		assertTrue(results.contains("document 0"));
+	}
+
+	@Test
+	public void testConll() throws Exception {
+		File file = new File(dir, "conll.txt");
+		FileWriter writer = new FileWriter(file);
+		writer.write("-DOCSTART- -X- O O\n\nBerlin NNP I-NP I-LOC\n\n"
+				+ "-DOCSTART- -X- O O\n\nParis NNP I-NP I-LOC\n\n"
+				+ "-DOCSTART- -X- O O\n");
+		writer.close();
+
+		CorpusIterator entries = new ConllCorpus(file).iterator();
+		assertTrue(entries.hasNext());
+		CorpusEntry entry = entries.next();
+		assertEquals(file.toURI() + "#2", entry.getURI().toString());
+		BufferedReader reader = new BufferedReader(entry.open());
+		reader.readLine();
+		assertEquals("Berlin NNP I-NP I-LOC", reader.readLine());
+		assertEquals(file.toURI() + "#3", entries.next().getURI().toString());
+		assertFalse(entries.hasNext());
+		entries.close();
+	}
+
+	@Test
+	public void testDocumentFrequencies() throws Exception {
+		TextCorpus corpus = new TextCorpus(dir, MediaType.DIRECTORY,
+				MediaType.TEXT, Language.EN);
+
+		File index = new File(dir.getAbsolutePath() + ".lucene");
+		File exported = new File(dir.getAbsolutePath() + ".lucene.df");
+		File counted = new File(dir.getAbsolutePath() + ".df");
+		try {
+			IndexSearcher searcher = corpus.getLuceneIndex(index, true, 4,
+					false);
+			assertEquals(SIZE, searcher.getIndexReader().numDocs());
+			DocumentFrequencyTable.export(searcher.getIndexReader(), "text",
+					exported);
+			searcher.close();
+
+			DocumentFrequencyTable expected = new DocumentFrequencyTable(
+					exported);
+			DocumentFrequencyTable actual = corpus.buildDocumentFrequencyTable(
+					counted, true, 4);
+
+			assertEquals(expected.getNumDocs(), actual.getNumDocs());
+			assertEquals(expected.size(), actual.size());
+			assertEquals(SIZE, actual.getDocumentFrequency("document"));
+			assertEquals(1, actual.getDocumentFrequency("7"));
+			assertEquals(0, actual.getDocumentFrequency("unknown"));
+		} finally {
+			FileUtils.deleteDirectory(index);
+			exported.delete();
+			counted.delete();
+		}
+	}
+
+}
@@ -25,9 +25,6 @@ package de.dfki.km.perspecting.obie.model;
 
 import java.net.URI;
 
-import opennlp.tools.postag.POSModel;
-import opennlp.tools.postag.POSTaggerME;
-
 import org.postgresql.jdbc2.optional.PoolingDataSource;
 
 import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
@@ -47,9 +44,9 @@ import de.dfki.km.perspecting.obie.transducer.RelevanceRating;
 import de.dfki.km.perspecting.obie.transducer.SentenceSegmenter;
 import de.dfki.km.perspecting.obie.transducer.SuffixArrayBuilder;
 import de.dfki.km.perspecting.obie.transducer.WordSegmenter;
-import de.dfki.km.perspecting.obie.transducer.model.CRFNounPhraseChunkerModel;
 import de.dfki.km.perspecting.obie.transducer.model.LiteralHashing;
 import de.dfki.km.perspecting.obie.transducer.model.MaxentEntityClassifierModel;
+import de.dfki.km.perspecting.obie.transducer.model.ModelRegistry;
 import de.dfki.km.perspecting.obie.transducer.model.disambiguation.AmbiguityResolver;
 import de.dfki.km.perspecting.obie.transducer.model.disambiguation.DegreeBasedResolver;
 import de.dfki.km.perspecting.obie.transducer.model.rating.CapacityBasedRating;
@@ -59,7 +56,9 @@ import de.dfki.km.perspecting.obie.workflow.DummyTask;
 import de.dfki.km.perspecting.obie.workflow.Pipeline;
 
 public class Scoobie {
-	
+
+	private static ModelRegistry models;
+
 	private KnowledgeBase kb;
 	private Pipeline pipeline;
 	private PoolingDataSource pool;
@@ -86,10 +85,9 @@ public class Scoobie {
 		SentenceSegmenter sentenceTokenizer = new SentenceSegmenter();
 		
 		
-		POSModel posModel = new POSModel(Scoobie.class.getResourceAsStream("pos/en/en-pos-maxent.bin"));
-		POSTagging posTagger = new POSTagging(new POSTaggerME(posModel));
+		POSTagging posTagger = new POSTagging(getModels(), "en", null, 1);
 
-		ProperNameRecognition nounPhraseChunker = new ProperNameRecognition(new CRFNounPhraseChunkerModel(Scoobie.class.getResourceAsStream("npc/en/EN.crf")));
+		ProperNameRecognition nounPhraseChunker = new ProperNameRecognition(getModels(), "en", null, 1);
 
 		SuffixArrayBuilder suffixArrayBuilder = new SuffixArrayBuilder(100, new LiteralHashing(4));
 		RDFLiteralSpotting namedEntityRecognizer = new RDFLiteralSpotting();
@@ -135,6 +133,19 @@ public class Scoobie {
 				dummy, dummy);
 	}
 	
+	/**
+	 * Loads the models once for all instances.
+	 */
+	private static synchronized ModelRegistry getModels() throws Exception {
+		if (models == null) {
+			ModelRegistry registry = new ModelRegistry();
+			registry.loadPOSModel("en", Scoobie.class.getResourceAsStream("pos/en/en-pos-maxent.bin"));
+			registry.loadChunker("en", Scoobie.class.getResourceAsStream("npc/en/EN.crf"));
+			models = registry;
+		}
+		return models;
+	}
+
 	public KnowledgeBase kb() {
 		return kb;
 	}
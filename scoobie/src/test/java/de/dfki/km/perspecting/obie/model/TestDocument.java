@@ -0,0 +1,73 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.net.URI;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+
+public class TestDocument {
+
+	@Test
+	public void testResolvedSubjectsView() throws Exception {
+		Document document = new Document("New York is big.", new URI(
+				"http://scoobie.org/doc"), MediaType.TEXT, Language.EN);
+		document.getData().createToken(0, 3);
+		document.getData().createToken(4, 8);
+		document.getData().createToken(9, 11);
+		document.getData().createToken(12, 15);
+		document.getData().createToken(15, 16);
+
+		SemanticEntity literal = new SemanticEntity();
+		literal.setPropertyIndex(1);
+		literal.setLiteralValueIndex(2);
+		new Token(0, document).addSubject("B", literal, 3, "http://scoobie.org/ny");
+
+		List<TokenSequence<SemanticEntity>> subjects = document
+				.getResolvedSubjects();
+		assertEquals(1, subjects.size());
+		assertEquals("New", subjects.get(0).toString());
+		assertSame(subjects, document.getResolvedSubjects());
+
+		new Token(4, document).addSubject("I", literal, 3, "http://scoobie.org/ny");
+
+		List<TokenSequence<SemanticEntity>> updated = document
+				.getResolvedSubjects();
+		assertNotSame(subjects, updated);
+		assertEquals(1, updated.size());
+		assertEquals("New York", updated.get(0).toString());
+
+		document.removeUnresolvedSubjects(new int[] { 3 });
+		assertEquals(0, document.getResolvedSubjects().size());
+	}
+
+}
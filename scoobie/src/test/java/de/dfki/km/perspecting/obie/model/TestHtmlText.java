@@ -0,0 +1,81 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URI;
+
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+
+public class TestHtmlText {
+
+	@Test
+	public void testBlankMarkup() {
+		String html = "<html><HEAD><title>Title</title></HEAD>\n"
+				+ "<body class=\"a>b\">Hello <b>World</b><!-- <p>x</p> -->\n"
+				+ "<script type='text/javascript'>if (a<b) {}</script>"
+				+ "<style>p {}</style><header>1 < 2</header></body></html>";
+		HtmlText text = new HtmlText(html);
+
+		assertEquals(html.length(), text.getText().length());
+		assertEquals("Hello World 1 < 2", text.getText().trim().replaceAll(
+				"\\s+", " "));
+		assertEquals('\n', text.getText().charAt(html.indexOf('\n')));
+		assertEquals(html.indexOf("World"), text.getOffset(text.getText()
+				.indexOf("World")));
+	}
+
+	@Test
+	public void testDecodeReferences() {
+		String html = "<p>AT&amp;T &#8364;5 &#x1D11E; &eacute;t&eacute; &foo; a&b</p>";
+		HtmlText text = new HtmlText(html);
+
+		assertEquals("   AT&T €5 𝄞 été &foo; a&b    ", text
+				.getText());
+
+		int at = text.getText().indexOf("AT&T");
+		assertEquals(html.indexOf("AT&amp;T"), text.getOffset(at));
+		assertEquals(html.indexOf(" &#8364;"), text.getOffset(at + 4));
+		int summer = text.getText().indexOf("été");
+		assertEquals(html.indexOf(" &foo;"), text.getOffset(summer + 3));
+		assertEquals(html.length(), text.getOffset(text.getText().length()));
+	}
+
+	@Test
+	public void testDocumentContentOffset() throws Exception {
+		String html = "<p>Caf&eacute; M&uuml;ller</p>";
+		Document document = new Document(html, new URI(
+				"http://scoobie.org/doc"), MediaType.HTML, Language.DE);
+
+		String text = document.getPlainTextContent();
+		int start = text.indexOf("Müller");
+		assertEquals("M&uuml;ller", html.substring(document
+				.getContentOffset(start), document.getContentOffset(start + 6)));
+	}
+
+}
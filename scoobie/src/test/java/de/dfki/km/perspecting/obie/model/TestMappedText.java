@@ -0,0 +1,90 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.transducer.WordSegmenter;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+
+public class TestMappedText {
+
+	private static MappedText map(String text, String charset)
+			throws Exception {
+		File file = File.createTempFile("text", ".txt");
+		file.deleteOnExit();
+		FileUtils.writeStringToFile(file, text, charset);
+		return MappedText.map(file, Charset.forName(charset));
+	}
+
+	@Test
+	public void testCharsets() throws Exception {
+		String ascii = "New York is big.";
+		String latin = "Café Müller";
+		String unicode = "Москва €5";
+
+		assertEquals(ascii, map(ascii, "UTF-8").toString());
+		assertEquals(latin, map(latin, "ISO-8859-1").toString());
+		assertEquals(latin, map(latin, "UTF-8").toString());
+		assertEquals(unicode, map(unicode, "UTF-8").toString());
+		assertEquals(unicode, map(unicode, "UTF-16").toString());
+
+		MappedText text = map(latin, "UTF-8");
+		assertEquals(latin.length(), text.length());
+		assertEquals("Müller", text.subSequence(5, 11).toString());
+		assertEquals('l', text.subSequence(5, 11).charAt(2));
+	}
+
+	@Test
+	public void testMappedDocument() throws Exception {
+		File file = File.createTempFile("text", ".txt");
+		file.deleteOnExit();
+		FileUtils.writeStringToFile(file, "Anna lives in München.",
+				"UTF-8");
+
+		Document document = new Document(file, Charset.forName("UTF-8"),
+				new URI("http://scoobie.org/doc"), Language.DE);
+		new WordSegmenter().transduce(document, null);
+
+		List<Token> tokens = document.getTokens();
+		assertEquals(5, tokens.size());
+		assertEquals("München", tokens.get(3).toString());
+		assertEquals("Anna lives in München.", document
+				.getPlainTextContent());
+		assertSame(document.getPlainTextContent(), document
+				.getPlainTextContent());
+		assertSame(document.getPlainTextContent(), document.getContent());
+		assertSame(document.getPlainText(), document.getContentSequence());
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URI;
+
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+
+public class TestTermFrequencies {
+
+	@Test
+	public void testFrequencies() throws Exception {
+		String text = "Berlin is big. berlin is old.";
+		Document document = new Document(text, new URI("http://scoobie.org/doc"),
+				MediaType.TEXT, Language.EN);
+
+		int[][] tokens = { { 0, 6 }, { 7, 9 }, { 10, 13 }, { 13, 14 },
+				{ 15, 21 }, { 22, 24 }, { 25, 28 }, { 28, 29 } };
+		for (int[] t : tokens) {
+			document.getData().createToken(t[0], t[1]);
+		}
+
+		TermFrequencies tf = document.getTermFrequencies();
+
+		assertEquals(8, tf.getLength());
+		assertEquals(2, tf.getFrequency("Berlin"));
+		assertEquals(2, tf.getFrequency("IS"));
+		assertEquals(1, tf.getFrequency("old"));
+		assertEquals(0, tf.getFrequency("London"));
+		assertEquals(0.25, tf.getRelativeFrequency("berlin"), 0.0);
+		assertEquals(5, tf.getTerms().length);
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.postprocessor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URI;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.DoubleMatrix;
+import de.dfki.km.perspecting.obie.model.RDFEdge;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+
+public class TestBinarySerializer {
+
+	private static Document createDocument() throws Exception {
+		Document document = new Document("Berlin is in Germany.", new URI(
+				"http://scoobie.org/doc"), MediaType.TEXT, Language.EN);
+		document.getData().createToken(0, 6);
+		document.getData().createToken(7, 9);
+		document.getData().createToken(10, 12);
+		document.getData().createToken(13, 20);
+
+		Token berlin = new Token(0, document);
+		SemanticEntity literal = berlin.addProperty("B", 7, 1);
+		SemanticEntity subject = berlin.addSubject("B", literal, 3,
+				"http://dbpedia.org/resource/Berlin");
+		berlin.addType(subject, 2, 1.0);
+
+		Token germany = new Token(13, document);
+		germany.addProperty("B", 8, 1);
+
+		DoubleMatrix scores = new DoubleMatrix();
+		scores.add(0, 3, 0.75);
+		document.setRelevanceScores(scores);
+
+		DirectedSparseGraph<Integer, RDFEdge> graph = new DirectedSparseGraph<Integer, RDFEdge>();
+		graph.addEdge(new RDFEdge(4, 0.5), 3, 5);
+		document.setPredictionGraph(graph);
+		return document;
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		File file = File.createTempFile("annotations", ".bin");
+		try {
+			BinarySerializer serializer = new BinarySerializer(0);
+			FileChannel channel = new FileOutputStream(file).getChannel();
+			try {
+				serializer.write(createDocument(), channel);
+				serializer.write(createDocument(), channel);
+			} finally {
+				channel.close();
+			}
+
+			BinaryAnnotationReader reader = BinaryAnnotationReader.map(file);
+			for (int record = 0; record < 2; record++) {
+				assertTrue(reader.next());
+
+				assertEquals(2, reader.getLiteralCount());
+				assertEquals(13, reader.getLiteralStart(1));
+				assertEquals(20, reader.getLiteralEnd(1));
+				assertEquals(1, reader.getLiteralProperty(1));
+				assertEquals(8, reader.getLiteralValue(1));
+
+				assertEquals(1, reader.getSubjectCount());
+				assertEquals(0, reader.getSubjectStart(0));
+				assertEquals(6, reader.getSubjectEnd(0));
+				assertEquals(3, reader.getSubject(0));
+				assertEquals(7, reader.getSubjectLiteralValue(0));
+				assertEquals(1, reader.getTypeCount(0));
+				assertEquals(2, reader.getType(0, 0));
+				assertEquals(1.0f, reader.getTypeProbability(0, 0), 0);
+				assertEquals(0, reader.getPredictedTypeCount(0));
+
+				assertEquals(1, reader.getScoreCount());
+				assertEquals(3, reader.getScoredSubject(0));
+				assertEquals(0.75f, reader.getScore(0), 0);
+
+				assertEquals(1, reader.getEdgeCount());
+				assertEquals(3, reader.getEdgeSubject(0));
+				assertEquals(4, reader.getEdgePredicate(0));
+				assertEquals(5, reader.getEdgeObject(0));
+				assertEquals(0.5f, reader.getEdgeWeight(0), 0);
+			}
+			assertFalse(reader.next());
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testBufferOverflow() throws Exception {
+		BinarySerializer serializer = new BinarySerializer(1);
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		try {
+			serializer.write(createDocument(), buffer);
+			assertTrue(false);
+		} catch (BufferOverflowException e) {
+			assertEquals(0, buffer.position());
+		}
+
+		buffer = ByteBuffer.allocate(1024);
+		int length = serializer.write(createDocument(), buffer);
+		assertEquals(length, buffer.position());
+		buffer.flip();
+		BinaryAnnotationReader reader = new BinaryAnnotationReader(buffer);
+		assertTrue(reader.next());
+		// there are no scores in column 1
+		assertEquals(0, reader.getScoreCount());
+		assertEquals(1, reader.getEdgeCount());
+		assertFalse(reader.next());
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.postprocessor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.openrdf.model.Statement;
+import org.openrdf.rio.helpers.StatementCollector;
+import org.openrdf.rio.trig.TriGParser;
+
+import de.dfki.km.perspecting.obie.connection.StubKnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.RDFEdge;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+
+public class TestRDFSerializer {
+
+	private static final String[] URIS = { null,
+			"http://www.w3.org/2000/01/rdf-schema#label",
+			"http://dbpedia.org/ontology/City",
+			"http://dbpedia.org/resource/Berlin",
+			"http://dbpedia.org/ontology/country",
+			"http://dbpedia.org/resource/Germany" };
+
+	/**
+	 * Answers nothing but batched URI lookups.
+	 */
+	private static StubKnowledgeBase createKnowledgeBase() {
+		return new StubKnowledgeBase() {
+			@Override
+			public String getURI(int index) {
+				return URIS[index];
+			}
+		};
+	}
+
+	private static Document createDocument() throws Exception {
+		Document document = new Document("Berlin is in \"Berlin\".",
+				new URI("http://scoobie.org/doc"), MediaType.TEXT,
+				Language.EN);
+		document.getData().createToken(0, 6);
+		document.getData().createToken(7, 9);
+		document.getData().createToken(10, 12);
+		document.getData().createToken(14, 20);
+		for (int start : new int[] { 0, 14 }) {
+			Token token = new Token(start, document);
+			SemanticEntity literal = token.addProperty("B", 7, 1);
+			SemanticEntity subject = token.addSubject("B", literal, 3,
+					URIS[3]);
+			token.addType(subject, 2, 1.0);
+		}
+
+		DirectedSparseGraph<Integer, RDFEdge> graph = new DirectedSparseGraph<Integer, RDFEdge>();
+		graph.addEdge(new RDFEdge(4), 3, 5);
+		document.setGraph(graph);
+		return document;
+	}
+
+	@Test
+	public void testTriG() throws Exception {
+		StubKnowledgeBase kb = createKnowledgeBase();
+		String trig = read(new RDFSerializer("http://scoobie.org/doc")
+				.serialize(createDocument(), kb));
+		assertEquals(1, kb.getURIQueries());
+
+		TriGParser parser = new TriGParser();
+		StatementCollector statements = new StatementCollector();
+		parser.setRDFHandler(statements);
+		parser.parse(new StringReader(trig), "http://scoobie.org/");
+
+		assertEquals(3, statements.getStatements().size());
+		for (Statement statement : statements.getStatements()) {
+			assertEquals(URIS[3], statement.getSubject().stringValue());
+		}
+	}
+
+	@Test
+	public void testNQuads() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new RDFSerializer("http://scoobie.org/doc",
+				RDFSerializer.Format.NQUADS).write(createDocument(),
+				createKnowledgeBase(), out);
+
+		List<String> lines = Arrays.asList(out.toString("UTF-8").split("\n"));
+		assertEquals(3, lines.size());
+		assertTrue(lines.contains("<http://dbpedia.org/resource/Berlin> "
+				+ "<http://www.w3.org/2000/01/rdf-schema#label> "
+				+ "\"Berlin\"@en <http://scoobie.org/doc#recognized> ."));
+		assertTrue(lines.contains("<http://dbpedia.org/resource/Berlin> "
+				+ "<http://dbpedia.org/ontology/country> "
+				+ "<http://dbpedia.org/resource/Germany> "
+				+ "<http://scoobie.org/doc#known> ."));
+	}
+
+	@Test
+	public void testEncode() {
+		assertEquals("<http://a.org/a\\u0020b>", RDFSerializer
+				.encodeURI("http://a.org/a b"));
+		assertEquals("\"say \\\"hi\\\"\\n\"@en", RDFSerializer
+				.encodeLiteral("say \"hi\"\n", "en"));
+	}
+
+	private static String read(Reader reader) throws Exception {
+		StringBuilder b = new StringBuilder();
+		char[] buffer = new char[1024];
+		for (int n = reader.read(buffer); n >= 0; n = reader.read(buffer)) {
+			b.append(buffer, 0, n);
+		}
+		return b.toString();
+	}
+
+}
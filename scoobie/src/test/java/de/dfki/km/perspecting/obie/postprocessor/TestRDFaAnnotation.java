@@ -0,0 +1,147 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.postprocessor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
+import java.net.URI;
+
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.connection.StubKnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+
+public class TestRDFaAnnotation {
+
+	private static final String LABEL = "http://www.w3.org/2000/01/rdf-schema#label";
+
+	/**
+	 * Answers nothing but batched URI lookups of the label property.
+	 */
+	private static StubKnowledgeBase createKnowledgeBase() {
+		return new StubKnowledgeBase() {
+			@Override
+			public String getURI(int index) {
+				return LABEL;
+			}
+		};
+	}
+
+	/**
+	 * Annotates the tokens of <code>words</code> as one entity.
+	 */
+	private static void annotate(Document document, String uri,
+			String... words) {
+		String text = document.getPlainTextContent();
+		SemanticEntity literal = null;
+		int from = 0;
+		for (String word : words) {
+			int start = text.indexOf(word, from);
+			document.getData().createToken(start, start + word.length());
+			Token token = new Token(start, document);
+			String position = literal == null ? "B" : "I";
+			literal = token.addProperty(position, 7, 1);
+			token.addSubject(position, literal, 3, uri);
+			from = start + word.length();
+		}
+	}
+
+	@Test
+	public void testHtml() throws Exception {
+		Document document = new Document(
+				"<p>Angela <b>Merkel</b> visits New  York &amp; Paris.</p>",
+				new URI("http://scoobie.org/doc"), MediaType.HTML,
+				Language.EN);
+		annotate(document, "http://dbpedia.org/resource/Angela_Merkel",
+				"Angela", "Merkel");
+		annotate(document, "http://dbpedia.org/resource/New_York", "New",
+				"York");
+
+		StubKnowledgeBase kb = createKnowledgeBase();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new RDFaSerializer().write(document, kb, out);
+		assertEquals(1, kb.getURIQueries());
+
+		String span = "property=\"" + LABEL + "\">";
+		assertEquals("<p><span about=\"http://dbpedia.org/resource/Angela_Merkel\" "
+				+ span + "Angela</span> <b><span "
+				+ "about=\"http://dbpedia.org/resource/Angela_Merkel\" "
+				+ span + "Merkel</span></b> visits <span "
+				+ "about=\"http://dbpedia.org/resource/New_York\" " + span
+				+ "New  York</span> &amp; Paris.</p>", out.toString("UTF-8"));
+	}
+
+	@Test
+	public void testXhtml() throws Exception {
+		Document document = new Document(
+				"<html xmlns=\"http://www.w3.org/1999/xhtml\"><body>"
+						+ "<p>Paris &amp; New York</p></body></html>",
+				new URI("http://scoobie.org/doc"), MediaType.XHTML,
+				Language.EN);
+		annotate(document, "http://dbpedia.org/resource/New_York", "New",
+				"York");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new RDFaSerializer().write(document, createKnowledgeBase(), out);
+
+		assertEquals("<html xmlns=\"http://www.w3.org/1999/xhtml\"><body>"
+				+ "<p>Paris &amp; <span "
+				+ "about=\"http://dbpedia.org/resource/New_York\" "
+				+ "property=\"" + LABEL + "\">New York</span></p>"
+				+ "</body></html>", out.toString("UTF-8"));
+	}
+
+	@Test
+	public void testTextPlain() throws Exception {
+		Document document = new Document("Tom & Jerry <3 New York",
+				new URI("http://scoobie.org/doc"), MediaType.TEXT,
+				Language.EN);
+		annotate(document, "http://a.org/?a=1&b=\"2\"", "New", "York");
+
+		String rdfa = read(new RDFaSerializer().serialize(document,
+				createKnowledgeBase()));
+		assertTrue(rdfa, rdfa.contains("<body>\nTom &amp; Jerry &lt;3 "
+				+ "<span about=\"http://a.org/?a=1&amp;b=&quot;2&quot;\" "
+				+ "property=\"" + LABEL + "\">New York</span>\n</body>"));
+		assertTrue(rdfa.contains("<title>Tom &amp; Jerry &lt;3 New Y...</title>"));
+	}
+
+	private static String read(Reader reader) throws Exception {
+		StringBuilder b = new StringBuilder();
+		char[] buffer = new char[1024];
+		for (int n = reader.read(buffer); n >= 0; n = reader.read(buffer)) {
+			b.append(buffer, 0, n);
+		}
+		return b.toString();
+	}
+
+}
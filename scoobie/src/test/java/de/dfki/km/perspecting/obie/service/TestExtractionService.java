@@ -0,0 +1,197 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.connection.BatchingKnowledgeBase;
+import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.connection.StubKnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.postprocessor.RDFSerializer;
+import de.dfki.km.perspecting.obie.postprocessor.SelectiveSerializer;
+import de.dfki.km.perspecting.obie.transducer.TextSegmenter;
+import de.dfki.km.perspecting.obie.workflow.Metrics;
+import de.dfki.km.perspecting.obie.workflow.Pipeline;
+import de.dfki.km.perspecting.obie.workflow.PipelineBuilder;
+import de.dfki.km.perspecting.obie.workflow.Transducer;
+
+public class TestExtractionService {
+
+	private ExtractionService service;
+
+	private String base;
+
+	/** Blocks extraction until it is counted down. */
+	private volatile CountDownLatch gate = new CountDownLatch(0);
+
+	/** Counted down when an extraction reaches the gate. */
+	private volatile CountDownLatch arrived = new CountDownLatch(1);
+
+	@Before
+	public void setUp() throws Exception {
+		Metrics metrics = new Metrics();
+		Pipeline pipeline = new PipelineBuilder().wordTokenizer(
+				new TextSegmenter()).factExtractor(new Transducer() {
+			@Override
+			public void transduce(Document document, KnowledgeBase kb)
+					throws Exception {
+				arrived.countDown();
+				gate.await();
+			}
+		}).build(new BatchingKnowledgeBase(new StubKnowledgeBase(), metrics),
+				metrics);
+
+		service = new ExtractionService(pipeline, null, 1, 0);
+		service.addFormat("tokens", "text/plain", new SelectiveSerializer() {
+			@Override
+			public Reader serialize(Document document, KnowledgeBase kb) {
+				return new StringReader("tokens="
+						+ document.getTokens().size());
+			}
+
+			@Override
+			public Set<Artifact> getRequiredArtifacts() {
+				return EnumSet.of(Artifact.TOKENS);
+			}
+		});
+		service.addFormat("nquads", "text/x-nquads", new RDFSerializer(
+				"http://scoobie.org/doc", RDFSerializer.Format.NQUADS));
+		InetSocketAddress address = service.start(new InetSocketAddress(
+				"localhost", 0));
+		base = "http://localhost:" + address.getPort();
+	}
+
+	@After
+	public void tearDown() {
+		service.stop(0);
+	}
+
+	private static class Response {
+
+		final int status;
+
+		final String body;
+
+		Response(int status, String body) {
+			this.status = status;
+			this.body = body;
+		}
+	}
+
+	private Response request(String method, String path, String body)
+			throws Exception {
+		HttpURLConnection connection = (HttpURLConnection) new URL(base
+				+ path).openConnection();
+		connection.setRequestMethod(method);
+		if (body != null) {
+			connection.setDoOutput(true);
+			connection.setRequestProperty("Content-Type",
+					"text/plain; charset=utf-8");
+			OutputStream out = connection.getOutputStream();
+			out.write(body.getBytes("UTF-8"));
+			out.close();
+		}
+		int status = connection.getResponseCode();
+		InputStream in = status < 400 ? connection.getInputStream()
+				: connection.getErrorStream();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+			bytes.write(buffer, 0, n);
+		}
+		in.close();
+		return new Response(status, bytes.toString("UTF-8"));
+	}
+
+	@Test
+	public void testExtract() throws Exception {
+		Response response = request("POST", "/extract?uri="
+				+ "http%3A%2F%2Fscoobie.org%2Fdoc", "Anna lives in Berlin.");
+		assertEquals(200, response.status);
+		assertEquals("tokens=5", response.body);
+
+		response = request("POST", "/extract?format=nquads", "Anna lives.");
+		assertEquals(200, response.status);
+		assertEquals("", response.body);
+
+		assertEquals(400, request("POST", "/extract?format=xml", "Anna")
+				.status);
+		assertEquals(405, request("GET", "/extract", null).status);
+
+		response = request("GET", "/metrics", null);
+		assertEquals(200, response.status);
+		assertTrue(response.body, response.body
+				.contains("ExtractionService.extract\tcount=2"));
+		assertTrue(response.body.contains("TextSegmenter"));
+		assertTrue(response.body.contains("throughput="));
+	}
+
+	@Test
+	public void testBackpressure() throws Exception {
+		gate = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<Response> first = executor.submit(new Callable<Response>() {
+			@Override
+			public Response call() throws Exception {
+				return request("POST", "/extract", "Anna lives in Berlin.");
+			}
+		});
+		assertTrue(arrived.await(10, TimeUnit.SECONDS));
+
+		assertEquals(503, request("POST", "/extract", "Anna").status);
+
+		gate.countDown();
+		assertEquals(200, first.get().status);
+		executor.shutdown();
+
+		assertEquals(200, request("POST", "/extract", "Anna").status);
+		assertTrue(request("GET", "/metrics", null).body
+				.contains("ExtractionService.rejected\tcount=1"));
+	}
+
+}
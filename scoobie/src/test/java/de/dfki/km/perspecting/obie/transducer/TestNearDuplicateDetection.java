@@ -0,0 +1,205 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.transducer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import gnu.trove.TIntHashSet;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.connection.ListCursor;
+import de.dfki.km.perspecting.obie.connection.RemoteCursor;
+import de.dfki.km.perspecting.obie.connection.StubKnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.transducer.model.LiteralHashing;
+import de.dfki.km.perspecting.obie.transducer.model.NearDuplicateIndex;
+import de.dfki.km.perspecting.obie.transducer.model.SuffixArray;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.workflow.Pipeline;
+import de.dfki.km.perspecting.obie.workflow.PipelineBuilder;
+
+public class TestNearDuplicateDetection {
+
+	private static final String STORY = "Anna moved from Hamburg to Berlin in 1990 . "
+			+ "She works for a bank in New York City and flies there every month . "
+			+ "Her brother still lives in Hamburg with his family . "
+			+ "Last year they met in Paris for a long weekend . "
+			+ "Both of them like Berlin more than New York .";
+
+	private static final LiteralHashing HASHING = new LiteralHashing(4);
+
+	/**
+	 * Knows the cities of {@link #STORY} as labels (property 3) of
+	 * subjects of type 5.
+	 */
+	private static class CityKnowledgeBase extends StubKnowledgeBase {
+
+		private final List<String> literals = new ArrayList<String>();
+
+		CityKnowledgeBase(String... cities) {
+			literals.add(null);
+			for (String city : cities) {
+				literals.add(city);
+			}
+		}
+
+		@Override
+		public String getURI(int index) throws Exception {
+			return index > 100 && index - 100 < literals.size() ? "http://dbpedia.org/resource/"
+					+ literals.get(index - 100).replace(' ', '_')
+					: null;
+		}
+
+		@Override
+		public RemoteCursor getDatatypePropertyValues(
+				int[] datatypePropertyFilter, SuffixArray suffixArray)
+				throws Exception {
+			TIntHashSet prefixes = new TIntHashSet(suffixArray
+					.getCommonPrefixStrings());
+			List<String> sorted = new ArrayList<String>();
+			for (int l = 1; l < literals.size(); l++) {
+				String lowerCase = literals.get(l).toLowerCase(Locale.US);
+				if (prefixes.contains(HASHING.hash(lowerCase))) {
+					sorted.add(lowerCase + "\t" + l);
+				}
+			}
+			Collections.sort(sorted);
+
+			List<Object[]> rows = new ArrayList<Object[]>();
+			for (String s : sorted) {
+				int l = Integer.parseInt(s.substring(s.indexOf('\t') + 1));
+				rows.add(new Object[] { s.substring(0, s.indexOf('\t')), l, 3,
+						1.0, literals.get(l) });
+			}
+			return new ListCursor(rows);
+		}
+
+		@Override
+		public RemoteCursor getInstanceCandidates(
+				Map<Integer, Set<Integer>> symbols) throws Exception {
+			List<Object[]> rows = new ArrayList<Object[]>();
+			for (int l : symbols.keySet()) {
+				rows.add(new Object[] { 100 + l, 3, l, getURI(100 + l) });
+			}
+			return new ListCursor(rows);
+		}
+
+		@Override
+		public RemoteCursor getRDFTypesForInstances(int[] subjects)
+				throws Exception {
+			List<Object[]> rows = new ArrayList<Object[]>();
+			for (int subject : subjects) {
+				rows.add(new Object[] { subject, 5 });
+			}
+			return new ListCursor(rows);
+		}
+	}
+
+	private final CityKnowledgeBase kb = new CityKnowledgeBase("Hamburg",
+			"Berlin", "Paris", "New York", "New York City");
+
+	private static Pipeline createPipeline(CityKnowledgeBase kb,
+			NearDuplicateIndex index) {
+		SuffixArrayBuilder suffixArrayBuilder = new SuffixArrayBuilder(100,
+				HASHING);
+		suffixArrayBuilder.filterNounPhrases(false);
+		Pipeline pipeline = new PipelineBuilder().wordTokenizer(
+				new WordSegmenter()).suffixArrayBuilder(suffixArrayBuilder)
+				.entityRecognizer(new RDFLiteralSpotting()).subjectResolver(
+						new InstanceRecognition()).build(kb);
+		if (index != null) {
+			pipeline.insert(2, new NearDuplicateDetection(index, 0.5, 1));
+		}
+		return pipeline;
+	}
+
+	private static Document extract(Pipeline pipeline, String text)
+			throws Exception {
+		Document document = pipeline.createDocument(text, new URI(
+				"http://scoobie.org/doc"), null, Language.EN);
+		for (int step = 0; pipeline.hasNext(step);) {
+			step = pipeline.execute(step, document);
+		}
+		return document;
+	}
+
+	/**
+	 * @return the position, text and annotation of every entity, sorted
+	 */
+	private static List<String> describe(
+			List<TokenSequence<SemanticEntity>> entities) {
+		List<String> described = new ArrayList<String>();
+		for (TokenSequence<SemanticEntity> entity : entities) {
+			SemanticEntity value = entity.getValue();
+			described.add(entity.getStart() + " " + entity + " "
+					+ value.getLiteralValueIndex() + " " + value + " "
+					+ value.getSubjectURI());
+		}
+		Collections.sort(described);
+		return described;
+	}
+
+	private void assertWarmStart(String edited) throws Exception {
+		NearDuplicateIndex index = new NearDuplicateIndex(3, 16, 4, 10);
+		Pipeline pipeline = createPipeline(kb, index);
+		extract(pipeline, STORY);
+		Document warm = extract(pipeline, edited);
+		assertTrue(warm.getWarmStart().hasSource());
+		assertTrue(warm.getWarmStart().getReusedCount() > 0);
+
+		Document cold = extract(createPipeline(kb, null), edited);
+		assertTrue(cold.getResolvedSubjects().size() > 0);
+		assertEquals(describe(cold.getRetrievedPropertyValues()),
+				describe(warm.getRetrievedPropertyValues()));
+		assertEquals(describe(cold.getResolvedSubjects()), describe(warm
+				.getResolvedSubjects()));
+		assertEquals(describe(cold.getEntityTypes()), describe(warm
+				.getEntityTypes()));
+	}
+
+	@Test
+	public void testEditBetweenLiterals() throws Exception {
+		assertWarmStart(STORY.replace("Last year they met in Paris",
+				"This spring they met in Paris again"));
+	}
+
+	@Test
+	public void testEditInsideLiteral() throws Exception {
+		// the source literal "New York City" spans more than the margin
+		assertWarmStart(STORY.replace("New York City and",
+				"New York Town and"));
+	}
+}
@@ -0,0 +1,111 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.transducer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+
+public class TestRegularStructuredEntityRecognition {
+
+	private static final String[] PATTERNS = { "\\d{1,2}\\.\\d{1,2}\\.\\d{4}",
+			"\\d+\\.\\d+", "\\d+", "(?i)berlin", "(\\w+) \\1", "[A-Z]\\w*" };
+
+	private static Document createDocument() throws Exception {
+		Document document = new Document(
+				"Anna was born on 12.03.1980 in in Berlin, ISBN 3-12-345678-9, "
+						+ "paid 12.50 EUR for 2 BERLIN maps.", new URI(
+						"http://scoobie.org/doc"), MediaType.TEXT, Language.EN);
+		new WordSegmenter().transduce(document, null);
+		return document;
+	}
+
+	/**
+	 * Matches each pattern on its own, like the recognizer used to do.
+	 */
+	private static List<String> expected(Document document) {
+		List<String> matches = new ArrayList<String>();
+		List<Token> tokens = document.getTokens();
+		for (String regex : PATTERNS) {
+			Matcher m = Pattern.compile(regex).matcher(
+					document.getPlainTextContent());
+			while (m.find()) {
+				for (int i = 0; i < tokens.size(); i++) {
+					if (tokens.get(i).getStart() != m.start()) {
+						continue;
+					}
+					for (int j = i; j < tokens.size()
+							&& tokens.get(j).getEnd() <= m.end(); j++) {
+						if (tokens.get(j).getEnd() == m.end()) {
+							for (int k = i; k <= j; k++) {
+								matches.add(tokens.get(k).getStart() + " "
+										+ (k == i ? "B" : "I") + " " + regex);
+							}
+						}
+					}
+				}
+			}
+		}
+		return matches;
+	}
+
+	@Test
+	public void testMatchesSinglePatterns() throws Exception {
+		Document document = createDocument();
+		new RegularStructuredEntityRecognition(PATTERNS).transduce(document,
+				null);
+
+		List<String> actual = new ArrayList<String>();
+		for (Token token : document.getTokens()) {
+			List<SemanticEntity> matches = document.getData().get(
+					TokenSequence.REGEX, token.getStart());
+			if (matches != null) {
+				for (SemanticEntity match : matches) {
+					actual.add(token.getStart() + " " + match.getPosition()
+							+ " " + match.getRegex());
+				}
+			}
+		}
+
+		List<String> expected = expected(document);
+		assertTrue(expected.size() > 10);
+		assertEquals(expected.size(), actual.size());
+		assertTrue(actual.containsAll(expected));
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.transducer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URI;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+
+public class TestTextSegmenter {
+
+	private static Document createDocument() throws Exception {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			text.append("Dr. Anna Schmidt moved to Berlin in ").append(
+					1900 + i).append(".  Does she like it?\n\nYes!  ");
+		}
+		return new Document(text.toString(), new URI(
+				"http://scoobie.org/doc"), MediaType.TEXT, Language.EN);
+	}
+
+	@Test
+	public void testSameAsSeparateSegmenters() throws Exception {
+		Document expected = createDocument();
+		new WordSegmenter().transduce(expected, null);
+		new SentenceSegmenter().transduce(expected, null);
+
+		Document actual = createDocument();
+		new TextSegmenter().transduce(actual, null);
+
+		List<Token> expectedTokens = expected.getTokens();
+		List<Token> actualTokens = actual.getTokens();
+		assertEquals(expectedTokens.size(), actualTokens.size());
+		for (int i = 0; i < expectedTokens.size(); i++) {
+			Token token = expectedTokens.get(i);
+			assertEquals(token.getStart(), actualTokens.get(i).getStart());
+			assertEquals(token.getEnd(), actualTokens.get(i).getEnd());
+			assertEquals(expected.getData().<Integer> get(
+					TokenSequence.SENTENCE, token.getStart()), actual
+					.getData().<Integer> get(TokenSequence.SENTENCE,
+							token.getStart()));
+		}
+		assertEquals(expected.getSentences().size(), actual.getSentences()
+				.size());
+	}
+
+}
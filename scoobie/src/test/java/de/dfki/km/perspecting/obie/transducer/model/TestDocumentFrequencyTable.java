@@ -0,0 +1,96 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import static org.junit.Assert.assertEquals;
+
+import gnu.trove.TObjectIntHashMap;
+
+import java.io.File;
+
+import org.junit.Test;
+
+public class TestDocumentFrequencyTable {
+
+	@Test
+	public void testLookup() throws Exception {
+		TObjectIntHashMap<String> dfs = new TObjectIntHashMap<String>();
+		dfs.put("Berlin", 3);
+		dfs.put("berlin", 1);
+		dfs.put("Köln", 2);
+		dfs.put("a", 10);
+		dfs.put("ab", 7);
+
+		File file = File.createTempFile("scoobie", ".df");
+		file.deleteOnExit();
+		DocumentFrequencyTable.write(file, dfs, 10);
+
+		DocumentFrequencyTable table = new DocumentFrequencyTable(file);
+		assertEquals(10, table.getNumDocs());
+		assertEquals(5, table.size());
+		assertEquals(3, table.getDocumentFrequency("Berlin"));
+		assertEquals(1, table.getDocumentFrequency("berlin"));
+		assertEquals(2, table.getDocumentFrequency("Köln"));
+		assertEquals(10, table.getDocumentFrequency("a"));
+		assertEquals(7, table.getDocumentFrequency("ab"));
+		assertEquals(0, table.getDocumentFrequency("abc"));
+		assertEquals(0, table.getDocumentFrequency(""));
+		assertEquals(Math.log(10.0 / 4.0), table
+				.getInverseDocumentFrequency("Berlin"), 1e-9);
+		table.close();
+	}
+
+	@Test
+	public void testRewrite() throws Exception {
+		TObjectIntHashMap<String> dfs = new TObjectIntHashMap<String>();
+		dfs.put("Berlin", 3);
+		File file = File.createTempFile("scoobie", ".df");
+		file.deleteOnExit();
+		DocumentFrequencyTable.write(file, dfs, 10);
+		DocumentFrequencyTable old = new DocumentFrequencyTable(file);
+
+		// re-indexing while the old table is still mapped
+		dfs.put("Köln", 2);
+		DocumentFrequencyTable.write(file, dfs, 20);
+		DocumentFrequencyTable table = new DocumentFrequencyTable(file);
+		assertEquals(20, table.getNumDocs());
+		assertEquals(2, table.getDocumentFrequency("Köln"));
+		assertEquals(3, old.getDocumentFrequency("Berlin"));
+		assertEquals(1, old.size());
+		old.close();
+		table.close();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testClose() throws Exception {
+		File file = File.createTempFile("scoobie", ".df");
+		file.deleteOnExit();
+		DocumentFrequencyTable.write(file, new TObjectIntHashMap<String>(), 0);
+
+		DocumentFrequencyTable table = new DocumentFrequencyTable(file);
+		table.close();
+		table.getDocumentFrequency("Berlin");
+	}
+
+}
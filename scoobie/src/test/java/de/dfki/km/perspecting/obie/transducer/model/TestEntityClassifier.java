@@ -0,0 +1,113 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import cc.mallet.classify.Classification;
+import cc.mallet.types.Alphabet;
+
+public class TestEntityClassifier {
+
+	private static EntityClassifier classifier;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		StringBuilder corpus = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			corpus.append(i + " 1 PRE_lives PRE_in IN_Berlin POST_city\n");
+			corpus.append(i + " 2 PRE_met IN_Anna POST_yesterday\n");
+			corpus.append(i + " 3 PRE_works PRE_for IN_Acme POST_Labs\n");
+		}
+		classifier = new EntityClassifier(null);
+		classifier.train(new StringReader(corpus.toString()), null, null);
+	}
+
+	@Test
+	public void testFeatureIndexes() throws Exception {
+		int[] features = classifier.getFeatureIndexes(Arrays.asList(
+				"PRE_lives", "unknown", "PRE_in post_city"));
+		assertEquals(3, features.length);
+		assertEquals(classifier.getClassifier().getAlphabet().lookupIndex(
+				"pre_in"), features[1]);
+		assertEquals(0, classifier.getFeatureIndexes(
+				Arrays.asList("unknown")).length);
+	}
+
+	@Test
+	public void testAlphabetFrozen() throws Exception {
+		Alphabet alphabet = classifier.getClassifier().getAlphabet();
+		assertTrue(alphabet.growthStopped());
+		int size = alphabet.size();
+		classifier.test("0 1 PRE_moved IN_Bob POST_later\n");
+		assertEquals(size, alphabet.size());
+	}
+
+	@Test
+	public void testClassifyMatchesPipe() throws Exception {
+		List<String> example = Arrays.asList("PRE_works", "IN_Anna",
+				"POST_city", "POST_city", "unknown");
+
+		Classification expected = classifier.test("0 1 PRE_works IN_Anna "
+				+ "POST_city POST_city unknown\n").get(0);
+
+		double[] scores = classifier.classify(classifier
+				.getFeatureIndexes(example), new double[classifier
+				.getNumLabels()]);
+
+		for (int l = 0; l < classifier.getNumLabels(); l++) {
+			assertEquals(expected.getLabelVector().value(l), scores[l], 1e-9);
+		}
+	}
+
+	@Test
+	public void testBatch() throws Exception {
+		double[][] scores = classifier.classify(Arrays.asList(classifier
+				.getFeatureIndexes(Arrays.asList("IN_Berlin")), classifier
+				.getFeatureIndexes(Arrays.asList("IN_Acme", "POST_Labs"))));
+
+		assertEquals(2, scores.length);
+		assertEquals("1", classifier.getLabel(best(scores[0])));
+		assertEquals("3", classifier.getLabel(best(scores[1])));
+	}
+
+	private static int best(double[] scores) {
+		int best = 0;
+		for (int l = 1; l < scores.length; l++) {
+			if (scores[l] > scores[best]) {
+				best = l;
+			}
+		}
+		return best;
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import static org.junit.Assert.assertEquals;
+
+import gnu.trove.TLongIntHashMap;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+
+public class TestLanguageProfiles {
+
+	private static final String ENGLISH = "The city council met on Monday to discuss the new budget. "
+			+ "Most of the members agreed that the schools should get more money, "
+			+ "while others wanted to repair the roads and bridges first. "
+			+ "The mayor said that she would present a compromise next week.";
+
+	private static final String GERMAN = "Der Stadtrat hat sich am Montag getroffen, um den neuen Haushalt zu besprechen. "
+			+ "Die meisten Mitglieder waren sich einig, dass die Schulen mehr Geld bekommen sollen, "
+			+ "während andere zuerst die Straßen und Brücken reparieren wollten. "
+			+ "Die Bürgermeisterin sagte, dass sie nächste Woche einen Kompromiss vorstellen werde.";
+
+	private static LanguageProfiles profiles;
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		Map<Language, TLongIntHashMap> counts = new EnumMap<Language, TLongIntHashMap>(
+				Language.class);
+		counts.put(Language.EN, LanguageProfiles.count(ENGLISH));
+		counts.put(Language.DE, LanguageProfiles.count(GERMAN));
+		profiles = new LanguageProfiles(counts);
+	}
+
+	@Test
+	public void testIdentify() {
+		assertEquals(Language.EN, profiles
+				.identify("The members of the council want new schools."));
+		assertEquals(Language.DE, profiles
+				.identify("Die Mitglieder des Rates wollen neue Schulen."));
+		assertEquals(Language.UNKNOWN, profiles.identify("1234 -- 5678"));
+	}
+
+	@Test
+	public void testSample() {
+		StringBuilder text = new StringBuilder(
+				"The members of the council want new schools and roads. ");
+		for (int i = 0; i < 20; i++) {
+			text.append(GERMAN);
+		}
+		assertEquals(Language.EN, profiles.identify(text, 16, text.length(),
+				5));
+		assertEquals(Language.DE, profiles.identify(text, 16, text.length(),
+				Double.POSITIVE_INFINITY));
+		assertEquals(Language.EN, profiles.identify(text, 16, 40,
+				Double.POSITIVE_INFINITY));
+	}
+
+	@Test
+	public void testReadNutchProfile() throws Exception {
+		String ngp = "# NgramProfile generated at Mon Jan 01 00:00:00 2011\n"
+				+ "_th 120\nthe 110\nhe_ 100\n_de 5\n";
+		Map<Language, TLongIntHashMap> counts = new EnumMap<Language, TLongIntHashMap>(
+				Language.class);
+		counts.put(Language.EN, LanguageProfiles
+				.readNutchProfile(new ByteArrayInputStream(ngp
+						.getBytes("UTF-8"))));
+		counts.put(Language.DE, LanguageProfiles
+				.readNutchProfile(new ByteArrayInputStream(
+						"_de 120\nder 110\ner_ 100\n_th 5\n".getBytes("UTF-8"))));
+		assertEquals(4, counts.get(Language.EN).size());
+
+		LanguageProfiles nutch = new LanguageProfiles(counts);
+		assertEquals(Language.EN, nutch.identify("the"));
+		assertEquals(Language.DE, nutch.identify("der"));
+	}
+
+	@Test
+	public void testIdentifyInParallel() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<Language>> results = new ArrayList<Future<Language>>();
+		for (int i = 0; i < 64; i++) {
+			final String text = i % 2 == 0 ? ENGLISH : GERMAN;
+			results.add(executor.submit(new Callable<Language>() {
+				@Override
+				public Language call() {
+					return profiles.identify(text);
+				}
+			}));
+		}
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(i % 2 == 0 ? Language.EN : Language.DE, results.get(i)
+					.get());
+		}
+		executor.shutdown();
+	}
+}
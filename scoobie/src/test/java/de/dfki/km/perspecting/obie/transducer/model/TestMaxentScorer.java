@@ -0,0 +1,158 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestMaxentScorer {
+
+	private static EntityClassifier classifier;
+	private static MaxentScorer scorer;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		StringBuilder corpus = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			corpus.append(i + " 11 PRE_lives PRE_in IN_Berlin POST_city\n");
+			corpus.append(i + " 12 PRE_met IN_Anna POST_yesterday\n");
+			corpus.append(i + " 13 PRE_works PRE_for IN_Acme POST_Labs\n");
+		}
+		classifier = new EntityClassifier(null);
+		classifier.train(new StringReader(corpus.toString()), null, null);
+
+		File file = File.createTempFile("scoobie", ".scorer");
+		file.deleteOnExit();
+		MaxentScorer.write(file, classifier.getClassifier());
+		scorer = new MaxentScorer(file);
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		scorer.close();
+	}
+
+	@Test
+	public void testFeatureIndexes() {
+		assertEquals(classifier.getClassifier().getAlphabet().lookupIndex(
+				"pre_lives", false), scorer.getFeatureIndex("PRE_lives"));
+		assertEquals(-1, scorer.getFeatureIndex("unknown"));
+
+		int[] indexes = new int[8];
+		assertEquals(3, scorer.getFeatureIndexes(Arrays.asList("PRE_lives",
+				"unknown", "PRE_in post_city"), indexes));
+		assertEquals(scorer.getFeatureIndex("pre_in"), indexes[1]);
+		assertEquals(4, MaxentScorer.countFeatures(Arrays.asList(
+				"PRE_lives", " unknown", "PRE_in \tpost_city ")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFeatureBufferTooSmall() {
+		scorer.getFeatureIndexes(Arrays.asList("PRE_lives",
+				"PRE_in post_city"), new int[2]);
+	}
+
+	@Test
+	public void testScoreTop2() {
+		List<String> example = Arrays.asList("PRE_works", "IN_Anna",
+				"POST_city", "POST_city", "unknown");
+
+		double[] scores = classifier.classify(classifier
+				.getFeatureIndexes(example), new double[classifier
+				.getNumLabels()]);
+		double[] sorted = scores.clone();
+		Arrays.sort(sorted);
+
+		int[] indexes = new int[8];
+		long top2 = scorer.scoreTop2(indexes, scorer.getFeatureIndexes(
+				example, indexes));
+
+		int label = MaxentScorer.getLabel(top2);
+		assertEquals(sorted[sorted.length - 1], scores[label], 1e-9);
+		assertEquals(sorted[sorted.length - 1] - sorted[sorted.length - 2],
+				MaxentScorer.getMargin(top2), 1e-5);
+		assertEquals(Integer.parseInt(classifier.getLabel(label).toString()),
+				scorer.getType(label));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testClose() throws Exception {
+		File file = File.createTempFile("scoobie", ".scorer");
+		file.deleteOnExit();
+		MaxentScorer.write(file, classifier.getClassifier());
+
+		MaxentScorer closed = new MaxentScorer(file);
+		closed.close();
+		closed.scoreTop2(new int[0]);
+	}
+
+	@Test
+	public void testChecksum() throws Exception {
+		File file = File.createTempFile("scoobie", ".scorer");
+		file.deleteOnExit();
+		MaxentScorer.write(file, classifier.getClassifier());
+
+		MaxentScorer copy = new MaxentScorer(file);
+		try {
+			assertEquals(scorer.getChecksum(), copy.getChecksum());
+			assertEquals(copy.getChecksum(), copy.getChecksum());
+		} finally {
+			copy.close();
+		}
+	}
+
+	@Test
+	public void testRegistry() throws Exception {
+		File file = File.createTempFile("scoobie", ".scorer");
+		file.deleteOnExit();
+		MaxentScorer.write(file, classifier.getClassifier());
+
+		ModelRegistry registry = new ModelRegistry();
+		MaxentScorer old = registry.loadScorer("en", file);
+		MaxentScorer reloaded = registry.loadScorer("en", file);
+		assertSame(reloaded, registry.getScorer("en"));
+		// a pipeline may still score with the replaced scorer
+		old.scoreTop2(new int[0]);
+
+		registry.close();
+		for (MaxentScorer closed : new MaxentScorer[] { old, reloaded }) {
+			try {
+				closed.scoreTop2(new int[0]);
+				fail();
+			} catch (IllegalStateException e) {
+			}
+		}
+	}
+
+}
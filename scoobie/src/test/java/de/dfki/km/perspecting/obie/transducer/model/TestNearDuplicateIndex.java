@@ -0,0 +1,155 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.transducer.WordSegmenter;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+
+public class TestNearDuplicateIndex {
+
+	private static final String STORY = "Anna moved from Hamburg to Berlin in 1990 . "
+			+ "She works for a bank in New York and flies there every month . "
+			+ "Her brother still lives in Hamburg with his family . "
+			+ "Last year they met in Paris for a long weekend . "
+			+ "Both of them like Berlin more than New York .";
+
+	private static Document createDocument(String text) throws Exception {
+		Document document = new Document(text, new URI(
+				"http://scoobie.org/doc"), Language.EN);
+		new WordSegmenter().transduce(document, null);
+		return document;
+	}
+
+	/**
+	 * Spots cities and resolves them, like RDFLiteralSpotting and
+	 * InstanceRecognition would.
+	 */
+	private static void annotate(Document document) {
+		List<Token> tokens = document.getTokens();
+		for (int i = 0; i < tokens.size(); i++) {
+			String token = tokens.get(i).toString();
+			if (token.equals("Berlin") || token.equals("Hamburg")
+					|| token.equals("Paris")) {
+				int index = token.hashCode() & 0xFFFF;
+				SemanticEntity literal = tokens.get(i).addProperty("B", index,
+						3);
+				SemanticEntity subject = tokens.get(i).addSubject("B",
+						literal, index, "http://dbpedia.org/resource/" + token);
+				tokens.get(i).addTypes(subject, new int[] { 5 }, 1.0);
+			} else if (token.equals("New")) {
+				for (int j = 0; j < 2; j++) {
+					String position = j == 0 ? "B" : "I";
+					SemanticEntity literal = tokens.get(i + j).addProperty(
+							position, 11, 3);
+					SemanticEntity subject = tokens.get(i + j).addSubject(
+							position, literal, 11,
+							"http://dbpedia.org/resource/New_York");
+					tokens.get(i + j).addTypes(subject, new int[] { 5 }, 1.0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testWarmStart() throws Exception {
+		NearDuplicateIndex index = new NearDuplicateIndex(3, 16, 4, 10);
+
+		Document original = createDocument(STORY);
+		WarmStart warmStart = index.lookup(original.getTokens(), 0.5, 2);
+		assertFalse(warmStart.hasSource());
+		annotate(original);
+		warmStart.publish(original);
+		assertEquals(1, index.size());
+
+		String edited = STORY.replace("Last year they met in Paris",
+				"This spring they met in Paris again");
+		Document document = createDocument(edited);
+		warmStart = index.lookup(document.getTokens(), 0.5, 2);
+		assertTrue(warmStart.hasSource());
+		assertTrue(warmStart.getSimilarity() < 1);
+
+		int reused = 0;
+		for (Token token : document.getTokens()) {
+			if (warmStart.isReused(token)) {
+				reused++;
+			}
+			if (token.toString().equals("Paris")) {
+				assertFalse(warmStart.isReused(token));
+			}
+			if (token.toString().equals("Hamburg")) {
+				assertTrue(warmStart.isReused(token));
+			}
+		}
+		assertEquals(reused, warmStart.getReusedCount());
+		assertTrue(reused > document.getTokens().size() / 2);
+
+		warmStart.copyLiterals(document);
+		assertEquals(original.getRetrievedPropertyValues().size() - 1,
+				document.getRetrievedPropertyValues().size());
+		warmStart.copySubjects(document);
+
+		List<TokenSequence<SemanticEntity>> subjects = document
+				.getResolvedSubjects();
+		assertEquals(original.getResolvedSubjects().size() - 1, subjects
+				.size());
+		for (TokenSequence<SemanticEntity> subject : subjects) {
+			assertEquals("http://dbpedia.org/resource/"
+					+ subject.toString().replace(' ', '_'), subject.getValue()
+					.getSubjectURI());
+		}
+		assertEquals(original.getEntityTypes().size() - 1, document
+				.getEntityTypes().size());
+
+		assertFalse(index.lookup(
+				createDocument("The weather will be sunny tomorrow .")
+						.getTokens(), 0.5, 2).hasSource());
+	}
+
+	@Test
+	public void testCapacity() throws Exception {
+		NearDuplicateIndex index = new NearDuplicateIndex(3, 16, 4, 1);
+		Document original = createDocument(STORY);
+		index.lookup(original.getTokens(), 0.5, 2).publish(original);
+		Document other = createDocument("The weather will be sunny tomorrow .");
+		index.lookup(other.getTokens(), 0.5, 2).publish(other);
+
+		assertEquals(1, index.size());
+		assertFalse(index.lookup(original.getTokens(), 0.5, 2).hasSource());
+		assertTrue(index.lookup(other.getTokens(), 0.5, 2).hasSource());
+	}
+}
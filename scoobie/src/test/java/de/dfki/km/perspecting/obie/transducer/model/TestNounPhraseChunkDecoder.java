@@ -0,0 +1,231 @@
+/*
+    Copyright (c) 2011,
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+
+public class TestNounPhraseChunkDecoder {
+
+	private static final String[][] SENTENCES = {
+			{ "The/DT/B-NP", "old/JJ/I-NP", "man/NN/I-NP", "saw/VBD/O",
+					"a/DT/B-NP", "dog/NN/I-NP", "./././O" },
+			{ "Anna/NNP/B-NP", "lives/VBZ/O", "in/IN/O", "Berlin/NNP/B-NP",
+					",/,/O", "the/DT/B-NP", "capital/NN/I-NP", "./././O" },
+			{ "We/PRP/B-NP", "like/VBP/O", "big/JJ/B-NP", "red/JJ/I-NP",
+					"apples/NNS/I-NP", "and/CC/O", "sweet/JJ/B-NP",
+					"pears/NNS/I-NP", "./././O" } };
+
+	private static File crfFile;
+
+	private static File trainFile;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		trainFile = File.createTempFile("npc", ".txt");
+		crfFile = File.createTempFile("npc", ".crf");
+
+		FileWriter writer = new FileWriter(trainFile);
+		for (int i = 0; i < 10; i++) {
+			for (String[] sentence : SENTENCES) {
+				for (String token : sentence) {
+					writer.write(token.replace('/', ' ') + "\n");
+				}
+				writer.write("\n");
+			}
+		}
+		writer.close();
+
+		NounPhraseChunker trainer = new NounPhraseChunker(trainFile
+				.getAbsolutePath(), trainFile.getAbsolutePath(), crfFile
+				.getAbsolutePath(), 3);
+		trainer.init();
+		trainer.train();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		trainFile.delete();
+		crfFile.delete();
+	}
+
+	private static Document createDocument() throws Exception {
+		String[] tokens = { "Anna", "saw", "the", "old", "red", "dog", "in",
+				"Berlin", ",", "the", "big", "capital", "of", "Café",
+				"apples", "." };
+		String[] tags = { "NNP", "VBD", "DT", "JJ", "JJ", "NN", "IN", "NNP",
+				",", "DT", "JJ", "NN", "IN", "NNP", "NNS", "." };
+
+		StringBuilder text = new StringBuilder();
+		for (String token : tokens) {
+			text.append(token).append(' ');
+		}
+		text.append("Berlin is big .");
+
+		Document document = new Document(text.toString(), new URI(
+				"http://scoobie.org/doc"), MediaType.TEXT, Language.EN);
+		int start = 0;
+		for (int i = 0; i < tokens.length; i++) {
+			document.getData().createToken(start,
+					start + tokens[i].length());
+			new Token(start, document).setSentence(0);
+			new Token(start, document).setPOS(tags[i]);
+			start += tokens[i].length() + 1;
+		}
+		String[] second = { "Berlin", "is", "big", "." };
+		String[] secondTags = { "NNP", "VBZ", "JJ", "." };
+		for (int i = 0; i < second.length; i++) {
+			document.getData().createToken(start,
+					start + second[i].length());
+			new Token(start, document).setSentence(1);
+			new Token(start, document).setPOS(secondTags[i]);
+			start += second[i].length() + 1;
+		}
+		return document;
+	}
+
+	@Test
+	public void testChunkMatchesPipe() throws Exception {
+		CRFNounPhraseChunkerModel model = new CRFNounPhraseChunkerModel(
+				crfFile.getAbsolutePath());
+
+		Document expected = createDocument();
+		for (TokenSequence<Integer> sentence : expected.getSentences()) {
+			model.test(sentence);
+		}
+
+		Document actual = createDocument();
+		model.chunk(actual);
+
+		int chunks = 0;
+		for (Token token : expected.getTokens()) {
+			assertEquals(token.toString(), token.getNounPhraseTag(), new Token(
+					token.getStart(), actual).getNounPhraseTag());
+			if (!"O".equals(token.getNounPhraseTag())) {
+				chunks++;
+			}
+		}
+		assertTrue(chunks > 0);
+	}
+
+	@Test
+	public void testDecode() throws Exception {
+		NounPhraseChunkDecoder decoder = new NounPhraseChunker(crfFile
+				.getAbsolutePath()).createDecoder();
+
+		String text = "The old man saw a dog";
+		int[] starts = { 0, 4, 8, 12, 16, 18 };
+		int[] ends = { 3, 7, 11, 15, 17, 21 };
+		String[] tags = { "DT", "JJ", "NN", "VBD", "DT", "NN" };
+
+		int[] labels = decoder.decode(text, starts, ends, tags, 0, 6);
+		assertEquals("B-NP", decoder.getLabel(labels[0]));
+		assertEquals("I-NP", decoder.getLabel(labels[2]));
+		assertEquals("O", decoder.getLabel(labels[3]));
+		assertEquals("B-NP", decoder.getLabel(labels[4]));
+
+		labels = decoder.decode(text, starts, ends, tags, 4, 2);
+		assertEquals("B-NP", decoder.getLabel(labels[0]));
+		assertEquals("I-NP", decoder.getLabel(labels[1]));
+	}
+
+	@Test
+	public void testChunkInParallel() throws Exception {
+		ModelRegistry registry = new ModelRegistry();
+		final CRFNounPhraseChunkerModel model = registry.loadChunker("en",
+				crfFile.getAbsolutePath());
+
+		Document expected = createDocument();
+		model.chunk(expected);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<Document>> results = new ArrayList<Future<Document>>();
+		for (int i = 0; i < 16; i++) {
+			results.add(executor.submit(new Callable<Document>() {
+				@Override
+				public Document call() throws Exception {
+					Document document = createDocument();
+					model.chunk(document);
+					return document;
+				}
+			}));
+		}
+		for (Future<Document> result : results) {
+			Document actual = result.get();
+			for (Token token : expected.getTokens()) {
+				assertEquals(token.getNounPhraseTag(), new Token(token
+						.getStart(), actual).getNounPhraseTag());
+			}
+		}
+		executor.shutdown();
+
+		assertSame(model, registry.getChunker("en"));
+	}
+
+	@Test
+	public void testChunkSentencesInParallel() throws Exception {
+		CRFNounPhraseChunkerModel model = new CRFNounPhraseChunkerModel(
+				crfFile.getAbsolutePath());
+
+		Document expected = createDocument();
+		model.chunk(expected);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		Document actual = createDocument();
+		model.chunk(actual, executor, 1);
+		executor.shutdown();
+
+		for (Token token : expected.getTokens()) {
+			assertEquals(token.getNounPhraseTag(), new Token(token.getStart(),
+					actual).getNounPhraseTag());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownModel() {
+		new ModelRegistry().getChunker("de");
+	}
+
+}
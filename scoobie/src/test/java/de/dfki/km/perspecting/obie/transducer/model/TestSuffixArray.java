@@ -0,0 +1,93 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.transducer.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.connection.ListCursor;
+import de.dfki.km.perspecting.obie.connection.RemoteCursor;
+import de.dfki.km.perspecting.obie.connection.StubKnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.TextPointer;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.transducer.WordSegmenter;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+
+public class TestSuffixArray {
+
+	private final StubKnowledgeBase kb = new StubKnowledgeBase();
+
+	private static List<Token> tokenize(String text) throws Exception {
+		Document document = new Document(text, new URI(
+				"http://scoobie.org/doc"), Language.EN);
+		new WordSegmenter().transduce(document, null);
+		return document.getTokens();
+	}
+
+	@Test
+	public void testSize() throws Exception {
+		SuffixArray suffixes = new SuffixArray(
+				tokenize("Anna moved to Berlin ."), kb, new LiteralHashing(4),
+				100);
+		assertEquals(5, suffixes.size());
+		assertFalse(suffixes.isEmpty());
+
+		List<Token> punctuation = tokenize("... !");
+		suffixes = new SuffixArray(punctuation, kb, new LiteralHashing(4), 100);
+		assertEquals(punctuation.size(), suffixes.size());
+		assertTrue(suffixes.isEmpty());
+	}
+
+	@Test
+	public void testMaxLength() throws Exception {
+		final List<Integer> maxLengths = new ArrayList<Integer>();
+		StubKnowledgeBase kb = new StubKnowledgeBase() {
+			@Override
+			public RemoteCursor dbSort(List<String> list, int maxStringLength)
+					throws Exception {
+				maxLengths.add(maxStringLength);
+				return super.dbSort(list, maxStringLength);
+			}
+		};
+		SuffixArray suffixes = new SuffixArray(
+				tokenize("Anna moved to Berlin ."), kb, new LiteralHashing(4),
+				100);
+		assertEquals(100, (int) maxLengths.get(0));
+
+		List<Object[]> rows = new ArrayList<Object[]>();
+		rows.add(new Object[] { "berlin", 1, 3, 1.0, "Berlin" });
+		List<TextPointer> matches = suffixes.compare(new ListCursor(rows));
+		assertEquals(1, matches.size());
+		assertEquals("Berlin", matches.get(0).toString());
+	}
+}
@@ -0,0 +1,70 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.Token;
+
+/**
+ * Resolves every "Berlin" to the same subject of type 5 and counts its runs.
+ */
+public class BerlinRecognizer extends Transducer {
+
+	private int runs;
+
+	private String setting = "1";
+
+	public int getRuns() {
+		return runs;
+	}
+
+	/**
+	 * Changes the fingerprint, as if the configuration changed.
+	 */
+	public void setSetting(String setting) {
+		this.setting = setting;
+	}
+
+	@Override
+	public String getFingerprint() throws Exception {
+		return super.getFingerprint() + "(" + setting + ")";
+	}
+
+	@Override
+	public void transduce(Document document, KnowledgeBase kb) {
+		runs++;
+		for (Token token : document.getTokens()) {
+			if (token.toString().equals("Berlin")) {
+				SemanticEntity literal = token.addProperty("B", 7, 3);
+				SemanticEntity subject = token.addSubject("B", literal, 42,
+						"http://dbpedia.org/resource/Berlin");
+				token.addType(subject, 5, 0.75);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.transducer.SentenceSegmenter;
+import de.dfki.km.perspecting.obie.transducer.WordSegmenter;
+
+/**
+ * Configures pipelines for tests. Every step that is not set is a
+ * {@link DummyTask}, see {@link Pipeline#configure}.
+ */
+public class PipelineBuilder {
+
+	private final Transducer[] steps = new Transducer[14];
+
+	public PipelineBuilder() {
+		for (int step = 0; step < steps.length; step++) {
+			steps[step] = new DummyTask();
+		}
+	}
+
+	/**
+	 * Sets the {@link WordSegmenter} and {@link SentenceSegmenter}.
+	 */
+	public PipelineBuilder segmenters() {
+		return wordTokenizer(new WordSegmenter()).sentenceTokenizer(
+				new SentenceSegmenter());
+	}
+
+	public PipelineBuilder languageClassification(Transducer transducer) {
+		return set(0, transducer);
+	}
+
+	public PipelineBuilder wordTokenizer(Transducer transducer) {
+		return set(1, transducer);
+	}
+
+	public PipelineBuilder sentenceTokenizer(Transducer transducer) {
+		return set(2, transducer);
+	}
+
+	public PipelineBuilder posTagger(Transducer transducer) {
+		return set(3, transducer);
+	}
+
+	public PipelineBuilder nounPhraseChunker(Transducer transducer) {
+		return set(4, transducer);
+	}
+
+	public PipelineBuilder suffixArrayBuilder(Transducer transducer) {
+		return set(5, transducer);
+	}
+
+	public PipelineBuilder entityRecognizer(Transducer transducer) {
+		return set(6, transducer);
+	}
+
+	public PipelineBuilder regexRecognizer(Transducer transducer) {
+		return set(7, transducer);
+	}
+
+	public PipelineBuilder phraseClassifier(Transducer transducer) {
+		return set(8, transducer);
+	}
+
+	public PipelineBuilder subjectResolver(Transducer transducer) {
+		return set(9, transducer);
+	}
+
+	public PipelineBuilder subjectDisambiguator(Transducer transducer) {
+		return set(10, transducer);
+	}
+
+	public PipelineBuilder factEntailment(Transducer transducer) {
+		return set(11, transducer);
+	}
+
+	public PipelineBuilder relevanceRater(Transducer transducer) {
+		return set(12, transducer);
+	}
+
+	public PipelineBuilder factExtractor(Transducer transducer) {
+		return set(13, transducer);
+	}
+
+	private PipelineBuilder set(int step, Transducer transducer) {
+		steps[step] = transducer;
+		return this;
+	}
+
+	public Pipeline build(KnowledgeBase kb) {
+		return configure(new Pipeline(kb));
+	}
+
+	public Pipeline build(KnowledgeBase kb, Metrics metrics) {
+		return configure(new Pipeline(kb, metrics));
+	}
+
+	private Pipeline configure(Pipeline pipeline) {
+		Transducer[] s = steps;
+		pipeline.configure(s[0], s[1], s[2], s[3], s[4], s[5], s[6], s[7],
+				s[8], s[9], s[10], s[11], s[12], s[13]);
+		return pipeline;
+	}
+
+}
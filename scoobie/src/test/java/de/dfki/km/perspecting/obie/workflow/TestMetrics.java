@@ -0,0 +1,70 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestMetrics {
+
+	@Test
+	public void testHistogram() {
+		LatencyHistogram h = new LatencyHistogram();
+		for (long i = 1; i <= 1000; i++) {
+			h.record(i * 1000);
+		}
+		assertEquals(1000, h.getCount());
+		assertEquals(1000000, h.getMax());
+		assertEquals(500500.0, h.getMean(), 0.0);
+
+		long median = h.getPercentile(0.5);
+		assertTrue(median >= 500000 && median < 500000 * 1.07);
+		long p99 = h.getPercentile(0.99);
+		assertTrue(p99 >= 990000 && p99 <= 1000000);
+	}
+
+	@Test
+	public void testSnapshot() {
+		Metrics metrics = new Metrics();
+		OperationStatistics s = metrics.getStatistics("WordSegmenter");
+		s.record(2000000, 1024);
+		s.error();
+		s.addRows(3);
+
+		OperationStatistics.Snapshot snapshot = metrics.snapshot().get(
+				"WordSegmenter");
+		assertEquals(1, snapshot.getCount());
+		assertEquals(1, snapshot.getErrorCount());
+		assertEquals(1024, snapshot.getAllocatedBytes());
+		assertEquals(3, snapshot.getRows());
+		assertEquals(2.0, snapshot.getMaxMillis(), 0.0);
+
+		metrics.registerMBeans("test");
+		metrics.getStatistics("SentenceSegmenter");
+		metrics.unregisterMBeans();
+	}
+
+}
@@ -0,0 +1,347 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import opennlp.tools.postag.POSTagger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.connection.StubKnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Artifact;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.DoubleMatrix;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.Token;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.postprocessor.ListSerializer;
+import de.dfki.km.perspecting.obie.postprocessor.Serializer;
+import de.dfki.km.perspecting.obie.transducer.EntityClassification;
+import de.dfki.km.perspecting.obie.transducer.EntityDisambiguation;
+import de.dfki.km.perspecting.obie.transducer.FactRecommender;
+import de.dfki.km.perspecting.obie.transducer.InstanceRecognition;
+import de.dfki.km.perspecting.obie.transducer.KnownFactsRetrieval;
+import de.dfki.km.perspecting.obie.transducer.LanguageIdentification;
+import de.dfki.km.perspecting.obie.transducer.POSTagging;
+import de.dfki.km.perspecting.obie.transducer.ProperNameRecognition;
+import de.dfki.km.perspecting.obie.transducer.RDFLiteralSpotting;
+import de.dfki.km.perspecting.obie.transducer.RegularStructuredEntityRecognition;
+import de.dfki.km.perspecting.obie.transducer.RelevanceRating;
+import de.dfki.km.perspecting.obie.transducer.SentenceSegmenter;
+import de.dfki.km.perspecting.obie.transducer.SuffixArrayBuilder;
+import de.dfki.km.perspecting.obie.transducer.WordSegmenter;
+import de.dfki.km.perspecting.obie.transducer.model.CRFNounPhraseChunkerModel;
+import de.dfki.km.perspecting.obie.transducer.model.LanguageProfiles;
+import de.dfki.km.perspecting.obie.transducer.model.LiteralHashing;
+import de.dfki.km.perspecting.obie.transducer.model.MaxentScorer;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.AmbiguityResolver;
+import de.dfki.km.perspecting.obie.transducer.model.disambiguation.DegreeBasedResolver;
+import de.dfki.km.perspecting.obie.transducer.model.rating.DegreeBasedRating;
+import de.dfki.km.perspecting.obie.transducer.model.rating.RatingMetric;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+
+public class TestPipelinePlanner {
+
+	/**
+	 * Counts its runs.
+	 */
+	private static class Step extends Transducer {
+
+		private final Set<Artifact> inputs;
+
+		private final Set<Artifact> outputs;
+
+		int runs;
+
+		Step(Set<Artifact> inputs, Set<Artifact> outputs) {
+			this.inputs = inputs;
+			this.outputs = outputs;
+		}
+
+		@Override
+		public void transduce(Document document, KnowledgeBase kb) {
+			runs++;
+		}
+
+		@Override
+		public Set<Artifact> getInputs() {
+			return inputs;
+		}
+
+		@Override
+		public Set<Artifact> getOutputs() {
+			return outputs;
+		}
+	}
+
+	/**
+	 * Spots every "Berlin".
+	 */
+	private static class BerlinSpotter extends Step {
+
+		BerlinSpotter() {
+			super(EnumSet.of(Artifact.TOKENS), EnumSet.of(Artifact.LITERALS));
+		}
+
+		@Override
+		public void transduce(Document document, KnowledgeBase kb) {
+			super.transduce(document, kb);
+			for (Token token : document.getTokens()) {
+				if (token.toString().equals("Berlin")) {
+					token.addProperty("B", 7, 3);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Resolves every spotted literal.
+	 */
+	private static class BerlinResolver extends Step {
+
+		BerlinResolver() {
+			super(EnumSet.of(Artifact.LITERALS), EnumSet.of(Artifact.SUBJECTS));
+		}
+
+		@Override
+		public void transduce(Document document, KnowledgeBase kb) {
+			super.transduce(document, kb);
+			for (Token token : document.getTokens()) {
+				if (token.toString().equals("Berlin")) {
+					List<SemanticEntity> literals = document.getData().get(
+							TokenSequence.PROPERTY, token.getStart());
+					token.addSubject("B", literals.get(0), 42,
+							"http://dbpedia.org/resource/Berlin");
+				}
+			}
+		}
+	}
+
+	private static class Classifier extends Step {
+
+		Classifier() {
+			super(EnumSet.of(Artifact.NOUN_PHRASES), EnumSet
+					.of(Artifact.PREDICTIONS));
+		}
+	}
+
+	private static class Rater extends Step {
+
+		Rater() {
+			super(EnumSet.of(Artifact.SUBJECTS), EnumSet.of(Artifact.RELEVANCE));
+		}
+
+		@Override
+		public void transduce(Document document, KnowledgeBase kb) {
+			super.transduce(document, kb);
+			DoubleMatrix scores = new DoubleMatrix();
+			scores.add(0, 42, 1);
+			document.setRelevanceScores(scores);
+		}
+	}
+
+	private Pipeline pipeline;
+
+	private BerlinSpotter spotter;
+
+	private BerlinResolver resolver;
+
+	private Classifier classifier;
+
+	private Rater rater;
+
+	private PipelinePlanner planner;
+
+	@Before
+	public void setUp() throws Exception {
+		spotter = new BerlinSpotter();
+		resolver = new BerlinResolver();
+		classifier = new Classifier();
+		rater = new Rater();
+		Set<Artifact> none = EnumSet.noneOf(Artifact.class);
+
+		pipeline = new Pipeline(new StubKnowledgeBase());
+		pipeline.configure(new DummyTask(), new WordSegmenter(),
+				new SentenceSegmenter(), new Step(none, none), new Step(none,
+						none), new Step(none, none), spotter, new Step(none,
+						none), classifier, resolver, new Step(none, none),
+				new Step(none, none), new Step(none, none), rater);
+		planner = new PipelinePlanner(pipeline);
+	}
+
+	private Document createDocument(String text, String template)
+			throws Exception {
+		return pipeline.createDocument(text, new URI("http://scoobie.org/doc"),
+				template, Language.EN);
+	}
+
+	@Test
+	public void testPlan() {
+		boolean[] plan = planner.plan(EnumSet.of(Artifact.RELEVANCE));
+		assertEquals(14, plan.length);
+		assertTrue(plan[0]);
+		assertTrue(plan[1]);
+		assertFalse(plan[2]);
+		assertFalse(plan[3]);
+		assertTrue(plan[6]);
+		assertFalse(plan[8]);
+		assertTrue(plan[9]);
+		assertTrue(plan[13]);
+
+		plan = planner.plan(EnumSet.of(Artifact.PREDICTIONS));
+		assertFalse(plan[1]);
+		assertFalse(plan[6]);
+		assertTrue(plan[8]);
+		assertFalse(plan[13]);
+	}
+
+	@Test
+	public void testExecute() throws Exception {
+		ListSerializer serializer = new ListSerializer(0);
+
+		Document document = createDocument("Anna moved to Berlin.", null);
+		planner.execute(document, serializer);
+		assertEquals(1, spotter.runs);
+		assertEquals(1, resolver.runs);
+		assertEquals(1, rater.runs);
+		assertEquals(0, classifier.runs);
+		assertEquals(1, pipeline.getMetrics().getStatistics(
+				"SentenceSegmenter.skipped").getCount());
+		assertEquals(0, pipeline.getMetrics().getStatistics(
+				"SentenceSegmenter").getCount());
+
+		document = createDocument("Anna moved to Hamburg.", null);
+		planner.execute(document, serializer);
+		assertEquals(2, spotter.runs);
+		assertEquals(1, resolver.runs);
+		assertEquals(1, rater.runs);
+		assertEquals(1, pipeline.getMetrics().getStatistics(
+				"BerlinResolver.skipped").getCount());
+		assertEquals(1, pipeline.getMetrics().getStatistics(
+				"Rater.skipped").getCount());
+		assertEquals("", read(serializer, document));
+	}
+
+	@Test
+	public void testTemplate() throws Exception {
+		Document document = createDocument("Anna moved to Berlin.",
+				"SELECT ?s ?o WHERE { GRAPH <http://scoobie.org/doc#predicted> { ?s ?p ?o } }");
+		assertEquals(EnumSet.of(Artifact.PREDICTIONS), document
+				.getFilterContext().getQueriedArtifacts());
+		assertEquals(EnumSet.of(Artifact.PREDICTIONS, Artifact.RELEVANCE),
+				PipelinePlanner.getRequestedArtifacts(document,
+						new ListSerializer(0)));
+
+		planner.execute(document, new ListSerializer(0));
+		assertEquals(0, classifier.runs);
+		assertEquals(1, pipeline.getMetrics().getStatistics(
+				"Classifier.skipped").getCount());
+		assertEquals(1, rater.runs);
+
+		document = createDocument("Anna moved to Berlin.",
+				"SELECT ?s ?o WHERE { GRAPH <http://scoobie.org/doc#recognized> { ?s ?p ?o } }");
+		assertEquals(EnumSet.of(Artifact.LITERALS, Artifact.SUBJECTS,
+				Artifact.TYPES), document.getFilterContext()
+				.getQueriedArtifacts());
+	}
+
+	@Test
+	public void testConfiguredPipeline() throws Exception {
+		Pipeline configured = new PipelineBuilder()
+				.languageClassification(
+						new LanguageIdentification((LanguageProfiles) null,
+								Language.EN))
+				.segmenters()
+				.posTagger(new POSTagging((POSTagger) null))
+				.nounPhraseChunker(
+						new ProperNameRecognition(
+								(CRFNounPhraseChunkerModel) null))
+				.suffixArrayBuilder(
+						new SuffixArrayBuilder(100, new LiteralHashing(4)))
+				.entityRecognizer(new RDFLiteralSpotting())
+				.regexRecognizer(
+						new RegularStructuredEntityRecognition(new String[0]))
+				.phraseClassifier(
+						new EntityClassification(0.5, (MaxentScorer) null))
+				.subjectResolver(new InstanceRecognition())
+				.subjectDisambiguator(
+						new EntityDisambiguation(new AmbiguityResolver[] {
+								new DegreeBasedResolver() }))
+				.factEntailment(new KnownFactsRetrieval())
+				.relevanceRater(
+						new RelevanceRating(
+								new RatingMetric[] { new DegreeBasedRating() }))
+				.factExtractor(new FactRecommender()).build(
+						new StubKnowledgeBase());
+
+		// graph based ratings need the facts, but no predictions
+		List<Class<?>> unneeded = Arrays.<Class<?>> asList(
+				RegularStructuredEntityRecognition.class,
+				EntityClassification.class, FactRecommender.class);
+		boolean[] plan = new PipelinePlanner(configured).plan(EnumSet
+				.of(Artifact.RELEVANCE));
+		for (int step = 0; step < plan.length; step++) {
+			Class<?> type = configured.getTranducer(step).getClass();
+			assertEquals(type.getSimpleName(), !unneeded.contains(type),
+					plan[step]);
+		}
+	}
+
+	@Test
+	public void testUnselectiveSerializer() throws Exception {
+		Document document = createDocument("Anna moved to Berlin.", null);
+		assertEquals(EnumSet.allOf(Artifact.class), PipelinePlanner
+				.getRequestedArtifacts(document, new Serializer() {
+					@Override
+					public Reader serialize(Document document, KnowledgeBase kb) {
+						return new StringReader("");
+					}
+				}));
+	}
+
+	private static String read(ListSerializer serializer, Document document)
+			throws Exception {
+		StringBuilder b = new StringBuilder();
+		Reader reader = serializer.serialize(document, null);
+		for (int c = reader.read(); c >= 0; c = reader.read()) {
+			b.append((char) c);
+		}
+		return b.toString();
+	}
+
+}
@@ -0,0 +1,230 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.connection.StubKnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.DoubleMatrix;
+import de.dfki.km.perspecting.obie.model.RDFEdge;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+import de.dfki.km.perspecting.obie.vocabulary.MediaType;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+
+public class TestResultCache {
+
+	/**
+	 * Also predicts a relation and rates the subject.
+	 */
+	private static class BerlinPredictor extends BerlinRecognizer {
+		@Override
+		public void transduce(Document document, KnowledgeBase kb) {
+			super.transduce(document, kb);
+			DirectedSparseGraph<Integer, RDFEdge> graph = new DirectedSparseGraph<Integer, RDFEdge>();
+			DoubleMatrix scores = new DoubleMatrix();
+			if (!document.getResolvedSubjects().isEmpty()) {
+				graph.addEdge(new RDFEdge(9, 0.5), 42, 11);
+				scores.add(0, 42, 0.25);
+			}
+			document.setPredictionGraph(graph);
+			document.setRelevanceScores(scores);
+		}
+	}
+
+	private File directory;
+
+	private BerlinPredictor recognizer;
+
+	private Pipeline pipeline;
+
+	@Before
+	public void setUp() throws Exception {
+		directory = File.createTempFile("cache", "");
+		directory.delete();
+
+		recognizer = new BerlinPredictor();
+		pipeline = new PipelineBuilder().segmenters().entityRecognizer(
+				recognizer).build(new StubKnowledgeBase());
+	}
+
+	@After
+	public void tearDown() {
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	private Document createDocument(String text, int i) throws Exception {
+		return pipeline.createDocument(text, new URI("http://scoobie.org/doc"
+				+ i), null, Language.EN);
+	}
+
+	@Test
+	public void testHit() throws Exception {
+		String text = "Anna moved to Berlin. She likes Berlin a lot.";
+		ResultCache cache = new ResultCache(directory, 1 << 20, 1 << 16, 4,
+				"1");
+
+		Document expected = createDocument(text, 0);
+		assertFalse(cache.execute(pipeline, expected));
+		assertEquals(1, recognizer.getRuns());
+
+		Document actual = createDocument(text, 1);
+		assertTrue(cache.execute(pipeline, actual));
+		assertEquals(1, recognizer.getRuns());
+		assertAnnotations(expected, actual);
+		cache.close();
+
+		cache = new ResultCache(directory, 1 << 20, 1 << 16, 0, "1");
+		assertEquals(1, cache.size());
+		actual = createDocument(text, 2);
+		assertTrue(cache.execute(pipeline, actual));
+		assertAnnotations(expected, actual);
+		assertEquals(1, recognizer.getRuns());
+
+		assertFalse(cache.execute(pipeline, createDocument(text + " ", 3)));
+		assertEquals(2, recognizer.getRuns());
+		cache.close();
+
+		cache = new ResultCache(directory, 1 << 20, 1 << 16, 0, "2");
+		assertFalse(cache.execute(pipeline, createDocument(text, 4)));
+		assertEquals(3, recognizer.getRuns());
+		cache.close();
+
+		assertEquals(2, pipeline.getMetrics().getStatistics("ResultCache.hit")
+				.getCount());
+	}
+
+	private void assertAnnotations(Document expected, Document actual) {
+		assertEquals(expected.getLanguage(), actual.getLanguage());
+		assertEquals(expected.getTokens().size(), actual.getTokens().size());
+		List<TokenSequence<SemanticEntity>> subjects = actual
+				.getResolvedSubjects();
+		assertEquals(2, subjects.size());
+		assertEquals("Berlin", subjects.get(1).toString());
+		SemanticEntity subject = subjects.get(1).getValue();
+		assertEquals(42, subject.getSubjectIndex());
+		assertEquals(7, subject.getLiteralValueIndex());
+		assertEquals("http://dbpedia.org/resource/Berlin", subject
+				.getSubjectURI());
+		assertEquals(expected.getData().<Integer> get(TokenSequence.SENTENCE,
+				subjects.get(1).getStart()), actual.getData().<Integer> get(
+				TokenSequence.SENTENCE, subjects.get(1).getStart()));
+
+		assertEquals(1, actual.getPredictionGraph().getEdgeCount());
+		RDFEdge edge = actual.getPredictionGraph().getEdges().iterator()
+				.next();
+		assertEquals(9, edge.getPredicate());
+		assertEquals(Integer.valueOf(11), actual.getPredictionGraph()
+				.getDest(edge));
+		assertEquals(0.25, actual.getRelevanceScores().get(0, 42), 0);
+	}
+
+	@Test
+	public void testKey() throws Exception {
+		String text = "Anna moved to Berlin.";
+		ResultCache cache = new ResultCache(directory, 1 << 20, 1 << 16, 0,
+				"1");
+		byte[] key = cache.getKey(pipeline, createDocument(text, 0));
+		assertTrue(Arrays.equals(key, cache.getKey(pipeline, createDocument(
+				text, 1))));
+
+		Document german = createDocument(text, 2);
+		german.setLanguage(Language.DE);
+		assertFalse(Arrays.equals(key, cache.getKey(pipeline, german)));
+
+		Document html = pipeline.createDocument(text, new URI(
+				"http://scoobie.org/doc3"), MediaType.HTML, null, Language.EN);
+		assertEquals(text, html.getPlainText().toString());
+		assertFalse(Arrays.equals(key, cache.getKey(pipeline, html)));
+
+		recognizer.setSetting("2");
+		assertFalse(Arrays.equals(key, cache.getKey(pipeline, createDocument(
+				text, 4))));
+		cache.close();
+	}
+
+	@Test
+	public void testLongString() throws Exception {
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < 40000; i++) {
+			value.append('\u00e4');
+		}
+		SemanticEntity entity = new SemanticEntity();
+		entity.setSubjectURI("http://scoobie.org/" + value);
+
+		Document expected = createDocument("Anna moved to Berlin.", 0);
+		expected.getData().add("long", 0, value.toString());
+		expected.getData().add("entities", 0, Arrays.asList(entity));
+
+		ResultCache cache = new ResultCache(directory, 1 << 20, 1 << 18, 0,
+				"1");
+		byte[] key = cache.getKey(pipeline, expected);
+		cache.put(key, AnnotationCodec.encode(expected));
+		Document actual = createDocument("Anna moved to Berlin.", 1);
+		AnnotationCodec.decode(cache.get(key), actual);
+		cache.close();
+		assertEquals(value.toString(), actual.getData().get("long", 0));
+		assertEquals(entity.getSubjectURI(), actual.getData()
+				.<List<SemanticEntity>> get("entities", 0).get(0)
+				.getSubjectURI());
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		ResultCache cache = new ResultCache(directory, 3 << 14, 1 << 14, 0,
+				"1");
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 10; i++) {
+			text.append("Anna moved to Berlin in " + (1900 + i) + ". ");
+		}
+		String used = text.toString();
+		assertFalse(cache.execute(pipeline, createDocument(used, 0)));
+		for (int i = 1; i < 100; i++) {
+			assertFalse(cache.execute(pipeline, createDocument(used + i, i)));
+			assertTrue(cache.execute(pipeline, createDocument(used, i)));
+		}
+		assertEquals(100, recognizer.getRuns());
+		assertEquals(3, directory.listFiles().length);
+		assertTrue(cache.size() < 100);
+		cache.close();
+	}
+}
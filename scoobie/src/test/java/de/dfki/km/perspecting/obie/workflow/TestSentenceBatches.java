@@ -0,0 +1,131 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestSentenceBatches {
+
+	private static ExecutorService executor;
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		executor = Executors.newFixedThreadPool(3);
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void testProcess() throws Exception {
+		final int[] batches = new int[103];
+		SentenceBatches.process(executor, batches.length, 10,
+				new SentenceBatches.Batch() {
+					@Override
+					public void process(int from, int to) {
+						for (int s = from; s < to; s++) {
+							batches[s] = from / 10 + 1;
+						}
+					}
+				});
+
+		for (int s = 0; s < batches.length; s++) {
+			assertEquals(s / 10 + 1, batches[s]);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyBatches() throws Exception {
+		SentenceBatches.process(executor, 50, 0, new SentenceBatches.Batch() {
+			@Override
+			public void process(int from, int to) {
+			}
+		});
+	}
+
+	/**
+	 * Every thread of the pool processes a document whose batches go to the
+	 * same pool.
+	 */
+	@Test(timeout = 10000)
+	public void testNested() throws Exception {
+		final int[][] batches = new int[3][103];
+		List<Future<Void>> documents = new ArrayList<Future<Void>>();
+		for (int d = 0; d < batches.length; d++) {
+			final int[] document = batches[d];
+			documents.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					SentenceBatches.process(executor, document.length, 10,
+							new SentenceBatches.Batch() {
+								@Override
+								public void process(int from, int to)
+										throws InterruptedException {
+									Thread.sleep(5);
+									for (int s = from; s < to; s++) {
+										document[s]++;
+									}
+								}
+							});
+					return null;
+				}
+			}));
+		}
+		for (Future<Void> document : documents) {
+			document.get();
+		}
+		for (int[] document : batches) {
+			for (int s = 0; s < document.length; s++) {
+				assertEquals(1, document[s]);
+			}
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testException() throws Exception {
+		SentenceBatches.process(executor, 50, 10, new SentenceBatches.Batch() {
+			@Override
+			public void process(int from, int to) throws IOException {
+				if (from == 30) {
+					throw new IOException();
+				}
+			}
+		});
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+    Copyright (c) 2011, 
+    Benjamin Adrian <benjamin.horak@gmail.com>
+    German Research Center for Artificial Intelligence (DFKI) <info@dfki.de>
+    
+    All rights reserved.
+
+    This file is part of SCOOBIE.
+
+    SCOOBIE is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SCOOBIE is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SCOOBIE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.dfki.km.perspecting.obie.workflow;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.dfki.km.perspecting.obie.connection.KnowledgeBase;
+import de.dfki.km.perspecting.obie.connection.StubKnowledgeBase;
+import de.dfki.km.perspecting.obie.model.Document;
+import de.dfki.km.perspecting.obie.model.SemanticEntity;
+import de.dfki.km.perspecting.obie.model.TokenSequence;
+import de.dfki.km.perspecting.obie.vocabulary.Language;
+
+public class TestWindowedExtraction {
+
+	@Test
+	public void testExtract() throws Exception {
+		extract(2);
+	}
+
+	@Test
+	public void testLargeOverlap() throws Exception {
+		// more sentences than a window of 200 characters holds
+		extract(20);
+	}
+
+	private void extract(int overlap) throws Exception {
+		StringBuilder text = new StringBuilder();
+		int expected = 0;
+		for (int i = 0; i < 40; i++) {
+			if (i % 3 == 0) {
+				text.append("Anna moved to Berlin in " + (1900 + i) + ". ");
+				expected++;
+			} else {
+				text.append("She likes the city. ");
+			}
+		}
+
+		final int[] globalSubjects = new int[1];
+		Pipeline pipeline = new PipelineBuilder().segmenters()
+				.entityRecognizer(new BerlinRecognizer())
+				.subjectDisambiguator(new Transducer() {
+					@Override
+					public void transduce(Document document, KnowledgeBase kb) {
+						globalSubjects[0] = document.getResolvedSubjects()
+								.size();
+					}
+				}).build(new StubKnowledgeBase());
+
+		final List<Integer> literals = new ArrayList<Integer>();
+		final List<Integer> subjects = new ArrayList<Integer>();
+		final String content = text.toString();
+		WindowedExtraction extraction = new WindowedExtraction(pipeline, 10,
+				200, overlap);
+		Document document = extraction.extract(content, new URI(
+				"http://scoobie.org/doc"), null, Language.EN,
+				new WindowedExtraction.Listener() {
+					@Override
+					public void literal(int start, int end,
+							SemanticEntity literal) {
+						assertEquals("Berlin", content.substring(start, end));
+						literals.add(start);
+					}
+
+					@Override
+					public void subject(int start, int end,
+							SemanticEntity subject) {
+						assertEquals(42, subject.getSubjectIndex());
+						subjects.add(start);
+					}
+				});
+
+		assertEquals(expected, literals.size());
+		assertEquals(literals, subjects);
+		assertEquals(expected, globalSubjects[0]);
+
+		List<TokenSequence<SemanticEntity>> candidates = document
+				.getResolvedSubjects();
+		assertEquals(expected, candidates.size());
+		for (int i = 0; i < expected; i++) {
+			TokenSequence<SemanticEntity> candidate = candidates.get(i);
+			assertEquals("Berlin", candidate.toString());
+			assertEquals(literals.get(i).intValue(), candidate.getStart());
+			assertEquals(Integer.valueOf(i * 3), document.getData()
+					.<Integer> get(TokenSequence.SENTENCE, candidate.getStart()));
+		}
+		assertEquals(expected, document.getTokens().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWindowLength() {
+		new WindowedExtraction(null, 8, 0, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOverlap() {
+		new WindowedExtraction(null, 8, 100, -1);
+	}
+
+}